@@ -0,0 +1,10 @@
+#!/usr/bin/env sh
+# Starts the fast-start build made by: mvn -Pfast-start package
+# Uses the AOT-generated bean definitions and the class-data-sharing archive from the
+# training run. Extra arguments are passed on to the application, for example
+# --spring.datasource.url=...
+set -e
+cd "$(dirname "$0")/../target/fast-start"
+exec java -XX:SharedArchiveFile=quizzer.jsa -Xshare:auto \
+  -Dspring.aot.enabled=true -Dspring.profiles.active=fast-start \
+  -jar quizzer-*-fast-start.jar "$@"
@@ -0,0 +1,51 @@
+#!/usr/bin/env sh
+# Measures the time from starting the application to its first successful request, for the
+# regular executable jar and for the fast-start build. Build both first:
+#   mvn package && mvn -Pfast-start package
+# Usage: scripts/startup-benchmark.sh [runs]
+# Each mode is started the given amount of times (default 5) on a fresh in-memory database,
+# and the median and best times are reported. Set BENCHMARK_ARGS to run against another
+# database instead, and BENCHMARK_PORT if port 8080 is taken.
+set -e
+cd "$(dirname "$0")/.."
+RUNS="${1:-5}"
+PORT="${BENCHMARK_PORT:-8080}"
+URL="http://localhost:$PORT/api/quizzes/categories"
+JAR="$(ls target/quizzer-*.jar | grep -v fast-start | head -n 1)"
+ARGS="${BENCHMARK_ARGS:---spring.datasource.url=jdbc:h2:mem:benchmark;MODE=MySql;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH --spring.datasource.driver-class-name=org.h2.Driver --spring.datasource.username=sa --spring.datasource.password= --spring.docker.compose.enabled=false}"
+
+now_ms() {
+  date +%s%3N
+}
+
+measure() {
+  mode="$1"
+  shift
+  times=""
+  run=1
+  while [ "$run" -le "$RUNS" ]; do
+    start=$(now_ms)
+    "$@" --server.port="$PORT" $ARGS > "target/startup-$mode.log" 2>&1 &
+    pid=$!
+    until curl -sf -o /dev/null "$URL"; do
+      if ! kill -0 "$pid" 2> /dev/null; then
+        echo "$mode: the application exited, see target/startup-$mode.log" >&2
+        exit 1
+      fi
+      sleep 0.02
+    done
+    elapsed=$(( $(now_ms) - start ))
+    kill "$pid"
+    wait "$pid" 2> /dev/null || true
+    times="$times $elapsed"
+    run=$((run + 1))
+  done
+  sorted=$(echo "$times" | tr ' ' '\n' | grep . | sort -n)
+  median=$(echo "$sorted" | sed -n "$(( (RUNS + 1) / 2 ))p")
+  best=$(echo "$sorted" | head -n 1)
+  printf '%-12s first successful request after %6s ms (median), %6s ms (best) of %s runs\n' \
+    "$mode" "$median" "$best" "$RUNS"
+}
+
+measure regular java -jar "$JAR"
+measure fast-start scripts/fast-start.sh
@@ -0,0 +1,221 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.acl;
+
+import edu.ntnu.fullstack.prosjekt.quizzer.cache.BoundedCache;
+import edu.ntnu.fullstack.prosjekt.quizzer.datasource.PrimaryReads;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.entities.QuizEntity;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.entities.UserEntity;
+import edu.ntnu.fullstack.prosjekt.quizzer.enums.QuizRole;
+import jakarta.persistence.EntityManager;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import org.hibernate.Session;
+import org.hibernate.query.NativeQuery;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Knows who may change each quiz. The roles of a quiz are read from the quiz_permissions table
+ * through its primary key, and cached as an immutable map from username to role, so
+ * authorizing an edit or a delete is one map lookup that never reads the quiz itself.
+ * The roles are read from the primary, as a replica may not have the latest change yet.
+ * The roles are written in the transaction that changes the quiz, and its cached roles are
+ * forgotten again once that transaction commits. Roles read while a quiz was changing are not
+ * cached, so a removed collaborator never keeps access through a stale map. Other nodes are not
+ * told about the change, so cached roles expire after a short time to live, which bounds how
+ * long a removed collaborator keeps access there.
+ */
+@Component
+public class QuizPermissions {
+
+  private final BoundedCache<Long, Map<String, QuizRole>> roles;
+
+  /**
+   * Counts the changes to any quiz, to tell whether roles were changed while they were read.
+   */
+  private final AtomicLong changes = new AtomicLong();
+
+  /**
+   * Used for Dependency Injection.
+   */
+  private final EntityManager entityManager;
+
+  private final PrimaryReads primaryReads;
+
+  /**
+   * Used for Dependency Injection.
+   *
+   * @param entityManager The injected EntityManager object.
+   * @param primaryReads  The injected PrimaryReads object, which the roles are read through.
+   * @param maxSize       Maximum amount of quizzes whose roles are cached.
+   * @param timeToLive    How long the roles of a quiz are cached.
+   */
+  public QuizPermissions(EntityManager entityManager, PrimaryReads primaryReads,
+                         @Value("${quizzer.cache.quiz-permissions.max-size:10000}") int maxSize,
+                         @Value("${quizzer.cache.quiz-permissions.time-to-live:10s}") Duration timeToLive) {
+    this.entityManager = entityManager;
+    this.primaryReads = primaryReads;
+    this.roles = new BoundedCache<>(maxSize, timeToLive);
+  }
+
+  /**
+   * Checks whether a user may edit a quiz. Owners and collaborators may.
+   *
+   * @param quizId   The id of the quiz.
+   * @param username The user.
+   * @return True if the user may edit the quiz.
+   */
+  public boolean canEdit(Long quizId, String username) {
+    return role(quizId, username) != null;
+  }
+
+  /**
+   * Checks whether a user may delete a quiz. Owners and collaborators may.
+   *
+   * @param quizId   The id of the quiz.
+   * @param username The user.
+   * @return True if the user may delete the quiz.
+   */
+  public boolean canDelete(Long quizId, String username) {
+    return role(quizId, username) != null;
+  }
+
+  /**
+   * Finds the role of a user on a quiz.
+   *
+   * @param quizId   The id of the quiz.
+   * @param username The user.
+   * @return The role, or null if the user has none, or the quiz does not exist.
+   */
+  public QuizRole role(Long quizId, String username) {
+    if (quizId == null || username == null) {
+      return null;
+    }
+    return roles(quizId).get(username);
+  }
+
+  /**
+   * Finds the roles of every user on a quiz, reading them from the primary if they are not cached.
+   *
+   * @param quizId The id of the quiz.
+   * @return The roles by username, empty if the quiz does not exist.
+   */
+  public Map<String, QuizRole> roles(Long quizId) {
+    Map<String, QuizRole> known = roles.get(quizId);
+    if (known != null) {
+      return known;
+    }
+    long changesBefore = changes.get();
+    List<Object[]> rows = primaryReads.read(() -> entityManager.unwrap(Session.class)
+            .createNativeQuery("SELECT username, role FROM quiz_permissions WHERE quiz_id = :quizId", Object[].class)
+            .setParameter("quizId", quizId)
+            .getResultList());
+    Map<String, QuizRole> loaded = new HashMap<>();
+    for (Object[] row : rows) {
+      loaded.put((String) row[0], QuizRole.valueOf((String) row[1]));
+    }
+    loaded = Map.copyOf(loaded);
+    if (changes.get() != changesBefore) {
+      return loaded;
+    }
+    Map<String, QuizRole> cached = roles.putIfAbsent(quizId, loaded);
+    if (changes.get() != changesBefore) {
+      // The quiz changed while the roles were put, which may have been after it was evicted.
+      roles.remove(quizId);
+    }
+    return cached;
+  }
+
+  /**
+   * Replaces the roles on a quiz with its owner and collaborators, in the current transaction.
+   * An owner who is also listed as a collaborator keeps the owner role.
+   *
+   * @param quizEntity The saved quiz.
+   */
+  public void grant(QuizEntity quizEntity) {
+    Map<String, QuizRole> granted = new LinkedHashMap<>();
+    if (quizEntity.getCollaborators() != null) {
+      for (UserEntity collaborator : quizEntity.getCollaborators()) {
+        granted.put(collaborator.getUsername(), QuizRole.COLLABORATOR);
+      }
+    }
+    if (quizEntity.getOwner() != null) {
+      granted.put(quizEntity.getOwner().getUsername(), QuizRole.OWNER);
+    }
+    deleteRows(quizEntity.getQuizId());
+    insertRows(quizEntity.getQuizId(), granted);
+    evict(quizEntity.getQuizId());
+  }
+
+  /**
+   * Makes a user the owner of a new quiz, which has no roles yet, in the current transaction.
+   *
+   * @param quizId   The id of the new quiz.
+   * @param username The owner.
+   */
+  public void grantOwner(Long quizId, String username) {
+    insertRows(quizId, Map.of(username, QuizRole.OWNER));
+    evict(quizId);
+  }
+
+  /**
+   * Removes every role on a quiz that is deleted, in the current transaction.
+   *
+   * @param quizId The id of the quiz.
+   */
+  public void revoke(Long quizId) {
+    deleteRows(quizId);
+    evict(quizId);
+  }
+
+  private void insertRows(Long quizId, Map<String, QuizRole> granted) {
+    if (granted.isEmpty()) {
+      return;
+    }
+    StringBuilder sql = new StringBuilder("INSERT INTO quiz_permissions (quiz_id, username, role) VALUES ");
+    for (int i = 0; i < granted.size(); i++) {
+      sql.append(i == 0 ? "" : ", ").append("(:quizId, :username").append(i).append(", :role").append(i).append(")");
+    }
+    NativeQuery<?> insert = entityManager.createNativeQuery(sql.toString())
+            .unwrap(NativeQuery.class)
+            .addSynchronizedQuerySpace("quiz_permissions")
+            .setParameter("quizId", quizId);
+    int i = 0;
+    for (Map.Entry<String, QuizRole> role : granted.entrySet()) {
+      insert.setParameter("username" + i, role.getKey());
+      insert.setParameter("role" + i, role.getValue().name());
+      i++;
+    }
+    insert.executeUpdate();
+  }
+
+  private void deleteRows(Long quizId) {
+    entityManager.createNativeQuery("DELETE FROM quiz_permissions WHERE quiz_id = :quizId")
+            .unwrap(NativeQuery.class)
+            .addSynchronizedQuerySpace("quiz_permissions")
+            .setParameter("quizId", quizId)
+            .executeUpdate();
+  }
+
+  /**
+   * Forgets the roles on a quiz, and again once the current transaction commits.
+   */
+  private void evict(Long quizId) {
+    changes.incrementAndGet();
+    roles.remove(quizId);
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCompletion(int status) {
+          changes.incrementAndGet();
+          roles.remove(quizId);
+        }
+      });
+    }
+  }
+}
@@ -0,0 +1,130 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.cache;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Thread-safe map holding at most a given amount of entries, forgetting the least recently used
+ * entry first when it is full. Entries can also be given a time to live, after which they are
+ * no longer found, for values that may change elsewhere without this node being told.
+ * Every access takes a lock, which is held only for one lookup in a linked hash map.
+ *
+ * @param <K> The type of the keys.
+ * @param <V> The type of the values.
+ */
+public final class BoundedCache<K, V> {
+
+  /**
+   * The entries, least recently used first.
+   */
+  private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+  private final int maxSize;
+
+  private final long timeToLiveNanos;
+
+  /**
+   * Creates a cache whose entries are kept until they are removed or pushed out.
+   *
+   * @param maxSize Maximum amount of entries.
+   */
+  public BoundedCache(int maxSize) {
+    this(maxSize, Duration.ZERO);
+  }
+
+  /**
+   * Creates a cache whose entries expire.
+   *
+   * @param maxSize    Maximum amount of entries.
+   * @param timeToLive How long an entry is found after it is put, or zero to keep it until it is
+   *                   removed or pushed out.
+   */
+  public BoundedCache(int maxSize, Duration timeToLive) {
+    if (maxSize < 1) {
+      throw new IllegalArgumentException("maxSize must be positive");
+    }
+    this.maxSize = maxSize;
+    this.timeToLiveNanos = timeToLive.toNanos();
+  }
+
+  /**
+   * Finds a value, marking it as recently used.
+   *
+   * @param key The key.
+   * @return The value, or null if it is not cached or has expired.
+   */
+  public synchronized V get(K key) {
+    Entry<V> entry = entries.get(key);
+    if (entry == null) {
+      return null;
+    }
+    if (timeToLiveNanos > 0 && System.nanoTime() - entry.putAt() > timeToLiveNanos) {
+      entries.remove(key);
+      return null;
+    }
+    return entry.value();
+  }
+
+  /**
+   * Caches a value, replacing any value of the key.
+   *
+   * @param key   The key.
+   * @param value The value.
+   */
+  public synchronized void put(K key, V value) {
+    entries.put(key, new Entry<>(value, System.nanoTime()));
+    if (entries.size() > maxSize) {
+      Iterator<K> leastRecentlyUsed = entries.keySet().iterator();
+      leastRecentlyUsed.next();
+      leastRecentlyUsed.remove();
+    }
+  }
+
+  /**
+   * Caches a value unless the key already has a value that has not expired.
+   *
+   * @param key   The key.
+   * @param value The value.
+   * @return The value that is cached for the key after the call.
+   */
+  public synchronized V putIfAbsent(K key, V value) {
+    V existing = get(key);
+    if (existing != null) {
+      return existing;
+    }
+    put(key, value);
+    return value;
+  }
+
+  /**
+   * Forgets the value of a key.
+   *
+   * @param key The key.
+   */
+  public synchronized void remove(K key) {
+    entries.remove(key);
+  }
+
+  /**
+   * Forgets the values of every key matching a condition.
+   *
+   * @param condition The condition.
+   */
+  public synchronized void removeIf(Predicate<? super K> condition) {
+    entries.keySet().removeIf(condition);
+  }
+
+  /**
+   * The amount of cached entries, including expired entries not yet removed.
+   *
+   * @return The amount of entries.
+   */
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  private record Entry<V>(V value, long putAt) {
+  }
+}
@@ -0,0 +1,126 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Size-bounded cache of gzip compressed response bodies, forgetting the least recently used
+ * bodies first.
+ * Each body is stored with the version of the resource it was made from, so it is compressed
+ * once per version, and replaced the first time it is asked for with a newer version.
+ * Versions only change with writes made on this node, so bodies also expire after a short
+ * time, which bounds how long changes made elsewhere, like on other nodes, by the purger or
+ * directly in the database, are served stale.
+ */
+@Component
+public class CompressedResponseCache {
+
+  private final BoundedCache<String, Entry> entries;
+
+  private final AtomicLong hits = new AtomicLong();
+
+  private final AtomicLong compressions = new AtomicLong();
+
+  /**
+   * Creates the cache.
+   *
+   * @param maxSize    Maximum amount of cached responses.
+   * @param timeToLive How long a response is cached.
+   */
+  public CompressedResponseCache(@Value("${quizzer.compression.max-entries:2000}") int maxSize,
+                                 @Value("${quizzer.compression.time-to-live:10s}") Duration timeToLive) {
+    this.entries = new BoundedCache<>(maxSize, timeToLive);
+  }
+
+  /**
+   * Finds a cached response.
+   *
+   * @param key     The request the response was made for.
+   * @param version The current version of the resource.
+   * @return The response, or null if it is not cached for this version or has expired.
+   */
+  public Entry get(String key, String version) {
+    Entry entry = entries.get(key);
+    if (entry == null || !entry.version.equals(version)) {
+      return null;
+    }
+    hits.incrementAndGet();
+    return entry;
+  }
+
+  /**
+   * Compresses a response body and caches it.
+   *
+   * @param key     The request the response was made for.
+   * @param version The version of the resource the body was made from.
+   * @param headers The headers of the response, without its length and encoding.
+   * @param body    The uncompressed body.
+   * @return The cached response.
+   */
+  public Entry put(String key, String version, Map<String, List<String>> headers, byte[] body) {
+    Entry entry = new Entry(version, headers, gzip(body));
+    entries.put(key, entry);
+    return entry;
+  }
+
+  /**
+   * Compresses a response body without caching it.
+   *
+   * @param headers The headers of the response, without its length and encoding.
+   * @param body    The uncompressed body.
+   * @return The compressed response.
+   */
+  public Entry compress(Map<String, List<String>> headers, byte[] body) {
+    return new Entry(null, headers, gzip(body));
+  }
+
+  public long getHits() {
+    return hits.get();
+  }
+
+  public long getCompressions() {
+    return compressions.get();
+  }
+
+  private byte[] gzip(byte[] body) {
+    compressions.incrementAndGet();
+    ByteArrayOutputStream compressed = new ByteArrayOutputStream(body.length / 4 + 64);
+    try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+      gzip.write(body);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return compressed.toByteArray();
+  }
+
+  /**
+   * A compressed response, with the headers it was sent with.
+   */
+  public static final class Entry {
+    private final String version;
+    private final Map<String, List<String>> headers;
+    private final byte[] body;
+
+    private Entry(String version, Map<String, List<String>> headers, byte[] body) {
+      this.version = version;
+      this.headers = Map.copyOf(headers);
+      this.body = body;
+    }
+
+    public Map<String, List<String>> getHeaders() {
+      return headers;
+    }
+
+    public byte[] getBody() {
+      return body;
+    }
+  }
+}
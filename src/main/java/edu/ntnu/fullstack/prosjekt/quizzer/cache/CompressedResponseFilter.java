@@ -0,0 +1,156 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.cache;
+
+import edu.ntnu.fullstack.prosjekt.quizzer.recommend.TrendingQuizzes;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+/**
+ * Serves gzip compressed quiz details and listings to clients that accept them.
+ * The compressed body is cached per request and resource version, so a quiz is compressed
+ * once after it changes instead of on every response. Bodies smaller than the minimum size
+ * are sent as they are, since compressing them saves next to nothing.
+ * Right after a resource changes, its body may be read from a replica that has not caught up
+ * yet, so bodies of resources changed within the replica lag tolerance are compressed but not
+ * cached, and stale content is never kept under the new version.
+ */
+public class CompressedResponseFilter extends OncePerRequestFilter {
+
+  private static final Pattern QUIZ_DETAILS = Pattern.compile("/api/quizzes/(\\d+)");
+
+  private static final Pattern QUIZ_LISTINGS = Pattern.compile("/api/quizzes(/filter|/categories)?/?");
+
+  private final CompressedResponseCache compressedResponseCache;
+
+  private final ResourceVersions resourceVersions;
+
+  private final TrendingQuizzes trendingQuizzes;
+
+  private final int minSize;
+
+  private final long settleMillis;
+
+  /**
+   * Creates the filter.
+   *
+   * @param compressedResponseCache The cache of compressed responses.
+   * @param resourceVersions        The versions of the cached resources.
+   * @param trendingQuizzes         Counts the quiz views served from the cache, as they never
+   *                                reach the controller.
+   * @param minSize                 The smallest body that is compressed, in bytes.
+   * @param settle                  How long after a change bodies are not cached, as the
+   *                                replicas they are read from may not have the change yet.
+   */
+  public CompressedResponseFilter(CompressedResponseCache compressedResponseCache,
+                                  ResourceVersions resourceVersions, TrendingQuizzes trendingQuizzes,
+                                  int minSize, Duration settle) {
+    this.compressedResponseCache = compressedResponseCache;
+    this.resourceVersions = resourceVersions;
+    this.trendingQuizzes = trendingQuizzes;
+    this.minSize = minSize;
+    this.settleMillis = settle.toMillis();
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                  FilterChain filterChain) throws ServletException, IOException {
+    ResourceVersions.Version version = "GET".equals(request.getMethod()) ? version(request.getRequestURI()) : null;
+    if (version == null) {
+      filterChain.doFilter(request, response);
+      return;
+    }
+    // The cached body also depends on the format and the CORS headers the request asked for.
+    response.addHeader(HttpHeaders.VARY, String.join(", ",
+            HttpHeaders.ACCEPT_ENCODING, HttpHeaders.ACCEPT, HttpHeaders.ORIGIN));
+    if (!acceptsGzip(request)) {
+      filterChain.doFilter(request, response);
+      return;
+    }
+
+    String key = request.getRequestURI() + '?' + request.getQueryString()
+            + '|' + request.getHeader(HttpHeaders.ACCEPT) + '|' + request.getHeader(HttpHeaders.ORIGIN);
+    CompressedResponseCache.Entry cached = compressedResponseCache.get(key, version.tag());
+    if (cached != null) {
+      Matcher details = QUIZ_DETAILS.matcher(request.getRequestURI());
+      if (details.matches()) {
+        trendingQuizzes.recordView(Long.valueOf(details.group(1)), null);
+      }
+      write(response, cached);
+      return;
+    }
+
+    ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+    filterChain.doFilter(request, wrapper);
+    if (wrapper.getStatus() != HttpServletResponse.SC_OK || wrapper.getContentSize() < minSize
+            || response.containsHeader(HttpHeaders.CONTENT_ENCODING) || response.isCommitted()) {
+      wrapper.copyBodyToResponse();
+      return;
+    }
+    Map<String, List<String>> headers = new LinkedHashMap<>();
+    for (String name : response.getHeaderNames()) {
+      headers.put(name, List.copyOf(response.getHeaders(name)));
+    }
+    headers.put(HttpHeaders.CONTENT_TYPE, List.of(wrapper.getContentType()));
+    byte[] body = wrapper.getContentAsByteArray();
+    write(response, System.currentTimeMillis() - version.changedAt() < settleMillis
+            ? compressedResponseCache.compress(headers, body)
+            : compressedResponseCache.put(key, version.tag(), headers, body));
+  }
+
+  private ResourceVersions.Version version(String path) {
+    Matcher details = QUIZ_DETAILS.matcher(path);
+    if (details.matches()) {
+      return resourceVersions.quizVersion(Long.valueOf(details.group(1)));
+    }
+    return QUIZ_LISTINGS.matcher(path).matches() ? resourceVersions.catalogVersion() : null;
+  }
+
+  private static boolean acceptsGzip(HttpServletRequest request) {
+    String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+    if (acceptEncoding == null) {
+      return false;
+    }
+    for (String coding : acceptEncoding.split(",")) {
+      String[] parts = coding.trim().split(";");
+      String name = parts[0].trim();
+      if (!name.equalsIgnoreCase("gzip") && !name.equals("*")) {
+        continue;
+      }
+      boolean refused = false;
+      for (int i = 1; i < parts.length; i++) {
+        String parameter = parts[i].trim().replace(" ", "");
+        refused |= parameter.matches("q=0(\\.0*)?");
+      }
+      return !refused;
+    }
+    return false;
+  }
+
+  private static void write(HttpServletResponse response, CompressedResponseCache.Entry entry) throws IOException {
+    response.setStatus(HttpServletResponse.SC_OK);
+    for (Map.Entry<String, List<String>> header : entry.getHeaders().entrySet()) {
+      List<String> values = header.getValue();
+      for (int i = 0; i < values.size(); i++) {
+        if (i == 0) {
+          response.setHeader(header.getKey(), values.get(i));
+        } else {
+          response.addHeader(header.getKey(), values.get(i));
+        }
+      }
+    }
+    response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+    response.setContentLength(entry.getBody().length);
+    response.getOutputStream().write(entry.getBody());
+  }
+}
@@ -0,0 +1,351 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.cache;
+
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.QuestionAnswersDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.QuestionAttemptDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.QuestionDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.QuizAttemptDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.QuizDetailsDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.enums.QuestionType;
+import edu.ntnu.fullstack.prosjekt.quizzer.grading.ShortAnswerMatcher;
+import edu.ntnu.fullstack.prosjekt.quizzer.grading.ShortAnswerTolerance;
+import edu.ntnu.fullstack.prosjekt.quizzer.jfr.GradingEvent;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Immutable, pre-mapped copy of one version of a quiz and its questions, used for playing and
+ * grading the quiz without querying and mapping it on every request.
+ * Questions are kept twice: once as they are played, with the correct answers removed, and
+ * once as an answer key, by position and by question id. The answer keys of short-answer questions are
+ * compiled into matchers when the snapshot is created, so they accept answers with small typos
+ * without preparing the correct answers again for every answer graded.
+ */
+public final class QuizSnapshot {
+
+  private final Long quizId;
+
+  private final Integer version;
+
+  private final Long versionId;
+
+  private final String title;
+
+  private final QuestionDto[] playableQuestions;
+
+  private final Map<Long, Integer> positionsById;
+
+  private final AnswerKey[] answerKeysByPosition;
+
+  private QuizSnapshot(Long quizId, Integer version, Long versionId, String title,
+                       QuestionDto[] playableQuestions, Map<Long, Integer> positionsById,
+                       AnswerKey[] answerKeysByPosition) {
+    this.quizId = quizId;
+    this.version = version;
+    this.versionId = versionId;
+    this.title = title;
+    this.playableQuestions = playableQuestions;
+    this.positionsById = positionsById;
+    this.answerKeysByPosition = answerKeysByPosition;
+  }
+
+  /**
+   * Creates a snapshot of a quiz, with its questions in stored order.
+   *
+   * @param quizDetailsDto The quiz, including its questions.
+   * @return The snapshot.
+   */
+  public static QuizSnapshot of(QuizDetailsDto quizDetailsDto) {
+    return of(quizDetailsDto, null);
+  }
+
+  /**
+   * Creates a snapshot of a stored version of a quiz, with its questions in stored order.
+   *
+   * @param quizDetailsDto The quiz, including its questions and version number.
+   * @param versionId      The id of the stored version, referenced by attempts graded with it.
+   * @return The snapshot.
+   */
+  public static QuizSnapshot of(QuizDetailsDto quizDetailsDto, Long versionId) {
+    return of(quizDetailsDto, versionId, ShortAnswerTolerance.DEFAULT);
+  }
+
+  /**
+   * Creates a snapshot of a stored version of a quiz, with its questions in stored order.
+   *
+   * @param quizDetailsDto The quiz, including its questions and version number.
+   * @param versionId      The id of the stored version, referenced by attempts graded with it.
+   * @param tolerance      How far answers to short-answer questions may be from a correct answer.
+   * @return The snapshot.
+   */
+  public static QuizSnapshot of(QuizDetailsDto quizDetailsDto, Long versionId, ShortAnswerTolerance tolerance) {
+    List<QuestionDto> questions = quizDetailsDto.getQuestions() == null
+            ? List.of() : quizDetailsDto.getQuestions();
+    QuestionDto[] playable = new QuestionDto[questions.size()];
+    AnswerKey[] byPosition = new AnswerKey[questions.size()];
+    Map<Long, Integer> byId = new HashMap<>();
+    for (int i = 0; i < questions.size(); i++) {
+      QuestionDto question = questions.get(i);
+      List<QuestionAnswersDto> alternatives = question.getAlternatives() == null
+              ? List.of() : question.getAlternatives();
+      List<String> correct = new ArrayList<>();
+      List<QuestionAnswersDto> withoutAnswers = new ArrayList<>();
+      for (QuestionAnswersDto alternative : alternatives) {
+        if (Boolean.TRUE.equals(alternative.getIsCorrect()) && alternative.getAnswer() != null) {
+          correct.add(alternative.getAnswer());
+        }
+        withoutAnswers.add(new QuestionAnswersDto(alternative.getAnswer(), null));
+      }
+      String[] correctAnswers = correct.toArray(new String[0]);
+      byPosition[i] = new AnswerKey(correctAnswers, question.getType() == QuestionType.SHORT_ANSWER
+              ? ShortAnswerMatcher.compile(correctAnswers, tolerance) : null);
+      if (question.getQuestionId() != null) {
+        byId.putIfAbsent(question.getQuestionId(), i);
+      }
+      playable[i] = QuestionDto.builder()
+              .questionId(question.getQuestionId())
+              .label(question.getLabel())
+              .imageLink(question.getImageLink())
+              .position(question.getPosition())
+              .quizId(question.getQuizId())
+              .type(question.getType())
+              .alternatives(question.getType() == QuestionType.SHORT_ANSWER
+                      ? List.of() : List.copyOf(withoutAnswers))
+              .build();
+    }
+    return new QuizSnapshot(quizDetailsDto.getQuizId(), quizDetailsDto.getVersion(), versionId,
+            quizDetailsDto.getTitle(), playable, Map.copyOf(byId), byPosition);
+  }
+
+  public Long getQuizId() {
+    return quizId;
+  }
+
+  public Integer getVersion() {
+    return version;
+  }
+
+  public Long getVersionId() {
+    return versionId;
+  }
+
+  public String getTitle() {
+    return title;
+  }
+
+  /**
+   * The amount of questions in the quiz.
+   *
+   * @return The amount of questions.
+   */
+  public int size() {
+    return playableQuestions.length;
+  }
+
+  /**
+   * Draws a shuffled sample of the questions, without their correct answers.
+   * The same seed always gives the same questions in the same order, so an attempt can be
+   * replayed or verified from its seed alone.
+   *
+   * @param count Amount of questions to draw, capped at the amount of questions in the quiz.
+   * @param seed  Seed for the shuffle.
+   * @return The drawn questions, positioned in the order they should be played.
+   */
+  public List<QuestionDto> sample(int count, long seed) {
+    int n = playableQuestions.length;
+    int k = Math.max(0, Math.min(count, n));
+    // A Fisher-Yates shuffle stopped after k swaps, over an order where only the positions
+    // that have been swapped are stored, so drawing a few questions of a large quiz does not
+    // allocate the whole order.
+    int capacity = Integer.highestOneBit(Math.max(1, k)) << 2;
+    int[] swappedPositions = new int[capacity];
+    int[] swappedQuestions = new int[capacity];
+    SplittableRandom random = new SplittableRandom(seed);
+    List<QuestionDto> drawn = new ArrayList<>(k);
+    for (int i = 0; i < k; i++) {
+      int j = i + random.nextInt(n - i);
+      int picked = orderAt(swappedPositions, swappedQuestions, j);
+      swap(swappedPositions, swappedQuestions, j, orderAt(swappedPositions, swappedQuestions, i));
+      drawn.add(positioned(playableQuestions[picked], i));
+    }
+    return drawn;
+  }
+
+  /**
+   * The ids of the questions, in stored order. Questions without an id are given zero.
+   *
+   * @return The question ids.
+   */
+  public long[] questionIds() {
+    long[] questionIds = new long[playableQuestions.length];
+    for (int i = 0; i < playableQuestions.length; i++) {
+      Long questionId = playableQuestions[i].getQuestionId();
+      questionIds[i] = questionId == null ? 0 : questionId;
+    }
+    return questionIds;
+  }
+
+  /**
+   * Picks the questions at the given positions, without their correct answers.
+   *
+   * @param indexes Positions in the stored order of the questions to pick.
+   * @return The picked questions, positioned in the order they were given.
+   */
+  public List<QuestionDto> pick(int[] indexes) {
+    List<QuestionDto> picked = new ArrayList<>(indexes.length);
+    for (int i = 0; i < indexes.length; i++) {
+      picked.add(positioned(playableQuestions[indexes[i]], i));
+    }
+    return picked;
+  }
+
+  /**
+   * Grades an attempt, marking each question attempt as answered correctly or not.
+   * Answers are matched to questions by question id, so the order they were played in does
+   * not matter. Attempts without a question id fall back to the stored question order.
+   * Each question is graded once: answers to questions that are not in this version, and
+   * further answers to a question already graded, are removed from the attempt, so the score
+   * can never exceed the amount of questions.
+   *
+   * @param quizAttemptDto The attempt to grade. Its answers, score and version are overwritten.
+   * @return The graded attempt.
+   */
+  public QuizAttemptDto grade(QuizAttemptDto quizAttemptDto) {
+    GradingEvent event = new GradingEvent();
+    event.begin();
+    int score = 0;
+    List<QuestionAttemptDto> questionAttempts = quizAttemptDto.getQuestionAttempts() == null
+            ? List.of() : quizAttemptDto.getQuestionAttempts();
+    boolean[] graded = new boolean[answerKeysByPosition.length];
+    List<QuestionAttemptDto> gradedAttempts = new ArrayList<>(Math.min(questionAttempts.size(), graded.length));
+    for (int i = 0; i < questionAttempts.size(); i++) {
+      QuestionAttemptDto questionAttempt = questionAttempts.get(i);
+      if (questionAttempt == null) {
+        continue;
+      }
+      int position = questionAttempt.getQuestionId() != null
+              ? positionsById.getOrDefault(questionAttempt.getQuestionId(), -1)
+              : i < graded.length ? i : -1;
+      if (position < 0 || graded[position]) {
+        continue;
+      }
+      graded[position] = true;
+      boolean correct = answerKeysByPosition[position].accepts(questionAttempt.getAnswerLabel());
+      questionAttempt.setAnsweredCorrect(correct);
+      if (correct) {
+        score++;
+      }
+      gradedAttempts.add(questionAttempt);
+    }
+    quizAttemptDto.setQuestionAttempts(gradedAttempts);
+    quizAttemptDto.setScore(score);
+    quizAttemptDto.setVersion(version);
+    event.end();
+    if (event.shouldCommit()) {
+      event.quizId = quizId != null ? quizId : 0;
+      event.version = version != null ? version : 0;
+      event.questionCount = gradedAttempts.size();
+      event.score = score;
+      event.commit();
+    }
+    return quizAttemptDto;
+  }
+
+  /**
+   * Checks a single answer against the answer key.
+   *
+   * @param questionId  The id of the answered question.
+   * @param answerLabel The given answer.
+   * @return True if the answer is accepted as one of the correct answers of the question.
+   */
+  public boolean isCorrect(Long questionId, String answerLabel) {
+    AnswerKey answerKey = answerKey(questionId);
+    return answerKey != null && answerKey.accepts(answerLabel);
+  }
+
+  /**
+   * Finds the correct answers of a question, to reveal once it may no longer be answered.
+   *
+   * @param questionId The id of the question.
+   * @return The correct answers, empty if the question is unknown.
+   */
+  public List<String> correctAnswers(Long questionId) {
+    AnswerKey answerKey = answerKey(questionId);
+    return answerKey == null ? List.of() : List.of(answerKey.correctAnswers());
+  }
+
+  /**
+   * Checks whether a question is in this version of the quiz.
+   *
+   * @param questionId The id of the question.
+   * @return True if the question is in the quiz.
+   */
+  public boolean contains(Long questionId) {
+    return positionsById.containsKey(questionId);
+  }
+
+  private AnswerKey answerKey(Long questionId) {
+    Integer position = positionsById.get(questionId);
+    return position == null ? null : answerKeysByPosition[position];
+  }
+
+  /**
+   * Finds the question at a position of a partially shuffled order, in an open-addressing table
+   * of the swapped positions, stored plus one so zero marks an empty slot.
+   */
+  private static int orderAt(int[] positions, int[] questions, int position) {
+    int mask = positions.length - 1;
+    for (int slot = (position * 0x9E3779B9) >>> 1 & mask; positions[slot] != 0; slot = (slot + 1) & mask) {
+      if (positions[slot] == position + 1) {
+        return questions[slot];
+      }
+    }
+    return position;
+  }
+
+  private static void swap(int[] positions, int[] questions, int position, int question) {
+    int mask = positions.length - 1;
+    int slot = (position * 0x9E3779B9) >>> 1 & mask;
+    while (positions[slot] != 0 && positions[slot] != position + 1) {
+      slot = (slot + 1) & mask;
+    }
+    positions[slot] = position + 1;
+    questions[slot] = question;
+  }
+
+  private static QuestionDto positioned(QuestionDto question, int position) {
+    return QuestionDto.builder()
+            .questionId(question.getQuestionId())
+            .label(question.getLabel())
+            .imageLink(question.getImageLink())
+            .position((short) position)
+            .quizId(question.getQuizId())
+            .type(question.getType())
+            .alternatives(question.getAlternatives())
+            .build();
+  }
+
+  /**
+   * The correct answers of a question. Short-answer questions also have a compiled matcher,
+   * while the alternatives of other questions must be given exactly, ignoring case.
+   */
+  private record AnswerKey(String[] correctAnswers, ShortAnswerMatcher shortAnswerMatcher) {
+
+    boolean accepts(String answerLabel) {
+      if (answerLabel == null) {
+        return false;
+      }
+      if (shortAnswerMatcher != null) {
+        return shortAnswerMatcher.matches(answerLabel);
+      }
+      for (String correctAnswer : correctAnswers) {
+        if (correctAnswer.equalsIgnoreCase(answerLabel)) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+}
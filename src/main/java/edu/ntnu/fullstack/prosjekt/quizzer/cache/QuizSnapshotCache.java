@@ -0,0 +1,119 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.cache;
+
+import java.time.Duration;
+import java.util.function.Function;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Size-bounded cache of quiz snapshots, keyed by quiz id and version number, forgetting the
+ * least recently used snapshots first.
+ * Versions never change, so a cached snapshot is never invalidated, and grading against it can
+ * not race with an edit. The only mutable entry is which version of a quiz is the newest,
+ * which is forgotten whenever the quiz is edited or deleted on this node, and expires after a
+ * short time, since edits on other nodes are not announced here.
+ */
+@Component
+public class QuizSnapshotCache {
+
+  private final BoundedCache<Key, QuizSnapshot> snapshots;
+
+  private final BoundedCache<Long, Integer> currentVersions;
+
+  /**
+   * Creates the cache.
+   *
+   * @param maxSize                  Maximum amount of cached snapshots, and of cached newest versions.
+   * @param currentVersionTimeToLive How long the newest version of a quiz is cached.
+   */
+  public QuizSnapshotCache(@Value("${quizzer.cache.quiz-snapshots.max-size:10000}") int maxSize,
+                           @Value("${quizzer.cache.current-versions.time-to-live:10s}")
+                           Duration currentVersionTimeToLive) {
+    this.snapshots = new BoundedCache<>(maxSize);
+    this.currentVersions = new BoundedCache<>(maxSize, currentVersionTimeToLive);
+  }
+
+  /**
+   * Finds the snapshot of a version of a quiz, creating it with the loader if it is not cached.
+   *
+   * @param quizId  The id of the quiz.
+   * @param version The version number.
+   * @param loader  Creates the snapshot from the database.
+   * @return The snapshot.
+   */
+  public QuizSnapshot get(Long quizId, int version, Function<Key, QuizSnapshot> loader) {
+    Key key = new Key(quizId, version);
+    QuizSnapshot snapshot = snapshots.get(key);
+    if (snapshot != null) {
+      return snapshot;
+    }
+    return snapshots.putIfAbsent(key, loader.apply(key));
+  }
+
+  /**
+   * Finds the number of the newest version of a quiz, looking it up with the loader if it is
+   * not cached.
+   *
+   * @param quizId The id of the quiz.
+   * @param loader Finds the newest version number in the database. It must read from the
+   *               primary, since a version read from a lagging replica would be kept.
+   * @return The newest version number.
+   */
+  public int currentVersion(Long quizId, Function<Long, Integer> loader) {
+    Integer version = currentVersions.get(quizId);
+    if (version != null) {
+      return version;
+    }
+    version = loader.apply(quizId);
+    currentVersions.put(quizId, version);
+    return version;
+  }
+
+  /**
+   * Forgets the newest version of a quiz that has changed. If a transaction is active, it is
+   * forgotten again once it commits, so a version read before the commit is not kept.
+   *
+   * @param quizId The id of the quiz.
+   */
+  public void evict(Long quizId) {
+    currentVersions.remove(quizId);
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          currentVersions.remove(quizId);
+        }
+      });
+    }
+  }
+
+  /**
+   * Forgets every version of a quiz, like when it is deleted or its versions are rewritten, again
+   * once the current transaction commits.
+   *
+   * @param quizId The id of the quiz.
+   */
+  public void remove(Long quizId) {
+    evict(quizId);
+    snapshots.removeIf(key -> key.quizId().equals(quizId));
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          snapshots.removeIf(key -> key.quizId().equals(quizId));
+        }
+      });
+    }
+  }
+
+  /**
+   * Identifies a version of a quiz.
+   *
+   * @param quizId  The id of the quiz.
+   * @param version The version number.
+   */
+  public record Key(Long quizId, int version) {
+  }
+}
@@ -0,0 +1,133 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.cache;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Versions of the quiz resources, bumped whenever their content changes.
+ * A quiz has its own version, used for its details, while the catalog version covers the
+ * listings, and is bumped by any quiz change. Changes that can show up everywhere, like
+ * the name of a user, bump the generation, which is part of every version.
+ * Inside a transaction, versions are bumped again after it commits, so a response read
+ * before the commit is never cached under the new version.
+ * Version numbers are taken from one counter, so a number is never given twice. That lets the
+ * versions of quizzes that have not changed for a while be forgotten: forgotten quizzes share
+ * a floor version, which is raised past every forgotten number, so no response cached under a
+ * forgotten version is found again.
+ * Only changes made through this node bump the versions, so anything cached under them must
+ * also expire, to pick up changes made on other nodes or directly in the database.
+ */
+@Component
+public class ResourceVersions {
+
+  /**
+   * Quizzes whose versions are kept before they are all forgotten.
+   */
+  private static final int MAX_TRACKED_QUIZZES = 10_000;
+
+  private final AtomicLong numbers = new AtomicLong();
+
+  private volatile Version catalog = new Version("0.0", 0);
+
+  private volatile long generation;
+
+  private volatile long generationChangedAt;
+
+  private volatile long floor;
+
+  private final Map<Long, Version> quizzes = new ConcurrentHashMap<>();
+
+  /**
+   * Finds the version of the quiz listings.
+   *
+   * @return The version.
+   */
+  public Version catalogVersion() {
+    return catalog;
+  }
+
+  /**
+   * Finds the version of the details of a quiz.
+   *
+   * @param quizId The id of the quiz.
+   * @return The version.
+   */
+  public Version quizVersion(Long quizId) {
+    Version version = quizzes.get(quizId);
+    return version != null ? version : new Version(generation + "." + floor, generationChangedAt);
+  }
+
+  /**
+   * Records that a quiz was created, updated or deleted.
+   *
+   * @param quizId The id of the quiz.
+   */
+  public void quizChanged(Long quizId) {
+    bump(() -> {
+      Version version = next();
+      if (quizzes.size() >= MAX_TRACKED_QUIZZES) {
+        floor = numbers.get();
+        quizzes.clear();
+      }
+      quizzes.put(quizId, version);
+      catalog = next();
+    });
+  }
+
+  /**
+   * Records that quizzes were added without changing existing ones.
+   */
+  public void catalogChanged() {
+    bump(() -> catalog = next());
+  }
+
+  /**
+   * Records a change that may show up in any quiz, like the name of its owner.
+   * The quiz versions are forgotten, since the new generation makes them all new.
+   */
+  public void everythingChanged() {
+    bump(() -> {
+      generation = numbers.incrementAndGet();
+      generationChangedAt = System.currentTimeMillis();
+      quizzes.clear();
+      catalog = next();
+    });
+  }
+
+  private Version next() {
+    return new Version(generation + "." + numbers.incrementAndGet(), System.currentTimeMillis());
+  }
+
+  /**
+   * Runs a change now, and again after the current transaction commits. Changes are serialized,
+   * so quizzes are never forgotten while another change is being recorded.
+   */
+  private void bump(Runnable bump) {
+    synchronized (this) {
+      bump.run();
+    }
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          synchronized (ResourceVersions.this) {
+            bump.run();
+          }
+        }
+      });
+    }
+  }
+
+  /**
+   * A version of a resource.
+   *
+   * @param tag       Tells the version apart from every other version of the resource.
+   * @param changedAt When the resource last changed, in epoch milliseconds.
+   */
+  public record Version(String tag, long changedAt) {
+  }
+}
@@ -0,0 +1,41 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Lets every controller read and write Smile (application/x-jackson-smile) and
+ * CBOR (application/cbor) besides JSON, chosen by the Accept and Content-Type headers.
+ * The mappers are made from the same builder as the JSON mapper, so the binary formats
+ * carry exactly the same fields. JSON stays the default when a client accepts anything.
+ */
+@Configuration
+public class BinaryFormatConfig {
+
+  /**
+   * Creates the converter for Smile bodies.
+   *
+   * @param builder The object mapper builder configured by Spring Boot.
+   * @return The Smile converter.
+   */
+  @Bean
+  public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+    return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+  }
+
+  /**
+   * Creates the converter for CBOR bodies.
+   *
+   * @param builder The object mapper builder configured by Spring Boot.
+   * @return The CBOR converter.
+   */
+  @Bean
+  public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+    return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+  }
+}
@@ -0,0 +1,43 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.config;
+
+import edu.ntnu.fullstack.prosjekt.quizzer.cache.CompressedResponseCache;
+import edu.ntnu.fullstack.prosjekt.quizzer.cache.CompressedResponseFilter;
+import edu.ntnu.fullstack.prosjekt.quizzer.cache.ResourceVersions;
+import edu.ntnu.fullstack.prosjekt.quizzer.datasource.ReplicaDataSourceProperties;
+import edu.ntnu.fullstack.prosjekt.quizzer.recommend.TrendingQuizzes;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registers the filter that serves compressed quiz responses. It is registered after the
+ * security filters, so cached responses are only served to requests that would reach them.
+ */
+@Configuration
+public class CompressionConfig {
+
+  /**
+   * Registers the compressed response filter for the quiz endpoints.
+   *
+   * @param compressedResponseCache The cache of compressed responses.
+   * @param resourceVersions        The versions of the quiz resources.
+   * @param trendingQuizzes         Counts the quiz views served from the cache.
+   * @param minSize                 The smallest body that is compressed, in bytes.
+   * @param replicaProperties       The replicas, whose lag delays caching changed resources.
+   * @return The filter registration.
+   */
+  @Bean
+  public FilterRegistrationBean<CompressedResponseFilter> compressedResponseFilter(
+          CompressedResponseCache compressedResponseCache, ResourceVersions resourceVersions,
+          TrendingQuizzes trendingQuizzes, @Value("${quizzer.compression.min-size:1024}") int minSize,
+          ReplicaDataSourceProperties replicaProperties) {
+    Duration settle = replicaProperties.getReplicas().isEmpty()
+            ? Duration.ZERO : replicaProperties.getReplicaLagTolerance();
+    FilterRegistrationBean<CompressedResponseFilter> registration = new FilterRegistrationBean<>(
+            new CompressedResponseFilter(compressedResponseCache, resourceVersions, trendingQuizzes, minSize, settle));
+    registration.addUrlPatterns("/api/quizzes", "/api/quizzes/*");
+    return registration;
+  }
+}
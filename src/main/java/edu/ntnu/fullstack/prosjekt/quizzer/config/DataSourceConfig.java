@@ -0,0 +1,76 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import edu.ntnu.fullstack.prosjekt.quizzer.datasource.ReplicaDataSourceProperties;
+import edu.ntnu.fullstack.prosjekt.quizzer.datasource.ReplicaRoutingDataSource;
+import java.util.ArrayList;
+import java.util.List;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.jdbc.JdbcConnectionDetails;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+/**
+ * Configures the data source, which sends read-only transactions to the replicas listed under
+ * quizzer.datasource.replicas, and everything else to the spring.datasource primary.
+ */
+@Configuration
+@EnableConfigurationProperties(ReplicaDataSourceProperties.class)
+public class DataSourceConfig {
+
+  /**
+   * Creates the connection pools of the primary and the replicas, and routes between them.
+   *
+   * @param dataSourceProperties The settings of the primary.
+   * @param connectionDetails    The connection to the primary, when given by Docker Compose.
+   * @param replicaProperties    The settings of the replicas.
+   * @return The routing data source.
+   */
+  @Bean
+  public ReplicaRoutingDataSource routingDataSource(DataSourceProperties dataSourceProperties,
+                                                    ObjectProvider<JdbcConnectionDetails> connectionDetails,
+                                                    ReplicaDataSourceProperties replicaProperties) {
+    JdbcConnectionDetails details = connectionDetails.getIfAvailable();
+    HikariDataSource primary = details == null
+            ? dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build()
+            : DataSourceBuilder.create().type(HikariDataSource.class).url(details.getJdbcUrl())
+                .username(details.getUsername()).password(details.getPassword())
+                .driverClassName(details.getDriverClassName()).build();
+    primary.setPoolName("primary");
+
+    List<DataSource> replicas = new ArrayList<>();
+    for (ReplicaDataSourceProperties.Replica replica : replicaProperties.getReplicas()) {
+      HikariDataSource pool = DataSourceBuilder.create().type(HikariDataSource.class)
+              .url(replica.getUrl())
+              .username(replica.getUsername() != null ? replica.getUsername() : primary.getUsername())
+              .password(replica.getPassword() != null ? replica.getPassword() : primary.getPassword())
+              .driverClassName(replica.getDriverClassName() != null
+                  ? replica.getDriverClassName() : primary.getDriverClassName())
+              .build();
+      pool.setPoolName("replica-" + replicas.size());
+      pool.setMaximumPoolSize(replica.getMaximumPoolSize());
+      pool.setReadOnly(true);
+      replicas.add(pool);
+    }
+    return new ReplicaRoutingDataSource(primary, replicas, replicaProperties.getReplicaLagTolerance());
+  }
+
+  /**
+   * Wraps the routing data source, so that a connection is only fetched once the transaction
+   * using it has begun, and it is known whether the transaction is read-only.
+   *
+   * @param routingDataSource The routing data source.
+   * @return The data source used by the application.
+   */
+  @Bean
+  @Primary
+  public DataSource dataSource(ReplicaRoutingDataSource routingDataSource) {
+    return new LazyConnectionDataSourceProxy(routingDataSource);
+  }
+}
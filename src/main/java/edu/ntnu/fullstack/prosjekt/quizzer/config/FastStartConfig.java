@@ -0,0 +1,32 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.orm.jpa.AbstractEntityManagerFactoryBean;
+import org.springframework.security.web.SecurityFilterChain;
+
+/**
+ * Settings of the fast-start profile, where beans are created lazily on first use.
+ * The connection pools, the JPA metamodel and the security filters are still created at
+ * startup, since the first request needs them, and creating them then would only move the
+ * wait from startup to that request.
+ */
+@Configuration
+@Profile("fast-start")
+public class FastStartConfig {
+
+  /**
+   * Keeps the beans every request needs out of lazy initialization.
+   *
+   * @return The filter of eagerly created beans.
+   */
+  @Bean
+  static LazyInitializationExcludeFilter eagerRequestInfrastructure() {
+    return LazyInitializationExcludeFilter.forBeanTypes(DataSource.class, EntityManagerFactory.class,
+            AbstractEntityManagerFactoryBean.class, SecurityFilterChain.class);
+  }
+}
@@ -0,0 +1,93 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.config;
+
+import edu.ntnu.fullstack.prosjekt.quizzer.timing.ServerTimingFilter;
+import edu.ntnu.fullstack.prosjekt.quizzer.timing.TimingSessionEventListener;
+import edu.ntnu.fullstack.prosjekt.quizzer.timing.TimingStatementInspector;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Turns on the Server-Timing header when quizzer.server-timing.enabled is set. The beans always
+ * exist, and the setting is read when they are created, so it is not frozen by AOT processing.
+ * Without it the filter is not registered and Hibernate is left as it is, and the instrumented
+ * code only finds that no request is being timed.
+ * The filter runs before the security filters, so the JWT verification is part of the timing.
+ */
+@Configuration
+public class ServerTimingConfig {
+
+  /**
+   * Whether requests are timed.
+   */
+  private final boolean enabled;
+
+  /**
+   * Creates the configuration.
+   *
+   * @param enabled Whether requests are timed.
+   */
+  public ServerTimingConfig(@Value("${quizzer.server-timing.enabled:false}") boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  /**
+   * Registers the filter that times requests, disabled unless timing is turned on.
+   *
+   * @param slowMillis     Requests taking at least this long are logged.
+   * @param slowSampleRate The share of the slow requests that are logged.
+   * @param maxStatements  The most SQL statements logged per request.
+   * @return The filter registration.
+   */
+  @Bean
+  public FilterRegistrationBean<ServerTimingFilter> serverTimingFilter(
+          @Value("${quizzer.server-timing.slow-ms:500}") long slowMillis,
+          @Value("${quizzer.server-timing.slow-sample-rate:0.1}") double slowSampleRate,
+          @Value("${quizzer.server-timing.max-statements:100}") int maxStatements) {
+    FilterRegistrationBean<ServerTimingFilter> registration = new FilterRegistrationBean<>(
+            new ServerTimingFilter(slowMillis, slowSampleRate, maxStatements));
+    registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+    registration.setEnabled(enabled);
+    return registration;
+  }
+
+  /**
+   * Lets Hibernate report the time spent on statements, and the statements themselves, when
+   * timing is turned on. A statement inspector that was already configured keeps inspecting
+   * every statement.
+   *
+   * @return The customizer of the Hibernate settings.
+   */
+  @Bean
+  public HibernatePropertiesCustomizer serverTimingHibernateProperties() {
+    return properties -> {
+      if (!enabled) {
+        return;
+      }
+      properties.putIfAbsent(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER,
+              TimingSessionEventListener.class.getName());
+      properties.put(AvailableSettings.STATEMENT_INSPECTOR,
+              new TimingStatementInspector(inspector(properties.get(AvailableSettings.STATEMENT_INSPECTOR))));
+    };
+  }
+
+  private static StatementInspector inspector(Object configured) {
+    if (configured == null || configured instanceof StatementInspector) {
+      return (StatementInspector) configured;
+    }
+    try {
+      Class<?> type = configured instanceof Class<?> configuredType ? configuredType
+              : ClassUtils.forName(configured.toString(), ServerTimingConfig.class.getClassLoader());
+      return (StatementInspector) BeanUtils.instantiateClass(type);
+    } catch (ClassNotFoundException e) {
+      throw new IllegalArgumentException("No statement inspector class " + configured, e);
+    }
+  }
+}
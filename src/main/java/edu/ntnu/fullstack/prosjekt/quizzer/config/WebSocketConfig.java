@@ -0,0 +1,42 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.config;
+
+import edu.ntnu.fullstack.prosjekt.quizzer.live.LiveHandshakeInterceptor;
+import edu.ntnu.fullstack.prosjekt.quizzer.live.LiveSessionHandler;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+/**
+ * Registers the WebSocket endpoint for live quiz sessions, at /api/live.
+ */
+@Configuration
+@EnableWebSocket
+public class WebSocketConfig implements WebSocketConfigurer {
+
+  /**
+   * Used for Dependency Injection.
+   */
+  private final LiveSessionHandler liveSessionHandler;
+
+  /**
+   * Used for Dependency Injection.
+   *
+   * @param liveSessionHandler The injected LiveSessionHandler object.
+   */
+  public WebSocketConfig(LiveSessionHandler liveSessionHandler) {
+    this.liveSessionHandler = liveSessionHandler;
+  }
+
+  /**
+   * Registers the live session handler.
+   *
+   * @param registry The registry of WebSocket handlers.
+   */
+  @Override
+  public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+    registry.addHandler(liveSessionHandler, "/api/live")
+            .addInterceptors(new LiveHandshakeInterceptor())
+            .setAllowedOrigins("*");
+  }
+}
@@ -0,0 +1,74 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.controllers;
+
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.AttemptResultDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.AttemptSubmissionDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.entities.UserEntity;
+import edu.ntnu.fullstack.prosjekt.quizzer.services.AttemptService;
+import edu.ntnu.fullstack.prosjekt.quizzer.services.UserService;
+import java.util.List;
+import lombok.extern.java.Log;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Rest Controller for submitting many quiz attempts at once. Base endpoint is /api/attempts.
+ */
+@RestController
+@RequestMapping("/api")
+@CrossOrigin(origins = "*")
+@Log
+public class AttemptController {
+
+  /**
+   * Used for Dependency Injection.
+   */
+  private AttemptService attemptService;
+
+  private UserService userService;
+
+  private final int maxBatchSize;
+
+  /**
+   * Used for Dependency Injection.
+   *
+   * @param attemptService The injected AttemptService object.
+   * @param userService The injected UserService object.
+   * @param maxBatchSize The largest amount of attempts accepted in one request.
+   */
+  public AttemptController(AttemptService attemptService, UserService userService,
+                           @Value("${quizzer.attempts.max-batch-size:500}") int maxBatchSize) {
+    this.attemptService = attemptService;
+    this.userService = userService;
+    this.maxBatchSize = maxBatchSize;
+  }
+
+  /**
+   * Endpoint for grading and saving a batch of attempts by the requesting user, which may be of
+   * different quizzes. An attempt that can not be saved does not stop the others.
+   *
+   * @param submissions The attempts, each with the id of its quiz.
+   * @return The outcome of every attempt, in the order they were submitted.
+   */
+  @PostMapping("/attempts:batch")
+  public ResponseEntity<List<AttemptResultDto>> submitAttempts(@RequestBody List<AttemptSubmissionDto> submissions) {
+    String username = SecurityContextHolder.getContext().getAuthentication().getPrincipal().toString();
+    UserEntity userEntity = userService.findEntityByUsername(username);
+    if (userEntity == null) {
+      throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "No user with username: " + username);
+    }
+    if (submissions.size() > maxBatchSize) {
+      throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+              "At most " + maxBatchSize + " attempts can be submitted at once");
+    }
+    log.info("Batch of " + submissions.size() + " attempts received from: " + username);
+    return new ResponseEntity<>(attemptService.submitAttempts(submissions, userEntity), HttpStatus.OK);
+  }
+}
@@ -0,0 +1,119 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.controllers;
+
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.BulkJobDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.entities.UserEntity;
+import edu.ntnu.fullstack.prosjekt.quizzer.services.BulkQuizService;
+import edu.ntnu.fullstack.prosjekt.quizzer.services.UserService;
+import java.io.InputStream;
+import java.util.List;
+import lombok.extern.java.Log;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Rest Controller for importing and exporting whole quiz catalogs as JSON Lines, with one quiz
+ * per line. Base endpoint is /api/quizzes/.
+ */
+@RestController
+@RequestMapping("/api/quizzes")
+@CrossOrigin(origins = "*")
+@Log
+public class BulkQuizController {
+  /**
+   * Media type of JSON Lines streams.
+   */
+  public static final String NDJSON = "application/x-ndjson";
+
+  /**
+   * Used for Dependency Injection.
+   */
+  private BulkQuizService bulkQuizService;
+
+  private UserService userService;
+
+  /**
+   * Used for Dependency Injection.
+   *
+   * @param bulkQuizService The injected BulkQuizService object.
+   * @param userService The injected UserService object.
+   */
+  public BulkQuizController(BulkQuizService bulkQuizService, UserService userService) {
+    this.bulkQuizService = bulkQuizService;
+    this.userService = userService;
+  }
+
+  /**
+   * Endpoint for importing a stream of quizzes, owned by the requesting user. The body is read
+   * while it is being uploaded, and its progress can be followed at /bulk/jobs/{jobId}.
+   *
+   * @param inputStream The body, with one quiz per line.
+   * @param jobId The id to report progress under. A new id is picked if left out.
+   * @return The finished job, with the amount of saved and failed quizzes.
+   */
+  @PostMapping(path = "/bulk", consumes = {NDJSON, "application/jsonl"})
+  public ResponseEntity<BulkJobDto> importQuizzes(InputStream inputStream,
+                                                  @RequestParam(required = false) String jobId) {
+    String username = SecurityContextHolder.getContext().getAuthentication().getPrincipal().toString();
+    UserEntity userEntity = userService.findEntityByUsername(username);
+    if (userEntity == null) {
+      throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "No user with username: " + username);
+    }
+    if (jobId != null && bulkQuizService.findJob(jobId) != null) {
+      throw new ResponseStatusException(HttpStatus.CONFLICT, "A job with id " + jobId + " already exists");
+    }
+    log.info("Request to import quizzes received from: " + username);
+    return new ResponseEntity<>(bulkQuizService.importQuizzes(jobId, inputStream, userEntity),
+            HttpStatus.OK);
+  }
+
+  /**
+   * Endpoint for exporting every quiz, with one quiz per line. The id of the export job is
+   * returned in the X-Job-Id header before the quizzes are streamed.
+   *
+   * @return A stream of every quiz.
+   */
+  @GetMapping(path = "/export", produces = NDJSON)
+  public ResponseEntity<StreamingResponseBody> exportQuizzes() {
+    BulkJobDto job = bulkQuizService.startExport();
+    StreamingResponseBody body = outputStream -> bulkQuizService.exportQuizzes(job.getJobId(), outputStream);
+    return ResponseEntity.ok()
+            .header("X-Job-Id", job.getJobId())
+            .header("Content-Disposition", "attachment; filename=\"quizzes.jsonl\"")
+            .body(body);
+  }
+
+  /**
+   * Endpoint for following the progress of the most recent imports and exports.
+   *
+   * @return The jobs, most recent first.
+   */
+  @GetMapping(path = "/bulk/jobs")
+  public ResponseEntity<List<BulkJobDto>> getJobs() {
+    return new ResponseEntity<>(bulkQuizService.findJobs(), HttpStatus.OK);
+  }
+
+  /**
+   * Endpoint for following the progress of an import or export.
+   *
+   * @param jobId The id of the job.
+   * @return The job, or 404 if there is no such job.
+   */
+  @GetMapping(path = "/bulk/jobs/{jobId}")
+  public ResponseEntity<BulkJobDto> getJob(@PathVariable String jobId) {
+    BulkJobDto job = bulkQuizService.findJob(jobId);
+    if (job == null) {
+      return ResponseEntity.notFound().build();
+    }
+    return new ResponseEntity<>(job, HttpStatus.OK);
+  }
+}
@@ -0,0 +1,44 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.controllers;
+
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.CacheRegionStatsDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.services.CacheStatisticsService;
+import java.util.List;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Rest Controller for inspecting the second-level cache.
+ * Base endpoint is /api/cache/.
+ */
+@RestController
+@RequestMapping("/api/cache")
+@CrossOrigin(origins = "*")
+public class CacheController {
+  /**
+   * Used for Dependency Injection.
+   */
+  private CacheStatisticsService cacheStatisticsService;
+
+  /**
+   * Used for Dependency Injection.
+   *
+   * @param cacheStatisticsService The injected CacheStatisticsService object.
+   */
+  public CacheController(CacheStatisticsService cacheStatisticsService) {
+    this.cacheStatisticsService = cacheStatisticsService;
+  }
+
+  /**
+   * Endpoint that reports the hit rate and size of every second-level cache region.
+   *
+   * @return The statistics of every region, sorted by region name.
+   */
+  @GetMapping(path = "/stats")
+  public ResponseEntity<List<CacheRegionStatsDto>> getRegionStatistics() {
+    return new ResponseEntity<>(cacheStatisticsService.getRegionStatistics(), HttpStatus.OK);
+  }
+}
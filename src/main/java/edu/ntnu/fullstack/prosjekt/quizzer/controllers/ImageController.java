@@ -0,0 +1,185 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.controllers;
+
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.ImageDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.images.ImageStore;
+import edu.ntnu.fullstack.prosjekt.quizzer.services.ImageService;
+import edu.ntnu.fullstack.prosjekt.quizzer.services.UserService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import lombok.extern.java.Log;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Rest Controller for uploading and serving images. Base endpoint is /api/images.
+ * Images are named by the hash of their content, so they never change, and are served with
+ * headers that let clients cache them forever. The file is handed to the connector with
+ * sendfile where it is supported, so it never passes through the application. Otherwise it is
+ * copied from the file channel to the response stream through a buffer.
+ */
+@RestController
+@RequestMapping("/api/images")
+@CrossOrigin(origins = "*")
+@Log
+public class ImageController {
+
+  private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+
+  private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+
+  private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+
+  private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+  /**
+   * Used for Dependency Injection.
+   */
+  private ImageService imageService;
+
+  private ImageStore imageStore;
+
+  private UserService userService;
+
+  /**
+   * Used for Dependency Injection.
+   *
+   * @param imageService The injected ImageService object.
+   * @param imageStore The injected ImageStore object.
+   * @param userService The injected UserService object.
+   */
+  public ImageController(ImageService imageService, ImageStore imageStore, UserService userService) {
+    this.imageService = imageService;
+    this.imageStore = imageStore;
+    this.userService = userService;
+  }
+
+  /**
+   * Endpoint for uploading an image. Uploading an image that is already stored returns the
+   * link to the stored copy.
+   *
+   * @param file The image.
+   * @return The stored image, with the link to use as imageLink.
+   * @throws IOException If the upload could not be read or stored.
+   */
+  @PostMapping
+  public ResponseEntity<ImageDto> uploadImage(@RequestParam("file") MultipartFile file) throws IOException {
+    String username = SecurityContextHolder.getContext().getAuthentication().getPrincipal().toString();
+    if (userService.findEntityByUsername(username) == null) {
+      throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "No user with username: " + username);
+    }
+    ImageDto image;
+    try (InputStream inputStream = file.getInputStream()) {
+      image = imageService.upload(inputStream);
+    } catch (IllegalArgumentException e) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+    }
+    log.info("Image " + image.getUrl() + " uploaded by: " + username);
+    return ResponseEntity.created(URI.create(image.getUrl())).body(image);
+  }
+
+  /**
+   * Endpoint for getting an image or a thumbnail, or a single byte range of it.
+   *
+   * @param name The name of the image.
+   * @param request The request, for the Range and If-None-Match headers.
+   * @param response The response the image is written to.
+   * @throws IOException If the image could not be read or written.
+   */
+  @GetMapping(path = "/{name:.+}")
+  public void getImage(@PathVariable String name, HttpServletRequest request, HttpServletResponse response)
+          throws IOException {
+    Path path = imageStore.find(name);
+    if (path == null) {
+      response.sendError(HttpServletResponse.SC_NOT_FOUND);
+      return;
+    }
+    String etag = "\"" + name + "\"";
+    response.setHeader(HttpHeaders.ETAG, etag);
+    response.setHeader(HttpHeaders.CACHE_CONTROL, "public, max-age=31536000, immutable");
+    response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+    if (etag.equals(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+      response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+      return;
+    }
+
+    long length = Files.size(path);
+    long start = 0;
+    long end = length - 1;
+    String range = request.getHeader(HttpHeaders.RANGE);
+    if (range != null && range.startsWith("bytes=") && !range.contains(",")) {
+      long[] bounds = parseRange(range.substring(6).trim(), length);
+      if (bounds == null) {
+        response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+        response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+        return;
+      }
+      start = bounds[0];
+      end = bounds[1];
+      response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+      response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+    }
+    response.setContentType(ImageStore.contentType(name));
+    response.setContentLengthLong(end - start + 1);
+
+    if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+      request.setAttribute(SENDFILE_FILENAME, path.toAbsolutePath().toString());
+      request.setAttribute(SENDFILE_START, start);
+      request.setAttribute(SENDFILE_END, end + 1);
+      return;
+    }
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+      long position = start;
+      while (position <= end) {
+        long transferred = channel.transferTo(position, end + 1 - position, out);
+        if (transferred <= 0) {
+          break;
+        }
+        position += transferred;
+      }
+    }
+  }
+
+  /**
+   * Parses a single byte range, like 0-499, 500- or -500.
+   *
+   * @return The first and last byte of the range, or null if it can not be satisfied.
+   */
+  private static long[] parseRange(String range, long length) {
+    int dash = range.indexOf('-');
+    try {
+      if (dash < 0 || length == 0) {
+        return null;
+      }
+      if (dash == 0) {
+        long suffix = Long.parseLong(range.substring(1));
+        return suffix <= 0 ? null : new long[]{Math.max(0, length - suffix), length - 1};
+      }
+      long start = Long.parseLong(range.substring(0, dash));
+      long end = dash == range.length() - 1 ? length - 1 : Math.min(Long.parseLong(range.substring(dash + 1)), length - 1);
+      return start > end || start >= length ? null : new long[]{start, end};
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
+}
@@ -1,6 +1,7 @@
 package edu.ntnu.fullstack.prosjekt.quizzer.controllers;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import edu.ntnu.fullstack.prosjekt.quizzer.acl.QuizPermissions;
 import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.*;
 import edu.ntnu.fullstack.prosjekt.quizzer.domain.entities.UserEntity;
 import edu.ntnu.fullstack.prosjekt.quizzer.services.QuizService;
@@ -8,13 +9,18 @@ import edu.ntnu.fullstack.prosjekt.quizzer.services.UserService;
 import lombok.extern.java.Log;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 
 /**
@@ -33,14 +39,17 @@ public class QuizController {
 
   private UserService userService;
 
+  private QuizPermissions quizPermissions;
+
   /**
    * Used for Dependency Injection.
    *
    * @param quizService The injected QuizService object.
    */
-  public QuizController(QuizService quizService, UserService userService) {
+  public QuizController(QuizService quizService, UserService userService, QuizPermissions quizPermissions) {
     this.quizService = quizService;
     this.userService = userService;
+    this.quizPermissions = quizPermissions;
   }
 
   /**
@@ -64,6 +73,23 @@ public class QuizController {
     }
   }
 
+  /**
+   * Endpoint for forking a quiz, copying it with its questions and categories into a new quiz
+   * owned by the user.
+   *
+   * @param quizId The id of the quiz to fork.
+   * @return The new quiz, without its questions.
+   */
+  @PostMapping(path = "/{quizId}/fork")
+  public ResponseEntity<QuizGeneralDto> forkQuiz(@PathVariable String quizId) {
+    String username = SecurityContextHolder.getContext().getAuthentication().getPrincipal().toString();
+    UserEntity userEntity = userService.findEntityByUsername(username);
+    if (userEntity == null) {
+      throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "You must be logged in to fork a quiz");
+    }
+    return new ResponseEntity<>(quizService.forkQuiz(quizId, userEntity), HttpStatus.CREATED);
+  }
+
   /**
    * Endpoint for deleting an existing quiz.
    *
@@ -74,12 +100,8 @@ public class QuizController {
   public ResponseEntity<MessageDto> deleteQuiz(@RequestBody QuizDetailsDto quizToDelete) {
     String username = SecurityContextHolder.getContext().getAuthentication().getPrincipal().toString();
 
-    QuizDetailsDto actualEntry = quizService.findQuizDtoById(quizToDelete.getQuizId().toString());
-    UserEntity ownerEntity = userService.findEntityByUsername(actualEntry.getOwner().getUsername());
-
-     if (!quizToDelete.getOwner().getUsername().equals(username)
-            && actualEntry.getCollaborators().stream()
-            .noneMatch(userDto -> userDto.getUsername().equals(username))) {
+    // The user must either be the owner, or a collaborator
+    if (!quizPermissions.canDelete(quizToDelete.getQuizId(), username)) {
       return new ResponseEntity<>(new MessageDto("You are not authorized to delete this quiz"), HttpStatus.UNAUTHORIZED);
     }
 
@@ -90,6 +112,12 @@ public class QuizController {
     return new ResponseEntity<>(new MessageDto("Quiz could not be deleted"), HttpStatus.INTERNAL_SERVER_ERROR);
   }
 
+  /**
+   * Endpoint for updating an existing quiz, which is kept under the same id as a new version.
+   *
+   * @param updatedQuizDto The updated quiz.
+   * @return A response with a status code and message.
+   */
   @PutMapping
   public ResponseEntity<MessageDto> updateQuiz(@RequestBody QuizDetailsDto updatedQuizDto) {
     log.info("Questions: " + updatedQuizDto.getQuestions());
@@ -97,20 +125,14 @@ public class QuizController {
     // Check the username
     String username = SecurityContextHolder.getContext().getAuthentication().getPrincipal().toString();
 
-
-    QuizDetailsDto actualEntry = quizService.findQuizDtoById(updatedQuizDto.getQuizId().toString());
-    UserEntity userEntity = userService.findEntityByUsername(actualEntry.getOwner().getUsername());
-
     // The user must either be the owner, or a collaborator
-    /*if (!updatedQuizDto.getOwner().getUsername().equals(username)
-            && actualEntry.getCollaborators().stream()
-            .noneMatch(userDto -> userDto.getUsername().equals(username))) {
+    if (!quizPermissions.canEdit(updatedQuizDto.getQuizId(), username)) {
       return new ResponseEntity<>(new MessageDto("You are not authorized to update this quiz"), HttpStatus.UNAUTHORIZED);
-    }*/
+    }
+    UserEntity userEntity = userService.findEntityByUsername(username);
 
     log.info("Before entering service");
     quizService.updateQuizEntity(updatedQuizDto, userEntity);
-    quizService.createQuiz(updatedQuizDto, userEntity);
     return new ResponseEntity<>(new MessageDto("Quiz updated"), HttpStatus.OK);
   }
 
@@ -150,6 +172,110 @@ public class QuizController {
     }
   }
 
+  /**
+   * Endpoint that gets a version of a quiz as it was published. Versions never change, so the
+   * response may be cached forever, and is revalidated by its ETag alone.
+   *
+   * @param quizId ID of the quiz
+   * @param version The version number.
+   * @param request The request, for the If-None-Match header.
+   * @return The quiz and its questions, as they were in the version.
+   */
+  @GetMapping(path = "/{quizId}/versions/{version}")
+  public ResponseEntity<QuizDetailsDto> getQuizVersion(@PathVariable String quizId, @PathVariable Integer version,
+                                                       WebRequest request) {
+    String eTag = "\"" + quizId + "-" + version + "\"";
+    CacheControl cacheControl = CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable();
+    if (request.checkNotModified(eTag)) {
+      return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).cacheControl(cacheControl).build();
+    }
+    return ResponseEntity.ok().eTag(eTag).cacheControl(cacheControl)
+            .body(quizService.findQuizVersion(quizId, version));
+  }
+
+  /**
+   * Endpoint that finds the quizzes most similar to a quiz, by their categories and by which
+   * users attempted both.
+   *
+   * @param quizId ID of the quiz
+   * @param limit The maximum amount of quizzes.
+   * @return The most similar quizzes, most similar first.
+   */
+  @GetMapping(path = "/{quizId}/similar")
+  public ResponseEntity<List<RecommendationDto>> getSimilarQuizzes(@PathVariable String quizId,
+                                                                   @RequestParam(defaultValue = "10") int limit) {
+    return new ResponseEntity<>(quizService.findSimilarQuizzes(quizId, Math.min(limit, 50)), HttpStatus.OK);
+  }
+
+  /**
+   * Endpoint that finds the quizzes trending right now, from how often they were viewed and
+   * attempted in the last hour.
+   *
+   * @param limit The maximum amount of quizzes.
+   * @return The trending quizzes, most trending first.
+   */
+  @GetMapping(path = "/trending")
+  public ResponseEntity<List<TrendingQuizDto>> getTrendingQuizzes(@RequestParam(defaultValue = "10") int limit) {
+    return new ResponseEntity<>(quizService.findTrendingQuizzes(Math.min(limit, 50)), HttpStatus.OK);
+  }
+
+  /**
+   * Endpoint that suggests quiz titles and categories while the user types.
+   *
+   * @param prefix The text typed so far.
+   * @param limit The maximum amount of suggestions.
+   * @return The most popular suggestions, most popular first.
+   */
+  @GetMapping(path = "/suggest")
+  public ResponseEntity<List<SuggestionDto>> suggest(@RequestParam String prefix,
+                                                     @RequestParam(defaultValue = "10") int limit) {
+    return new ResponseEntity<>(quizService.suggest(prefix, Math.min(limit, 50)), HttpStatus.OK);
+  }
+
+  /**
+   * Endpoint that reports the size and memory use of the suggestion index.
+   *
+   * @return The statistics of the suggestion index.
+   */
+  @GetMapping(path = "/suggest/stats")
+  public ResponseEntity<SuggestionIndexStatsDto> getSuggestionIndexStats() {
+    return new ResponseEntity<>(quizService.getSuggestionIndexStats(), HttpStatus.OK);
+  }
+
+  /**
+   * Endpoint that draws a shuffled selection of questions from a quiz, without their correct
+   * answers. Submitting the attempt grades each answer by its question id.
+   *
+   * @param quizId ID of the quiz
+   * @param count The amount of questions to draw, defaults to every question.
+   * @param seed The seed to shuffle with. A new seed is picked and returned if left out.
+   * @return The questions to play, and the seed they were drawn with.
+   */
+  @GetMapping(path = "/{quizId}/play")
+  public ResponseEntity<QuizPlayDto> playQuiz(@PathVariable String quizId,
+                                              @RequestParam(defaultValue = "" + Integer.MAX_VALUE) int count,
+                                              @RequestParam(required = false) Long seed) {
+    return new ResponseEntity<>(quizService.playQuiz(quizId, count, seed), HttpStatus.OK);
+  }
+
+  /**
+   * Endpoint that picks the questions of a quiz the signed in user should practice next.
+   * Questions that are due for repetition come first, then questions the user has not answered.
+   *
+   * @param quizId ID of the quiz
+   * @param count The amount of questions to pick.
+   * @return The questions to practice, most needed first.
+   */
+  @GetMapping(path = "/{quizId}/practice")
+  public ResponseEntity<QuizPlayDto> practiceQuiz(@PathVariable String quizId,
+                                                  @RequestParam(defaultValue = "10") int count) {
+    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+    if (authentication == null || authentication instanceof AnonymousAuthenticationToken) {
+      throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Sign in to practice");
+    }
+    return new ResponseEntity<>(quizService.practiceQuiz(quizId, count, authentication.getName()), HttpStatus.OK);
+  }
+
   @GetMapping(path = "/categories")
   public ResponseEntity<List<CategoryDto>> getCategories() {
     List<CategoryDto> categories = quizService.findAllCategories();
@@ -2,6 +2,7 @@ package edu.ntnu.fullstack.prosjekt.quizzer.controllers;
 
 import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.LoginDto;
 import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.MessageDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.RecommendationDto;
 import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.SavedQuizAttemptDto;
 import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.UserDto;
 import edu.ntnu.fullstack.prosjekt.quizzer.services.UserService;
@@ -14,6 +15,8 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.List;
+
 /**
  * Rest Controller used for managing requests relating to user database operations.
  * Base endpoint is /api/users/
@@ -139,6 +142,19 @@ public class UserController {
     }
   }
 
+  /**
+   * Endpoint that recommends quizzes to the signed in user, based on the quizzes the user has
+   * attempted. Users without attempts are recommended the most popular quizzes.
+   *
+   * @param limit The maximum amount of quizzes.
+   * @return The recommended quizzes, most recommended first.
+   */
+  @GetMapping("/me/recommended")
+  public ResponseEntity<List<RecommendationDto>> getRecommendedQuizzes(@RequestParam(defaultValue = "10") int limit) {
+    String username = SecurityContextHolder.getContext().getAuthentication().getName();
+    return new ResponseEntity<>(userService.findRecommendedQuizzes(username, Math.min(limit, 50)), HttpStatus.OK);
+  }
+
   @GetMapping("/quiz-attempts")
   public ResponseEntity<Page<SavedQuizAttemptDto>> getQuizAttempts(Pageable pageable) {
     String username = SecurityContextHolder.getContext().getAuthentication().getName();
@@ -0,0 +1,55 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.datasource;
+
+import java.util.function.Supplier;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Runs reads against the primary, for values that are cached or acted on without the replica
+ * lag tolerance covering them, like the newest version of a quiz or who may edit it.
+ * Inside a transaction that already reads from the primary, the reads simply join it, so no
+ * second primary connection is held at once. Otherwise they run in a read-only transaction of
+ * their own on the primary, which is not recorded as a write.
+ */
+@Component
+public class PrimaryReads {
+
+  /**
+   * Used for Dependency Injection.
+   */
+  private final ReplicaRoutingDataSource routingDataSource;
+
+  private final TransactionTemplate readOnlyTemplate;
+
+  /**
+   * Used for Dependency Injection.
+   *
+   * @param routingDataSource  The injected ReplicaRoutingDataSource object.
+   * @param transactionManager The transaction manager the reads run in.
+   */
+  public PrimaryReads(ReplicaRoutingDataSource routingDataSource, PlatformTransactionManager transactionManager) {
+    this.routingDataSource = routingDataSource;
+    this.readOnlyTemplate = new TransactionTemplate(transactionManager);
+    this.readOnlyTemplate.setReadOnly(true);
+    this.readOnlyTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+  }
+
+  /**
+   * Runs reads against the primary.
+   *
+   * @param reads The reads. Entities they load are detached once they return, unless they joined
+   *              the current transaction.
+   * @param <T>   The type of what is read.
+   * @return What was read.
+   */
+  public <T> T read(Supplier<T> reads) {
+    if (TransactionSynchronizationManager.isActualTransactionActive()
+            && (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || routingDataSource.readsFromPrimary())) {
+      return reads.get();
+    }
+    return routingDataSource.onPrimary(() -> readOnlyTemplate.execute(status -> reads.get()));
+  }
+}
@@ -0,0 +1,39 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.datasource;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for the read replicas of the database, under quizzer.datasource.
+ */
+@Data
+@ConfigurationProperties("quizzer.datasource")
+public class ReplicaDataSourceProperties {
+
+  /**
+   * The replicas read-only transactions are spread over. All reads go to the primary if empty.
+   */
+  private List<Replica> replicas = new ArrayList<>();
+
+  /**
+   * How long a user keeps reading from the primary after a write, so that the user sees
+   * their own changes even while the replicas are catching up.
+   */
+  private Duration replicaLagTolerance = Duration.ofSeconds(2);
+
+  /**
+   * Connection settings of one replica. The username, password and driver of the primary are
+   * used if not set.
+   */
+  @Data
+  public static class Replica {
+    private String url;
+    private String username;
+    private String password;
+    private String driverClassName;
+    private int maximumPoolSize = 10;
+  }
+}
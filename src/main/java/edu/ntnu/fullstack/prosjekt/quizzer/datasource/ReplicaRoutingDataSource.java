@@ -0,0 +1,226 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.datasource;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * Sends connections of read-only transactions to the replicas, round-robin, and everything
+ * else to the primary.
+ * A user who committed a write within the lag tolerance keeps reading from the primary, so
+ * that the user never sees a replica that has not caught up with their own change yet.
+ * Anonymous callers have no username, so they are told apart by their address instead, and
+ * writes made outside of a request pin no one. Reads that must see every committed write, like
+ * those filling caches other nodes do not invalidate, are sent to the primary through
+ * PrimaryReads.
+ * The routing is decided when a connection is fetched, so this data source must be wrapped
+ * in a LazyConnectionDataSourceProxy, which fetches it only once the transaction has begun.
+ */
+public final class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+  static final String PRIMARY = "primary";
+
+  /**
+   * Writers tracked before writes older than the lag tolerance are pruned.
+   */
+  private static final int MAX_TRACKED_WRITERS = 10_000;
+
+  private final DataSource primary;
+
+  private final List<DataSource> replicas;
+
+  private final List<String> replicaKeys = new ArrayList<>();
+
+  private final long lagToleranceMillis;
+
+  private final Map<String, Long> recentWrites = new ConcurrentHashMap<>();
+
+  private final AtomicInteger nextReplica = new AtomicInteger();
+
+  private final ThreadLocal<Boolean> readingFromPrimary = new ThreadLocal<>();
+
+  /**
+   * Creates the routing data source.
+   *
+   * @param primary      The data source all writes go to.
+   * @param replicas     The data sources read-only transactions are spread over.
+   * @param lagTolerance How long a user keeps reading from the primary after a write.
+   */
+  public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, Duration lagTolerance) {
+    this.primary = primary;
+    this.replicas = List.copyOf(replicas);
+    this.lagToleranceMillis = lagTolerance.toMillis();
+    Map<Object, Object> targets = new HashMap<>();
+    targets.put(PRIMARY, primary);
+    for (int i = 0; i < replicas.size(); i++) {
+      replicaKeys.add("replica-" + i);
+      targets.put("replica-" + i, replicas.get(i));
+    }
+    setTargetDataSources(targets);
+    setDefaultTargetDataSource(primary);
+    setLenientFallback(false);
+    initialize();
+  }
+
+  @Override
+  protected Object determineCurrentLookupKey() {
+    if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+      recordWriteOnCommit();
+      return PRIMARY;
+    }
+    if (readsFromPrimary()) {
+      return PRIMARY;
+    }
+    return replicaKeys.get(Math.floorMod(nextReplica.getAndIncrement(), replicaKeys.size()));
+  }
+
+  /**
+   * Tells whether a user committed a write so recently that the replicas may not have it yet.
+   *
+   * @param username The username of the user, or the address of an anonymous caller.
+   * @return True if the user's reads should go to the primary.
+   */
+  public boolean wroteRecently(String username) {
+    if (username == null) {
+      return false;
+    }
+    Long writtenAt = recentWrites.get(username);
+    return writtenAt != null && System.currentTimeMillis() - writtenAt <= lagToleranceMillis;
+  }
+
+  /**
+   * Records that a user committed a write just now.
+   *
+   * @param username The username of the user, or the address of an anonymous caller.
+   */
+  public void recordWrite(String username) {
+    if (lagToleranceMillis <= 0 || username == null) {
+      return;
+    }
+    long now = System.currentTimeMillis();
+    recentWrites.put(username, now);
+    if (recentWrites.size() > MAX_TRACKED_WRITERS) {
+      recentWrites.values().removeIf(writtenAt -> now - writtenAt > lagToleranceMillis);
+    }
+  }
+
+  /**
+   * Tells whether a read-only transaction begun now would read from the primary.
+   *
+   * @return True if there are no replicas, the caller wrote recently, or the primary was asked for.
+   */
+  public boolean readsFromPrimary() {
+    return replicaKeys.isEmpty() || Boolean.TRUE.equals(readingFromPrimary.get()) || wroteRecently(currentUser());
+  }
+
+  /**
+   * Sends the read-only transactions begun by some reads to the primary.
+   *
+   * @param reads The reads, which begin their own transaction.
+   * @param <T>   The type of what is read.
+   * @return What was read.
+   */
+  <T> T onPrimary(Supplier<T> reads) {
+    readingFromPrimary.set(true);
+    try {
+      return reads.get();
+    } finally {
+      readingFromPrimary.remove();
+    }
+  }
+
+  /**
+   * The data sources of the replicas, for checking how far they have caught up.
+   *
+   * @return The replicas.
+   */
+  public List<DataSource> getReplicas() {
+    return replicas;
+  }
+
+  public int getReplicaCount() {
+    return replicaKeys.size();
+  }
+
+  /**
+   * Records the write of the current user once the transaction commits, registering at most
+   * one synchronization per transaction however many connections it fetches.
+   */
+  private void recordWriteOnCommit() {
+    if (replicaKeys.isEmpty() || !TransactionSynchronizationManager.isActualTransactionActive()
+            || !TransactionSynchronizationManager.isSynchronizationActive()) {
+      return;
+    }
+    String username = currentUser();
+    if (username == null) {
+      return;
+    }
+    for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+      if (synchronization instanceof WriteRecorder recorder && recorder.owner() == this) {
+        return;
+      }
+    }
+    TransactionSynchronizationManager.registerSynchronization(new WriteRecorder(this, username));
+  }
+
+  /**
+   * Finds who is reading or writing: the username of an authenticated user, or the address of
+   * an anonymous caller, so one anonymous write does not pin every anonymous reader.
+   *
+   * @return The caller, or null if there is no user and no request.
+   */
+  private static String currentUser() {
+    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+    if (authentication != null && authentication.isAuthenticated()
+            && !(authentication instanceof AnonymousAuthenticationToken)) {
+      return authentication.getName();
+    }
+    RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+    if (attributes instanceof ServletRequestAttributes servletAttributes) {
+      return "anonymous@" + servletAttributes.getRequest().getRemoteAddr();
+    }
+    return null;
+  }
+
+  private record WriteRecorder(ReplicaRoutingDataSource owner, String username)
+          implements TransactionSynchronization {
+
+    @Override
+    public void afterCommit() {
+      owner.recordWrite(username);
+    }
+  }
+
+  /**
+   * Closes the connection pools of the primary and the replicas.
+   */
+  @Override
+  public void destroy() throws Exception {
+    for (DataSource dataSource : replicas) {
+      close(dataSource);
+    }
+    close(primary);
+  }
+
+  private static void close(DataSource dataSource) throws Exception {
+    if (dataSource instanceof AutoCloseable closeable) {
+      closeable.close();
+    }
+  }
+}
@@ -0,0 +1,45 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.domain.dto;
+
+import edu.ntnu.fullstack.prosjekt.quizzer.enums.AttemptResultStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * AttemptResultDto is a data transfer object that represents the outcome of one attempt in a
+ * batch of submitted attempts.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AttemptResultDto {
+  /**
+   * The index field represents the position of the attempt in the submitted batch.
+   */
+  private int index;
+
+  /**
+   * The quizId field represents the id of the attempted quiz.
+   */
+  private Long quizId;
+
+  /**
+   * The status field tells whether the attempt was saved.
+   */
+  private AttemptResultStatus status;
+
+  /**
+   * The attemptId field represents the id of the saved attempt.
+   */
+  private Long attemptId;
+
+  /**
+   * The attempt field represents the graded attempt, with its score.
+   */
+  private QuizAttemptDto attempt;
+
+  /**
+   * The error field explains why the attempt was not saved.
+   */
+  private String error;
+}
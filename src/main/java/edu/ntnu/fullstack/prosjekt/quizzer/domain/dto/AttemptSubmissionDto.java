@@ -0,0 +1,24 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * AttemptSubmissionDto is a data transfer object that represents one finished attempt in a batch
+ * of attempts, for example synced from a device that was offline.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AttemptSubmissionDto {
+  /**
+   * The quizId field represents the id of the attempted quiz.
+   */
+  private Long quizId;
+
+  /**
+   * The attempt field represents the answers given in the attempt.
+   */
+  private QuizAttemptDto attempt;
+}
@@ -0,0 +1,63 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.domain.dto;
+
+import edu.ntnu.fullstack.prosjekt.quizzer.enums.BulkJobStatus;
+import edu.ntnu.fullstack.prosjekt.quizzer.enums.BulkJobType;
+import java.time.Instant;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * BulkJobDto is a data transfer object that represents the progress of a bulk import or export
+ * of quizzes.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkJobDto {
+  /**
+   * The jobId field is a unique identifier for the job.
+   */
+  private String jobId;
+
+  /**
+   * The type field tells whether the job imports or exports quizzes.
+   */
+  private BulkJobType type;
+
+  /**
+   * The status field tells whether the job is still running, or how it ended.
+   */
+  private BulkJobStatus status;
+
+  /**
+   * The processed field represents the amount of quizzes read or written so far.
+   */
+  private long processed;
+
+  /**
+   * The succeeded field represents the amount of quizzes that were saved or exported.
+   */
+  private long succeeded;
+
+  /**
+   * The failed field represents the amount of quizzes that could not be saved.
+   */
+  private long failed;
+
+  /**
+   * The errors field holds the first errors of the job, with the line they occurred on.
+   */
+  private List<String> errors;
+
+  /**
+   * The startedAt field represents when the job started.
+   */
+  private Instant startedAt;
+
+  /**
+   * The finishedAt field represents when the job ended, or null while it is running.
+   */
+  private Instant finishedAt;
+}
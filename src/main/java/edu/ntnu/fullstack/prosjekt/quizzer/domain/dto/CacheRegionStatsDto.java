@@ -0,0 +1,44 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * CacheRegionStatsDto is a data transfer object that represents the usage of one region of the
+ * second-level cache.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CacheRegionStatsDto {
+  /**
+   * The region field represents the name of the cache region.
+   */
+  private String region;
+
+  /**
+   * The hits field represents the amount of lookups that were found in the region.
+   */
+  private long hits;
+
+  /**
+   * The misses field represents the amount of lookups that had to go to the database.
+   */
+  private long misses;
+
+  /**
+   * The puts field represents the amount of entries put into the region.
+   */
+  private long puts;
+
+  /**
+   * The hitRate field represents the share of lookups that were hits, between 0 and 1.
+   */
+  private double hitRate;
+
+  /**
+   * The entries field represents the amount of entries in the region, or -1 if unknown.
+   */
+  private long entries;
+}
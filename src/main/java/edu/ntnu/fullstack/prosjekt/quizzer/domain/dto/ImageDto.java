@@ -0,0 +1,40 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.domain.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * ImageDto is a data transfer object that represents an uploaded image.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ImageDto {
+  /**
+   * The url field is the local link to use as the imageLink of a quiz or question.
+   */
+  private String url;
+
+  /**
+   * The contentType field is the type of the image, like image/png.
+   */
+  private String contentType;
+
+  /**
+   * The size field is the size of the image in bytes.
+   */
+  private long size;
+
+  /**
+   * The deduplicated field tells whether an identical image was already stored.
+   */
+  private boolean deduplicated;
+
+  /**
+   * The thumbnails field holds the links to smaller copies of the image, smallest first.
+   * They are made in the background, so they may not be available right after the upload.
+   */
+  private List<String> thumbnails;
+}
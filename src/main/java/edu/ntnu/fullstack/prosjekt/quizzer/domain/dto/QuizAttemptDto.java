@@ -27,4 +27,10 @@ public class QuizAttemptDto {
    * The questionAttempts field represents the question attempts in the quiz attempt.
    */
   private List<QuestionAttemptDto> questionAttempts;
+
+  /**
+   * The version field represents the version of the quiz that was played. Attempts without a
+   * version are graded against the newest version, which is filled in once graded.
+   */
+  private Integer version;
 }
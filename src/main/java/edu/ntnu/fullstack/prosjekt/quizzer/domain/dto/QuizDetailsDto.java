@@ -23,6 +23,11 @@ public class QuizDetailsDto {
    */
   private Long quizId;
 
+  /**
+   * The version field is the number of the version of the quiz described, starting at 1.
+   */
+  private Integer version;
+
   /**
    * The title field represents the name of the quiz.
    */
@@ -0,0 +1,49 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * QuizPlayDto is a data transfer object that represents a shuffled selection of questions from
+ * a quiz, ready to be played. Correct answers are left out.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class QuizPlayDto {
+  /**
+   * The quizId field references the quiz being played.
+   */
+  private Long quizId;
+
+  /**
+   * The version field is the version of the quiz the questions were drawn from. Submitting it
+   * with the attempt grades the attempt against that version, even if the quiz has since changed.
+   */
+  private Integer version;
+
+  /**
+   * The title field represents the name of the quiz.
+   */
+  private String title;
+
+  /**
+   * The seed field is the seed the questions were shuffled with. Requesting the quiz again
+   * with the same seed gives the same questions in the same order.
+   */
+  private Long seed;
+
+  /**
+   * The totalQuestions field represents the amount of questions the sample was drawn from.
+   */
+  private int totalQuestions;
+
+  /**
+   * The questions field stores the drawn questions, in the order they should be played.
+   */
+  private List<QuestionDto> questions = new ArrayList<>();
+}
@@ -0,0 +1,28 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * RecommendationDto is a data transfer object that represents a recommended quiz.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RecommendationDto {
+  /**
+   * The quizId field references the recommended quiz.
+   */
+  private Long quizId;
+
+  /**
+   * The title field represents the title of the recommended quiz.
+   */
+  private String title;
+
+  /**
+   * The score field represents how strongly the quiz is recommended, higher is stronger.
+   */
+  private double score;
+}
@@ -0,0 +1,34 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.domain.dto;
+
+import edu.ntnu.fullstack.prosjekt.quizzer.enums.SuggestionType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * SuggestionDto is a data transfer object that represents an autocomplete suggestion.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SuggestionDto {
+  /**
+   * The text field represents the suggested quiz title or category name.
+   */
+  private String text;
+
+  /**
+   * The type field tells whether the suggestion is a quiz or a category.
+   */
+  private SuggestionType type;
+
+  /**
+   * The quizId field references the suggested quiz, and is null for categories.
+   */
+  private Long quizId;
+
+  /**
+   * The weight field represents the popularity the suggestion was ranked by.
+   */
+  private long weight;
+}
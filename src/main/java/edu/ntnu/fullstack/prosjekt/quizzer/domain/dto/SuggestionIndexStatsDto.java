@@ -0,0 +1,34 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * SuggestionIndexStatsDto is a data transfer object that represents the size of the
+ * in-memory suggestion index.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SuggestionIndexStatsDto {
+  /**
+   * The entries field represents the amount of quizzes and categories that can be suggested.
+   */
+  private int entries;
+
+  /**
+   * The keys field represents the amount of indexed keys, one per word a title starts with.
+   */
+  private int keys;
+
+  /**
+   * The nodes field represents the amount of nodes in the compressed trie.
+   */
+  private int nodes;
+
+  /**
+   * The estimatedBytes field represents the approximate heap usage of the index.
+   */
+  private long estimatedBytes;
+}
@@ -0,0 +1,38 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * TrendingQuizDto is a data transfer object that represents a quiz that is trending right now.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TrendingQuizDto {
+  /**
+   * The quizId field references the trending quiz.
+   */
+  private Long quizId;
+
+  /**
+   * The title field represents the title of the trending quiz.
+   */
+  private String title;
+
+  /**
+   * The score field represents the recent views and attempts, where older ones count for less.
+   */
+  private double score;
+
+  /**
+   * The views field represents how often the quiz was viewed in the last hour.
+   */
+  private int views;
+
+  /**
+   * The attempts field represents how often the quiz was attempted in the last hour.
+   */
+  private int attempts;
+}
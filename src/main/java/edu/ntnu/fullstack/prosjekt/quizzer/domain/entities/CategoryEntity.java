@@ -7,8 +7,8 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-
-import java.util.Set;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * CategoryEntity is an entity that represents a category in the database.
@@ -19,16 +19,12 @@ import java.util.Set;
 @Builder
 @Entity
 @Table (name = "categories")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "quizzer.categories")
 public class CategoryEntity {
   /**
    * The categoryName field is a unique identifier and primary key for a category entry in the database.
    */
   @Id
   private String categoryName;
-
-  /**
-   * The quizzes field should store a list of quizzes that are part of the category.
-   */
-  @ManyToMany
-  private Set<QuizEntity> quizzes;
 }
@@ -15,6 +15,8 @@ import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * QuestionEntity is one of the main entities in the application, acting as questions for quizzes in
@@ -26,6 +28,8 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @Entity
 @Table(name = "questions")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "quizzer.questions")
 public class QuestionEntity {
   /**
    * The questionId field is a unique identifier and primary key for a question entry in
@@ -73,7 +77,7 @@ public class QuestionEntity {
    * The quiz field references which quiz the question belongs to, in a many questions to
    * one quiz relationship.
    */
-  @ManyToOne(cascade = CascadeType.ALL)
+  @ManyToOne
   @JoinColumn(name = "quiz_Id")
   @JsonBackReference
   private QuizEntity quiz;
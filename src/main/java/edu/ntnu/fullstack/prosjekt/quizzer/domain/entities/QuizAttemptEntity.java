@@ -42,4 +42,11 @@ public class QuizAttemptEntity {
    */
   @ManyToOne
   private QuizEntity quiz;
+
+  /**
+   * The version field represents the version of the quiz the attempt was graded against.
+   * Attempts made before quizzes were versioned have none.
+   */
+  @ManyToOne(fetch = FetchType.LAZY)
+  private QuizVersionEntity version;
 }
@@ -10,10 +10,14 @@ import java.util.List;
 import java.util.Set;
 
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.SQLRestriction;
 
 /**
  * QuizEntity is one of the main entities in the application, acting as quizzes owned by users in
  * the database, and containing questions.
+ * Deleted quizzes are left out of every query until they are purged.
  */
 @Getter
 @Setter
@@ -22,6 +26,9 @@ import lombok.*;
 @NoArgsConstructor
 @Entity
 @Table(name = "quizzes")
+@SQLRestriction("deleted = false")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "quizzer.quizzes")
 public class QuizEntity {
 
   /**
@@ -46,6 +53,7 @@ public class QuizEntity {
    * The categories field should store a list of categories that the quiz belongs to.
    */
   @ManyToMany
+  @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "quizzer.quizzes.categories")
   private Set<CategoryEntity> categories;
 
   /**
@@ -57,6 +65,7 @@ public class QuizEntity {
    * The questions field should store a list of questions that are part of the quiz.
    */
   @ManyToMany
+  @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "quizzer.quizzes.collaborators")
   private List<UserEntity> collaborators;
 
   /**
@@ -70,6 +79,12 @@ public class QuizEntity {
 
 
   @OneToMany(mappedBy = "quiz", cascade = CascadeType.ALL, orphanRemoval = true)
+  @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "quizzer.quizzes.questions")
   @JsonManagedReference
   private List<QuestionEntity> questions;
+
+  /**
+   * The deleted field marks a quiz that has been deleted, but not yet purged from the database.
+   */
+  private boolean deleted;
 }
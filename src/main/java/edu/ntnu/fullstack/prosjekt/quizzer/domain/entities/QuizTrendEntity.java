@@ -0,0 +1,37 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.domain.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * QuizTrendEntity is a saved copy of the recent views and attempts of a quiz, counted per
+ * minute, so that what is trending survives a restart.
+ */
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "quiz_trends")
+public class QuizTrendEntity {
+
+  /**
+   * The quizId field references the counted quiz, and is the primary key.
+   */
+  @Id
+  private Long quizId;
+
+  /**
+   * The newestMinute field is the minute, counted from the epoch, of the newest bucket.
+   */
+  @Column(nullable = false)
+  private Long newestMinute;
+
+  /**
+   * The buckets field holds the views and then the attempts of every minute in the window,
+   * oldest first, as 32-bit integers.
+   */
+  @Column(length = 480)
+  private byte[] buckets;
+}
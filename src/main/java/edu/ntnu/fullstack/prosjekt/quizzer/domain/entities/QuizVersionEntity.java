@@ -0,0 +1,59 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.domain.entities;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Immutable;
+
+/**
+ * QuizVersionEntity is a numbered, immutable copy of a quiz and its questions, as it was when the
+ * quiz was created or edited. Attempts reference the version they were graded against, so editing
+ * a quiz never changes the meaning of earlier attempts.
+ */
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Immutable
+@Table(name = "quiz_versions",
+        uniqueConstraints = @UniqueConstraint(name = "uk_quiz_versions_quiz_number",
+                columnNames = {"quiz_id", "version_number"}))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY, region = "quizzer.quiz-versions")
+public class QuizVersionEntity {
+
+  /**
+   * The versionId field is a unique identifier and primary key for a quiz version.
+   */
+  @Id
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "quiz_version_id_seq")
+  private Long versionId;
+
+  /**
+   * The quiz field references the quiz this is a version of.
+   */
+  @ManyToOne(fetch = FetchType.LAZY)
+  @JoinColumn(name = "quiz_id", nullable = false)
+  private QuizEntity quiz;
+
+  /**
+   * The number field counts the versions of a quiz, starting at 1.
+   */
+  @Column(name = "version_number", nullable = false)
+  private Integer number;
+
+  /**
+   * The content field stores the quiz and its questions as JSON, including the correct answers.
+   */
+  @Column(columnDefinition = "longtext")
+  private String content;
+
+  /**
+   * The createdAt field tells when the version was published.
+   */
+  private LocalDateTime createdAt;
+}
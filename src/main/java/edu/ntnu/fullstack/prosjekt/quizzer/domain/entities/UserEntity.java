@@ -1,6 +1,7 @@
 package edu.ntnu.fullstack.prosjekt.quizzer.domain.entities;
 
 import com.fasterxml.jackson.annotation.JsonManagedReference;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
 import jakarta.persistence.OneToMany;
@@ -10,6 +11,8 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * UserEntity is one of the main entities in the application, acting as users saved in the database.
@@ -21,6 +24,8 @@ import lombok.NoArgsConstructor;
 @Entity
 @Builder
 @Table(name = "users")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "quizzer.users")
 public class UserEntity {
 
   /**
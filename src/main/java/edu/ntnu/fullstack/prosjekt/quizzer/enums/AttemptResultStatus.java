@@ -0,0 +1,9 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.enums;
+
+/**
+ * Enum for the outcomes of a submitted attempt in a batch.
+ */
+public enum AttemptResultStatus {
+    SAVED,
+    FAILED
+}
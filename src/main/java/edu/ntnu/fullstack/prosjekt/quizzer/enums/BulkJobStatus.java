@@ -0,0 +1,10 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.enums;
+
+/**
+ * Enum for the states a bulk job can be in.
+ */
+public enum BulkJobStatus {
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
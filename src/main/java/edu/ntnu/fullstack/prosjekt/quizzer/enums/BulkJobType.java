@@ -0,0 +1,9 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.enums;
+
+/**
+ * Enum for the different kinds of bulk jobs.
+ */
+public enum BulkJobType {
+    IMPORT,
+    EXPORT
+}
@@ -0,0 +1,9 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.enums;
+
+/**
+ * Enum for the roles a user can have on a quiz.
+ */
+public enum QuizRole {
+    OWNER,
+    COLLABORATOR
+}
@@ -0,0 +1,203 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.fork;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import org.hibernate.dialect.sequence.SequenceSupport;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.query.NativeQuery;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Copies a quiz, with its questions and categories, into a new quiz with INSERT ... SELECT
+ * statements, so the copied rows never leave the database, and the amount of statements does
+ * not grow with the amount of questions.
+ * The copies get ids from the same sequences Hibernate uses. Hibernate takes a value from a
+ * sequence for every 50 ids, and hands out the 50 ids up to that value, so every value taken
+ * here reserves those ids too. Databases with sequences give every 50 copied questions a value,
+ * taken together in one statement. Without sequences, as on MySQL, Hibernate keeps the next
+ * value in a table, which is moved ahead once for all the copied questions.
+ * The copies are new rows, so no cached entity, collection or query result is stale after them.
+ * The statements are therefore synchronized with a query space no entity or cached query reads,
+ * which keeps Hibernate from evicting the cached quizzes and questions on every fork.
+ */
+@Component
+public class QuizForker {
+
+  /**
+   * The amount of ids Hibernate hands out per value taken from a sequence.
+   */
+  private static final int ALLOCATION_SIZE = 50;
+
+  /**
+   * The query space of the copies, which no entity or cached query reads.
+   */
+  private static final String QUERY_SPACE = "quiz_forks";
+
+  /**
+   * Used for Dependency Injection.
+   */
+  private final EntityManager entityManager;
+
+  private final SequenceSupport sequenceSupport;
+
+  private final TransactionTemplate reservationTemplate;
+
+  /**
+   * Used for Dependency Injection.
+   *
+   * @param entityManager        The injected EntityManager object.
+   * @param entityManagerFactory The factory whose dialect tells how ids are generated.
+   * @param transactionManager   The transaction manager ids are reserved in, apart from the copy.
+   */
+  public QuizForker(EntityManager entityManager, EntityManagerFactory entityManagerFactory,
+                    PlatformTransactionManager transactionManager) {
+    this.entityManager = entityManager;
+    this.sequenceSupport = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+            .getJdbcServices().getDialect().getSequenceSupport();
+    this.reservationTemplate = new TransactionTemplate(transactionManager);
+    this.reservationTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+  }
+
+  /**
+   * Copies a quiz into a new quiz owned by a user, in the current transaction. The collaborators
+   * of the quiz are not copied, and neither are its versions, attempts or roles.
+   *
+   * @param sourceId The id of the quiz to copy.
+   * @param username The owner of the copy.
+   * @return The copy.
+   */
+  public Fork fork(Long sourceId, String username) {
+    long quizId = reserveIds("quiz_id_seq", 1);
+    int quizzes = copy("INSERT INTO quizzes (quiz_id, title, description, image_link, username, deleted) "
+                    + "SELECT :quizId, title, description, image_link, :username, FALSE FROM quizzes "
+                    + "WHERE quiz_id = :sourceId AND deleted = FALSE", sourceId, quizId)
+            .setParameter("username", username)
+            .executeUpdate();
+    if (quizzes == 0) {
+      throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+    }
+    copy("INSERT INTO quizzes_categories (quiz_entity_quiz_id, categories_category_name) "
+            + "SELECT :quizId, categories_category_name FROM quizzes_categories WHERE quiz_entity_quiz_id = :sourceId",
+            sourceId, quizId)
+            .executeUpdate();
+    return new Fork(quizId, copyQuestions(sourceId, quizId));
+  }
+
+  private int copyQuestions(Long sourceId, long quizId) {
+    String columns = "label, image_link, position, alternatives, type";
+    // Locks the questions of the quiz, so none are added between counting and copying them.
+    // Only their ids are read, since not every database locks rows while counting them.
+    int count = entityManager
+            .createNativeQuery("SELECT question_id FROM questions WHERE quiz_id = :sourceId FOR UPDATE")
+            .setParameter("sourceId", sourceId)
+            .getResultList().size();
+    if (count == 0) {
+      return 0;
+    }
+    String numbered = "FROM (SELECT " + columns + ", ROW_NUMBER() OVER (ORDER BY position, question_id) AS row_index "
+            + "FROM questions WHERE quiz_id = :sourceId) numbered";
+    if (!supportsSequences()) {
+      long firstId = reserveIds("question_id_seq", count);
+      return copy("INSERT INTO questions (question_id, " + columns + ", quiz_id) "
+              + "SELECT :firstId + row_index - 1, " + columns + ", :quizId " + numbered, sourceId, quizId)
+              .setParameter("firstId", firstId)
+              .executeUpdate();
+    }
+    // Each value reserves the 50 ids up to it, and other transactions may take values between
+    // them, so every 50 copied questions are numbered from a value of their own.
+    List<Long> values = takeSequenceValues("question_id_seq", sourceId, Math.ceilDiv(count, ALLOCATION_SIZE));
+    StringBuilder id = new StringBuilder("CASE");
+    for (int i = 0; i < values.size(); i++) {
+      long lastRow = (long) (i + 1) * ALLOCATION_SIZE;
+      id.append(" WHEN row_index <= ").append(lastRow)
+              .append(" THEN row_index + ").append(values.get(i) - lastRow);
+    }
+    id.append(" END");
+    return copy("INSERT INTO questions (question_id, " + columns + ", quiz_id) "
+            + "SELECT " + id + ", " + columns + ", :quizId " + numbered, sourceId, quizId)
+            .executeUpdate();
+  }
+
+  private NativeQuery<?> copy(String sql, Long sourceId, long quizId) {
+    return entityManager.createNativeQuery(sql)
+            .unwrap(NativeQuery.class)
+            .addSynchronizedQuerySpace(QUERY_SPACE)
+            .setParameter("sourceId", sourceId)
+            .setParameter("quizId", quizId);
+  }
+
+  /**
+   * Takes values from a sequence in a single statement, one for each of the first rows of the
+   * questions of a quiz. Values below the allocation size are skipped, as Hibernate hands out
+   * the ids after them instead of the ids up to them.
+   *
+   * @return The values taken, each reserving the 50 ids up to it.
+   */
+  private List<Long> takeSequenceValues(String sequence, Long sourceId, int count) {
+    List<Long> values = new ArrayList<>();
+    while (values.size() < count) {
+      List<?> taken = entityManager.createNativeQuery("SELECT "
+                      + sequenceSupport.getSelectSequenceNextValString(sequence) + " FROM (SELECT ROW_NUMBER() "
+                      + "OVER (ORDER BY question_id) AS row_index FROM questions WHERE quiz_id = :sourceId) numbered "
+                      + "WHERE row_index <= :count")
+              .setParameter("sourceId", sourceId)
+              .setParameter("count", count - values.size())
+              .getResultList();
+      taken.stream()
+              .map(value -> ((Number) value).longValue())
+              .filter(value -> value >= ALLOCATION_SIZE)
+              .forEach(values::add);
+    }
+    return values;
+  }
+
+  /**
+   * Reserves consecutive ids from a sequence. With real sequences only a single id is reserved,
+   * which is enough for the copied quiz.
+   *
+   * @return The first reserved id.
+   */
+  private long reserveIds(String sequence, int count) {
+    if (supportsSequences()) {
+      return ((Number) entityManager.createNativeQuery(sequenceSupport.getSequenceNextValString(sequence))
+              .getSingleResult()).longValue();
+    }
+    // Taking the values v, v + 50, ... reserves every id from v up to the last of them.
+    int values = Math.ceilDiv(count - 1, ALLOCATION_SIZE) + 1;
+    return reservationTemplate.execute(status -> {
+      long first = ((Number) entityManager.createNativeQuery("SELECT next_val FROM " + sequence + " FOR UPDATE")
+              .getSingleResult()).longValue();
+      entityManager.createNativeQuery("UPDATE " + sequence + " SET next_val = :next")
+              .unwrap(NativeQuery.class)
+              .addSynchronizedQuerySpace(sequence)
+              .setParameter("next", first + (long) values * ALLOCATION_SIZE)
+              .executeUpdate();
+      return first;
+    });
+  }
+
+  /**
+   * Tells whether the database has sequences, or keeps the next ids in tables.
+   *
+   * @return True if the database has sequences.
+   */
+  boolean supportsSequences() {
+    return sequenceSupport.supportsSequences();
+  }
+
+  /**
+   * A copy of a quiz.
+   *
+   * @param quizId        The id of the copy.
+   * @param questionCount The amount of copied questions.
+   */
+  public record Fork(Long quizId, int questionCount) {
+  }
+}
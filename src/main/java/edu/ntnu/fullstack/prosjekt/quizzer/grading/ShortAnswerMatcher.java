@@ -0,0 +1,245 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.grading;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compiled answer key of one short-answer question, accepting answers within a few typos of
+ * one of its correct answers.
+ * Answers are normalized before they are compared: accents are removed, letters are lower
+ * cased, apostrophes are dropped, and every run of whitespace, punctuation and symbols becomes
+ * a single space, so "  Café-au-lait!" and "cafe au lait" are the same answer.
+ * The edit distance to each correct answer is computed with Myers' bit-parallel algorithm,
+ * which keeps one column of the distance matrix in two 64-bit words and updates it with a few
+ * bitwise operations per character of the answer. The bit masks of every correct answer are
+ * built once, when the matcher is compiled, so checking an answer only allocates its
+ * normalized copy. Correct answers longer than 64 characters are compared row by row instead.
+ */
+public final class ShortAnswerMatcher {
+
+  /**
+   * The longest normalized correct answer that fits in the bit masks.
+   */
+  private static final int MAX_BIT_PARALLEL_LENGTH = Long.SIZE;
+
+  private final CorrectAnswer[] correctAnswers;
+
+  private ShortAnswerMatcher(CorrectAnswer[] correctAnswers) {
+    this.correctAnswers = correctAnswers;
+  }
+
+  /**
+   * Compiles the correct answers of a question.
+   *
+   * @param answers   The correct answers.
+   * @param tolerance How many edits each correct answer allows.
+   * @return The compiled answers.
+   */
+  public static ShortAnswerMatcher compile(String[] answers, ShortAnswerTolerance tolerance) {
+    List<CorrectAnswer> compiled = new ArrayList<>(answers.length);
+    for (String answer : answers) {
+      if (answer != null) {
+        char[] normalized = normalize(answer);
+        compiled.add(new CorrectAnswer(answer.strip(), normalized,
+                tolerance.allowedEdits(normalized), masks(normalized)));
+      }
+    }
+    return new ShortAnswerMatcher(compiled.toArray(new CorrectAnswer[0]));
+  }
+
+  /**
+   * Checks whether an answer is close enough to one of the correct answers.
+   *
+   * @param answer The given answer.
+   * @return True if the answer is accepted.
+   */
+  public boolean matches(String answer) {
+    if (answer == null || correctAnswers.length == 0) {
+      return false;
+    }
+    char[] text = normalize(answer);
+    for (CorrectAnswer correctAnswer : correctAnswers) {
+      if (correctAnswer.matches(answer, text)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Normalizes an answer for comparison.
+   *
+   * @param answer The answer.
+   * @return The normalized answer.
+   */
+  public static String normalizedForm(String answer) {
+    return new String(normalize(answer));
+  }
+
+  private static char[] normalize(String answer) {
+    String decomposed = answer;
+    for (int i = 0; i < answer.length(); i++) {
+      if (answer.charAt(i) >= 0x80) {
+        decomposed = Normalizer.normalize(answer, Normalizer.Form.NFKD);
+        break;
+      }
+    }
+    char[] normalized = new char[decomposed.length()];
+    int length = 0;
+    boolean separated = false;
+    for (int i = 0; i < decomposed.length(); ) {
+      int codePoint = decomposed.codePointAt(i);
+      i += Character.charCount(codePoint);
+      if (Character.isLetterOrDigit(codePoint)) {
+        if (separated && length > 0) {
+          normalized[length++] = ' ';
+        }
+        separated = false;
+        length += Character.toChars(Character.toLowerCase(codePoint), normalized, length);
+      } else if (!isDropped(codePoint)) {
+        separated = true;
+      }
+    }
+    return length == normalized.length ? normalized : Arrays.copyOf(normalized, length);
+  }
+
+  /**
+   * Accents left over from decomposition, and apostrophes, which are removed without
+   * separating words, so "o'brien" is "obrien" and not "o brien".
+   */
+  private static boolean isDropped(int codePoint) {
+    return switch (Character.getType(codePoint)) {
+      case Character.NON_SPACING_MARK, Character.COMBINING_SPACING_MARK, Character.ENCLOSING_MARK -> true;
+      default -> codePoint == '\'' || codePoint == '’' || codePoint == 'ʼ';
+    };
+  }
+
+  /**
+   * Builds the bit mask of every character in a correct answer, with bit i set where the
+   * answer has that character at index i.
+   */
+  private static Masks masks(char[] pattern) {
+    if (pattern.length == 0 || pattern.length > MAX_BIT_PARALLEL_LENGTH) {
+      return null;
+    }
+    long[] ascii = new long[0x80];
+    StringBuilder others = new StringBuilder();
+    List<Long> otherMasks = new ArrayList<>();
+    for (int i = 0; i < pattern.length; i++) {
+      char c = pattern[i];
+      if (c < 0x80) {
+        ascii[c] |= 1L << i;
+      } else {
+        int index = others.indexOf(String.valueOf(c));
+        if (index < 0) {
+          others.append(c);
+          otherMasks.add(1L << i);
+        } else {
+          otherMasks.set(index, otherMasks.get(index) | 1L << i);
+        }
+      }
+    }
+    long[] masks = new long[otherMasks.size()];
+    for (int i = 0; i < masks.length; i++) {
+      masks[i] = otherMasks.get(i);
+    }
+    return new Masks(ascii, others.toString().toCharArray(), masks);
+  }
+
+  /**
+   * Bit masks of a correct answer by character. Most characters are ASCII and found by index,
+   * the few others by scanning.
+   */
+  private record Masks(long[] ascii, char[] others, long[] otherMasks) {
+
+    long of(char c) {
+      if (c < 0x80) {
+        return ascii[c];
+      }
+      for (int i = 0; i < others.length; i++) {
+        if (others[i] == c) {
+          return otherMasks[i];
+        }
+      }
+      return 0;
+    }
+  }
+
+  private record CorrectAnswer(String original, char[] pattern, int allowedEdits, Masks masks) {
+
+    boolean matches(String answer, char[] text) {
+      if (pattern.length == 0) {
+        // Answers made only of punctuation, such as "?", are compared as they are.
+        return text.length == 0 && original.equalsIgnoreCase(answer.strip());
+      }
+      if (Math.abs(text.length - pattern.length) > allowedEdits) {
+        return false;
+      }
+      if (allowedEdits == 0) {
+        return Arrays.equals(pattern, text);
+      }
+      return masks != null ? withinBitParallel(text) : withinByRows(text);
+    }
+
+    /**
+     * Myers' algorithm for the edit distance between the whole answer and the whole correct
+     * answer. Bit i of the vertical deltas tells whether the distance at row i + 1 of the
+     * current column is one more (pv) or one less (mv) than at row i. Only the distance in the
+     * last row is kept, and the answer is rejected as soon as the remaining characters can
+     * no longer bring it within the allowed edits.
+     */
+    private boolean withinBitParallel(char[] text) {
+      long last = 1L << (pattern.length - 1);
+      long pv = -1L;
+      long mv = 0L;
+      int distance = pattern.length;
+      for (int j = 0; j < text.length; j++) {
+        long eq = masks.of(text[j]);
+        long xv = eq | mv;
+        long xh = (((eq & pv) + pv) ^ pv) | eq;
+        long ph = mv | ~(xh | pv);
+        long mh = pv & xh;
+        if ((ph & last) != 0) {
+          distance++;
+        } else if ((mh & last) != 0) {
+          distance--;
+        }
+        // The first row is the length of the answer so far, which grows by one every column.
+        ph = (ph << 1) | 1L;
+        mh <<= 1;
+        pv = mh | ~(xv | ph);
+        mv = ph & xv;
+        if (distance - (text.length - j - 1) > allowedEdits) {
+          return false;
+        }
+      }
+      return distance <= allowedEdits;
+    }
+
+    private boolean withinByRows(char[] text) {
+      int[] previous = new int[pattern.length + 1];
+      int[] current = new int[pattern.length + 1];
+      for (int i = 0; i <= pattern.length; i++) {
+        previous[i] = i;
+      }
+      for (int j = 1; j <= text.length; j++) {
+        current[0] = j;
+        int smallest = j;
+        for (int i = 1; i <= pattern.length; i++) {
+          int substitution = previous[i - 1] + (pattern[i - 1] == text[j - 1] ? 0 : 1);
+          current[i] = Math.min(substitution, Math.min(previous[i], current[i - 1]) + 1);
+          smallest = Math.min(smallest, current[i]);
+        }
+        if (smallest > allowedEdits) {
+          return false;
+        }
+        int[] swap = previous;
+        previous = current;
+        current = swap;
+      }
+      return previous[pattern.length] <= allowedEdits;
+    }
+  }
+}
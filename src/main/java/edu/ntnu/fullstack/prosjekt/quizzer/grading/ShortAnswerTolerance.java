@@ -0,0 +1,47 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.grading;
+
+/**
+ * How far a short answer may be from a correct answer and still be accepted.
+ * Longer answers allow more edits, one for every charactersPerEdit characters of the correct
+ * answer, up to maxEdits. Answers containing digits must always match exactly, so "1914" is
+ * never accepted for "1918".
+ *
+ * @param maxEdits          The most insertions, deletions or substitutions ever allowed.
+ * @param charactersPerEdit The length of correct answer needed for each allowed edit.
+ */
+public record ShortAnswerTolerance(int maxEdits, int charactersPerEdit) {
+
+  /**
+   * No edits for answers of up to three characters, one up to seven, and two for longer ones.
+   */
+  public static final ShortAnswerTolerance DEFAULT = new ShortAnswerTolerance(2, 4);
+
+  /**
+   * Only answers that are equal once normalized are accepted.
+   */
+  public static final ShortAnswerTolerance EXACT = new ShortAnswerTolerance(0, 1);
+
+  public ShortAnswerTolerance {
+    if (maxEdits < 0) {
+      throw new IllegalArgumentException("maxEdits can not be negative");
+    }
+    if (charactersPerEdit < 1) {
+      throw new IllegalArgumentException("charactersPerEdit must be positive");
+    }
+  }
+
+  /**
+   * Finds the amount of edits allowed for a normalized correct answer.
+   *
+   * @param normalized The normalized correct answer.
+   * @return The allowed amount of edits.
+   */
+  int allowedEdits(char[] normalized) {
+    for (char c : normalized) {
+      if (Character.isDigit(c)) {
+        return 0;
+      }
+    }
+    return Math.min(maxEdits, normalized.length / charactersPerEdit);
+  }
+}
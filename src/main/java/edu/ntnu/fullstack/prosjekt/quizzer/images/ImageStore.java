@@ -0,0 +1,302 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.images;
+
+import jakarta.annotation.PreDestroy;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import lombok.extern.java.Log;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Content-addressed store of images on the local disk.
+ * Every image is saved under the SHA-256 hash of its bytes, so uploading the same image twice
+ * stores it once, and a stored file never changes. Smaller copies for each thumbnail width are
+ * made in the background after an image is first stored.
+ * The width and height of an image are read from its header before it is stored, and again
+ * before it is decoded, so a small file that would decode to a huge image is rejected instead
+ * of filling the heap.
+ */
+@Log
+@Component
+public class ImageStore {
+
+  /**
+   * Names of stored images: the hash, an optional thumbnail width and the extension.
+   */
+  private static final Pattern NAME = Pattern.compile("([0-9a-f]{64})(-(\\d+))?\\.(png|jpg|gif|webp)");
+
+  private final Path directory;
+
+  private final long maxSize;
+
+  private final long maxPixels;
+
+  private final int[] thumbnailWidths;
+
+  private final ExecutorService thumbnailer = Executors.newSingleThreadExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "image-thumbnails");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  /**
+   * Creates the store, and its directory if it does not exist.
+   *
+   * @param directory       The directory the images are stored in.
+   * @param maxSize         The largest image that can be stored, in bytes.
+   * @param maxPixels       The most pixels an image that can be stored may have.
+   * @param thumbnailWidths The widths of the thumbnails made of every image.
+   * @throws IOException If the directory could not be created.
+   */
+  public ImageStore(@Value("${quizzer.images.directory:${java.io.tmpdir}/quizzer-images}") String directory,
+                    @Value("${quizzer.images.max-size:10485760}") long maxSize,
+                    @Value("${quizzer.images.max-pixels:40000000}") long maxPixels,
+                    @Value("${quizzer.images.thumbnail-widths:160,480}") int[] thumbnailWidths) throws IOException {
+    this.directory = Files.createDirectories(Path.of(directory));
+    this.maxSize = maxSize;
+    this.maxPixels = maxPixels;
+    this.thumbnailWidths = thumbnailWidths.clone();
+  }
+
+  /**
+   * Stores an image, unless an identical image is already stored.
+   *
+   * @param inputStream The bytes of the image.
+   * @return The stored image.
+   * @throws IOException If the image could not be read or written.
+   */
+  public StoredImage store(InputStream inputStream) throws IOException {
+    Path temporary = Files.createTempFile(directory, "upload-", ".tmp");
+    try {
+      MessageDigest digest = sha256();
+      long size = 0;
+      try (DigestInputStream in = new DigestInputStream(inputStream, digest);
+           OutputStream out = Files.newOutputStream(temporary)) {
+        byte[] buffer = new byte[8192];
+        for (int read = in.read(buffer); read >= 0; read = in.read(buffer)) {
+          size += read;
+          if (size > maxSize) {
+            throw new IllegalArgumentException("Image is larger than " + maxSize + " bytes");
+          }
+          out.write(buffer, 0, read);
+        }
+      }
+      String extension = extension(temporary);
+      if (extension == null) {
+        throw new IllegalArgumentException("Not a PNG, JPEG, GIF or WebP image");
+      }
+      try (ImageInputStream in = ImageIO.createImageInputStream(temporary.toFile())) {
+        ImageReader reader = reader(in);
+        if (reader != null) {
+          reader.dispose();
+        }
+      }
+      String name = HexFormat.of().formatHex(digest.digest()) + "." + extension;
+      Path target = directory.resolve(name);
+      boolean deduplicated = Files.exists(target);
+      if (!deduplicated) {
+        try {
+          Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+          thumbnailer.execute(() -> createThumbnails(target));
+        } catch (FileAlreadyExistsException e) {
+          deduplicated = true;
+        }
+      }
+      return new StoredImage(name, contentType(name), size, deduplicated, thumbnailNames(name));
+    } finally {
+      Files.deleteIfExists(temporary);
+    }
+  }
+
+  /**
+   * Finds a stored image or thumbnail.
+   *
+   * @param name The name of the image.
+   * @return The file of the image, or null if there is no image with that name.
+   */
+  public Path find(String name) {
+    if (name == null || !NAME.matcher(name).matches()) {
+      return null;
+    }
+    Path path = directory.resolve(name);
+    return Files.isRegularFile(path) ? path : null;
+  }
+
+  /**
+   * Finds the names the thumbnails of an image are stored under, once they are made.
+   *
+   * @param name The name of the image.
+   * @return The names of the thumbnails, smallest first. Empty for formats that can not be scaled.
+   */
+  public List<String> thumbnailNames(String name) {
+    Matcher matcher = NAME.matcher(name);
+    List<String> names = new ArrayList<>();
+    if (matcher.matches() && matcher.group(2) == null && !matcher.group(4).equals("webp")) {
+      for (int width : thumbnailWidths) {
+        names.add(matcher.group(1) + "-" + width + "." + matcher.group(4));
+      }
+    }
+    return names;
+  }
+
+  /**
+   * Finds the content type of an image from the extension of its name.
+   *
+   * @param name The name of the image.
+   * @return The content type.
+   */
+  public static String contentType(String name) {
+    String extension = name.substring(name.lastIndexOf('.') + 1);
+    return switch (extension) {
+      case "png" -> "image/png";
+      case "jpg" -> "image/jpeg";
+      case "gif" -> "image/gif";
+      case "webp" -> "image/webp";
+      default -> "application/octet-stream";
+    };
+  }
+
+  private void createThumbnails(Path original) {
+    String name = original.getFileName().toString();
+    try {
+      BufferedImage image;
+      try (ImageInputStream in = ImageIO.createImageInputStream(original.toFile())) {
+        ImageReader reader = reader(in);
+        if (reader == null) {
+          return;
+        }
+        try {
+          image = reader.read(0);
+        } finally {
+          reader.dispose();
+        }
+      }
+      String format = name.endsWith(".jpg") ? "jpg" : name.endsWith(".gif") ? "gif" : "png";
+      List<String> thumbnails = thumbnailNames(name);
+      for (int i = 0; i < thumbnails.size(); i++) {
+        Path target = directory.resolve(thumbnails.get(i));
+        Path temporary = Files.createTempFile(directory, "thumbnail-", ".tmp");
+        try {
+          if (image.getWidth() <= thumbnailWidths[i]) {
+            Files.copy(original, temporary, StandardCopyOption.REPLACE_EXISTING);
+          } else {
+            ImageIO.write(scale(image, thumbnailWidths[i], format.equals("jpg")), format, temporary.toFile());
+          }
+          Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+          Files.deleteIfExists(temporary);
+        }
+      }
+    } catch (IOException | RuntimeException e) {
+      log.warning("Could not make thumbnails of " + name + ": " + e.getMessage());
+    }
+  }
+
+  /**
+   * Finds a reader for an image, and checks the size of the image from its header.
+   *
+   * @return The reader, positioned at the image, or null for formats that can not be decoded.
+   * @throws IllegalArgumentException If the image has too many pixels, or no readable header.
+   */
+  private ImageReader reader(ImageInputStream in) {
+    Iterator<ImageReader> readers = in == null ? null : ImageIO.getImageReaders(in);
+    if (readers == null || !readers.hasNext()) {
+      return null;
+    }
+    ImageReader reader = readers.next();
+    long pixels;
+    try {
+      reader.setInput(in, true, true);
+      pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+    } catch (IOException | RuntimeException e) {
+      reader.dispose();
+      throw new IllegalArgumentException("Not a readable image", e);
+    }
+    if (pixels > maxPixels) {
+      reader.dispose();
+      throw new IllegalArgumentException("Image is larger than " + maxPixels + " pixels");
+    }
+    return reader;
+  }
+
+  private static BufferedImage scale(BufferedImage image, int width, boolean opaque) {
+    int height = Math.max(1, (int) ((long) image.getHeight() * width / image.getWidth()));
+    BufferedImage scaled = new BufferedImage(width, height,
+            opaque ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
+    Graphics2D graphics = scaled.createGraphics();
+    graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+    graphics.drawImage(image, 0, 0, width, height, null);
+    graphics.dispose();
+    return scaled;
+  }
+
+  private static String extension(Path file) throws IOException {
+    byte[] header = new byte[12];
+    int length;
+    try (InputStream in = Files.newInputStream(file)) {
+      length = in.readNBytes(header, 0, header.length);
+    }
+    if (length >= 8 && (header[0] & 0xff) == 0x89 && header[1] == 'P' && header[2] == 'N' && header[3] == 'G') {
+      return "png";
+    }
+    if (length >= 3 && (header[0] & 0xff) == 0xff && (header[1] & 0xff) == 0xd8 && (header[2] & 0xff) == 0xff) {
+      return "jpg";
+    }
+    if (length >= 6 && header[0] == 'G' && header[1] == 'I' && header[2] == 'F' && header[3] == '8') {
+      return "gif";
+    }
+    if (length >= 12 && header[0] == 'R' && header[1] == 'I' && header[2] == 'F' && header[3] == 'F'
+            && header[8] == 'W' && header[9] == 'E' && header[10] == 'B' && header[11] == 'P') {
+      return "webp";
+    }
+    return null;
+  }
+
+  private static MessageDigest sha256() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    thumbnailer.shutdownNow();
+  }
+
+  /**
+   * An image in the store.
+   *
+   * @param name         The name the image is stored and served under.
+   * @param contentType  The content type of the image.
+   * @param size         The size of the image, in bytes.
+   * @param deduplicated True if the image was already stored.
+   * @param thumbnails   The names of the thumbnails of the image.
+   */
+  public record StoredImage(String name, String contentType, long size, boolean deduplicated,
+                            List<String> thumbnails) {
+  }
+}
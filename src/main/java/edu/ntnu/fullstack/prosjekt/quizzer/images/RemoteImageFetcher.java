@@ -0,0 +1,256 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.images;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Inet4Address;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import javax.net.ssl.SNIHostName;
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.SSLSocketFactory;
+
+/**
+ * Downloads images from public web servers only, so a link in a quiz can not make the server
+ * fetch from its own network.
+ * The host is resolved once, every address it resolves to is checked, and the connection is
+ * made to the checked address itself, so the host can not resolve to an internal address by
+ * the time the connection is made. That is why the request is written over a plain socket
+ * instead of an HTTP client, which would resolve the host again. The request is HTTP/1.0, so
+ * the body is never chunked, redirects are not followed, and the whole download, headers and
+ * body, must finish before one deadline.
+ */
+public final class RemoteImageFetcher {
+
+  /**
+   * Longest status line and headers of a response, in bytes.
+   */
+  private static final int MAX_HEADER_SIZE = 16 * 1024;
+
+  private final Duration connectTimeout;
+
+  private final Duration deadline;
+
+  /**
+   * Creates the fetcher.
+   *
+   * @param connectTimeout How long connecting to the server may take.
+   * @param deadline       How long the whole download may take, from connecting to the last byte.
+   */
+  public RemoteImageFetcher(Duration connectTimeout, Duration deadline) {
+    this.connectTimeout = connectTimeout;
+    this.deadline = deadline;
+  }
+
+  /**
+   * Starts downloading a remote image.
+   *
+   * @param uri The http or https link of the image.
+   * @return The body of the response, which fails once the deadline has passed. The caller
+   *         bounds how much of it is read, and must close it.
+   * @throws IOException              If the server could not be reached or did not answer 200 OK.
+   * @throws IllegalArgumentException If the link is not an http or https link to a public address.
+   */
+  public InputStream open(URI uri) throws IOException {
+    String scheme = uri.getScheme() == null ? "" : uri.getScheme().toLowerCase(Locale.ROOT);
+    if (!scheme.equals("http") && !scheme.equals("https")) {
+      throw new IllegalArgumentException("Not an http or https link");
+    }
+    if (uri.getHost() == null) {
+      throw new IllegalArgumentException("No host");
+    }
+    InetAddress[] addresses;
+    try {
+      addresses = InetAddress.getAllByName(uri.getHost());
+    } catch (UnknownHostException e) {
+      throw new IllegalArgumentException("Unknown host");
+    }
+    for (InetAddress address : addresses) {
+      if (!isPublic(address)) {
+        throw new IllegalArgumentException("Not a public address");
+      }
+    }
+    boolean https = scheme.equals("https");
+    int port = uri.getPort() != -1 ? uri.getPort() : https ? 443 : 80;
+    long deadlineNanos = System.nanoTime() + deadline.toNanos();
+
+    Socket socket = new Socket();
+    try {
+      socket.connect(new InetSocketAddress(addresses[0], port), (int) connectTimeout.toMillis());
+      if (https) {
+        socket = secure(socket, uri.getHost(), port);
+      }
+      InputStream in = new BufferedInputStream(new DeadlineInputStream(socket, deadlineNanos));
+      OutputStream out = socket.getOutputStream();
+      String path = uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath();
+      String target = uri.getRawQuery() == null ? path : path + "?" + uri.getRawQuery();
+      out.write(("GET " + target + " HTTP/1.0\r\n"
+              + "Host: " + uri.getHost() + (uri.getPort() != -1 ? ":" + uri.getPort() : "") + "\r\n"
+              + "Accept: image/*\r\n"
+              + "Accept-Encoding: identity\r\n"
+              + "User-Agent: quizzer\r\n"
+              + "\r\n").getBytes(StandardCharsets.US_ASCII));
+      out.flush();
+      readHeaders(in);
+      return in;
+    } catch (IOException | RuntimeException e) {
+      socket.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Tells whether an address is on the public internet. Loopback, private, link-local,
+   * carrier-grade NAT, unique local, unspecified, multicast and reserved addresses are not,
+   * and neither are IPv6 addresses embedding one of those IPv4 addresses.
+   *
+   * @param address The address.
+   * @return True if the address is public.
+   */
+  public static boolean isPublic(InetAddress address) {
+    if (address.isLoopbackAddress() || address.isSiteLocalAddress() || address.isLinkLocalAddress()
+            || address.isAnyLocalAddress() || address.isMulticastAddress()) {
+      return false;
+    }
+    byte[] bytes = address.getAddress();
+    if (address instanceof Inet4Address) {
+      return isPublicIpv4(bytes[0] & 0xff, bytes[1] & 0xff, bytes[2] & 0xff);
+    }
+    if (address instanceof Inet6Address) {
+      int first = bytes[0] & 0xff;
+      if ((first & 0xfe) == 0xfc) {
+        // Unique local addresses, fc00::/7.
+        return false;
+      }
+      boolean prefixZero = true;
+      for (int i = 0; i < 10; i++) {
+        prefixZero &= bytes[i] == 0;
+      }
+      boolean mapped = prefixZero && (bytes[10] & 0xff) == 0xff && (bytes[11] & 0xff) == 0xff;
+      boolean compatible = prefixZero && bytes[10] == 0 && bytes[11] == 0;
+      boolean nat64 = first == 0x00 && (bytes[1] & 0xff) == 0x64 && (bytes[2] & 0xff) == 0xff
+              && (bytes[3] & 0xff) == 0x9b;
+      if (mapped || compatible || nat64) {
+        return isPublicIpv4(bytes[12] & 0xff, bytes[13] & 0xff, bytes[14] & 0xff);
+      }
+      // Documentation addresses, 2001:db8::/32.
+      return !(first == 0x20 && bytes[1] == 0x01 && (bytes[2] & 0xff) == 0x0d && (bytes[3] & 0xff) == 0xb8);
+    }
+    return false;
+  }
+
+  private static boolean isPublicIpv4(int a, int b, int c) {
+    return a != 0 // This network, 0.0.0.0/8.
+            && a != 10 && a != 127
+            && !(a == 100 && (b & 0xc0) == 64) // Carrier-grade NAT, 100.64.0.0/10.
+            && !(a == 169 && b == 254)
+            && !(a == 172 && (b & 0xf0) == 16)
+            && !(a == 192 && b == 0 && (c == 0 || c == 2)) // Protocol assignments and documentation.
+            && !(a == 192 && b == 168)
+            && !(a == 198 && (b & 0xfe) == 18) // Benchmarking, 198.18.0.0/15.
+            && !(a == 198 && b == 51 && c == 100)
+            && !(a == 203 && b == 0 && c == 113)
+            && a < 224; // Multicast, reserved and broadcast.
+  }
+
+  private static Socket secure(Socket socket, String host, int port) throws IOException {
+    SSLSocket sslSocket = (SSLSocket) ((SSLSocketFactory) SSLSocketFactory.getDefault())
+            .createSocket(socket, host, port, true);
+    SSLParameters parameters = sslSocket.getSSLParameters();
+    parameters.setEndpointIdentificationAlgorithm("HTTPS");
+    if (!host.startsWith("[") && !Character.isDigit(host.charAt(host.length() - 1))) {
+      parameters.setServerNames(List.of(new SNIHostName(host)));
+    }
+    sslSocket.setSSLParameters(parameters);
+    sslSocket.startHandshake();
+    return sslSocket;
+  }
+
+  /**
+   * Reads the status line and headers of a response, leaving the stream at its body.
+   */
+  private static void readHeaders(InputStream in) throws IOException {
+    String statusLine = readLine(in, MAX_HEADER_SIZE);
+    String[] status = statusLine.split(" ", 3);
+    if (status.length < 2 || !status[0].startsWith("HTTP/")) {
+      throw new IOException("Not an HTTP response");
+    }
+    if (!status[1].equals("200")) {
+      throw new IOException("Status " + status[1]);
+    }
+    int remaining = MAX_HEADER_SIZE - statusLine.length();
+    for (String line = readLine(in, remaining); !line.isEmpty(); line = readLine(in, remaining)) {
+      remaining -= line.length() + 2;
+      if (line.toLowerCase(Locale.ROOT).startsWith("transfer-encoding:")) {
+        throw new IOException("Unsupported transfer encoding");
+      }
+    }
+  }
+
+  private static String readLine(InputStream in, int limit) throws IOException {
+    ByteArrayOutputStream line = new ByteArrayOutputStream();
+    for (int b = in.read(); b != '\n'; b = in.read()) {
+      if (b < 0) {
+        throw new IOException("Response ended in its headers");
+      }
+      if (line.size() >= limit) {
+        throw new IOException("Response headers are too large");
+      }
+      if (b != '\r') {
+        line.write(b);
+      }
+    }
+    return line.toString(StandardCharsets.ISO_8859_1);
+  }
+
+  /**
+   * Reads from a socket until a deadline, giving every read only the time left, and closes the
+   * socket when closed.
+   */
+  private static final class DeadlineInputStream extends FilterInputStream {
+
+    private final Socket socket;
+
+    private final long deadlineNanos;
+
+    DeadlineInputStream(Socket socket, long deadlineNanos) throws IOException {
+      super(socket.getInputStream());
+      this.socket = socket;
+      this.deadlineNanos = deadlineNanos;
+    }
+
+    @Override
+    public int read() throws IOException {
+      byte[] single = new byte[1];
+      return read(single, 0, 1) < 0 ? -1 : single[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+      long remainingMillis = (deadlineNanos - System.nanoTime()) / 1_000_000;
+      if (remainingMillis <= 0) {
+        throw new SocketTimeoutException("Download took too long");
+      }
+      socket.setSoTimeout((int) Math.min(Integer.MAX_VALUE, remainingMillis));
+      return super.read(buffer, offset, length);
+    }
+
+    @Override
+    public void close() throws IOException {
+      socket.close();
+    }
+  }
+}
@@ -0,0 +1,33 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Recorded for every graded quiz attempt. Grading runs for every submission, often in parallel
+ * for batches, so the stack trace is left out to keep the event cheap.
+ */
+@Name("quizzer.Grading")
+@Label("Grading")
+@Category({"Quizzer", "Quizzes"})
+@Description("A quiz attempt graded against an answer key")
+@StackTrace(false)
+public class GradingEvent extends Event {
+
+  @Label("Quiz Id")
+  public long quizId;
+
+  @Label("Version")
+  public int version;
+
+  @Label("Question Count")
+  @Description("The amount of answered questions")
+  public int questionCount;
+
+  @Label("Score")
+  public int score;
+}
@@ -0,0 +1,23 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Recorded for every verified access token. Every signed in request verifies one, so the stack
+ * trace, which is always the security filter, is left out.
+ */
+@Name("quizzer.JwtVerification")
+@Label("JWT Verification")
+@Category({"Quizzer", "Security"})
+@Description("An access token checked by the authorization filter")
+@StackTrace(false)
+public class JwtVerificationEvent extends Event {
+
+  @Label("Valid")
+  public boolean valid;
+}
@@ -0,0 +1,45 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Recorded for a mapping between an entity and a dto. A single page of quizzes takes dozens of
+ * mappings, so only the ones over the threshold are recorded, without their stack trace. Set
+ * quizzer.Mapper#threshold=0 ms in the recording settings to record all of them.
+ */
+@Name("quizzer.Mapper")
+@Label("Mapper")
+@Category({"Quizzer", "Mapping"})
+@Description("An entity mapped to a dto, or a dto to an entity")
+@StackTrace(false)
+@Threshold("1 ms")
+public class MapperEvent extends Event {
+
+  @Label("Mapper")
+  public String mapper;
+
+  @Label("Direction")
+  @Description("to for entity to dto, from for dto to entity")
+  public String direction;
+
+  /**
+   * Ends the mapping, and commits the event if it is enabled and over the threshold.
+   *
+   * @param mapper    The mapper that ran.
+   * @param direction to or from.
+   */
+  public void finish(Object mapper, String direction) {
+    end();
+    if (shouldCommit()) {
+      this.mapper = mapper.getClass().getSimpleName();
+      this.direction = direction;
+      commit();
+    }
+  }
+}
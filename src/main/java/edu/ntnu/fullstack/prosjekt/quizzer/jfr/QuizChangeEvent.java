@@ -0,0 +1,30 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Recorded when a quiz is created, updated or forked. Quizzes change rarely compared to how
+ * often they are read, so the event keeps its stack trace, which shows where the change came from.
+ */
+@Name("quizzer.QuizChange")
+@Label("Quiz Change")
+@Category({"Quizzer", "Quizzes"})
+@Description("A quiz created, updated or forked")
+@StackTrace(true)
+public class QuizChangeEvent extends Event {
+
+  @Label("Operation")
+  @Description("create, update or fork")
+  public String operation;
+
+  @Label("Quiz Id")
+  public long quizId;
+
+  @Label("Question Count")
+  public int questionCount;
+}
@@ -0,0 +1,31 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Recorded for every quiz search and title suggestion. Suggestions are asked for on every
+ * keystroke, so the stack trace is left out to keep the event cheap. The query itself is not
+ * recorded, as recordings are shared more widely than the database.
+ */
+@Name("quizzer.QuizSearch")
+@Label("Quiz Search")
+@Category({"Quizzer", "Search"})
+@Description("A search or suggestion lookup among the quizzes")
+@StackTrace(false)
+public class QuizSearchEvent extends Event {
+
+  @Label("Kind")
+  @Description("filter for a search, suggest for suggestions")
+  public String kind;
+
+  @Label("Query Length")
+  public int queryLength;
+
+  @Label("Hits")
+  public long hits;
+}
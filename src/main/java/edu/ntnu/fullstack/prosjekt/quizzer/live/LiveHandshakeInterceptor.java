@@ -0,0 +1,51 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.live;
+
+import edu.ntnu.fullstack.prosjekt.quizzer.security.JWTAuthorizationFilter;
+import java.util.Map;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * Authenticates live sessions before the WebSocket handshake. Browsers can not set headers on
+ * WebSocket requests, so the access token is passed as the token query parameter instead.
+ */
+public class LiveHandshakeInterceptor implements HandshakeInterceptor {
+
+  /**
+   * Session attribute holding the username of the authenticated user.
+   */
+  public static final String USERNAME = "username";
+
+  private final JWTAuthorizationFilter tokenValidator = new JWTAuthorizationFilter();
+
+  /**
+   * Rejects the handshake unless the request has a valid access token.
+   *
+   * @param request    The handshake request.
+   * @param response   The handshake response.
+   * @param wsHandler  The handler of the session.
+   * @param attributes The attributes of the session.
+   * @return True if the handshake may continue.
+   */
+  @Override
+  public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                 WebSocketHandler wsHandler, Map<String, Object> attributes) {
+    String token = UriComponentsBuilder.fromUri(request.getURI()).build().getQueryParams().getFirst("token");
+    String username = token == null ? null : tokenValidator.validateTokenAndGetUserId(token);
+    if (username == null) {
+      response.setStatusCode(HttpStatus.UNAUTHORIZED);
+      return false;
+    }
+    attributes.put(USERNAME, username);
+    return true;
+  }
+
+  @Override
+  public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                             WebSocketHandler wsHandler, Exception exception) {
+  }
+}
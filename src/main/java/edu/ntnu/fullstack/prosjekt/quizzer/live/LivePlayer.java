@@ -0,0 +1,105 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.live;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.web.socket.WebSocketSession;
+
+/**
+ * A player in a live room. Every field that changes while a question is open is atomic, so
+ * answers from different players never wait on each other.
+ */
+public final class LivePlayer {
+
+  private final String username;
+
+  private volatile WebSocketSession session;
+
+  private final AtomicInteger points = new AtomicInteger();
+
+  private final AtomicInteger correctAnswers = new AtomicInteger();
+
+  /**
+   * Index of the last question this player answered, so each question is answered only once.
+   */
+  private final AtomicInteger lastAnswered = new AtomicInteger(-1);
+
+  /**
+   * Index of the last question this player answered correctly.
+   */
+  private final AtomicInteger lastCorrect = new AtomicInteger(-1);
+
+  /**
+   * Creates a player.
+   *
+   * @param username The username of the player.
+   * @param session  The session the player is connected through.
+   */
+  public LivePlayer(String username, WebSocketSession session) {
+    this.username = username;
+    this.session = session;
+  }
+
+  /**
+   * Claims the right to answer a question, which only succeeds once per question.
+   *
+   * @param questionIndex The index of the question.
+   * @return True if the player had not answered the question yet.
+   */
+  boolean claim(int questionIndex) {
+    while (true) {
+      int previous = lastAnswered.get();
+      if (previous >= questionIndex) {
+        return false;
+      }
+      if (lastAnswered.compareAndSet(previous, questionIndex)) {
+        return true;
+      }
+    }
+  }
+
+  /**
+   * Awards points for a correct answer.
+   *
+   * @param questionIndex The index of the question answered correctly.
+   * @param awarded       The points to add.
+   */
+  void award(int questionIndex, int awarded) {
+    points.addAndGet(awarded);
+    correctAnswers.incrementAndGet();
+    lastCorrect.set(questionIndex);
+  }
+
+  /**
+   * Whether the player answered a question correctly.
+   *
+   * @param questionIndex The index of the question.
+   * @return True if the last correct answer was to the question.
+   */
+  public boolean answeredCorrectly(int questionIndex) {
+    return lastCorrect.get() == questionIndex;
+  }
+
+  public String getUsername() {
+    return username;
+  }
+
+  public WebSocketSession getSession() {
+    return session;
+  }
+
+  /**
+   * Moves the player to a new session after reconnecting, keeping its points.
+   *
+   * @param session The new session.
+   */
+  void setSession(WebSocketSession session) {
+    this.session = session;
+  }
+
+  public int getPoints() {
+    return points.get();
+  }
+
+  public int getCorrectAnswers() {
+    return correctAnswers.get();
+  }
+}
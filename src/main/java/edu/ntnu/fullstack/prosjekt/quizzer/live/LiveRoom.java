@@ -0,0 +1,398 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.live;
+
+import edu.ntnu.fullstack.prosjekt.quizzer.cache.QuizSnapshot;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.QuestionAnswersDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.QuestionDto;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import org.springframework.web.socket.WebSocketSession;
+
+/**
+ * In-memory state of a live game, where a host opens the questions of a quiz one at a time and
+ * players answer within a time limit.
+ * Answers are graded against the cached answer key of the quiz, and aggregated without locks:
+ * each player claims a question with a compare-and-set, and the counts of the open question
+ * are atomic, so hundreds of answers arriving at once never block each other.
+ */
+public final class LiveRoom {
+
+  /**
+   * Points for a correct answer given at the deadline. Answering instantly doubles them.
+   */
+  static final int BASE_POINTS = 500;
+
+  private final String code;
+
+  private final QuizSnapshot snapshot;
+
+  private final List<QuestionDto> questions;
+
+  private final long questionMillis;
+
+  private final String hostUsername;
+
+  private final WebSocketSession host;
+
+  private final Map<String, LivePlayer> players = new ConcurrentHashMap<>();
+
+  private final AtomicBoolean changed = new AtomicBoolean();
+
+  private final long createdAt;
+
+  private volatile Round round;
+
+  private final AtomicBoolean finished = new AtomicBoolean();
+
+  /**
+   * Creates a room.
+   *
+   * @param code           The code players join the room with.
+   * @param snapshot       The quiz being played.
+   * @param questions      The questions to play, in the order they are opened.
+   * @param questionMillis How long each question can be answered, in milliseconds.
+   * @param hostUsername   The username of the host.
+   * @param host           The session of the host.
+   * @param createdAt      When the room was created, in epoch milliseconds.
+   */
+  public LiveRoom(String code, QuizSnapshot snapshot, List<QuestionDto> questions, long questionMillis,
+                  String hostUsername, WebSocketSession host, long createdAt) {
+    this.code = code;
+    this.snapshot = snapshot;
+    this.questions = List.copyOf(questions);
+    this.questionMillis = questionMillis;
+    this.hostUsername = hostUsername;
+    this.host = host;
+    this.createdAt = createdAt;
+  }
+
+  /**
+   * Adds a player, or moves a returning player to its new session.
+   *
+   * @param username The username of the player.
+   * @param session  The session of the player.
+   * @return The player.
+   */
+  public LivePlayer join(String username, WebSocketSession session) {
+    LivePlayer player = players.computeIfAbsent(username, name -> new LivePlayer(name, session));
+    player.setSession(session);
+    changed.set(true);
+    return player;
+  }
+
+  /**
+   * Closes the open question, if any, and opens the next one.
+   *
+   * @param now The current time, in epoch milliseconds.
+   * @return The opened question, or null if every question has been played.
+   */
+  public Round next(long now) {
+    Round closed = round;
+    int index = closed == null ? 0 : closed.index + 1;
+    if (closed != null) {
+      closed.closed = true;
+    }
+    if (index >= questions.size()) {
+      return null;
+    }
+    QuestionDto question = questions.get(index);
+    Round opened = new Round(index, question, snapshot.correctAnswers(question.getQuestionId()),
+            now, now + questionMillis);
+    round = opened;
+    changed.set(true);
+    return opened;
+  }
+
+  /**
+   * Closes the open question, so it can no longer be answered.
+   *
+   * @return The closed question, or null if no question was open.
+   */
+  public Round close() {
+    Round closed = round;
+    if (closed != null) {
+      closed.closed = true;
+    }
+    return closed;
+  }
+
+  /**
+   * Grades and counts an answer to the open question.
+   *
+   * @param username      The username of the answering player.
+   * @param questionIndex The index of the question the player answered.
+   * @param answer        The given answer.
+   * @param now           The current time, in epoch milliseconds.
+   * @return Whether the answer was accepted, or why not.
+   */
+  public AnswerOutcome answer(String username, int questionIndex, String answer, long now) {
+    LivePlayer player = players.get(username);
+    if (player == null) {
+      return AnswerOutcome.NOT_JOINED;
+    }
+    Round current = round;
+    if (current == null || current.index != questionIndex || current.closed || now > current.deadline) {
+      return AnswerOutcome.CLOSED;
+    }
+    if (!player.claim(questionIndex)) {
+      return AnswerOutcome.DUPLICATE;
+    }
+    current.answered.incrementAndGet();
+    int alternative = current.alternativeIndex(answer);
+    if (alternative >= 0) {
+      current.counts.incrementAndGet(alternative);
+    }
+    if (snapshot.isCorrect(current.question.getQuestionId(), answer)) {
+      current.correct.incrementAndGet();
+      long remaining = Math.max(0, current.deadline - now);
+      player.award(questionIndex, BASE_POINTS + (int) (BASE_POINTS * remaining / Math.max(1, questionMillis)));
+    }
+    changed.set(true);
+    return AnswerOutcome.ACCEPTED;
+  }
+
+  /**
+   * Finds the players with the most points, using a bounded heap instead of sorting every player.
+   *
+   * @param limit The amount of players to find.
+   * @return The best players, best first.
+   */
+  public List<LivePlayer> top(int limit) {
+    Comparator<LivePlayer> byPoints = Comparator.comparingInt(LivePlayer::getPoints);
+    PriorityQueue<LivePlayer> best = new PriorityQueue<>(limit + 1, byPoints);
+    for (LivePlayer player : players.values()) {
+      best.add(player);
+      if (best.size() > limit) {
+        best.poll();
+      }
+    }
+    List<LivePlayer> top = new ArrayList<>(best);
+    top.sort(byPoints.reversed());
+    return top;
+  }
+
+  /**
+   * Takes a snapshot of every player's points, to find the rank of each player.
+   *
+   * @return The ranking.
+   */
+  public Ranking ranking() {
+    int[] points = new int[players.size()];
+    int i = 0;
+    for (LivePlayer player : players.values()) {
+      if (i == points.length) {
+        points = Arrays.copyOf(points, points.length * 2);
+      }
+      points[i++] = player.getPoints();
+    }
+    int[] sorted = Arrays.copyOf(points, i);
+    Arrays.sort(sorted);
+    return new Ranking(sorted);
+  }
+
+  /**
+   * Clears the changed flag, telling whether the standings have changed since the last call.
+   *
+   * @return True if a player joined or answered since the last call.
+   */
+  public boolean takeChanged() {
+    return changed.getAndSet(false);
+  }
+
+  public String getCode() {
+    return code;
+  }
+
+  public QuizSnapshot getSnapshot() {
+    return snapshot;
+  }
+
+  public int getQuestionCount() {
+    return questions.size();
+  }
+
+  /**
+   * Finds a question of the room.
+   *
+   * @param questionIndex The index of the question, in the order they are opened.
+   * @return The question.
+   */
+  public QuestionDto getQuestion(int questionIndex) {
+    return questions.get(questionIndex);
+  }
+
+  public long getQuestionMillis() {
+    return questionMillis;
+  }
+
+  public String getHostUsername() {
+    return hostUsername;
+  }
+
+  public WebSocketSession getHost() {
+    return host;
+  }
+
+  public Collection<LivePlayer> getPlayers() {
+    return players.values();
+  }
+
+  public LivePlayer getPlayer(String username) {
+    return players.get(username);
+  }
+
+  public Round getRound() {
+    return round;
+  }
+
+  public long getCreatedAt() {
+    return createdAt;
+  }
+
+  public boolean isFinished() {
+    return finished.get();
+  }
+
+  /**
+   * Marks the room as finished.
+   *
+   * @return True if this call finished the room, false if it was already finished.
+   */
+  boolean markFinished() {
+    return finished.compareAndSet(false, true);
+  }
+
+  /**
+   * Outcomes of answering a question.
+   */
+  public enum AnswerOutcome {
+    ACCEPTED,
+    DUPLICATE,
+    CLOSED,
+    NOT_JOINED
+  }
+
+  /**
+   * An opened question, with its answer counts.
+   */
+  public static final class Round {
+    private final int index;
+    private final QuestionDto question;
+    private final List<String> correctAnswers;
+    private final String[] alternatives;
+    private final long openedAt;
+    private final long deadline;
+    private final AtomicInteger answered = new AtomicInteger();
+    private final AtomicInteger correct = new AtomicInteger();
+    private final AtomicIntegerArray counts;
+    private volatile boolean closed;
+
+    private Round(int index, QuestionDto question, List<String> correctAnswers, long openedAt,
+                  long deadline) {
+      this.index = index;
+      this.question = question;
+      this.correctAnswers = correctAnswers;
+      this.alternatives = question.getAlternatives() == null ? new String[0]
+              : question.getAlternatives().stream().map(QuestionAnswersDto::getAnswer).toArray(String[]::new);
+      this.openedAt = openedAt;
+      this.deadline = deadline;
+      this.counts = new AtomicIntegerArray(alternatives.length);
+    }
+
+    private int alternativeIndex(String answer) {
+      if (answer == null) {
+        return -1;
+      }
+      for (int i = 0; i < alternatives.length; i++) {
+        if (answer.equalsIgnoreCase(alternatives[i])) {
+          return i;
+        }
+      }
+      return -1;
+    }
+
+    public int getIndex() {
+      return index;
+    }
+
+    public boolean isClosed() {
+      return closed;
+    }
+
+    public QuestionDto getQuestion() {
+      return question;
+    }
+
+    public List<String> getCorrectAnswers() {
+      return correctAnswers;
+    }
+
+    public long getOpenedAt() {
+      return openedAt;
+    }
+
+    public long getDeadline() {
+      return deadline;
+    }
+
+    public int getAnswered() {
+      return answered.get();
+    }
+
+    public int getCorrect() {
+      return correct.get();
+    }
+
+    /**
+     * Counts how many players chose each alternative.
+     *
+     * @return The counts, in the order of the alternatives.
+     */
+    public int[] getCounts() {
+      int[] result = new int[counts.length()];
+      for (int i = 0; i < result.length; i++) {
+        result[i] = counts.get(i);
+      }
+      return result;
+    }
+  }
+
+  /**
+   * Sorted points of every player at one moment.
+   */
+  public static final class Ranking {
+    private final int[] sortedPoints;
+
+    private Ranking(int[] sortedPoints) {
+      this.sortedPoints = sortedPoints;
+    }
+
+    /**
+     * Finds the rank of a score, where players with equal points share a rank.
+     *
+     * @param points The points of a player.
+     * @return The rank, starting at 1.
+     */
+    public int rankOf(int points) {
+      int low = 0;
+      int high = sortedPoints.length;
+      while (low < high) {
+        int middle = (low + high) >>> 1;
+        if (sortedPoints[middle] <= points) {
+          low = middle + 1;
+        } else {
+          high = middle;
+        }
+      }
+      return sortedPoints.length - low + 1;
+    }
+  }
+}
@@ -0,0 +1,510 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.live;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.ntnu.fullstack.prosjekt.quizzer.cache.QuizSnapshot;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.QuestionAttemptDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.QuestionDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.entities.QuizAttemptEntity;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.entities.QuizEntity;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.entities.QuizVersionEntity;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.entities.UserEntity;
+import edu.ntnu.fullstack.prosjekt.quizzer.practice.MasteryStore;
+import edu.ntnu.fullstack.prosjekt.quizzer.repositories.AttemptRepository;
+import edu.ntnu.fullstack.prosjekt.quizzer.repositories.QuizRepository;
+import edu.ntnu.fullstack.prosjekt.quizzer.repositories.QuizVersionRepository;
+import edu.ntnu.fullstack.prosjekt.quizzer.repositories.UserRepository;
+import edu.ntnu.fullstack.prosjekt.quizzer.recommend.QuizRecommender;
+import edu.ntnu.fullstack.prosjekt.quizzer.recommend.TrendingQuizzes;
+import edu.ntnu.fullstack.prosjekt.quizzer.search.QuizSuggestionIndex;
+import edu.ntnu.fullstack.prosjekt.quizzer.services.QuizService;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import lombok.extern.java.Log;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+/**
+ * Keeps every live room in memory, and pushes questions, standings and results to its players.
+ * Standings are not sent for every answer: a ticker broadcasts them for rooms that changed,
+ * serializing each message once and sharing it between every session in the room. When a game
+ * ends, the results of every player are saved as attempts in one batch.
+ */
+@Log
+@Component
+public class LiveRoomRegistry {
+
+  /**
+   * Characters room codes are made of, leaving out ones that are easily confused.
+   */
+  private static final char[] CODE_CHARACTERS = "ABCDEFGHJKLMNPQRSTUVWXYZ23456789".toCharArray();
+
+  private static final int CODE_LENGTH = 6;
+
+  /**
+   * Bounds of how long a question can be answered, in seconds.
+   */
+  private static final int MIN_SECONDS = 5;
+  private static final int MAX_SECONDS = 300;
+
+  /**
+   * Amount of players shown in the standings.
+   */
+  private static final int STANDINGS_SIZE = 10;
+
+  /**
+   * Amount of sessions a single broadcast task sends to.
+   */
+  private static final int BROADCAST_CHUNK = 512;
+
+  /**
+   * Used for Dependency Injection.
+   */
+  private final QuizService quizService;
+
+  private final AttemptRepository attemptRepository;
+
+  private final UserRepository userRepository;
+
+  private final QuizRepository quizRepository;
+
+  private final QuizVersionRepository quizVersionRepository;
+
+  private final QuizSuggestionIndex quizSuggestionIndex;
+
+  private final QuizRecommender quizRecommender;
+
+  private final TrendingQuizzes trendingQuizzes;
+
+  private final MasteryStore masteryStore;
+
+  private final ObjectMapper objectMapper;
+
+  private final TransactionTemplate transactionTemplate;
+
+  private final int maxRoomsPerHost;
+
+  private final Map<String, LiveRoom> rooms = new ConcurrentHashMap<>();
+
+  /**
+   * The room each connected session is in, keyed by session id.
+   */
+  private final Map<String, LiveRoom> roomsBySession = new ConcurrentHashMap<>();
+
+  private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "live-standings");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  private final ExecutorService broadcaster = Executors.newFixedThreadPool(
+          Math.max(2, Runtime.getRuntime().availableProcessors()), runnable -> {
+            Thread thread = new Thread(runnable, "live-broadcast");
+            thread.setDaemon(true);
+            return thread;
+          });
+
+  /**
+   * Used for Dependency Injection.
+   *
+   * @param quizService The injected QuizService object.
+   * @param transactionManager The transaction manager the results are saved in.
+   * @param standingsMillis How often changed standings are broadcast, in milliseconds.
+   * @param maxRoomsPerHost The most rooms a user can host at once.
+   */
+  public LiveRoomRegistry(QuizService quizService, AttemptRepository attemptRepository,
+                          UserRepository userRepository, QuizRepository quizRepository,
+                          QuizVersionRepository quizVersionRepository, QuizSuggestionIndex quizSuggestionIndex,
+                          QuizRecommender quizRecommender, TrendingQuizzes trendingQuizzes,
+                          MasteryStore masteryStore, ObjectMapper objectMapper,
+                          PlatformTransactionManager transactionManager,
+                          @Value("${quizzer.live.standings-interval-ms:500}") long standingsMillis,
+                          @Value("${quizzer.live.max-rooms-per-host:3}") int maxRoomsPerHost) {
+    this.quizService = quizService;
+    this.attemptRepository = attemptRepository;
+    this.userRepository = userRepository;
+    this.quizRepository = quizRepository;
+    this.quizVersionRepository = quizVersionRepository;
+    this.quizSuggestionIndex = quizSuggestionIndex;
+    this.quizRecommender = quizRecommender;
+    this.trendingQuizzes = trendingQuizzes;
+    this.masteryStore = masteryStore;
+    this.objectMapper = objectMapper;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.maxRoomsPerHost = maxRoomsPerHost;
+    ticker.scheduleWithFixedDelay(this::broadcastStandings, standingsMillis, standingsMillis,
+            TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Creates a room for a quiz, hosted by the given session. A session can only be in one room,
+   * so a room is never left without its host, and a user can only host a few rooms at once.
+   *
+   * @param host     The session of the host.
+   * @param username The username of the host.
+   * @param quizId   The id of the quiz to play.
+   * @param count    The amount of questions to play, or null for every question.
+   * @param seconds  How long each question can be answered, in seconds, kept between 5 and 300.
+   * @return The created room.
+   * @throws IllegalArgumentException If the session is already in a room, or the user already
+   *                                  hosts as many rooms as allowed.
+   */
+  public LiveRoom create(WebSocketSession host, String username, Long quizId, Integer count, int seconds) {
+    if (roomsBySession.containsKey(host.getId())) {
+      throw new IllegalArgumentException("Already in a room");
+    }
+    if (rooms.values().stream().filter(room -> room.getHostUsername().equals(username)).count() >= maxRoomsPerHost) {
+      throw new IllegalArgumentException("Already hosting " + maxRoomsPerHost + " rooms");
+    }
+    QuizSnapshot snapshot = quizService.findQuizSnapshot(quizId, null);
+    List<QuestionDto> questions = snapshot.sample(count == null ? snapshot.size() : count,
+            ThreadLocalRandom.current().nextLong());
+    LiveRoom room;
+    do {
+      room = new LiveRoom(newCode(), snapshot, questions,
+              Math.clamp(seconds, MIN_SECONDS, MAX_SECONDS) * 1000L, username, host,
+              System.currentTimeMillis());
+    } while (rooms.putIfAbsent(room.getCode(), room) != null);
+    roomsBySession.put(host.getId(), room);
+    send(host, new Created("CREATED", room.getCode(), snapshot.getTitle(), room.getQuestionCount()));
+    log.info("Live room " + room.getCode() + " created for quiz " + quizId);
+    return room;
+  }
+
+  /**
+   * Adds a player to a room.
+   *
+   * @param session  The session of the player.
+   * @param username The username of the player.
+   * @param code     The code of the room.
+   */
+  public void join(WebSocketSession session, String username, String code) {
+    LiveRoom room = code == null ? null : rooms.get(code.toUpperCase());
+    if (room == null || room.isFinished()) {
+      error(session, "No room with code " + code);
+      return;
+    }
+    room.join(username, session);
+    roomsBySession.put(session.getId(), room);
+    send(session, new Joined("JOINED", room.getCode(), room.getSnapshot().getTitle(),
+            room.getQuestionCount()));
+    LiveRoom.Round round = room.getRound();
+    if (round != null && !round.isClosed()) {
+      send(session, question(room, round));
+    }
+  }
+
+  /**
+   * Reveals the open question and opens the next one, or ends the game after the last question.
+   *
+   * @param session The session of the host.
+   */
+  public void next(WebSocketSession session) {
+    LiveRoom room = hostedRoom(session);
+    if (room == null) {
+      return;
+    }
+    LiveRoom.Round closed = room.close();
+    if (closed != null) {
+      reveal(room, closed);
+    }
+    LiveRoom.Round opened = room.next(System.currentTimeMillis());
+    if (opened == null) {
+      finish(room);
+      return;
+    }
+    broadcast(room, message(question(room, opened)));
+  }
+
+  /**
+   * Answers the open question of the room the session is in, and records the answer for the
+   * practice of the player.
+   *
+   * @param session       The session of the player.
+   * @param username      The username of the player.
+   * @param questionIndex The index of the answered question.
+   * @param answer        The given answer.
+   */
+  public void answer(WebSocketSession session, String username, int questionIndex, String answer) {
+    LiveRoom room = roomsBySession.get(session.getId());
+    if (room == null) {
+      error(session, "Not in a room");
+      return;
+    }
+    long now = System.currentTimeMillis();
+    LiveRoom.AnswerOutcome outcome = room.answer(username, questionIndex, answer, now);
+    send(session, new Answered("ANSWERED", questionIndex, outcome));
+    if (outcome == LiveRoom.AnswerOutcome.ACCEPTED) {
+      boolean correct = room.getPlayer(username).answeredCorrectly(questionIndex);
+      try {
+        masteryStore.record(username, room.getSnapshot(), List.of(new QuestionAttemptDto(
+                room.getQuestion(questionIndex).getQuestionId(), answer, correct)), now);
+      } catch (RuntimeException e) {
+        log.log(Level.WARNING, "Could not record the mastery of " + username + " in live room " + room.getCode(), e);
+      }
+    }
+  }
+
+  /**
+   * Ends the game early, saving the results so far.
+   *
+   * @param session The session of the host.
+   */
+  public void end(WebSocketSession session) {
+    LiveRoom room = hostedRoom(session);
+    if (room != null) {
+      LiveRoom.Round closed = room.close();
+      if (closed != null) {
+        reveal(room, closed);
+      }
+      finish(room);
+    }
+  }
+
+  /**
+   * Forgets a closed session. If the host leaves, the game ends.
+   *
+   * @param session The closed session.
+   */
+  public void disconnected(WebSocketSession session) {
+    LiveRoom room = roomsBySession.remove(session.getId());
+    if (room != null && room.getHost().getId().equals(session.getId())) {
+      room.close();
+      finish(room);
+    }
+  }
+
+  /**
+   * The amount of rooms currently being played.
+   *
+   * @return The amount of rooms.
+   */
+  public int size() {
+    return rooms.size();
+  }
+
+  /**
+   * Sends each player whether they answered the closed question correctly and their rank, then
+   * shows everyone the correct answers and how many chose each alternative.
+   */
+  private void reveal(LiveRoom room, LiveRoom.Round round) {
+    LiveRoom.Ranking ranking = room.ranking();
+    fanOut(new ArrayList<>(room.getPlayers()), player -> send(player.getSession(),
+            new Result("RESULT", round.getIndex(), player.answeredCorrectly(round.getIndex()),
+                    player.getPoints(), ranking.rankOf(player.getPoints()))));
+    broadcast(room, message(new Reveal("REVEAL", round.getIndex(), round.getCorrectAnswers(),
+            round.getCounts(), round.getAnswered(), round.getCorrect())));
+  }
+
+  /**
+   * Ends a game, saving one attempt per player in a single batch.
+   */
+  private void finish(LiveRoom room) {
+    if (!room.markFinished()) {
+      return;
+    }
+    rooms.remove(room.getCode());
+    broadcast(room, message(new Standings("FINISHED", room.getQuestionCount() - 1,
+            room.getPlayers().size(), standings(room))));
+    saveResults(room);
+    for (LivePlayer player : room.getPlayers()) {
+      roomsBySession.remove(player.getSession().getId());
+    }
+    roomsBySession.remove(room.getHost().getId());
+    log.info("Live room " + room.getCode() + " finished with " + room.getPlayers().size() + " players");
+  }
+
+  private void saveResults(LiveRoom room) {
+    if (room.getPlayers().isEmpty()) {
+      return;
+    }
+    int duration = (int) ((System.currentTimeMillis() - room.getCreatedAt()) / 1000);
+    Long quizId = room.getSnapshot().getQuizId();
+    try {
+      Integer saved = transactionTemplate.execute(status -> {
+        QuizEntity quizEntity = quizRepository.findById(quizId).orElse(null);
+        if (quizEntity == null) {
+          log.info("Quiz " + quizId + " was deleted during live room " + room.getCode());
+          return 0;
+        }
+        Map<String, UserEntity> users = new HashMap<>();
+        userRepository.findAllById(room.getPlayers().stream().map(LivePlayer::getUsername).toList())
+                .forEach(user -> users.put(user.getUsername(), user));
+        QuizVersionEntity version = quizVersionRepository.getReferenceById(room.getSnapshot().getVersionId());
+        List<QuizAttemptEntity> attempts = new ArrayList<>(users.size());
+        for (LivePlayer player : room.getPlayers()) {
+          UserEntity user = users.get(player.getUsername());
+          if (user != null) {
+            attempts.add(new QuizAttemptEntity(null, player.getCorrectAnswers(), duration, user, quizEntity,
+                    version));
+          }
+        }
+        attemptRepository.saveAll(attempts);
+        return attempts.size();
+      });
+      trendingQuizzes.recordAttempts(quizId, room.getSnapshot().getTitle(), saved == null ? 0 : saved);
+      for (LivePlayer player : room.getPlayers()) {
+        quizSuggestionIndex.recordAttempt(quizId);
+        quizRecommender.recordAttempt(player.getUsername(), quizId);
+      }
+    } catch (RuntimeException e) {
+      log.log(Level.WARNING, "Could not save the results of live room " + room.getCode(), e);
+    }
+  }
+
+  /**
+   * Broadcasts the standings of every room that changed since the last tick.
+   */
+  private void broadcastStandings() {
+    try {
+      for (LiveRoom room : rooms.values()) {
+        if (room.takeChanged()) {
+          LiveRoom.Round round = room.getRound();
+          broadcast(room, message(new Standings("STANDINGS", round == null ? -1 : round.getIndex(),
+                  room.getPlayers().size(), standings(room))));
+        }
+      }
+    } catch (RuntimeException e) {
+      log.log(Level.WARNING, "Could not broadcast standings", e);
+    }
+  }
+
+  private List<Standing> standings(LiveRoom room) {
+    return room.top(STANDINGS_SIZE).stream()
+            .map(player -> new Standing(player.getUsername(), player.getPoints()))
+            .toList();
+  }
+
+  private Question question(LiveRoom room, LiveRoom.Round round) {
+    return new Question("QUESTION", round.getIndex(), room.getQuestionCount(), round.getDeadline(),
+            round.getQuestion());
+  }
+
+  private LiveRoom hostedRoom(WebSocketSession session) {
+    LiveRoom room = roomsBySession.get(session.getId());
+    if (room == null || !room.getHost().getId().equals(session.getId())) {
+      error(session, "Only the host can control the room");
+      return null;
+    }
+    return room;
+  }
+
+  /**
+   * Sends one shared message to the host and every player of a room, splitting large rooms
+   * between the broadcast threads.
+   */
+  private void broadcast(LiveRoom room, TextMessage message) {
+    if (message == null) {
+      return;
+    }
+    List<WebSocketSession> sessions = new ArrayList<>(room.getPlayers().size() + 1);
+    sessions.add(room.getHost());
+    room.getPlayers().forEach(player -> sessions.add(player.getSession()));
+    fanOut(sessions, session -> send(session, message));
+  }
+
+  /**
+   * Runs an action for every item, on the calling thread for small rooms, and split between the
+   * broadcast threads for large ones.
+   */
+  private <T> void fanOut(List<T> items, Consumer<T> action) {
+    if (items.size() <= BROADCAST_CHUNK) {
+      items.forEach(action);
+      return;
+    }
+    for (int start = 0; start < items.size(); start += BROADCAST_CHUNK) {
+      List<T> chunk = items.subList(start, Math.min(items.size(), start + BROADCAST_CHUNK));
+      broadcaster.execute(() -> chunk.forEach(action));
+    }
+  }
+
+  private void error(WebSocketSession session, String message) {
+    send(session, new Failure("ERROR", message));
+  }
+
+  private void send(WebSocketSession session, Object payload) {
+    send(session, message(payload));
+  }
+
+  private void send(WebSocketSession session, TextMessage message) {
+    if (session == null || message == null || !session.isOpen()) {
+      return;
+    }
+    try {
+      session.sendMessage(message);
+    } catch (IOException | RuntimeException e) {
+      log.fine("Could not send to session " + session.getId() + ": " + e.getMessage());
+    }
+  }
+
+  private TextMessage message(Object payload) {
+    try {
+      return new TextMessage(objectMapper.writeValueAsString(payload));
+    } catch (JsonProcessingException e) {
+      log.log(Level.WARNING, "Could not serialize live message", e);
+      return null;
+    }
+  }
+
+  private static String newCode() {
+    char[] code = new char[CODE_LENGTH];
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    for (int i = 0; i < code.length; i++) {
+      code[i] = CODE_CHARACTERS[random.nextInt(CODE_CHARACTERS.length)];
+    }
+    return new String(code);
+  }
+
+  /**
+   * Stops the standings ticker and broadcast threads.
+   */
+  @PreDestroy
+  public void shutdown() {
+    ticker.shutdownNow();
+    broadcaster.shutdownNow();
+  }
+
+  private record Created(String type, String room, String title, int questions) {
+  }
+
+  private record Joined(String type, String room, String title, int questions) {
+  }
+
+  private record Question(String type, int index, int total, long deadline, QuestionDto question) {
+  }
+
+  private record Answered(String type, int index, LiveRoom.AnswerOutcome outcome) {
+  }
+
+  private record Result(String type, int index, boolean correct, int points, int rank) {
+  }
+
+  private record Reveal(String type, int index, List<String> correctAnswers, int[] counts,
+                        int answered, int correct) {
+  }
+
+  private record Standing(String username, int points) {
+  }
+
+  private record Standings(String type, int index, int players, List<Standing> top) {
+  }
+
+  private record Failure(String type, String message) {
+  }
+}
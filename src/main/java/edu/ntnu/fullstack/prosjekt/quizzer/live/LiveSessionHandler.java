@@ -0,0 +1,108 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.live;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.java.Log;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+/**
+ * Handles the messages of live quiz sessions. Every message is a JSON object with a type:
+ * CREATE (quizId, questions, seconds), NEXT and END are sent by the host, while JOIN (room) and
+ * ANSWER (index, answer) are sent by players.
+ * Sessions are wrapped so that sending to a slow client only buffers the message, instead of
+ * holding up a broadcast to everyone else in the room.
+ */
+@Log
+@Component
+public class LiveSessionHandler extends TextWebSocketHandler {
+
+  /**
+   * Used for Dependency Injection.
+   */
+  private final LiveRoomRegistry liveRoomRegistry;
+
+  private final ObjectMapper objectMapper;
+
+  private final int sendTimeLimit;
+
+  private final int bufferSizeLimit;
+
+  private final int defaultSeconds;
+
+  private final Map<String, WebSocketSession> sessions = new ConcurrentHashMap<>();
+
+  /**
+   * Used for Dependency Injection.
+   *
+   * @param liveRoomRegistry The injected LiveRoomRegistry object.
+   * @param objectMapper The injected ObjectMapper object.
+   * @param sendTimeLimit How long sending to a session may take before it is closed, in milliseconds.
+   * @param bufferSizeLimit How many bytes may be buffered for a session before it is closed.
+   * @param defaultSeconds How long a question can be answered if the host does not say.
+   */
+  public LiveSessionHandler(LiveRoomRegistry liveRoomRegistry, ObjectMapper objectMapper,
+                            @Value("${quizzer.live.send-time-limit-ms:5000}") int sendTimeLimit,
+                            @Value("${quizzer.live.buffer-size-limit:65536}") int bufferSizeLimit,
+                            @Value("${quizzer.live.question-seconds:20}") int defaultSeconds) {
+    this.liveRoomRegistry = liveRoomRegistry;
+    this.objectMapper = objectMapper;
+    this.sendTimeLimit = sendTimeLimit;
+    this.bufferSizeLimit = bufferSizeLimit;
+    this.defaultSeconds = defaultSeconds;
+  }
+
+  @Override
+  public void afterConnectionEstablished(WebSocketSession session) {
+    sessions.put(session.getId(),
+            new ConcurrentWebSocketSessionDecorator(session, sendTimeLimit, bufferSizeLimit));
+  }
+
+  @Override
+  protected void handleTextMessage(WebSocketSession rawSession, TextMessage message) throws IOException {
+    WebSocketSession session = sessions.getOrDefault(rawSession.getId(), rawSession);
+    String username = (String) session.getAttributes().get(LiveHandshakeInterceptor.USERNAME);
+    JsonNode request;
+    try {
+      request = objectMapper.readTree(message.getPayload());
+    } catch (IOException e) {
+      error(session, "Malformed message");
+      return;
+    }
+    try {
+      switch (request.path("type").asText()) {
+        case "CREATE" -> liveRoomRegistry.create(session, username, request.path("quizId").asLong(),
+                request.hasNonNull("questions") ? request.get("questions").asInt() : null,
+                request.path("seconds").asInt(defaultSeconds));
+        case "JOIN" -> liveRoomRegistry.join(session, username, request.path("room").asText(null));
+        case "NEXT" -> liveRoomRegistry.next(session);
+        case "ANSWER" -> liveRoomRegistry.answer(session, username, request.path("index").asInt(-1),
+                request.path("answer").asText(null));
+        case "END" -> liveRoomRegistry.end(session);
+        default -> error(session, "Unknown message type");
+      }
+    } catch (ResponseStatusException | IllegalArgumentException e) {
+      error(session, e.getMessage());
+    }
+  }
+
+  @Override
+  public void afterConnectionClosed(WebSocketSession rawSession, CloseStatus status) {
+    WebSocketSession session = sessions.remove(rawSession.getId());
+    liveRoomRegistry.disconnected(session != null ? session : rawSession);
+  }
+
+  private void error(WebSocketSession session, String message) throws IOException {
+    session.sendMessage(new TextMessage(objectMapper.writeValueAsString(
+            Map.of("type", "ERROR", "message", String.valueOf(message)))));
+  }
+}
@@ -2,7 +2,9 @@ package edu.ntnu.fullstack.prosjekt.quizzer.mappers.impl;
 
 import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.CategoryDto;
 import edu.ntnu.fullstack.prosjekt.quizzer.domain.entities.CategoryEntity;
+import edu.ntnu.fullstack.prosjekt.quizzer.jfr.MapperEvent;
 import edu.ntnu.fullstack.prosjekt.quizzer.mappers.Mapper;
+import edu.ntnu.fullstack.prosjekt.quizzer.timing.RequestTiming;
 import org.modelmapper.ModelMapper;
 import org.springframework.stereotype.Component;
 
@@ -16,11 +18,23 @@ public class CategoryMapperImpl implements Mapper<CategoryEntity, CategoryDto> {
 
   @Override
   public CategoryDto mapTo(CategoryEntity categoryEntity) {
-    return modelMapper.map(categoryEntity, CategoryDto.class);
+    MapperEvent event = new MapperEvent();
+    event.begin();
+    long start = RequestTiming.start();
+    CategoryDto categoryDto = modelMapper.map(categoryEntity, CategoryDto.class);
+    RequestTiming.stop(RequestTiming.Phase.MAPPING, start);
+    event.finish(this, "to");
+    return categoryDto;
   }
 
   @Override
   public CategoryEntity mapFrom(CategoryDto categoryDto) {
-    return modelMapper.map(categoryDto, CategoryEntity.class);
+    MapperEvent event = new MapperEvent();
+    event.begin();
+    long start = RequestTiming.start();
+    CategoryEntity categoryEntity = modelMapper.map(categoryDto, CategoryEntity.class);
+    RequestTiming.stop(RequestTiming.Phase.MAPPING, start);
+    event.finish(this, "from");
+    return categoryEntity;
   }
 }
@@ -1,12 +1,15 @@
 package edu.ntnu.fullstack.prosjekt.quizzer.mappers.impl;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.QuestionAnswersDto;
 import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.QuestionDto;
 import edu.ntnu.fullstack.prosjekt.quizzer.domain.entities.QuestionEntity;
+import edu.ntnu.fullstack.prosjekt.quizzer.jfr.MapperEvent;
 import edu.ntnu.fullstack.prosjekt.quizzer.mappers.Mapper;
+import edu.ntnu.fullstack.prosjekt.quizzer.timing.RequestTiming;
 import lombok.extern.java.Log;
 import org.modelmapper.ModelMapper;
 import org.springframework.stereotype.Component;
@@ -20,6 +23,12 @@ import java.util.List;
 @Component
 public class QuestionMapperImpl implements Mapper<QuestionEntity, QuestionDto> {
 
+  /**
+   * Type of the alternatives stored as JSON in a QuestionEntity.
+   */
+  public static final TypeReference<List<QuestionAnswersDto>> ALTERNATIVES_TYPE = new TypeReference<>() {
+  };
+
   /**
    * Used for Dependency Injection.
    */
@@ -48,16 +57,22 @@ public class QuestionMapperImpl implements Mapper<QuestionEntity, QuestionDto> {
    */
   @Override
   public QuestionDto mapTo(QuestionEntity questionEntity) {
+    MapperEvent event = new MapperEvent();
+    event.begin();
+    long start = RequestTiming.start();
     QuestionDto questionDto = modelMapper.map(questionEntity, QuestionDto.class);
+    RequestTiming.stop(RequestTiming.Phase.MAPPING, start);
     if (questionEntity.getAlternatives() != null) {
       try {
-        questionDto.setAlternatives(objectMapper.readValue(questionEntity.getAlternatives(), List.class));
+        start = RequestTiming.start();
+        questionDto.setAlternatives(objectMapper.readValue(questionEntity.getAlternatives(), ALTERNATIVES_TYPE));
+        RequestTiming.stop(RequestTiming.Phase.ALTERNATIVES, start);
         log.info("Mapper dto: " + questionDto);
-        return questionDto;
       } catch (JsonProcessingException e) {
         throw new RuntimeException(e);
       }
     }
+    event.finish(this, "to");
     return questionDto;
   }
 
@@ -69,6 +84,12 @@ public class QuestionMapperImpl implements Mapper<QuestionEntity, QuestionDto> {
    */
   @Override
   public QuestionEntity mapFrom(QuestionDto questionDto) {
-    return modelMapper.map(questionDto, QuestionEntity.class);
+    MapperEvent event = new MapperEvent();
+    event.begin();
+    long start = RequestTiming.start();
+    QuestionEntity questionEntity = modelMapper.map(questionDto, QuestionEntity.class);
+    RequestTiming.stop(RequestTiming.Phase.MAPPING, start);
+    event.finish(this, "from");
+    return questionEntity;
   }
 }
@@ -3,7 +3,9 @@ package edu.ntnu.fullstack.prosjekt.quizzer.mappers.impl;
 import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.QuizDetailsDto;
 import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.UserDto;
 import edu.ntnu.fullstack.prosjekt.quizzer.domain.entities.QuizEntity;
+import edu.ntnu.fullstack.prosjekt.quizzer.jfr.MapperEvent;
 import edu.ntnu.fullstack.prosjekt.quizzer.mappers.Mapper;
+import edu.ntnu.fullstack.prosjekt.quizzer.timing.RequestTiming;
 import lombok.extern.java.Log;
 import org.modelmapper.ModelMapper;
 import org.springframework.stereotype.Component;
@@ -37,11 +39,16 @@ public class QuizMapperImpl implements Mapper<QuizEntity, QuizDetailsDto> {
    */
   @Override
   public QuizDetailsDto mapTo(QuizEntity quizEntity) {
+    MapperEvent event = new MapperEvent();
+    event.begin();
+    long start = RequestTiming.start();
     QuizDetailsDto quizDetailsDto = modelMapper.map(quizEntity, QuizDetailsDto.class);
     log.info("Quiz mapped: " + quizDetailsDto);
     if (quizEntity.getOwner() != null) {
       quizDetailsDto.setOwner(modelMapper.map(quizEntity.getOwner(), UserDto.class));
     }
+    RequestTiming.stop(RequestTiming.Phase.MAPPING, start);
+    event.finish(this, "to");
     return quizDetailsDto;
   }
 
@@ -53,6 +60,12 @@ public class QuizMapperImpl implements Mapper<QuizEntity, QuizDetailsDto> {
    */
   @Override
   public QuizEntity mapFrom(QuizDetailsDto quizDetailsDto) {
-    return modelMapper.map(quizDetailsDto, QuizEntity.class);
+    MapperEvent event = new MapperEvent();
+    event.begin();
+    long start = RequestTiming.start();
+    QuizEntity quizEntity = modelMapper.map(quizDetailsDto, QuizEntity.class);
+    RequestTiming.stop(RequestTiming.Phase.MAPPING, start);
+    event.finish(this, "from");
+    return quizEntity;
   }
 }
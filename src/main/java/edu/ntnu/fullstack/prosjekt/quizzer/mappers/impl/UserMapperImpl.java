@@ -2,7 +2,9 @@ package edu.ntnu.fullstack.prosjekt.quizzer.mappers.impl;
 
 import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.UserDto;
 import edu.ntnu.fullstack.prosjekt.quizzer.domain.entities.UserEntity;
+import edu.ntnu.fullstack.prosjekt.quizzer.jfr.MapperEvent;
 import edu.ntnu.fullstack.prosjekt.quizzer.mappers.Mapper;
+import edu.ntnu.fullstack.prosjekt.quizzer.timing.RequestTiming;
 import org.modelmapper.ModelMapper;
 import org.springframework.stereotype.Component;
 
@@ -34,7 +36,13 @@ public class UserMapperImpl implements Mapper<UserEntity, UserDto> {
    */
   @Override
   public UserDto mapTo(UserEntity userEntity) {
-    return modelMapper.map(userEntity, UserDto.class);
+    MapperEvent event = new MapperEvent();
+    event.begin();
+    long start = RequestTiming.start();
+    UserDto userDto = modelMapper.map(userEntity, UserDto.class);
+    RequestTiming.stop(RequestTiming.Phase.MAPPING, start);
+    event.finish(this, "to");
+    return userDto;
   }
 
   /**
@@ -45,6 +53,12 @@ public class UserMapperImpl implements Mapper<UserEntity, UserDto> {
    */
   @Override
   public UserEntity mapFrom(UserDto userDto) {
-    return modelMapper.map(userDto, UserEntity.class);
+    MapperEvent event = new MapperEvent();
+    event.begin();
+    long start = RequestTiming.start();
+    UserEntity userEntity = modelMapper.map(userDto, UserEntity.class);
+    RequestTiming.stop(RequestTiming.Phase.MAPPING, start);
+    event.finish(this, "from");
+    return userEntity;
   }
 }
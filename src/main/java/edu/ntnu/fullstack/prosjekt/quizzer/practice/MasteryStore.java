@@ -0,0 +1,437 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.practice;
+
+import edu.ntnu.fullstack.prosjekt.quizzer.cache.QuizSnapshot;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.QuestionAttemptDto;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.java.Log;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Keeps how well every user knows every question they have answered, for spaced-repetition
+ * practice. A question moves up a box each time it is answered correctly, and is due again
+ * after an interval that grows with the box. A wrong answer sends it back to the first box,
+ * due at once.
+ * The state of a question is packed into one long, and the states of a user are kept in an
+ * open-addressing table keyed by question id, so picking the next questions is a few array
+ * lookups per question, without reading the attempt history. Changes are marked in the state
+ * itself and written to the database in batches, so a user answering many questions in a row
+ * causes one write per question and flush, not one per answer. The writes of a flush are sent
+ * as JDBC batches, not one statement per row.
+ */
+@Log
+@Component
+public class MasteryStore {
+
+  /**
+   * Minutes until a question is due again, by box. A question in the first box is due at once.
+   */
+  private static final int[] INTERVAL_MINUTES = {0, 10, 24 * 60, 3 * 24 * 60, 7 * 24 * 60, 16 * 24 * 60,
+          35 * 24 * 60, 80 * 24 * 60};
+
+  private static final int MAX_BOX = INTERVAL_MINUTES.length - 1;
+
+  private static final long DUE_MASK = 0xFFFF_FFFFL;
+
+  private static final int BOX_SHIFT = 32;
+
+  private static final int LAPSES_SHIFT = 40;
+
+  private static final int REVIEWS_SHIFT = 48;
+
+  private static final long DIRTY = 1L << 63;
+
+  /**
+   * Amount of states sent in one JDBC batch.
+   */
+  private static final int BATCH_SIZE = 500;
+
+  private static final String UPSERT = "INSERT INTO question_mastery (username, question_id, state) "
+          + "VALUES (?, ?, ?) ON DUPLICATE KEY UPDATE state = VALUES(state)";
+
+  /**
+   * Used for Dependency Injection.
+   */
+  private final EntityManager entityManager;
+
+  private final TransactionTemplate transactionTemplate;
+
+  private final TransactionTemplate readOnlyTemplate;
+
+  private final int maxUsers;
+
+  private final long flushMillis;
+
+  private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "mastery-flusher");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  /**
+   * The loaded users, least recently used first.
+   */
+  private final LinkedHashMap<String, UserMastery> users = new LinkedHashMap<>(16, 0.75f, true);
+
+  private final Set<String> dirtyUsers = new LinkedHashSet<>();
+
+  /**
+   * Used for Dependency Injection.
+   *
+   * @param entityManager      The injected EntityManager object.
+   * @param transactionManager The transaction manager the states are loaded and written in.
+   * @param maxUsers           The most users kept in memory, before the least recent are dropped.
+   * @param flushMillis        How often changed states are written, in milliseconds.
+   */
+  public MasteryStore(EntityManager entityManager, PlatformTransactionManager transactionManager,
+                      @Value("${quizzer.mastery.max-users:100000}") int maxUsers,
+                      @Value("${quizzer.mastery.flush-ms:5000}") long flushMillis) {
+    this.entityManager = entityManager;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.readOnlyTemplate = new TransactionTemplate(transactionManager);
+    this.readOnlyTemplate.setReadOnly(true);
+    this.maxUsers = maxUsers;
+    this.flushMillis = flushMillis;
+  }
+
+  /**
+   * Starts writing the changed states now and then, once the application has started.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void start() {
+    flusher.scheduleWithFixedDelay(this::flushQuietly, flushMillis, flushMillis, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Records the graded answers of a user to a quiz. Only answers to questions of the graded
+   * version of the quiz count, and each question only once, so an attempt can not move a
+   * question it does not contain, or move one several boxes.
+   *
+   * @param username The user who answered.
+   * @param snapshot The version of the quiz the answers were graded against.
+   * @param answers  The graded answers.
+   * @param millis   The time the answers were graded.
+   */
+  public void record(String username, QuizSnapshot snapshot, Collection<QuestionAttemptDto> answers, long millis) {
+    if (username == null || answers == null || answers.isEmpty()) {
+      return;
+    }
+    Set<Long> answered = new HashSet<>();
+    List<QuestionAttemptDto> counted = new ArrayList<>(answers.size());
+    for (QuestionAttemptDto answer : answers) {
+      Long questionId = answer == null ? null : answer.getQuestionId();
+      if (questionId != null && snapshot.contains(questionId) && answered.add(questionId)) {
+        counted.add(answer);
+      }
+    }
+    if (counted.isEmpty()) {
+      return;
+    }
+    // Marked before the change as well, so the user is not dropped from memory in between.
+    UserMastery mastery = user(username, true);
+    int minute = (int) (millis / 60_000);
+    synchronized (mastery) {
+      for (QuestionAttemptDto answer : counted) {
+        long questionId = answer.getQuestionId();
+        mastery.put(questionId, next(mastery.get(questionId), Boolean.TRUE.equals(answer.getAnsweredCorrect()),
+                minute) | DIRTY);
+      }
+    }
+    synchronized (users) {
+      dirtyUsers.add(username);
+    }
+  }
+
+  /**
+   * Picks the questions a user should practice next. Questions that are due come first, the
+   * weakest and longest overdue first, followed by questions the user has never answered in
+   * their given order. If that is not enough, the questions that will be due soonest are added.
+   *
+   * @param username    The user to practice.
+   * @param questionIds The questions to pick from.
+   * @param count       The most questions to pick.
+   * @param millis      The current time.
+   * @return Positions in the given questions, in the order they should be practiced.
+   */
+  public int[] next(String username, long[] questionIds, int count, long millis) {
+    int n = questionIds.length;
+    int minute = (int) (millis / 60_000);
+    long[] states = new long[n];
+    UserMastery mastery = user(username, false);
+    synchronized (mastery) {
+      for (int i = 0; i < n; i++) {
+        states[i] = mastery.get(questionIds[i]);
+      }
+    }
+    // Due questions by box and due time, then new questions in order, then the rest by due time.
+    long[] keys = new long[n];
+    for (int i = 0; i < n; i++) {
+      long state = states[i];
+      if (state == 0) {
+        keys[i] = 1L << 40;
+      } else if (due(state) <= minute) {
+        keys[i] = (long) box(state) << BOX_SHIFT | due(state);
+      } else {
+        keys[i] = (1L << 41) + due(state);
+      }
+    }
+    Integer[] order = new Integer[n];
+    for (int i = 0; i < n; i++) {
+      order[i] = i;
+    }
+    Arrays.sort(order, (a, b) -> keys[a] != keys[b] ? Long.compare(keys[a], keys[b]) : Integer.compare(a, b));
+    int k = Math.max(0, Math.min(count, n));
+    int[] picked = new int[k];
+    for (int i = 0; i < k; i++) {
+      picked[i] = order[i];
+    }
+    return picked;
+  }
+
+  /**
+   * Writes the changed states of every user in one transaction, in JDBC batches.
+   *
+   * @return The amount of written states.
+   */
+  public int flush() {
+    List<String> flushed;
+    synchronized (users) {
+      flushed = new ArrayList<>(dirtyUsers);
+      dirtyUsers.clear();
+    }
+    List<Object[]> rows = new ArrayList<>();
+    for (String username : flushed) {
+      UserMastery mastery;
+      synchronized (users) {
+        mastery = users.get(username);
+      }
+      if (mastery != null) {
+        synchronized (mastery) {
+          mastery.drainDirty(username, rows);
+        }
+      }
+    }
+    if (rows.isEmpty()) {
+      return 0;
+    }
+    try {
+      transactionTemplate.executeWithoutResult(status -> entityManager.unwrap(Session.class).doWork(connection -> {
+        try (PreparedStatement upsert = connection.prepareStatement(UPSERT)) {
+          for (int i = 0; i < rows.size(); i++) {
+            Object[] row = rows.get(i);
+            upsert.setString(1, (String) row[0]);
+            upsert.setLong(2, (Long) row[1]);
+            upsert.setLong(3, (Long) row[2]);
+            upsert.addBatch();
+            if (i % BATCH_SIZE == BATCH_SIZE - 1 || i == rows.size() - 1) {
+              upsert.executeBatch();
+            }
+          }
+        }
+      }));
+    } catch (RuntimeException e) {
+      remark(rows);
+      throw e;
+    }
+    return rows.size();
+  }
+
+  /**
+   * Finds the states of a user, loading them from the database the first time. A user that is
+   * about to change is marked, so it is kept in memory until it has been written.
+   */
+  private UserMastery user(String username, boolean dirty) {
+    synchronized (users) {
+      UserMastery mastery = users.get(username);
+      if (mastery != null) {
+        if (dirty) {
+          dirtyUsers.add(username);
+        }
+        return mastery;
+      }
+    }
+    UserMastery loaded = new UserMastery();
+    List<Object[]> rows = readOnlyTemplate.execute(status -> entityManager.unwrap(Session.class)
+            .createNativeQuery("SELECT question_id, state FROM question_mastery WHERE username = :username",
+                    Object[].class)
+            .setParameter("username", username)
+            .getResultList());
+    for (Object[] row : rows) {
+      loaded.put(((Number) row[0]).longValue(), ((Number) row[1]).longValue());
+    }
+    synchronized (users) {
+      UserMastery existing = users.putIfAbsent(username, loaded);
+      if (dirty) {
+        dirtyUsers.add(username);
+      }
+      if (users.size() > maxUsers) {
+        evict();
+      }
+      return existing != null ? existing : loaded;
+    }
+  }
+
+  /**
+   * Drops the least recently used users that have nothing left to write.
+   */
+  private void evict() {
+    var iterator = users.entrySet().iterator();
+    while (users.size() > maxUsers && iterator.hasNext()) {
+      Map.Entry<String, UserMastery> eldest = iterator.next();
+      if (!dirtyUsers.contains(eldest.getKey())) {
+        iterator.remove();
+      }
+    }
+  }
+
+  /**
+   * Marks states that could not be written as changed again, unless they have changed since.
+   */
+  private void remark(List<Object[]> rows) {
+    for (Object[] row : rows) {
+      UserMastery mastery;
+      synchronized (users) {
+        mastery = users.get((String) row[0]);
+        dirtyUsers.add((String) row[0]);
+      }
+      if (mastery != null) {
+        synchronized (mastery) {
+          long questionId = (Long) row[1];
+          long state = mastery.get(questionId);
+          if (state == (Long) row[2]) {
+            mastery.put(questionId, state | DIRTY);
+          }
+        }
+      }
+    }
+  }
+
+  private void flushQuietly() {
+    try {
+      flush();
+    } catch (RuntimeException e) {
+      log.warning("Could not write mastery, retrying on the next flush: " + e.getMessage());
+    }
+  }
+
+  /**
+   * Stops the scheduled flushes, and writes what is left.
+   */
+  @PreDestroy
+  public void shutdown() {
+    flusher.shutdownNow();
+    flushQuietly();
+  }
+
+  /**
+   * Moves a question to its next box after an answer.
+   */
+  static long next(long state, boolean correct, int minute) {
+    int box = state == 0 ? 0 : box(state);
+    int lapses = (int) (state >>> LAPSES_SHIFT & 0xFF);
+    int reviews = (int) (state >>> REVIEWS_SHIFT & 0xFF);
+    if (correct) {
+      box = Math.min(box + 1, MAX_BOX);
+    } else {
+      box = 0;
+      lapses = Math.min(lapses + 1, 0xFF);
+    }
+    reviews = Math.min(reviews + 1, 0xFF);
+    return pack(minute + INTERVAL_MINUTES[box], box, lapses, reviews);
+  }
+
+  static long pack(int dueMinute, int box, int lapses, int reviews) {
+    return (dueMinute & DUE_MASK) | (long) box << BOX_SHIFT | (long) lapses << LAPSES_SHIFT
+            | (long) reviews << REVIEWS_SHIFT;
+  }
+
+  static int due(long state) {
+    return (int) (state & DUE_MASK);
+  }
+
+  static int box(long state) {
+    return (int) (state >>> BOX_SHIFT & 0xFF);
+  }
+
+  /**
+   * The states of one user, in an open-addressing table keyed by question id.
+   * Question ids are never zero, so zero marks an empty slot.
+   */
+  private static final class UserMastery {
+    private long[] questionIds = new long[16];
+    private long[] states = new long[16];
+    private int size;
+
+    private long get(long questionId) {
+      int mask = questionIds.length - 1;
+      for (int slot = hash(questionId) & mask; questionIds[slot] != 0; slot = (slot + 1) & mask) {
+        if (questionIds[slot] == questionId) {
+          return states[slot] & ~DIRTY;
+        }
+      }
+      return 0;
+    }
+
+    private void put(long questionId, long state) {
+      if (2 * (size + 1) > questionIds.length) {
+        grow();
+      }
+      int mask = questionIds.length - 1;
+      int slot = hash(questionId) & mask;
+      while (questionIds[slot] != 0 && questionIds[slot] != questionId) {
+        slot = (slot + 1) & mask;
+      }
+      if (questionIds[slot] == 0) {
+        questionIds[slot] = questionId;
+        size++;
+      }
+      states[slot] = state;
+    }
+
+    private void drainDirty(String username, List<Object[]> rows) {
+      for (int slot = 0; slot < questionIds.length; slot++) {
+        if (questionIds[slot] != 0 && (states[slot] & DIRTY) != 0) {
+          states[slot] &= ~DIRTY;
+          rows.add(new Object[] {username, questionIds[slot], states[slot]});
+        }
+      }
+    }
+
+    private void grow() {
+      long[] oldIds = questionIds;
+      long[] oldStates = states;
+      questionIds = new long[oldIds.length * 2];
+      states = new long[oldIds.length * 2];
+      size = 0;
+      for (int slot = 0; slot < oldIds.length; slot++) {
+        if (oldIds[slot] != 0) {
+          put(oldIds[slot], oldStates[slot]);
+        }
+      }
+    }
+
+    private static int hash(long questionId) {
+      long h = questionId * 0x9E37_79B9_7F4A_7C15L;
+      return (int) (h ^ h >>> 32);
+    }
+  }
+}
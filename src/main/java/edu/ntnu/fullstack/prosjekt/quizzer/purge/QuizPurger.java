@@ -0,0 +1,317 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.purge;
+
+import edu.ntnu.fullstack.prosjekt.quizzer.datasource.ReplicaRoutingDataSource;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import javax.sql.DataSource;
+import lombok.extern.java.Log;
+import org.hibernate.query.NativeQuery;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Removes deleted quizzes from the database in the background.
+ * Deleting a quiz only marks it, so the request never waits for its attempts and questions.
+ * They are removed here in batches of a bounded size, each in its own short transaction, so the
+ * purge never holds many locks at once. After each batch, the purge waits until every replica
+ * has applied it, and then pauses, so replicas keep up however far behind they are.
+ * The quiz row itself goes last. A quiz is purged right after it is deleted, and a slow
+ * sweep picks up the ones left behind by a failed purge or a restart, along with the mastery
+ * of questions that no longer exist.
+ */
+@Log
+@Component
+public class QuizPurger {
+
+  /**
+   * Amount of deleted quizzes picked up by one sweep.
+   */
+  private static final int QUIZZES_PER_SWEEP = 100;
+
+  /**
+   * Used for Dependency Injection.
+   */
+  private final EntityManager entityManager;
+
+  private final TransactionTemplate transactionTemplate;
+
+  private final int batchSize;
+
+  private final long pauseMillis;
+
+  private final long maxReplicaWaitMillis;
+
+  private final long intervalMillis;
+
+  private final List<NamedParameterJdbcTemplate> replicas = new ArrayList<>();
+
+  private final ScheduledExecutorService purger = Executors.newSingleThreadScheduledExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "quiz-purger");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  /**
+   * Used for Dependency Injection.
+   *
+   * @param entityManager The injected EntityManager object.
+   * @param transactionManager The transaction manager each batch is deleted in.
+   * @param routingDataSource The injected ReplicaRoutingDataSource object, whose replicas are waited for.
+   * @param batchSize The most rows deleted in one transaction.
+   * @param pauseMillis How long to pause between batches, in milliseconds.
+   * @param maxReplicaWaitMillis How long to wait for the replicas to apply a batch, in milliseconds.
+   * @param intervalMillis How often to look for deleted quizzes, in milliseconds.
+   */
+  public QuizPurger(EntityManager entityManager, PlatformTransactionManager transactionManager,
+                    ReplicaRoutingDataSource routingDataSource,
+                    @Value("${quizzer.purge.batch-size:500}") int batchSize,
+                    @Value("${quizzer.purge.pause-ms:50}") long pauseMillis,
+                    @Value("${quizzer.purge.max-replica-wait-ms:60000}") long maxReplicaWaitMillis,
+                    @Value("${quizzer.purge.interval-ms:600000}") long intervalMillis) {
+    this.entityManager = entityManager;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.batchSize = batchSize;
+    this.pauseMillis = pauseMillis;
+    this.maxReplicaWaitMillis = maxReplicaWaitMillis;
+    this.intervalMillis = intervalMillis;
+    for (DataSource replica : routingDataSource.getReplicas()) {
+      replicas.add(new NamedParameterJdbcTemplate(replica));
+    }
+  }
+
+  /**
+   * Starts the sweeps for deleted quizzes once the application is ready.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void startSweeping() {
+    purger.scheduleWithFixedDelay(this::sweep, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Starts purging a deleted quiz, once the current transaction has committed the deleted mark.
+   *
+   * @param quizId The id of the deleted quiz.
+   */
+  public void schedule(Long quizId) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          purger.execute(() -> purgeQuietly(quizId));
+        }
+      });
+    } else {
+      purger.execute(() -> purgeQuietly(quizId));
+    }
+  }
+
+  /**
+   * Purges quizzes that are marked as deleted, and the mastery of questions that no longer exist.
+   *
+   * @return The amount of purged quizzes.
+   */
+  public synchronized int purgeDeleted() {
+    List<?> rows = transactionTemplate.execute(status -> entityManager
+            .createNativeQuery("SELECT quiz_id FROM quizzes WHERE deleted = TRUE ORDER BY quiz_id")
+            .setMaxResults(QUIZZES_PER_SWEEP)
+            .getResultList());
+    int purged = 0;
+    for (Object quizId : rows) {
+      if (purgeQuietly(((Number) quizId).longValue())) {
+        purged++;
+      }
+    }
+    int mastery = deleteOrphanedMastery();
+    if (mastery > 0) {
+      log.info("Purged the mastery of " + mastery + " questions that no longer exist");
+    }
+    return purged;
+  }
+
+  private synchronized boolean purgeQuietly(Long quizId) {
+    try {
+      purge(quizId);
+      return true;
+    } catch (RuntimeException e) {
+      log.warning("Could not purge quiz " + quizId + ", retrying on the next sweep: " + e.getMessage());
+      return false;
+    }
+  }
+
+  private void sweep() {
+    try {
+      purgeDeleted();
+    } catch (RuntimeException e) {
+      log.warning("Purging deleted quizzes failed: " + e.getMessage());
+    }
+  }
+
+  private void purge(Long quizId) {
+    int attempts = deleteInBatches(quizId,
+            "SELECT attempt.attemptId FROM QuizAttemptEntity attempt WHERE attempt.quiz.quizId = :quizId",
+            "DELETE FROM QuizAttemptEntity attempt WHERE attempt.attemptId IN :ids",
+            "quiz_attempt_entity", "attempt_id", attemptIds -> { });
+    int questions = deleteInBatches(quizId,
+            "SELECT question.questionId FROM QuestionEntity question WHERE question.quiz.quizId = :quizId",
+            "DELETE FROM QuestionEntity question WHERE question.questionId IN :ids",
+            "questions", "question_id", this::deleteMastery);
+    transactionTemplate.executeWithoutResult(status -> {
+      entityManager.createQuery("DELETE FROM QuizVersionEntity version WHERE version.quiz.quizId = :quizId")
+              .setParameter("quizId", quizId)
+              .executeUpdate();
+      deleteRows("DELETE FROM quizzes_categories WHERE quiz_entity_quiz_id = :quizId", "quizzes_categories", quizId);
+      deleteRows("DELETE FROM quizzes_collaborators WHERE quiz_entity_quiz_id = :quizId", "quizzes_collaborators",
+              quizId);
+      deleteRows("DELETE FROM quiz_permissions WHERE quiz_id = :quizId", "quiz_permissions", quizId);
+      deleteRows("DELETE FROM quizzes WHERE quiz_id = :quizId AND deleted = TRUE", "quizzes", quizId);
+    });
+    log.info("Purged quiz " + quizId + " with " + attempts + " attempts and " + questions + " questions");
+  }
+
+  /**
+   * Deletes the rows of a quiz a batch at a time, each batch found by id and deleted by id,
+   * together with the rows that refer to them.
+   *
+   * @return The amount of deleted rows.
+   */
+  private int deleteInBatches(Long quizId, String findIds, String deleteIds, String table, String idColumn,
+                              Consumer<List<Long>> deleteReferences) {
+    int deleted = 0;
+    while (true) {
+      List<Long> ids = transactionTemplate.execute(status -> {
+        List<Long> found = entityManager.createQuery(findIds, Long.class)
+                .setParameter("quizId", quizId)
+                .setMaxResults(batchSize)
+                .getResultList();
+        if (!found.isEmpty()) {
+          deleteReferences.accept(found);
+          entityManager.createQuery(deleteIds).setParameter("ids", found).executeUpdate();
+        }
+        return found;
+      });
+      if (ids == null || ids.isEmpty()) {
+        return deleted;
+      }
+      deleted += ids.size();
+      awaitReplicas(table, idColumn, ids);
+      pause();
+    }
+  }
+
+  /**
+   * Deletes the mastery of questions that no longer exist, like those removed by editing a
+   * quiz, a batch at a time.
+   *
+   * @return The amount of questions whose mastery was deleted.
+   */
+  private int deleteOrphanedMastery() {
+    int deleted = 0;
+    while (true) {
+      List<Long> questionIds = new ArrayList<>();
+      transactionTemplate.executeWithoutResult(status -> {
+        List<?> rows = entityManager.createNativeQuery("SELECT DISTINCT mastery.question_id "
+                        + "FROM question_mastery mastery LEFT JOIN questions question "
+                        + "ON question.question_id = mastery.question_id WHERE question.question_id IS NULL")
+                .setMaxResults(batchSize)
+                .getResultList();
+        for (Object row : rows) {
+          questionIds.add(((Number) row).longValue());
+        }
+        if (!questionIds.isEmpty()) {
+          deleteMastery(questionIds);
+        }
+      });
+      if (questionIds.isEmpty()) {
+        return deleted;
+      }
+      deleted += questionIds.size();
+      awaitReplicas("question_mastery", "question_id", questionIds);
+      pause();
+    }
+  }
+
+  private void deleteMastery(List<Long> questionIds) {
+    entityManager.createNativeQuery("DELETE FROM question_mastery WHERE question_id IN (:questionIds)")
+            .unwrap(NativeQuery.class)
+            .addSynchronizedQuerySpace("question_mastery")
+            .setParameter("questionIds", questionIds)
+            .executeUpdate();
+  }
+
+  /**
+   * Waits until every replica has applied the deletion of a batch, that is, until none of its
+   * rows are left there. A replica that does not catch up in time is warned about and no
+   * longer waited for in this batch, so a broken replica slows the purge down without stopping it.
+   */
+  private void awaitReplicas(String table, String idColumn, List<Long> ids) {
+    String remaining = "SELECT COUNT(*) FROM " + table + " WHERE " + idColumn + " IN (:ids)";
+    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxReplicaWaitMillis);
+    for (int i = 0; i < replicas.size(); i++) {
+      NamedParameterJdbcTemplate replica = replicas.get(i);
+      while (true) {
+        Long left;
+        try {
+          left = replica.queryForObject(remaining, Map.of("ids", ids), Long.class);
+        } catch (RuntimeException e) {
+          log.warning("Could not check replica " + i + " while purging: " + e.getMessage());
+          break;
+        }
+        if (left == null || left == 0) {
+          break;
+        }
+        if (System.nanoTime() > deadline) {
+          log.warning("Replica " + i + " has not applied a purged batch of " + table + " after "
+                  + maxReplicaWaitMillis + " ms, purging on");
+          break;
+        }
+        sleep(Math.max(10, pauseMillis));
+      }
+    }
+  }
+
+  /**
+   * Deletes rows with plain SQL, telling Hibernate which table changed so it only invalidates
+   * the cached data of that table, instead of the whole second-level cache.
+   */
+  private void deleteRows(String sql, String table, Long quizId) {
+    entityManager.createNativeQuery(sql)
+            .unwrap(NativeQuery.class)
+            .addSynchronizedQuerySpace(table)
+            .setParameter("quizId", quizId)
+            .executeUpdate();
+  }
+
+  private void pause() {
+    if (pauseMillis > 0) {
+      sleep(pauseMillis);
+    }
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while purging", e);
+    }
+  }
+
+  @PreDestroy
+  void shutdown() {
+    purger.shutdownNow();
+  }
+}
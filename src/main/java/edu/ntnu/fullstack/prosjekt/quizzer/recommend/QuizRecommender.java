@@ -0,0 +1,634 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.recommend;
+
+import edu.ntnu.fullstack.prosjekt.quizzer.datasource.PrimaryReads;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.RecommendationDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.repositories.AttemptRepository;
+import edu.ntnu.fullstack.prosjekt.quizzer.repositories.QuizRepository;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+import lombok.extern.java.Log;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Recommends quizzes from a precomputed quiz-to-quiz similarity matrix.
+ * Two quizzes are similar when they share categories, and when the same users have attempted
+ * both. The similarity is the cosine of their feature vectors, where a shared category weighs
+ * more than a shared user. Only the most similar quizzes of each quiz are kept, as compressed
+ * sparse rows of primitive arrays, so a recommendation is served from memory without touching
+ * the database.
+ * The matrix is computed on a background thread with its rows spread over a fork-join pool.
+ * Changes are collected as they happen, and the next refresh recomputes only the rows they can
+ * affect. The whole matrix is reloaded from the primary now and then, and changes made while it
+ * loads are replayed onto what was loaded, so none are lost.
+ * The features of a quiz are copied once after each change, and refreshes number the copies
+ * without holding the lock changes take.
+ */
+@Log
+@Component
+public class QuizRecommender {
+
+  /**
+   * Amount of similar quizzes kept for each quiz.
+   */
+  private static final int NEIGHBOURS = 20;
+
+  /**
+   * Categories and users shared by more quizzes than this say little about how similar two of
+   * them are, and are left out of the similarity so that computing a row stays cheap.
+   */
+  private static final int MAX_POSTINGS = 1000;
+
+  private static final float CATEGORY_WEIGHT = 2f;
+
+  private static final float USER_WEIGHT = 1f;
+
+  /**
+   * Amount of popular quizzes kept for users with too few attempts to recommend from.
+   */
+  private static final int POPULAR = 100;
+
+  /**
+   * Used for Dependency Injection.
+   */
+  private final QuizRepository quizRepository;
+
+  /**
+   * Used for Dependency Injection.
+   */
+  private final AttemptRepository attemptRepository;
+
+  private final PrimaryReads primaryReads;
+
+  private final long refreshMillis;
+
+  private final long reloadMillis;
+
+  private final ForkJoinPool pool;
+
+  private final ScheduledExecutorService refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "quiz-recommender");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  private final Map<Long, QuizFeatures> quizzes = new HashMap<>();
+
+  private Set<Long> changed = new HashSet<>();
+
+  /**
+   * The changes made since the running reload began, or null when no reload is running.
+   */
+  private List<Consumer<Map<Long, QuizFeatures>>> changesDuringReload;
+
+  private volatile Matrix matrix = Matrix.EMPTY;
+
+  /**
+   * Used for Dependency Injection.
+   *
+   * @param quizRepository    The injected QuizRepository object.
+   * @param attemptRepository The injected AttemptRepository object.
+   * @param primaryReads      The injected PrimaryReads object.
+   * @param parallelism       The amount of threads the matrix is computed with.
+   * @param refreshMillis     How often to recompute the rows affected by changes, in milliseconds.
+   * @param reloadMillis      How often to reload the whole matrix from the database, in milliseconds.
+   */
+  public QuizRecommender(QuizRepository quizRepository, AttemptRepository attemptRepository,
+                         PrimaryReads primaryReads,
+                         @Value("${quizzer.recommendations.parallelism:0}") int parallelism,
+                         @Value("${quizzer.recommendations.refresh-ms:30000}") long refreshMillis,
+                         @Value("${quizzer.recommendations.reload-ms:3600000}") long reloadMillis) {
+    this.quizRepository = quizRepository;
+    this.attemptRepository = attemptRepository;
+    this.primaryReads = primaryReads;
+    this.refreshMillis = refreshMillis;
+    this.reloadMillis = reloadMillis;
+    this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Computes the matrix in the background once the application has started, and schedules the
+   * refreshes and reloads.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void start() {
+    refresher.execute(() -> run(this::reload));
+    refresher.scheduleWithFixedDelay(() -> run(this::refresh), refreshMillis, refreshMillis, TimeUnit.MILLISECONDS);
+    refresher.scheduleWithFixedDelay(() -> run(this::reload), reloadMillis, reloadMillis, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Loads every quiz, category link and attempted quiz from the primary, and computes the
+   * whole matrix again. Changes made while loading are replayed onto what was loaded.
+   */
+  public synchronized void reload() {
+    long start = System.nanoTime();
+    synchronized (quizzes) {
+      changesDuringReload = new ArrayList<>();
+    }
+    Map<Long, QuizFeatures> loaded;
+    try {
+      loaded = primaryReads.read(this::load);
+    } catch (RuntimeException e) {
+      synchronized (quizzes) {
+        changesDuringReload = null;
+      }
+      throw e;
+    }
+    Map<Long, Features> snapshot;
+    synchronized (quizzes) {
+      for (Consumer<Map<Long, QuizFeatures>> change : changesDuringReload) {
+        change.accept(loaded);
+      }
+      changesDuringReload = null;
+      quizzes.clear();
+      quizzes.putAll(loaded);
+      changed = new HashSet<>();
+      snapshot = snapshot();
+    }
+    Inputs inputs = Inputs.of(snapshot);
+    matrix = compute(inputs, null);
+    log.info("Computed recommendations for " + inputs.quizIds.length + " quizzes in "
+            + (System.nanoTime() - start) / 1_000_000 + " ms");
+  }
+
+  private Map<Long, QuizFeatures> load() {
+    Map<Long, QuizFeatures> loaded = new HashMap<>();
+    for (Object[] row : quizRepository.findAllTitles()) {
+      loaded.put((Long) row[0], new QuizFeatures((String) row[1]));
+    }
+    for (Object[] row : quizRepository.findAllCategoryLinks()) {
+      QuizFeatures quiz = loaded.get((Long) row[0]);
+      if (quiz != null) {
+        quiz.categories.add((String) row[1]);
+      }
+    }
+    for (Object[] row : attemptRepository.countAttemptsPerQuiz()) {
+      QuizFeatures quiz = loaded.get((Long) row[0]);
+      if (quiz != null) {
+        quiz.attempts = (Long) row[1];
+      }
+    }
+    for (Object[] row : attemptRepository.findAllAttemptedQuizzes()) {
+      QuizFeatures quiz = loaded.get((Long) row[1]);
+      if (quiz != null) {
+        quiz.users.add((String) row[0]);
+      }
+    }
+    return loaded;
+  }
+
+  /**
+   * Recomputes the rows of the matrix that the changes since the last refresh can affect.
+   */
+  public synchronized void refresh() {
+    Set<Long> changedQuizzes;
+    Map<Long, Features> snapshot;
+    synchronized (quizzes) {
+      if (changed.isEmpty()) {
+        return;
+      }
+      changedQuizzes = changed;
+      changed = new HashSet<>();
+      snapshot = snapshot();
+    }
+    matrix = compute(Inputs.of(snapshot), changedQuizzes);
+  }
+
+  /**
+   * Adds a newly created quiz, or updates the title and categories of an edited one.
+   *
+   * @param quizId        The id of the quiz.
+   * @param title         The title of the quiz.
+   * @param categoryNames The names of the categories the quiz belongs to.
+   */
+  public void addQuiz(Long quizId, String title, Collection<String> categoryNames) {
+    List<String> categories = List.copyOf(categoryNames);
+    change(quizId, known -> {
+      QuizFeatures quiz = known.computeIfAbsent(quizId, id -> new QuizFeatures(title));
+      quiz.title = title;
+      quiz.categories.clear();
+      quiz.categories.addAll(categories);
+      quiz.copy = null;
+      return true;
+    });
+  }
+
+  /**
+   * Removes a deleted quiz.
+   *
+   * @param quizId The id of the quiz.
+   */
+  public void removeQuiz(Long quizId) {
+    change(quizId, known -> known.remove(quizId) != null);
+  }
+
+  /**
+   * Counts an attempt of a user on a quiz.
+   *
+   * @param username The user who made the attempt.
+   * @param quizId   The id of the attempted quiz.
+   */
+  public void recordAttempt(String username, Long quizId) {
+    change(quizId, known -> {
+      QuizFeatures quiz = known.get(quizId);
+      if (quiz == null) {
+        return false;
+      }
+      quiz.attempts++;
+      quiz.copy = null;
+      return quiz.users.add(username);
+    });
+  }
+
+  /**
+   * Applies a change to the known quizzes, and keeps it to be replayed if a reload is running.
+   *
+   * @param quizId The quiz that changes.
+   * @param change Changes the quizzes, telling whether the similarities of the quiz may change.
+   */
+  private void change(Long quizId, Predicate<Map<Long, QuizFeatures>> change) {
+    synchronized (quizzes) {
+      if (change.test(quizzes)) {
+        changed.add(quizId);
+      }
+      if (changesDuringReload != null) {
+        changesDuringReload.add(change::test);
+      }
+    }
+  }
+
+  /**
+   * Copies the features of every quiz, reusing the copies of quizzes that have not changed.
+   * Must be called holding the lock on the quizzes.
+   */
+  private Map<Long, Features> snapshot() {
+    Map<Long, Features> snapshot = new HashMap<>(quizzes.size() * 2);
+    for (Map.Entry<Long, QuizFeatures> entry : quizzes.entrySet()) {
+      QuizFeatures quiz = entry.getValue();
+      if (quiz.copy == null) {
+        quiz.copy = new Features(quiz.title, quiz.attempts, List.copyOf(quiz.categories), List.copyOf(quiz.users));
+      }
+      snapshot.put(entry.getKey(), quiz.copy);
+    }
+    return snapshot;
+  }
+
+  /**
+   * Finds the quizzes most similar to a quiz.
+   *
+   * @param quizId The id of the quiz.
+   * @param limit  Maximum amount of quizzes.
+   * @return The most similar quizzes, most similar first.
+   */
+  public List<RecommendationDto> similar(Long quizId, int limit) {
+    Matrix current = matrix;
+    int row = Arrays.binarySearch(current.quizIds, quizId);
+    if (row < 0 || limit <= 0) {
+      return List.of();
+    }
+    int end = Math.min(current.offsets[row + 1], current.offsets[row] + limit);
+    List<RecommendationDto> similar = new ArrayList<>(end - current.offsets[row]);
+    for (int i = current.offsets[row]; i < end; i++) {
+      similar.add(current.recommendation(current.neighbours[i], current.scores[i]));
+    }
+    return similar;
+  }
+
+  /**
+   * Recommends quizzes to a user, by adding up how similar they are to the quizzes the user has
+   * attempted. Users with too few attempts are topped up with the most popular quizzes.
+   *
+   * @param username The user to recommend quizzes to.
+   * @param limit    Maximum amount of quizzes.
+   * @return The recommended quizzes, most recommended first.
+   */
+  public List<RecommendationDto> recommend(String username, int limit) {
+    Matrix current = matrix;
+    if (limit <= 0) {
+      return List.of();
+    }
+    int[] attempted = current.userRows.getOrDefault(username, Inputs.NONE);
+    Map<Integer, Float> scores = new HashMap<>();
+    for (int row : attempted) {
+      for (int i = current.offsets[row]; i < current.offsets[row + 1]; i++) {
+        int neighbour = current.neighbours[i];
+        if (Arrays.binarySearch(attempted, neighbour) < 0) {
+          scores.merge(neighbour, current.scores[i], Float::sum);
+        }
+      }
+    }
+    Set<Integer> rows = new LinkedHashSet<>();
+    scores.entrySet().stream()
+            .sorted(Map.Entry.<Integer, Float>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+            .limit(limit)
+            .forEach(entry -> rows.add(entry.getKey()));
+    for (int i = 0; i < current.popular.length && rows.size() < limit; i++) {
+      if (Arrays.binarySearch(attempted, current.popular[i]) < 0) {
+        rows.add(current.popular[i]);
+      }
+    }
+    return rows.stream().map(row -> current.recommendation(row, scores.getOrDefault(row, 0f))).toList();
+  }
+
+  /**
+   * Computes the rows of the matrix. With no changes given every row is computed, otherwise
+   * only the rows of changed quizzes, of quizzes sharing a category or user with them, and of
+   * quizzes that were similar to them are computed, and the others are kept.
+   */
+  private Matrix compute(Inputs inputs, Set<Long> changedQuizzes) {
+    int quizCount = inputs.quizIds.length;
+    Matrix previous = matrix;
+    boolean[] affected = new boolean[quizCount];
+    if (changedQuizzes == null) {
+      Arrays.fill(affected, true);
+    } else {
+      for (Long quizId : changedQuizzes) {
+        int row = Arrays.binarySearch(inputs.quizIds, quizId);
+        if (row >= 0) {
+          affected[row] = true;
+          for (int feature : inputs.features[row]) {
+            if (inputs.postings[feature].length <= MAX_POSTINGS) {
+              for (int other : inputs.postings[feature]) {
+                affected[other] = true;
+              }
+            }
+          }
+        }
+      }
+      for (int oldRow = 0; oldRow < previous.quizIds.length; oldRow++) {
+        for (int i = previous.offsets[oldRow]; i < previous.offsets[oldRow + 1]; i++) {
+          if (changedQuizzes.contains(previous.quizIds[previous.neighbours[i]])) {
+            int row = Arrays.binarySearch(inputs.quizIds, previous.quizIds[oldRow]);
+            if (row >= 0) {
+              affected[row] = true;
+            }
+            break;
+          }
+        }
+      }
+    }
+
+    int[][] rowNeighbours = new int[quizCount][];
+    float[][] rowScores = new float[quizCount][];
+    ThreadLocal<Accumulator> accumulators = ThreadLocal.withInitial(() -> new Accumulator(quizCount));
+    pool.submit(() -> IntStream.range(0, quizCount).parallel().forEach(row -> {
+      if (affected[row]) {
+        accumulators.get().computeRow(inputs, row, rowNeighbours, rowScores);
+      } else {
+        keepRow(previous, inputs, row, rowNeighbours, rowScores);
+      }
+    })).join();
+
+    int[] offsets = new int[quizCount + 1];
+    for (int row = 0; row < quizCount; row++) {
+      offsets[row + 1] = offsets[row] + rowNeighbours[row].length;
+    }
+    int[] neighbours = new int[offsets[quizCount]];
+    float[] scores = new float[offsets[quizCount]];
+    for (int row = 0; row < quizCount; row++) {
+      System.arraycopy(rowNeighbours[row], 0, neighbours, offsets[row], rowNeighbours[row].length);
+      System.arraycopy(rowScores[row], 0, scores, offsets[row], rowScores[row].length);
+    }
+    int[] popular = IntStream.range(0, quizCount).boxed()
+            .sorted((a, b) -> Long.compare(inputs.attempts[b], inputs.attempts[a]))
+            .limit(POPULAR)
+            .mapToInt(Integer::intValue)
+            .toArray();
+    return new Matrix(inputs.quizIds, inputs.titles, offsets, neighbours, scores, popular, inputs.userRows);
+  }
+
+  /**
+   * Keeps the row of a quiz from the previous matrix, renumbering its neighbours.
+   */
+  private static void keepRow(Matrix previous, Inputs inputs, int row, int[][] rowNeighbours, float[][] rowScores) {
+    int oldRow = Arrays.binarySearch(previous.quizIds, inputs.quizIds[row]);
+    if (oldRow < 0) {
+      rowNeighbours[row] = Inputs.NONE;
+      rowScores[row] = new float[0];
+      return;
+    }
+    int start = previous.offsets[oldRow];
+    int length = previous.offsets[oldRow + 1] - start;
+    int[] neighbours = new int[length];
+    float[] scores = new float[length];
+    int kept = 0;
+    for (int i = 0; i < length; i++) {
+      int neighbour = Arrays.binarySearch(inputs.quizIds, previous.quizIds[previous.neighbours[start + i]]);
+      if (neighbour >= 0) {
+        neighbours[kept] = neighbour;
+        scores[kept++] = previous.scores[start + i];
+      }
+    }
+    rowNeighbours[row] = Arrays.copyOf(neighbours, kept);
+    rowScores[row] = Arrays.copyOf(scores, kept);
+  }
+
+  private void run(Runnable task) {
+    try {
+      task.run();
+    } catch (RuntimeException e) {
+      log.warning("Computing recommendations failed: " + e.getMessage());
+    }
+  }
+
+  @PreDestroy
+  void shutdown() {
+    refresher.shutdownNow();
+    pool.shutdownNow();
+  }
+
+  /**
+   * The title, categories and users of a quiz, as they are known so far, with a copy of them
+   * that is dropped whenever they change.
+   */
+  private static final class QuizFeatures {
+    private final Set<String> categories = new HashSet<>();
+    private final Set<String> users = new HashSet<>();
+    private String title;
+    private long attempts;
+    private Features copy;
+
+    private QuizFeatures(String title) {
+      this.title = title;
+    }
+  }
+
+  /**
+   * A copy of the features of a quiz, which is never changed.
+   */
+  private record Features(String title, long attempts, List<String> categories, List<String> users) {
+  }
+
+  /**
+   * A copy of the known quizzes with every quiz, category and user numbered, which the matrix
+   * is computed from without holding any lock.
+   */
+  private static final class Inputs {
+    private static final int[] NONE = new int[0];
+
+    private final long[] quizIds;
+    private final String[] titles;
+    private final long[] attempts;
+    private final int[][] features;
+    private final float[] weights;
+    private final float[] norms;
+    private final int[][] postings;
+    private final Map<String, int[]> userRows;
+
+    private Inputs(long[] quizIds, String[] titles, long[] attempts, int[][] features, float[] weights,
+                   float[] norms, int[][] postings, Map<String, int[]> userRows) {
+      this.quizIds = quizIds;
+      this.titles = titles;
+      this.attempts = attempts;
+      this.features = features;
+      this.weights = weights;
+      this.norms = norms;
+      this.postings = postings;
+      this.userRows = userRows;
+    }
+
+    private static Inputs of(Map<Long, Features> quizzes) {
+      long[] quizIds = quizzes.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+      int quizCount = quizIds.length;
+      String[] titles = new String[quizCount];
+      long[] attempts = new long[quizCount];
+      int[][] features = new int[quizCount][];
+      Map<String, Integer> categoryIds = new HashMap<>();
+      Map<String, Integer> userIds = new HashMap<>();
+      for (int row = 0; row < quizCount; row++) {
+        Features quiz = quizzes.get(quizIds[row]);
+        titles[row] = quiz.title();
+        attempts[row] = quiz.attempts();
+        int[] quizFeatures = new int[quiz.categories().size() + quiz.users().size()];
+        int i = 0;
+        for (String category : quiz.categories()) {
+          quizFeatures[i++] = 2 * categoryIds.computeIfAbsent(category, name -> categoryIds.size());
+        }
+        for (String user : quiz.users()) {
+          quizFeatures[i++] = 2 * userIds.computeIfAbsent(user, name -> userIds.size()) + 1;
+        }
+        features[row] = quizFeatures;
+      }
+
+      // Categories get the even feature numbers and users the odd ones.
+      int featureCount = 2 * Math.max(categoryIds.size(), userIds.size());
+      float[] weights = new float[featureCount];
+      int[] counts = new int[featureCount];
+      for (int feature = 0; feature < featureCount; feature++) {
+        weights[feature] = feature % 2 == 0 ? CATEGORY_WEIGHT : USER_WEIGHT;
+      }
+      float[] norms = new float[quizCount];
+      for (int row = 0; row < quizCount; row++) {
+        float squares = 0;
+        for (int feature : features[row]) {
+          counts[feature]++;
+          squares += weights[feature] * weights[feature];
+        }
+        norms[row] = (float) Math.sqrt(squares);
+      }
+      int[][] postings = new int[featureCount][];
+      for (int feature = 0; feature < featureCount; feature++) {
+        postings[feature] = counts[feature] == 0 ? NONE : new int[counts[feature]];
+        counts[feature] = 0;
+      }
+      for (int row = 0; row < quizCount; row++) {
+        for (int feature : features[row]) {
+          postings[feature][counts[feature]++] = row;
+        }
+      }
+      Map<String, int[]> userRows = new HashMap<>(userIds.size() * 2);
+      userIds.forEach((user, id) -> userRows.put(user, postings[2 * id + 1]));
+      return new Inputs(quizIds, titles, attempts, features, weights, norms, postings, userRows);
+    }
+  }
+
+  /**
+   * Scratch space for computing one row at a time on one thread: the dot products with every
+   * other quiz, and which of them are not zero.
+   */
+  private static final class Accumulator {
+    private final float[] dots;
+    private final int[] touched;
+
+    private Accumulator(int quizCount) {
+      this.dots = new float[quizCount];
+      this.touched = new int[quizCount];
+    }
+
+    private void computeRow(Inputs inputs, int row, int[][] rowNeighbours, float[][] rowScores) {
+      int touchedCount = 0;
+      for (int feature : inputs.features[row]) {
+        int[] quizzes = inputs.postings[feature];
+        if (quizzes.length > MAX_POSTINGS) {
+          continue;
+        }
+        float square = inputs.weights[feature] * inputs.weights[feature];
+        for (int other : quizzes) {
+          if (other != row) {
+            if (dots[other] == 0) {
+              touched[touchedCount++] = other;
+            }
+            dots[other] += square;
+          }
+        }
+      }
+      int[] best = new int[Math.min(NEIGHBOURS, touchedCount)];
+      float[] bestScores = new float[best.length];
+      int found = 0;
+      for (int i = 0; i < touchedCount; i++) {
+        int other = touched[i];
+        float score = dots[other] / (inputs.norms[row] * inputs.norms[other]);
+        dots[other] = 0;
+        if (found == best.length && !better(score, other, bestScores[found - 1], best[found - 1])) {
+          continue;
+        }
+        int position = found == best.length ? found - 1 : found++;
+        while (position > 0 && better(score, other, bestScores[position - 1], best[position - 1])) {
+          best[position] = best[position - 1];
+          bestScores[position] = bestScores[position - 1];
+          position--;
+        }
+        best[position] = other;
+        bestScores[position] = score;
+      }
+      rowNeighbours[row] = best;
+      rowScores[row] = bestScores;
+    }
+
+    private static boolean better(float score, int row, float otherScore, int otherRow) {
+      return score > otherScore || score == otherScore && row < otherRow;
+    }
+  }
+
+  /**
+   * The similarity matrix, as compressed sparse rows: the neighbours of the quiz in row r are
+   * found from offsets[r] up to offsets[r + 1], most similar first.
+   */
+  private record Matrix(long[] quizIds, String[] titles, int[] offsets, int[] neighbours, float[] scores,
+                        int[] popular, Map<String, int[]> userRows) {
+    private static final Matrix EMPTY = new Matrix(new long[0], new String[0], new int[1], new int[0],
+            new float[0], new int[0], Map.of());
+
+    private RecommendationDto recommendation(int row, float score) {
+      return new RecommendationDto(quizIds[row], titles[row], score);
+    }
+  }
+}
@@ -0,0 +1,632 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.recommend;
+
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.TrendingQuizDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.entities.QuizTrendEntity;
+import edu.ntnu.fullstack.prosjekt.quizzer.repositories.QuizRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.java.Log;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Keeps track of which quizzes are trending, from how often they were viewed and attempted in
+ * the last hour. Every quiz counts its views and attempts in a ring buffer of minute buckets,
+ * and older buckets count for less, halving every fifteen minutes.
+ * The decay is applied forward from a fixed landmark minute, so scores only change when a quiz
+ * is counted or a bucket leaves the window, and never just because time passes. That keeps the
+ * ranking of every quiz valid between changes, and the list of trending quizzes is rebuilt only
+ * when one of them changes, so serving it is a plain read.
+ * Views and attempts are queued without taking a lock, and counted in batches every second, or
+ * when the trending quizzes are read, so the list is rebuilt at most once per batch. Views
+ * counted without a title, like the ones served from the response cache, are left out of the
+ * list until the title is looked up, after the batch.
+ * The buckets of quizzes counted since the last save are saved now and then, so a restart does
+ * not reset what is trending.
+ */
+@Log
+@Component
+public class TrendingQuizzes {
+
+  /**
+   * Amount of minute buckets in the window.
+   */
+  static final int WINDOW_MINUTES = 60;
+
+  private static final double DECAY_PER_MINUTE = Math.log(2) / 15;
+
+  /**
+   * Scores grow with the distance to the landmark, so the landmark is moved once a day,
+   * long before they could overflow.
+   */
+  private static final long LANDMARK_MINUTES = 24 * 60;
+
+  private static final int VIEW_WEIGHT = 1;
+
+  private static final int ATTEMPT_WEIGHT = 5;
+
+  /**
+   * Amount of trending quizzes kept ready to serve.
+   */
+  private static final int TOP = 50;
+
+  /**
+   * How often queued views and attempts are counted, in milliseconds.
+   */
+  private static final long COUNT_MILLIS = 1000;
+
+  /**
+   * Amount of trends saved or looked up per statement.
+   */
+  private static final int BATCH_SIZE = 500;
+
+  private static final Comparator<Counter> RANKING = Comparator.<Counter>comparingDouble(counter -> -counter.score)
+          .thenComparingLong(counter -> counter.quizId);
+
+  /**
+   * Used for Dependency Injection.
+   */
+  private final EntityManager entityManager;
+
+  /**
+   * Used for Dependency Injection.
+   */
+  private final QuizRepository quizRepository;
+
+  private final TransactionTemplate transactionTemplate;
+
+  private final TransactionTemplate readOnlyTransactionTemplate;
+
+  private final long saveMillis;
+
+  private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "quiz-trends");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  private final Map<Long, Counter> counters = new HashMap<>();
+
+  private final TreeSet<Counter> ranking = new TreeSet<>(RANKING);
+
+  private final Queue<Count> queued = new ConcurrentLinkedQueue<>();
+
+  /**
+   * Counted quizzes whose title is not known yet.
+   */
+  private final Set<Long> untitled = new HashSet<>();
+
+  /**
+   * Quizzes counted since their buckets were last saved.
+   */
+  private final Set<Long> unsaved = new HashSet<>();
+
+  /**
+   * Quizzes no longer counted, whose saved buckets are deleted by the next save.
+   */
+  private final Set<Long> dropped = new HashSet<>();
+
+  private long landmark = Long.MIN_VALUE;
+
+  private long latestMinute = Long.MIN_VALUE;
+
+  private volatile List<TrendingQuizDto> top = List.of();
+
+  /**
+   * The ranking of the last trending quiz, as it was when the list was rebuilt.
+   */
+  private double lastScore;
+
+  private long lastQuizId;
+
+  /**
+   * Used for Dependency Injection.
+   *
+   * @param entityManager      The injected EntityManager object.
+   * @param transactionManager The transaction manager the buckets are saved in.
+   * @param quizRepository     The injected QuizRepository object.
+   * @param saveMillis         How often to save the buckets, in milliseconds.
+   */
+  public TrendingQuizzes(EntityManager entityManager, PlatformTransactionManager transactionManager,
+                         QuizRepository quizRepository,
+                         @Value("${quizzer.trending.save-ms:300000}") long saveMillis) {
+    this.entityManager = entityManager;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+    this.readOnlyTransactionTemplate.setReadOnly(true);
+    this.quizRepository = quizRepository;
+    this.saveMillis = saveMillis;
+  }
+
+  /**
+   * Starts counting the queued views and attempts, dropping old buckets and saving them, once
+   * the application has started.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void start() {
+    ticker.scheduleWithFixedDelay(this::countQuietly, COUNT_MILLIS, COUNT_MILLIS, TimeUnit.MILLISECONDS);
+    ticker.scheduleWithFixedDelay(() -> advance(System.currentTimeMillis()), 1, 1, TimeUnit.MINUTES);
+    ticker.scheduleWithFixedDelay(this::saveQuietly, saveMillis, saveMillis, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Counts a view of a quiz.
+   *
+   * @param quizId The id of the viewed quiz.
+   * @param title  The title of the quiz, or null to keep the known title, or look it up if
+   *               none is known.
+   */
+  public void recordView(Long quizId, String title) {
+    record(quizId, title, false, System.currentTimeMillis());
+  }
+
+  /**
+   * Counts an attempt on a quiz, which counts for more than a view.
+   *
+   * @param quizId The id of the attempted quiz.
+   * @param title  The title of the quiz, or null to keep the known title.
+   */
+  public void recordAttempt(Long quizId, String title) {
+    recordAttempts(quizId, title, 1);
+  }
+
+  /**
+   * Counts several attempts on a quiz at once, like the results of a batch or a live room.
+   *
+   * @param quizId   The id of the attempted quiz.
+   * @param title    The title of the quiz, or null to keep the known title.
+   * @param attempts The amount of attempts.
+   */
+  public void recordAttempts(Long quizId, String title, int attempts) {
+    if (attempts > 0) {
+      queued.add(new Count(quizId, title, true, attempts, System.currentTimeMillis()));
+    }
+  }
+
+  /**
+   * Queues a view or an attempt on a quiz at the given time, to be counted with the next batch.
+   *
+   * @param quizId  The id of the quiz.
+   * @param title   The title of the quiz, or null to keep the known title.
+   * @param attempt Whether an attempt is counted, instead of a view.
+   * @param millis  The time of the view or attempt.
+   */
+  void record(Long quizId, String title, boolean attempt, long millis) {
+    queued.add(new Count(quizId, title, attempt, 1, millis));
+  }
+
+  /**
+   * Counts the queued views and attempts, rebuilding the list of trending quizzes once if any
+   * of them changes it.
+   */
+  synchronized void count() {
+    boolean topChanged = false;
+    for (Count count = queued.poll(); count != null; count = queued.poll()) {
+      long minute = count.millis() / 60_000;
+      startAt(minute);
+      latestMinute = Math.max(latestMinute, minute);
+      Counter counter = counters.get(count.quizId());
+      if (counter == null) {
+        counter = new Counter(count.quizId());
+        counters.put(count.quizId(), counter);
+        dropped.remove(count.quizId());
+      } else {
+        ranking.remove(counter);
+      }
+      boolean wasTop = isTop(counter);
+      if (count.title() != null) {
+        counter.title = count.title();
+        untitled.remove(counter.quizId);
+      } else if (counter.title == null) {
+        untitled.add(counter.quizId);
+      }
+      counter.add(minute, count.attempt(), count.times(), landmark);
+      ranking.add(counter);
+      unsaved.add(counter.quizId);
+      topChanged |= wasTop || isTop(counter);
+    }
+    if (topChanged) {
+      rebuildTop();
+    }
+  }
+
+  /**
+   * Looks up the titles of quizzes counted without one, and stops counting quizzes that no
+   * longer exist.
+   */
+  void resolveTitles() {
+    List<Long> quizIds;
+    synchronized (this) {
+      if (untitled.isEmpty()) {
+        return;
+      }
+      quizIds = List.copyOf(untitled);
+    }
+    Map<Long, String> titles = new HashMap<>();
+    for (int from = 0; from < quizIds.size(); from += BATCH_SIZE) {
+      for (Object[] row : quizRepository.findTitles(quizIds.subList(from, Math.min(quizIds.size(), from + BATCH_SIZE)))) {
+        titles.put((Long) row[0], (String) row[1]);
+      }
+    }
+    synchronized (this) {
+      for (Long quizId : quizIds) {
+        Counter counter = counters.get(quizId);
+        if (counter == null || counter.title != null) {
+          untitled.remove(quizId);
+        } else if (titles.containsKey(quizId)) {
+          counter.title = titles.get(quizId);
+          untitled.remove(quizId);
+        } else {
+          forget(counter);
+        }
+      }
+      rebuildTop();
+    }
+  }
+
+  /**
+   * Stops counting a deleted quiz.
+   *
+   * @param quizId The id of the quiz.
+   */
+  public synchronized void removeQuiz(Long quizId) {
+    count();
+    Counter counter = counters.get(quizId);
+    if (counter != null) {
+      forget(counter);
+      if (isTop(counter)) {
+        rebuildTop();
+      }
+    }
+  }
+
+  private void forget(Counter counter) {
+    counters.remove(counter.quizId);
+    ranking.remove(counter);
+    untitled.remove(counter.quizId);
+    unsaved.remove(counter.quizId);
+    dropped.add(counter.quizId);
+  }
+
+  /**
+   * Finds the quizzes that are trending right now.
+   *
+   * @param limit Maximum amount of quizzes.
+   * @return The trending quizzes, most trending first.
+   */
+  public List<TrendingQuizDto> trending(int limit) {
+    if (!queued.isEmpty()) {
+      count();
+    }
+    List<TrendingQuizDto> current = top;
+    return current.subList(0, Math.max(0, Math.min(limit, current.size())));
+  }
+
+  /**
+   * Drops the buckets that have left the window, and forgets quizzes that were not counted
+   * within it.
+   *
+   * @param millis The current time.
+   */
+  synchronized void advance(long millis) {
+    long minute = millis / 60_000;
+    count();
+    if (landmark == Long.MIN_VALUE) {
+      return;
+    }
+    latestMinute = Math.max(latestMinute, minute);
+    boolean moveLandmark = minute - landmark > LANDMARK_MINUTES;
+    ranking.clear();
+    Iterator<Counter> iterator = counters.values().iterator();
+    while (iterator.hasNext()) {
+      Counter counter = iterator.next();
+      counter.advance(minute, landmark);
+      if (moveLandmark) {
+        counter.rescore(minute - WINDOW_MINUTES);
+      }
+      if (counter.isEmpty()) {
+        iterator.remove();
+        untitled.remove(counter.quizId);
+        unsaved.remove(counter.quizId);
+        dropped.add(counter.quizId);
+      } else {
+        ranking.add(counter);
+      }
+    }
+    if (moveLandmark) {
+      landmark = minute - WINDOW_MINUTES;
+    }
+    rebuildTop();
+  }
+
+  /**
+   * Loads the saved buckets once the application has started, leaving out deleted quizzes.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void load() {
+    List<QuizTrendEntity> saved = readOnlyTransactionTemplate.execute(status -> entityManager
+            .createQuery("SELECT trend FROM QuizTrendEntity trend", QuizTrendEntity.class)
+            .getResultList());
+    if (saved == null || saved.isEmpty()) {
+      return;
+    }
+    Map<Long, String> titles = new HashMap<>();
+    for (Object[] row : quizRepository.findTitles(saved.stream().map(QuizTrendEntity::getQuizId).toList())) {
+      titles.put((Long) row[0], (String) row[1]);
+    }
+    long now = System.currentTimeMillis();
+    synchronized (this) {
+      startAt(now / 60_000);
+      for (QuizTrendEntity trend : saved) {
+        String title = titles.get(trend.getQuizId());
+        if (title == null || counters.containsKey(trend.getQuizId())) {
+          continue;
+        }
+        Counter counter = new Counter(trend.getQuizId());
+        counter.title = title;
+        counter.decode(trend.getNewestMinute(), trend.getBuckets(), landmark);
+        counters.put(counter.quizId, counter);
+      }
+      advance(now);
+    }
+    log.info("Loaded the trends of " + counters.size() + " quizzes");
+  }
+
+  /**
+   * Saves the buckets of the quizzes counted since the last save, and deletes the saved buckets
+   * of quizzes no longer counted. Buckets that only aged since they were saved are left as they
+   * are, as loading them drops what has left the window.
+   */
+  public void save() {
+    List<QuizTrendEntity> trends = new ArrayList<>();
+    List<Long> deleted;
+    synchronized (this) {
+      count();
+      for (Long quizId : unsaved) {
+        Counter counter = counters.get(quizId);
+        trends.add(new QuizTrendEntity(quizId, counter.newestMinute, counter.encode()));
+      }
+      deleted = List.copyOf(dropped);
+      unsaved.clear();
+      dropped.clear();
+    }
+    if (trends.isEmpty() && deleted.isEmpty()) {
+      return;
+    }
+    try {
+      transactionTemplate.executeWithoutResult(status -> {
+        for (int from = 0; from < deleted.size(); from += BATCH_SIZE) {
+          entityManager.createQuery("DELETE FROM QuizTrendEntity trend WHERE trend.quizId IN :quizIds")
+                  .setParameter("quizIds", deleted.subList(from, Math.min(deleted.size(), from + BATCH_SIZE)))
+                  .executeUpdate();
+        }
+        for (int from = 0; from < trends.size(); from += BATCH_SIZE) {
+          upsert(trends.subList(from, Math.min(trends.size(), from + BATCH_SIZE)));
+        }
+      });
+    } catch (RuntimeException e) {
+      synchronized (this) {
+        for (QuizTrendEntity trend : trends) {
+          if (counters.containsKey(trend.getQuizId())) {
+            unsaved.add(trend.getQuizId());
+          }
+        }
+        for (Long quizId : deleted) {
+          if (!counters.containsKey(quizId)) {
+            dropped.add(quizId);
+          }
+        }
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * Updates the saved buckets of a batch of quizzes, and inserts the ones not saved before.
+   */
+  private void upsert(List<QuizTrendEntity> trends) {
+    Set<Long> saved = new HashSet<>(entityManager
+            .createQuery("SELECT trend.quizId FROM QuizTrendEntity trend WHERE trend.quizId IN :quizIds", Long.class)
+            .setParameter("quizIds", trends.stream().map(QuizTrendEntity::getQuizId).toList())
+            .getResultList());
+    for (QuizTrendEntity trend : trends) {
+      if (saved.contains(trend.getQuizId())) {
+        entityManager.merge(trend);
+      } else {
+        entityManager.persist(trend);
+      }
+    }
+    entityManager.flush();
+    entityManager.clear();
+  }
+
+  private void countQuietly() {
+    try {
+      count();
+      resolveTitles();
+    } catch (RuntimeException e) {
+      log.warning("Could not count the quiz views: " + e.getMessage());
+    }
+  }
+
+  private void saveQuietly() {
+    try {
+      save();
+    } catch (RuntimeException e) {
+      log.warning("Could not save the quiz trends: " + e.getMessage());
+    }
+  }
+
+  private void startAt(long minute) {
+    if (landmark == Long.MIN_VALUE) {
+      landmark = minute - WINDOW_MINUTES;
+    }
+  }
+
+  /**
+   * Tells whether a quiz ranks among the trending quizzes, or would with its current score.
+   */
+  private boolean isTop(Counter counter) {
+    return top.size() < TOP || counter.score > lastScore
+            || counter.score == lastScore && counter.quizId <= lastQuizId;
+  }
+
+  /**
+   * Rebuilds the list of trending quizzes, with the scores as they are in the latest minute.
+   */
+  private void rebuildTop() {
+    List<TrendingQuizDto> rebuilt = new ArrayList<>(TOP);
+    double scale = Math.exp(-DECAY_PER_MINUTE * (latestMinute - landmark));
+    for (Counter counter : ranking) {
+      if (rebuilt.size() == TOP || counter.score <= 0) {
+        break;
+      }
+      if (counter.title == null) {
+        continue;
+      }
+      rebuilt.add(new TrendingQuizDto(counter.quizId, counter.title, counter.score * scale,
+              counter.windowViews, counter.windowAttempts));
+      lastScore = counter.score;
+      lastQuizId = counter.quizId;
+    }
+    top = List.copyOf(rebuilt);
+  }
+
+  /**
+   * Stops dropping old buckets and saving them.
+   */
+  @PreDestroy
+  public void shutdown() {
+    ticker.shutdownNow();
+  }
+
+  private static int slot(long minute) {
+    return (int) Math.floorMod(minute, (long) WINDOW_MINUTES);
+  }
+
+  private static double weight(int views, int attempts, long minute, long landmark) {
+    return (views * VIEW_WEIGHT + attempts * ATTEMPT_WEIGHT) * Math.exp(DECAY_PER_MINUTE * (minute - landmark));
+  }
+
+  /**
+   * Views or attempts on a quiz, queued to be counted.
+   */
+  private record Count(Long quizId, String title, boolean attempt, int times, long millis) {
+  }
+
+  /**
+   * The views and attempts of one quiz in every minute of the window.
+   */
+  private static final class Counter {
+    private final long quizId;
+    private final int[] views = new int[WINDOW_MINUTES];
+    private final int[] attempts = new int[WINDOW_MINUTES];
+    private String title;
+    private long newestMinute = Long.MIN_VALUE;
+    private int windowViews;
+    private int windowAttempts;
+    private double score;
+
+    private Counter(long quizId) {
+      this.quizId = quizId;
+    }
+
+    private void add(long minute, boolean attempt, int times, long landmark) {
+      advance(minute, landmark);
+      if (newestMinute - minute >= WINDOW_MINUTES) {
+        return;
+      }
+      int slot = slot(minute);
+      if (attempt) {
+        attempts[slot] += times;
+        windowAttempts += times;
+        score += weight(0, times, minute, landmark);
+      } else {
+        views[slot] += times;
+        windowViews += times;
+        score += weight(times, 0, minute, landmark);
+      }
+    }
+
+    private void advance(long minute, long landmark) {
+      if (newestMinute != Long.MIN_VALUE && minute <= newestMinute) {
+        return;
+      }
+      if (newestMinute == Long.MIN_VALUE || minute - newestMinute >= WINDOW_MINUTES) {
+        Arrays.fill(views, 0);
+        Arrays.fill(attempts, 0);
+        windowViews = 0;
+        windowAttempts = 0;
+      } else {
+        for (long expired = newestMinute + 1 - WINDOW_MINUTES; expired <= minute - WINDOW_MINUTES; expired++) {
+          int slot = slot(expired);
+          score -= weight(views[slot], attempts[slot], expired, landmark);
+          windowViews -= views[slot];
+          windowAttempts -= attempts[slot];
+          views[slot] = 0;
+          attempts[slot] = 0;
+        }
+      }
+      newestMinute = minute;
+      if (isEmpty()) {
+        score = 0;
+      }
+    }
+
+    private void rescore(long landmark) {
+      score = 0;
+      for (long minute = newestMinute - WINDOW_MINUTES + 1; minute <= newestMinute; minute++) {
+        score += weight(views[slot(minute)], attempts[slot(minute)], minute, landmark);
+      }
+    }
+
+    private boolean isEmpty() {
+      return windowViews == 0 && windowAttempts == 0;
+    }
+
+    private byte[] encode() {
+      ByteBuffer buffer = ByteBuffer.allocate(2 * WINDOW_MINUTES * Integer.BYTES);
+      for (long minute = newestMinute - WINDOW_MINUTES + 1; minute <= newestMinute; minute++) {
+        buffer.putInt(views[slot(minute)]);
+      }
+      for (long minute = newestMinute - WINDOW_MINUTES + 1; minute <= newestMinute; minute++) {
+        buffer.putInt(attempts[slot(minute)]);
+      }
+      return buffer.array();
+    }
+
+    private void decode(long newest, byte[] buckets, long landmark) {
+      ByteBuffer buffer = ByteBuffer.wrap(buckets);
+      newestMinute = newest;
+      for (long minute = newest - WINDOW_MINUTES + 1; minute <= newest; minute++) {
+        views[slot(minute)] = buffer.getInt();
+        windowViews += views[slot(minute)];
+      }
+      for (long minute = newest - WINDOW_MINUTES + 1; minute <= newest; minute++) {
+        attempts[slot(minute)] = buffer.getInt();
+        windowAttempts += attempts[slot(minute)];
+      }
+      rescore(landmark);
+    }
+  }
+}
@@ -5,6 +5,7 @@ import edu.ntnu.fullstack.prosjekt.quizzer.domain.entities.UserEntity;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
 
@@ -16,4 +17,29 @@ import java.util.List;
 @Repository
 public interface AttemptRepository extends JpaRepository<QuizAttemptEntity, Long> {
   Page<QuizAttemptEntity> findQuizAttemptEntitiesByUser(UserEntity userEntity, Pageable pageable);
+
+  /**
+   * Finds the attempts of a user, leaving out attempts on deleted quizzes.
+   *
+   * @param userEntity The user.
+   * @param pageable   The page to find.
+   * @return A page of attempts.
+   */
+  Page<QuizAttemptEntity> findQuizAttemptEntitiesByUserAndQuizDeletedFalse(UserEntity userEntity, Pageable pageable);
+
+  /**
+   * Counts the attempts made on each quiz.
+   *
+   * @return Rows of quiz id and amount of attempts.
+   */
+  @Query("SELECT attempt.quiz.quizId, COUNT(attempt) FROM QuizAttemptEntity attempt GROUP BY attempt.quiz.quizId")
+  List<Object[]> countAttemptsPerQuiz();
+
+  /**
+   * Finds which quizzes every user has attempted, once per user and quiz.
+   *
+   * @return Rows of username and quiz id.
+   */
+  @Query("SELECT DISTINCT attempt.user.username, attempt.quiz.quizId FROM QuizAttemptEntity attempt")
+  List<Object[]> findAllAttemptedQuizzes();
 }
@@ -2,15 +2,33 @@ package edu.ntnu.fullstack.prosjekt.quizzer.repositories;
 
 import edu.ntnu.fullstack.prosjekt.quizzer.domain.entities.CategoryEntity;
 import edu.ntnu.fullstack.prosjekt.quizzer.domain.entities.QuizEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.PagingAndSortingRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 /**
  * Provides basic CRUD functionality for database operations against the category database table.
  */
 @Repository
 public interface CategoryRepository extends JpaRepository<CategoryEntity, String>,
         PagingAndSortingRepository<CategoryEntity, String> {
+
+  /**
+   * Finds every category. The result is kept in the query cache, and is invalidated whenever
+   * the categories table changes.
+   *
+   * @return Every category.
+   */
+  @Override
+  @QueryHints({
+          @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+          @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "quizzer.category-list")
+  })
+  List<CategoryEntity> findAll();
 }
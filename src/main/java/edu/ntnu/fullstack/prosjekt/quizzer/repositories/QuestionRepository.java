@@ -2,8 +2,12 @@ package edu.ntnu.fullstack.prosjekt.quizzer.repositories;
 
 import edu.ntnu.fullstack.prosjekt.quizzer.domain.entities.QuestionEntity;
 import edu.ntnu.fullstack.prosjekt.quizzer.domain.entities.QuizEntity;
+import java.util.Collection;
 import java.util.List;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -12,4 +16,26 @@ import org.springframework.stereotype.Repository;
 @Repository
 public interface QuestionRepository extends CrudRepository<QuestionEntity, Long> {
   List<QuestionEntity> findQuestionEntitiesByQuiz(QuizEntity quizEntity);
+
+  long countByQuiz(QuizEntity quizEntity);
+
+  /**
+   * Counts the questions of several quizzes in one statement.
+   *
+   * @param quizIds The ids of the quizzes.
+   * @return Rows of quiz id and amount of questions, leaving out quizzes without questions.
+   */
+  @Query("SELECT question.quiz.quizId, COUNT(question) FROM QuestionEntity question "
+          + "WHERE question.quiz.quizId IN :quizIds GROUP BY question.quiz.quizId")
+  List<Object[]> countByQuizIds(@Param("quizIds") Collection<Long> quizIds);
+
+  /**
+   * Deletes every question of a quiz in one statement, without loading them.
+   *
+   * @param quizEntity The quiz.
+   * @return The amount of deleted questions.
+   */
+  @Modifying
+  @Query("DELETE FROM QuestionEntity question WHERE question.quiz = :quiz")
+  int deleteByQuiz(@Param("quiz") QuizEntity quizEntity);
 }
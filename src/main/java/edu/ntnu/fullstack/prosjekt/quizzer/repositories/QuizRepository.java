@@ -4,14 +4,21 @@ import edu.ntnu.fullstack.prosjekt.quizzer.domain.entities.CategoryEntity;
 import edu.ntnu.fullstack.prosjekt.quizzer.domain.entities.QuizEntity;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.PagingAndSortingRepository;
 import org.springframework.stereotype.Repository;
 import org.springframework.web.bind.annotation.RequestParam;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * Provides basic CRUD functionality for database operations against the quiz database table.
@@ -22,4 +29,62 @@ public interface QuizRepository extends CrudRepository<QuizEntity, Long>,
   
   @Query("SELECT entity FROM QuizEntity entity JOIN entity.categories category WHERE category.categoryName LIKE %:searchQuery% OR entity.title LIKE %:searchQuery%")
   Page<QuizEntity> findByCategoriesInOrTitleContaining(@RequestParam("searchQuery") String searchQuery, Pageable pageable);
+
+  /**
+   * Finds a quiz together with its owner, categories and collaborators, in one query.
+   *
+   * @param quizId The id of the quiz.
+   * @return The quiz, if it exists and has not been deleted.
+   */
+  @Query("SELECT DISTINCT quiz FROM QuizEntity quiz LEFT JOIN FETCH quiz.owner "
+          + "LEFT JOIN FETCH quiz.categories LEFT JOIN FETCH quiz.collaborators WHERE quiz.quizId = :quizId")
+  Optional<QuizEntity> findDetailsById(@Param("quizId") Long quizId);
+
+  /**
+   * Finds the id and title of every quiz, without loading the quizzes themselves.
+   *
+   * @return Rows of quiz id and title.
+   */
+  @Query("SELECT quiz.quizId, quiz.title FROM QuizEntity quiz")
+  List<Object[]> findAllTitles();
+
+  /**
+   * Finds the id and title of the given quizzes, leaving out the ones that no longer exist.
+   *
+   * @param quizIds The ids of the quizzes.
+   * @return Rows of quiz id and title.
+   */
+  @Query("SELECT quiz.quizId, quiz.title FROM QuizEntity quiz WHERE quiz.quizId IN :quizIds")
+  List<Object[]> findTitles(@Param("quizIds") Collection<Long> quizIds);
+
+  /**
+   * Finds every link between a quiz and one of its categories.
+   *
+   * @return Rows of quiz id and category name.
+   */
+  @Query("SELECT quiz.quizId, category.categoryName FROM QuizEntity quiz JOIN quiz.categories category")
+  List<Object[]> findAllCategoryLinks();
+
+  /**
+   * Locks the row of a quiz until the current transaction ends, so changes numbered per quiz,
+   * like its versions, are made one at a time.
+   *
+   * @param quizId The id of the quiz.
+   * @return The id of the quiz, or null if it does not exist.
+   */
+  @Query(value = "SELECT quiz_id FROM quizzes WHERE quiz_id = :quizId FOR UPDATE", nativeQuery = true)
+  Long lockById(@Param("quizId") Long quizId);
+
+  /**
+   * Streams every quiz in id order through a database cursor, so the whole catalog never has to
+   * be held in memory. Must be consumed inside a transaction, and closed afterwards.
+   *
+   * @return A stream of every quiz.
+   */
+  @QueryHints({
+          @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+          @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+  })
+  @Query("SELECT quiz FROM QuizEntity quiz LEFT JOIN FETCH quiz.owner ORDER BY quiz.quizId")
+  Stream<QuizEntity> streamAllByOrderByQuizId();
 }
@@ -0,0 +1,48 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.repositories;
+
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.entities.QuizVersionEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * Provides database operations against the quiz_versions database table.
+ * Versions are only ever inserted, and purged together with their quiz.
+ */
+@Repository
+public interface QuizVersionRepository extends JpaRepository<QuizVersionEntity, Long> {
+  /**
+   * Finds a version of a quiz that has not been deleted.
+   *
+   * @param quizId The id of the quiz.
+   * @param number The version number.
+   * @return The version, if both it and the quiz exist.
+   */
+  @Query("SELECT version FROM QuizVersionEntity version "
+          + "WHERE version.quiz.quizId = :quizId AND version.number = :number AND version.quiz.deleted = false")
+  Optional<QuizVersionEntity> findByQuizQuizIdAndNumber(@Param("quizId") Long quizId, @Param("number") Integer number);
+
+  /**
+   * Finds the number of the newest version of a quiz that has not been deleted.
+   *
+   * @param quizId The id of the quiz.
+   * @return The newest version number, or null if the quiz has no versions or is deleted.
+   */
+  @Query("SELECT MAX(version.number) FROM QuizVersionEntity version "
+          + "WHERE version.quiz.quizId = :quizId AND version.quiz.deleted = false")
+  Integer findLatestNumber(@Param("quizId") Long quizId);
+
+  /**
+   * Finds the number of the newest version of a quiz as last committed, locking it, so it is
+   * not read from an older snapshot of the current transaction. Used once the quiz is locked.
+   *
+   * @param quizId The id of the quiz.
+   * @return The newest version number, or null if the quiz has no versions.
+   */
+  @Query(value = "SELECT version_number FROM quiz_versions WHERE quiz_id = :quizId "
+          + "ORDER BY version_number DESC LIMIT 1 FOR UPDATE", nativeQuery = true)
+  Integer findLatestNumberForUpdate(@Param("quizId") Long quizId);
+}
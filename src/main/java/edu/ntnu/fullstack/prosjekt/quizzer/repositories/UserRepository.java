@@ -1,8 +1,6 @@
 package edu.ntnu.fullstack.prosjekt.quizzer.repositories;
 
 import edu.ntnu.fullstack.prosjekt.quizzer.domain.entities.UserEntity;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
@@ -12,5 +10,4 @@ import org.springframework.stereotype.Repository;
  */
 @Repository
 public interface UserRepository extends JpaRepository<UserEntity, String> {
-    Page<UserEntity> findAllByUsernameContainingIgnoreCaseOrFullNameContainingIgnoreCase(String username, String fullName, Pageable pageable);
 }
@@ -0,0 +1,533 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.search;
+
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.SuggestionDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.SuggestionIndexStatsDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.entities.CategoryEntity;
+import edu.ntnu.fullstack.prosjekt.quizzer.enums.SuggestionType;
+import edu.ntnu.fullstack.prosjekt.quizzer.repositories.AttemptRepository;
+import edu.ntnu.fullstack.prosjekt.quizzer.repositories.CategoryRepository;
+import edu.ntnu.fullstack.prosjekt.quizzer.repositories.QuizRepository;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import lombok.extern.java.Log;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory autocomplete index over quiz titles and category names.
+ * Keys are stored in a radix tree, where chains of single-child nodes are compressed into
+ * one edge label. Every node caches the highest weight found below it, so the most popular
+ * suggestions for a prefix are found best-first without visiting the whole subtree.
+ * Titles are indexed from the start of each of their words, so "hist" suggests both
+ * "History" and "World History Quiz".
+ */
+@Log
+@Component
+public class QuizSuggestionIndex {
+
+  /**
+   * Maximum amount of words in a title that are indexed as a key of their own.
+   */
+  private static final int MAX_WORDS_PER_KEY = 8;
+
+  /**
+   * Rough per-object heap costs used when estimating memory use.
+   */
+  private static final int NODE_BYTES = 48;
+  private static final int ENTRY_BYTES = 40;
+  private static final int STRING_BYTES = 40;
+
+  /**
+   * Used for Dependency Injection.
+   */
+  private final QuizRepository quizRepository;
+
+  /**
+   * Used for Dependency Injection.
+   */
+  private final CategoryRepository categoryRepository;
+
+  /**
+   * Used for Dependency Injection.
+   */
+  private final AttemptRepository attemptRepository;
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+  private final Map<String, Entry> entries = new HashMap<>();
+
+  private Node root = new Node("");
+
+  private int nodes = 1;
+
+  private int keys;
+
+  /**
+   * Used for Dependency Injection.
+   *
+   * @param quizRepository     The injected QuizRepository object.
+   * @param categoryRepository The injected CategoryRepository object.
+   * @param attemptRepository  The injected AttemptRepository object.
+   */
+  public QuizSuggestionIndex(QuizRepository quizRepository, CategoryRepository categoryRepository,
+                             AttemptRepository attemptRepository) {
+    this.quizRepository = quizRepository;
+    this.categoryRepository = categoryRepository;
+    this.attemptRepository = attemptRepository;
+  }
+
+  /**
+   * Loads every quiz title and category once the application has started.
+   * Quiz popularity is the amount of attempts, and category popularity is the amount of
+   * quizzes in the category.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void rebuild() {
+    long start = System.nanoTime();
+    Map<Long, Long> attempts = new HashMap<>();
+    for (Object[] row : attemptRepository.countAttemptsPerQuiz()) {
+      attempts.put((Long) row[0], (Long) row[1]);
+    }
+    Map<String, Long> quizzesPerCategory = new HashMap<>();
+    for (Object[] row : quizRepository.findAllCategoryLinks()) {
+      quizzesPerCategory.merge((String) row[1], 1L, Long::sum);
+    }
+    lock.writeLock().lock();
+    try {
+      entries.clear();
+      root = new Node("");
+      nodes = 1;
+      keys = 0;
+      for (CategoryEntity category : categoryRepository.findAll()) {
+        String name = category.getCategoryName();
+        add(new Entry(SuggestionType.CATEGORY, null, name,
+                quizzesPerCategory.getOrDefault(name, 0L)));
+      }
+      for (Object[] row : quizRepository.findAllTitles()) {
+        Long quizId = (Long) row[0];
+        add(new Entry(SuggestionType.QUIZ, quizId, (String) row[1], attempts.getOrDefault(quizId, 0L)));
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+    log.info("Indexed " + entries.size() + " suggestions in "
+            + (System.nanoTime() - start) / 1_000_000 + " ms");
+  }
+
+  /**
+   * Adds a newly created quiz, and counts it towards the popularity of its categories.
+   *
+   * @param quizId        The id of the quiz.
+   * @param title         The title of the quiz.
+   * @param categoryNames The names of the categories the quiz belongs to.
+   */
+  public void addQuiz(Long quizId, String title, Collection<String> categoryNames) {
+    lock.writeLock().lock();
+    try {
+      if (title != null && !title.isBlank()) {
+        add(new Entry(SuggestionType.QUIZ, quizId, title, 0));
+      }
+      for (String categoryName : categoryNames) {
+        Entry category = entries.get(Entry.id(SuggestionType.CATEGORY, null, categoryName));
+        if (category == null) {
+          add(new Entry(SuggestionType.CATEGORY, null, categoryName, 1));
+        } else {
+          reweigh(category, category.weight + 1);
+        }
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Removes a deleted quiz, and no longer counts it towards the popularity of its categories.
+   *
+   * @param quizId        The id of the quiz.
+   * @param categoryNames The names of the categories the quiz belonged to.
+   */
+  public void removeQuiz(Long quizId, Collection<String> categoryNames) {
+    lock.writeLock().lock();
+    try {
+      Entry quiz = entries.remove(Entry.id(SuggestionType.QUIZ, quizId, null));
+      if (quiz != null) {
+        for (String key : quiz.keys) {
+          remove(key, quiz);
+        }
+      }
+      for (String categoryName : categoryNames) {
+        Entry category = entries.get(Entry.id(SuggestionType.CATEGORY, null, categoryName));
+        if (category != null && category.weight > 0) {
+          reweigh(category, category.weight - 1);
+        }
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Counts an attempt towards the popularity of a quiz.
+   *
+   * @param quizId The id of the attempted quiz.
+   */
+  public void recordAttempt(Long quizId) {
+    lock.writeLock().lock();
+    try {
+      Entry quiz = entries.get(Entry.id(SuggestionType.QUIZ, quizId, null));
+      if (quiz != null) {
+        reweigh(quiz, quiz.weight + 1);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Finds the most popular quizzes and categories with a word starting with the prefix.
+   *
+   * @param prefix The text typed so far.
+   * @param limit  Maximum amount of suggestions.
+   * @return Suggestions ordered by popularity, most popular first.
+   */
+  public List<SuggestionDto> suggest(String prefix, int limit) {
+    String key = normalize(prefix);
+    if (key.isEmpty() || limit <= 0) {
+      return List.of();
+    }
+    lock.readLock().lock();
+    try {
+      Node node = find(key);
+      if (node == null) {
+        return List.of();
+      }
+      Set<Entry> found = new LinkedHashSet<>();
+      PriorityQueue<Candidate> queue = new PriorityQueue<>();
+      queue.add(new Candidate(node.maxWeight, node, null));
+      while (!queue.isEmpty() && found.size() < limit) {
+        Candidate candidate = queue.poll();
+        if (candidate.entry != null) {
+          found.add(candidate.entry);
+          continue;
+        }
+        for (Entry entry : candidate.node.entries) {
+          queue.add(new Candidate(entry.weight, null, entry));
+        }
+        for (Node child : candidate.node.children) {
+          queue.add(new Candidate(child.maxWeight, child, null));
+        }
+      }
+      return found.stream()
+              .map(entry -> new SuggestionDto(entry.text, entry.type, entry.quizId, entry.weight))
+              .toList();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Reports the size of the index, including an estimate of its heap usage.
+   *
+   * @return The statistics of the index.
+   */
+  public SuggestionIndexStatsDto stats() {
+    lock.readLock().lock();
+    try {
+      long bytes = (long) nodes * NODE_BYTES;
+      Deque<Node> stack = new ArrayDeque<>();
+      stack.push(root);
+      while (!stack.isEmpty()) {
+        Node node = stack.pop();
+        bytes += STRING_BYTES + node.label.length() + node.firsts.length * 2L
+                + (node.children.length + node.entries.length) * 4L;
+        for (Node child : node.children) {
+          stack.push(child);
+        }
+      }
+      for (Entry entry : entries.values()) {
+        bytes += ENTRY_BYTES + STRING_BYTES + entry.text.length();
+      }
+      return new SuggestionIndexStatsDto(entries.size(), keys, nodes, bytes);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private void add(Entry entry) {
+    Entry previous = entries.put(entry.id(), entry);
+    if (previous != null) {
+      for (String key : previous.keys) {
+        remove(key, previous);
+      }
+    }
+    String text = normalize(entry.text);
+    int words = 0;
+    for (int i = 0; i < text.length() && words < MAX_WORDS_PER_KEY; i++) {
+      if (i == 0 || text.charAt(i - 1) == ' ') {
+        String key = text.substring(i);
+        if (!entry.keys.contains(key)) {
+          entry.keys.add(key);
+          insert(key, entry);
+        }
+        words++;
+      }
+    }
+  }
+
+  private void reweigh(Entry entry, long weight) {
+    entry.weight = weight;
+    for (String key : entry.keys) {
+      List<Node> path = new ArrayList<>();
+      Node node = root;
+      path.add(node);
+      int i = 0;
+      while (i < key.length()) {
+        node = node.child(key.charAt(i));
+        path.add(node);
+        i += node.label.length();
+      }
+      recompute(path);
+    }
+  }
+
+  private void insert(String key, Entry entry) {
+    List<Node> path = new ArrayList<>();
+    Node node = root;
+    path.add(node);
+    int i = 0;
+    while (i < key.length()) {
+      int index = node.indexOf(key.charAt(i));
+      if (index < 0) {
+        Node leaf = new Node(key.substring(i));
+        node.addChild(leaf);
+        nodes++;
+        node = leaf;
+        path.add(node);
+        break;
+      }
+      Node child = node.children[index];
+      int common = commonPrefixLength(child.label, key, i);
+      if (common < child.label.length()) {
+        Node split = new Node(child.label.substring(0, common));
+        child.label = child.label.substring(common);
+        split.addChild(child);
+        split.maxWeight = child.maxWeight;
+        node.children[index] = split;
+        nodes++;
+        child = split;
+      }
+      node = child;
+      path.add(node);
+      i += common;
+    }
+    node.entries = Arrays.copyOf(node.entries, node.entries.length + 1);
+    node.entries[node.entries.length - 1] = entry;
+    keys++;
+    recompute(path);
+  }
+
+  private void remove(String key, Entry entry) {
+    List<Node> path = new ArrayList<>();
+    Node node = root;
+    path.add(node);
+    int i = 0;
+    while (i < key.length()) {
+      node = node.child(key.charAt(i));
+      path.add(node);
+      i += node.label.length();
+    }
+    node.removeEntry(entry);
+    keys--;
+    for (int p = path.size() - 1; p > 0; p--) {
+      Node current = path.get(p);
+      Node parent = path.get(p - 1);
+      if (current.entries.length == 0 && current.children.length == 0) {
+        parent.removeChild(current);
+        nodes--;
+      } else if (current.entries.length == 0 && current.children.length == 1) {
+        Node only = current.children[0];
+        current.label = current.label + only.label;
+        current.firsts = only.firsts;
+        current.children = only.children;
+        current.entries = only.entries;
+        current.maxWeight = only.maxWeight;
+        nodes--;
+      }
+    }
+    recompute(path);
+  }
+
+  private Node find(String prefix) {
+    Node node = root;
+    int i = 0;
+    while (i < prefix.length()) {
+      Node child = node.child(prefix.charAt(i));
+      if (child == null) {
+        return null;
+      }
+      int remaining = prefix.length() - i;
+      if (remaining <= child.label.length()) {
+        return child.label.startsWith(prefix.substring(i)) ? child : null;
+      }
+      if (!prefix.startsWith(child.label, i)) {
+        return null;
+      }
+      node = child;
+      i += child.label.length();
+    }
+    return node;
+  }
+
+  private static void recompute(List<Node> path) {
+    for (int p = path.size() - 1; p >= 0; p--) {
+      Node node = path.get(p);
+      long max = -1;
+      for (Entry entry : node.entries) {
+        max = Math.max(max, entry.weight);
+      }
+      for (Node child : node.children) {
+        max = Math.max(max, child.maxWeight);
+      }
+      node.maxWeight = max;
+    }
+  }
+
+  private static int commonPrefixLength(String label, String key, int offset) {
+    int length = Math.min(label.length(), key.length() - offset);
+    int i = 0;
+    while (i < length && label.charAt(i) == key.charAt(offset + i)) {
+      i++;
+    }
+    return i;
+  }
+
+  private static String normalize(String text) {
+    if (text == null) {
+      return "";
+    }
+    return text.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+  }
+
+  /**
+   * A suggestable quiz or category, reachable through one key per indexed word.
+   */
+  private static final class Entry {
+    private final SuggestionType type;
+    private final Long quizId;
+    private final String text;
+    private final List<String> keys = new ArrayList<>(1);
+    private long weight;
+
+    private Entry(SuggestionType type, Long quizId, String text, long weight) {
+      this.type = type;
+      this.quizId = quizId;
+      this.text = text;
+      this.weight = weight;
+    }
+
+    private String id() {
+      return id(type, quizId, text);
+    }
+
+    private static String id(SuggestionType type, Long quizId, String text) {
+      return type == SuggestionType.QUIZ ? "quiz:" + quizId : "category:" + text;
+    }
+  }
+
+  /**
+   * A node in the radix tree. Children are kept sorted by the first character of their label.
+   */
+  private static final class Node {
+    private static final char[] NO_FIRSTS = new char[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final Entry[] NO_ENTRIES = new Entry[0];
+
+    private String label;
+    private char[] firsts = NO_FIRSTS;
+    private Node[] children = NO_CHILDREN;
+    private Entry[] entries = NO_ENTRIES;
+    private long maxWeight = -1;
+
+    private Node(String label) {
+      this.label = label;
+    }
+
+    private int indexOf(char first) {
+      int index = Arrays.binarySearch(firsts, first);
+      return index >= 0 ? index : -1;
+    }
+
+    private Node child(char first) {
+      int index = indexOf(first);
+      return index >= 0 ? children[index] : null;
+    }
+
+    private void addChild(Node child) {
+      int position = -Arrays.binarySearch(firsts, child.label.charAt(0)) - 1;
+      char[] newFirsts = new char[firsts.length + 1];
+      Node[] newChildren = new Node[children.length + 1];
+      System.arraycopy(firsts, 0, newFirsts, 0, position);
+      System.arraycopy(children, 0, newChildren, 0, position);
+      newFirsts[position] = child.label.charAt(0);
+      newChildren[position] = child;
+      System.arraycopy(firsts, position, newFirsts, position + 1, firsts.length - position);
+      System.arraycopy(children, position, newChildren, position + 1, children.length - position);
+      firsts = newFirsts;
+      children = newChildren;
+    }
+
+    private void removeChild(Node child) {
+      int position = indexOf(child.label.charAt(0));
+      char[] newFirsts = new char[firsts.length - 1];
+      Node[] newChildren = new Node[children.length - 1];
+      System.arraycopy(firsts, 0, newFirsts, 0, position);
+      System.arraycopy(children, 0, newChildren, 0, position);
+      System.arraycopy(firsts, position + 1, newFirsts, position, firsts.length - position - 1);
+      System.arraycopy(children, position + 1, newChildren, position, children.length - position - 1);
+      firsts = newFirsts;
+      children = newChildren;
+    }
+
+    private void removeEntry(Entry entry) {
+      for (int i = 0; i < entries.length; i++) {
+        if (entries[i] == entry) {
+          Entry[] newEntries = new Entry[entries.length - 1];
+          System.arraycopy(entries, 0, newEntries, 0, i);
+          System.arraycopy(entries, i + 1, newEntries, i, entries.length - i - 1);
+          entries = newEntries;
+          return;
+        }
+      }
+    }
+  }
+
+  /**
+   * A node or entry waiting in the best-first search, ordered by weight and then by text.
+   */
+  private record Candidate(long weight, Node node, Entry entry) implements Comparable<Candidate> {
+    @Override
+    public int compareTo(Candidate other) {
+      int byWeight = Long.compare(other.weight, weight);
+      if (byWeight != 0) {
+        return byWeight;
+      }
+      if (entry != null && other.entry != null) {
+        return entry.text.compareTo(other.entry.text);
+      }
+      return entry != null ? -1 : other.entry != null ? 1 : 0;
+    }
+  }
+}
@@ -0,0 +1,331 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.search;
+
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.entities.UserEntity;
+import edu.ntnu.fullstack.prosjekt.quizzer.repositories.UserRepository;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import lombok.extern.java.Log;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory trigram index over usernames and full names, used for user search and
+ * collaborator typeahead.
+ * Every user gets an ordinal, and every trigram maps to a sorted array of the ordinals
+ * containing it. Queries of three or more characters intersect the posting lists of their
+ * trigrams, while shorter queries use grams padded with a word start marker, so that
+ * typing "jo" finds "John" without touching the database.
+ */
+@Log
+@Component
+public class UserSearchIndex {
+
+  /**
+   * Marker padding the start of every word, used for one and two character queries.
+   */
+  private static final char WORD_START = '\u0002';
+
+  /**
+   * Amount of users loaded per page when rebuilding the index.
+   */
+  private static final int REBUILD_PAGE_SIZE = 1000;
+
+  /**
+   * Used for Dependency Injection.
+   */
+  private final UserRepository userRepository;
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+  private final Map<String, Integer> ordinals = new HashMap<>();
+
+  private final Map<Long, Postings> postings = new HashMap<>();
+
+  private String[] keys = new String[1024];
+
+  private String[] usernames = new String[1024];
+
+  private String[] fullNames = new String[1024];
+
+  private int size;
+
+  /**
+   * Used for Dependency Injection.
+   *
+   * @param userRepository The injected UserRepository object.
+   */
+  public UserSearchIndex(UserRepository userRepository) {
+    this.userRepository = userRepository;
+  }
+
+  /**
+   * Loads every user into the index once the application has started.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void rebuild() {
+    long start = System.nanoTime();
+    Page<UserEntity> page = userRepository.findAll(
+            PageRequest.of(0, REBUILD_PAGE_SIZE, Sort.by("username")));
+    while (true) {
+      page.forEach(this::index);
+      if (!page.hasNext()) {
+        break;
+      }
+      page = userRepository.findAll(page.nextPageable());
+    }
+    log.info("Indexed " + size + " users in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+  }
+
+  /**
+   * Adds a user to the index, or re-indexes it if its full name has changed.
+   *
+   * @param userEntity The user to index.
+   */
+  public void index(UserEntity userEntity) {
+    String username = normalize(userEntity.getUsername());
+    String fullName = normalize(userEntity.getFullName());
+    lock.writeLock().lock();
+    try {
+      Integer ordinal = ordinals.get(userEntity.getUsername());
+      if (ordinal == null) {
+        ordinal = size++;
+        ensureCapacity(size);
+        ordinals.put(userEntity.getUsername(), ordinal);
+        keys[ordinal] = userEntity.getUsername();
+        usernames[ordinal] = username;
+        fullNames[ordinal] = fullName;
+        for (long gram : gramsOf(username, fullName)) {
+          postings.computeIfAbsent(gram, key -> new Postings()).add(ordinal);
+        }
+        return;
+      }
+      Set<Long> oldGrams = gramsOf(usernames[ordinal], fullNames[ordinal]);
+      Set<Long> newGrams = gramsOf(username, fullName);
+      for (long gram : oldGrams) {
+        if (!newGrams.contains(gram)) {
+          Postings list = postings.get(gram);
+          list.remove(ordinal);
+          if (list.size == 0) {
+            postings.remove(gram);
+          }
+        }
+      }
+      for (long gram : newGrams) {
+        if (!oldGrams.contains(gram)) {
+          postings.computeIfAbsent(gram, key -> new Postings()).add(ordinal);
+        }
+      }
+      fullNames[ordinal] = fullName;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Finds users whose username or full name contains the query, ranked by how well they match.
+   * Exact username matches come first, followed by username prefixes, full name prefixes,
+   * word prefixes and finally plain substring matches.
+   *
+   * @param searchQuery The text to search for.
+   * @param offset      Amount of ranked results to skip.
+   * @param limit       Maximum amount of usernames to return.
+   * @return The requested slice of ranked usernames, and the total amount of matches.
+   */
+  public Result search(String searchQuery, long offset, int limit) {
+    String query = normalize(searchQuery);
+    if (query.isEmpty()) {
+      return new Result(List.of(), 0);
+    }
+    lock.readLock().lock();
+    try {
+      int[] candidates = candidates(query);
+      int matches = 0;
+      long[] ranked = new long[candidates.length];
+      for (int ordinal : candidates) {
+        int rank = rank(query, usernames[ordinal], fullNames[ordinal]);
+        if (rank >= 0) {
+          ranked[matches++] = ((long) rank << 32) | ordinal;
+        }
+      }
+      ranked = Arrays.copyOf(ranked, matches);
+      Arrays.sort(ranked);
+      List<String> slice = new ArrayList<>();
+      for (long i = offset; i < matches && slice.size() < limit; i++) {
+        slice.add(keys[(int) ranked[(int) i]]);
+      }
+      return new Result(slice, matches);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * The amount of users currently in the index.
+   *
+   * @return The amount of indexed users.
+   */
+  public int size() {
+    lock.readLock().lock();
+    try {
+      return size;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Intersects the posting lists of every gram in the query, starting with the shortest.
+   */
+  private int[] candidates(String query) {
+    Set<Long> grams = new HashSet<>();
+    if (query.length() == 1) {
+      grams.add(gram(WORD_START, WORD_START, query.charAt(0)));
+    } else if (query.length() == 2) {
+      grams.add(gram(WORD_START, query.charAt(0), query.charAt(1)));
+    } else {
+      addTrigrams(query, grams);
+    }
+    Postings[] lists = new Postings[grams.size()];
+    int i = 0;
+    for (long gram : grams) {
+      Postings list = postings.get(gram);
+      if (list == null) {
+        return new int[0];
+      }
+      lists[i++] = list;
+    }
+    Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+    int[] result = Arrays.copyOf(lists[0].ids, lists[0].size);
+    int length = result.length;
+    for (int l = 1; l < lists.length && length > 0; l++) {
+      int kept = 0;
+      for (int j = 0; j < length; j++) {
+        if (Arrays.binarySearch(lists[l].ids, 0, lists[l].size, result[j]) >= 0) {
+          result[kept++] = result[j];
+        }
+      }
+      length = kept;
+    }
+    return Arrays.copyOf(result, length);
+  }
+
+  /**
+   * Ranks a candidate against the query, where a lower rank is a better match.
+   *
+   * @return The rank, or -1 if the candidate does not actually contain the query.
+   */
+  private static int rank(String query, String username, String fullName) {
+    if (username.equals(query)) {
+      return 0;
+    }
+    if (username.startsWith(query)) {
+      return 1;
+    }
+    if (fullName.startsWith(query)) {
+      return 2;
+    }
+    if (fullName.contains(" " + query)) {
+      return 3;
+    }
+    if (query.length() >= 3 && (username.contains(query) || fullName.contains(query))) {
+      return 4;
+    }
+    return -1;
+  }
+
+  private static Set<Long> gramsOf(String username, String fullName) {
+    Set<Long> grams = new HashSet<>();
+    addTrigrams(username, grams);
+    addTrigrams(fullName, grams);
+    addWordStarts(username, grams);
+    addWordStarts(fullName, grams);
+    return grams;
+  }
+
+  private static void addTrigrams(String text, Set<Long> grams) {
+    for (int i = 0; i + 2 < text.length(); i++) {
+      grams.add(gram(text.charAt(i), text.charAt(i + 1), text.charAt(i + 2)));
+    }
+  }
+
+  private static void addWordStarts(String text, Set<Long> grams) {
+    for (int i = 0; i < text.length(); i++) {
+      if (text.charAt(i) != ' ' && (i == 0 || text.charAt(i - 1) == ' ')) {
+        grams.add(gram(WORD_START, WORD_START, text.charAt(i)));
+        if (i + 1 < text.length()) {
+          grams.add(gram(WORD_START, text.charAt(i), text.charAt(i + 1)));
+        }
+      }
+    }
+  }
+
+  private static long gram(char first, char second, char third) {
+    return ((long) first << 32) | ((long) second << 16) | third;
+  }
+
+  private static String normalize(String text) {
+    if (text == null) {
+      return "";
+    }
+    return text.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+  }
+
+  private void ensureCapacity(int capacity) {
+    if (capacity > usernames.length) {
+      keys = Arrays.copyOf(keys, keys.length * 2);
+      usernames = Arrays.copyOf(usernames, usernames.length * 2);
+      fullNames = Arrays.copyOf(fullNames, fullNames.length * 2);
+    }
+  }
+
+  /**
+   * A slice of ranked search results.
+   *
+   * @param usernames The usernames in the requested slice, best match first.
+   * @param total     The total amount of users matching the query.
+   */
+  public record Result(List<String> usernames, long total) {
+  }
+
+  /**
+   * Sorted, growable array of user ordinals containing a gram.
+   */
+  private static final class Postings {
+    private int[] ids = new int[4];
+    private int size;
+
+    private void add(int ordinal) {
+      int position = Arrays.binarySearch(ids, 0, size, ordinal);
+      if (position >= 0) {
+        return;
+      }
+      position = -position - 1;
+      if (size == ids.length) {
+        ids = Arrays.copyOf(ids, size * 2);
+      }
+      System.arraycopy(ids, position, ids, position + 1, size - position);
+      ids[position] = ordinal;
+      size++;
+    }
+
+    private void remove(int ordinal) {
+      int position = Arrays.binarySearch(ids, 0, size, ordinal);
+      if (position >= 0) {
+        System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+        size--;
+      }
+    }
+  }
+}
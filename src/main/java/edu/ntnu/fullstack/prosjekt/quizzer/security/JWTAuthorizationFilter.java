@@ -4,6 +4,8 @@ import com.auth0.jwt.JWT;
 import com.auth0.jwt.JWTVerifier;
 import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.exceptions.JWTVerificationException;
+import edu.ntnu.fullstack.prosjekt.quizzer.jfr.JwtVerificationEvent;
+import edu.ntnu.fullstack.prosjekt.quizzer.timing.RequestTiming;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -49,7 +51,13 @@ public class JWTAuthorizationFilter extends OncePerRequestFilter {
     }
 
     String token = header.substring(7);
+    JwtVerificationEvent event = new JwtVerificationEvent();
+    event.begin();
+    long start = RequestTiming.start();
     final String username = validateTokenAndGetUserId(token);
+    RequestTiming.stop(RequestTiming.Phase.AUTH, start);
+    event.valid = username != null;
+    event.commit();
     if (username == null) {
       filterChain.doFilter(request, response);
       return;
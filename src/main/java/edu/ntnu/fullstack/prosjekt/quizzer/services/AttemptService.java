@@ -0,0 +1,19 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.services;
+
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.AttemptResultDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.AttemptSubmissionDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.entities.UserEntity;
+import java.util.List;
+
+/**
+ * Interface providing grading and saving of many quiz attempts at once.
+ */
+public interface AttemptService {
+  /**
+   * Service for grading and saving a batch of attempts, which may be of different quizzes.
+   * @param submissions The attempts, each with the id of its quiz.
+   * @param userEntity The user who made the attempts.
+   * @return The outcome of every attempt, in the order they were submitted.
+   */
+  List<AttemptResultDto> submitAttempts(List<AttemptSubmissionDto> submissions, UserEntity userEntity);
+}
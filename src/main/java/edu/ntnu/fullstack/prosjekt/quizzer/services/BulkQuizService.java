@@ -0,0 +1,49 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.services;
+
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.BulkJobDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.entities.UserEntity;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Interface providing streaming import and export of whole quiz catalogs.
+ */
+public interface BulkQuizService {
+  /**
+   * Service for importing a JSON Lines stream of quizzes, saved in batched transactions.
+   * @param jobId The id to report progress under, or null to pick a new one.
+   * @param inputStream The stream of quizzes, one quiz per line.
+   * @param owner The user who will own the imported quizzes.
+   * @return The finished job.
+   */
+  BulkJobDto importQuizzes(String jobId, InputStream inputStream, UserEntity owner);
+
+  /**
+   * Service for registering an export job before its stream is written.
+   * @return The started job.
+   */
+  BulkJobDto startExport();
+
+  /**
+   * Service for writing every quiz to a stream as JSON Lines, read through a database cursor.
+   * @param jobId The id of the job started for the export.
+   * @param outputStream The stream to write the quizzes to.
+   * @throws IOException If the stream could not be written to.
+   */
+  void exportQuizzes(String jobId, OutputStream outputStream) throws IOException;
+
+  /**
+   * Service for finding the progress of a bulk job.
+   * @param jobId The id of the job.
+   * @return The job, or null if there is no such job.
+   */
+  BulkJobDto findJob(String jobId);
+
+  /**
+   * Service for finding the progress of the most recent bulk jobs.
+   * @return The jobs, most recent first.
+   */
+  List<BulkJobDto> findJobs();
+}
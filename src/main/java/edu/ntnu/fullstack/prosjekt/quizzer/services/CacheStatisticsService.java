@@ -0,0 +1,15 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.services;
+
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.CacheRegionStatsDto;
+import java.util.List;
+
+/**
+ * Interface providing statistics about the second-level cache.
+ */
+public interface CacheStatisticsService {
+  /**
+   * Service for finding the hit rate and size of every second-level cache region.
+   * @return The statistics of every region, sorted by region name.
+   */
+  List<CacheRegionStatsDto> getRegionStatistics();
+}
@@ -0,0 +1,31 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.services;
+
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.ImageDto;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Interface providing the storage of images, and moving the images of quizzes to local storage.
+ */
+public interface ImageService {
+
+  /**
+   * Prefix of the links to locally stored images.
+   */
+  String IMAGE_PATH = "/api/images/";
+
+  /**
+   * Service for storing an uploaded image.
+   * @param inputStream The bytes of the image.
+   * @return The stored image, with its local link.
+   * @throws IOException If the image could not be read or stored.
+   */
+  ImageDto upload(InputStream inputStream) throws IOException;
+
+  /**
+   * Service for downloading the images a quiz and its questions link to, and rewriting the
+   * links to the local copies. Runs in the background after the current transaction commits.
+   * @param quizId The id of the quiz.
+   */
+  void localizeImages(Long quizId);
+}
@@ -6,7 +6,9 @@ import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.QuizDetailsDto;
 import edu.ntnu.fullstack.prosjekt.quizzer.domain.entities.QuestionEntity;
 import edu.ntnu.fullstack.prosjekt.quizzer.domain.entities.QuizEntity;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Interface providing services between the question database table and user requests.
@@ -34,6 +36,13 @@ public interface QuestionService {
    */
   int getAmountOfQuestionsByQuiz(QuizEntity quizEntity);
 
+  /**
+   * Service for finding the amount of questions of several quizzes at once.
+   * @param quizIds The ids of the quizzes.
+   * @return The amount of questions by quiz id, without quizzes that have no questions.
+   */
+  Map<Long, Integer> getAmountsOfQuestionsByQuizIds(Collection<Long> quizIds);
+
 
  
 
@@ -51,4 +60,29 @@ public interface QuestionService {
    * @param quizEntity The quiz to add questions to.
    */
   void addListOfQuestions(List<QuestionDto> questionDtos, QuizEntity quizEntity);
+
+  /**
+   * Service for mapping a list of questions to new entities belonging to a quiz, without saving
+   * them. The entities are saved together with the quiz, through its cascading question list.
+   * @param questionDtos The list of questions to map.
+   * @param quizEntity The quiz the questions belong to.
+   * @return The unsaved question entities.
+   */
+  List<QuestionEntity> mapToEntities(List<QuestionDto> questionDtos, QuizEntity quizEntity);
+
+  /**
+   * Service for applying an edited list of questions to the questions of a quiz, without saving
+   * them. Questions that keep the id of one of the quiz's questions are edited in place.
+   * @param questionDtos The edited list of questions.
+   * @param quizEntity The quiz the questions belong to, with its current questions.
+   * @return The questions the quiz should have, edited or new.
+   */
+  List<QuestionEntity> mergeEntities(List<QuestionDto> questionDtos, QuizEntity quizEntity);
+
+  /**
+   * Service for mapping already loaded question entities to dtos, without querying the database.
+   * @param questionEntities The questions to map.
+   * @return The questions as dtos.
+   */
+  List<QuestionDto> mapToDtos(List<QuestionEntity> questionEntities);
 }
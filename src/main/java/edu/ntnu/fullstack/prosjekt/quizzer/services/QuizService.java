@@ -1,6 +1,7 @@
 package edu.ntnu.fullstack.prosjekt.quizzer.services;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import edu.ntnu.fullstack.prosjekt.quizzer.cache.QuizSnapshot;
 import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.*;
 import edu.ntnu.fullstack.prosjekt.quizzer.domain.entities.QuizEntity;
 import edu.ntnu.fullstack.prosjekt.quizzer.domain.entities.UserEntity;
@@ -20,6 +21,15 @@ public interface QuizService {
    */
   QuizDetailsDto createQuiz(QuizDetailsDto quizDetailsDto, UserEntity userEntity);
 
+  /**
+   * Service for forking a quiz: copying it, with its questions and categories, into a new quiz
+   * owned by a user.
+   * @param quizId The id of the quiz to fork.
+   * @param userEntity The owner of the new quiz.
+   * @return The new quiz, without its questions.
+   */
+  QuizGeneralDto forkQuiz(String quizId, UserEntity userEntity);
+
   /**
    * Service for finding a page of quizzes in the database.
    *
@@ -63,9 +73,10 @@ public interface QuizService {
   QuizEntity findQuizEntityById(String quizId);
 
   /**
-   * Service for updating a quiz in the database.
+   * Service for updating a quiz in the database. Only the owner may change the collaborators.
    *
    * @param quizDetailsDto New quiz
+   * @param userEntity The user editing the quiz.
    */
   void updateQuizEntity(QuizDetailsDto quizDetailsDto, UserEntity userEntity);
 
@@ -97,4 +108,68 @@ public interface QuizService {
    * @return
    */
   QuizAttemptDto checkAnswers(String quizId, QuizAttemptDto quizAttemptDto, UserEntity userEntity);
+
+  /**
+   * Service for drawing a shuffled selection of questions from a quiz, to be played.
+   * @param quizId The id of the quiz.
+   * @param count The amount of questions to draw.
+   * @param seed The seed to shuffle with, or null to pick a new one.
+   * @return The questions to play, and the seed they were drawn with.
+   */
+  QuizPlayDto playQuiz(String quizId, int count, Long seed);
+
+  /**
+   * Service for picking the questions of a quiz a user should practice next, by how well the
+   * user knows them.
+   * @param quizId The id of the quiz.
+   * @param count The amount of questions to pick.
+   * @param username The user who practices.
+   * @return The questions to practice, most needed first, without a seed.
+   */
+  QuizPlayDto practiceQuiz(String quizId, int count, String username);
+
+  /**
+   * Service for finding the cached snapshot of a version of a quiz, used to play and grade it.
+   * @param quizId The id of the quiz.
+   * @param version The version number, or null for the newest version.
+   * @return The snapshot of the quiz.
+   */
+  QuizSnapshot findQuizSnapshot(Long quizId, Integer version);
+
+  /**
+   * Service for finding a version of a quiz as it was published. Versions never change.
+   * @param quizId The id of the quiz.
+   * @param version The version number.
+   * @return The quiz and its questions, as they were in the version.
+   */
+  QuizDetailsDto findQuizVersion(String quizId, Integer version);
+
+  /**
+   * Service for suggesting quiz titles and categories as the user types.
+   * @param prefix The text typed so far.
+   * @param limit The maximum amount of suggestions.
+   * @return The most popular suggestions, most popular first.
+   */
+  List<SuggestionDto> suggest(String prefix, int limit);
+
+  /**
+   * Service for finding the quizzes most similar to a quiz.
+   * @param quizId The id of the quiz.
+   * @param limit The maximum amount of quizzes.
+   * @return The most similar quizzes, most similar first.
+   */
+  List<RecommendationDto> findSimilarQuizzes(String quizId, int limit);
+
+  /**
+   * Service for finding the quizzes that are trending right now.
+   * @param limit The maximum amount of quizzes.
+   * @return The trending quizzes, most trending first.
+   */
+  List<TrendingQuizDto> findTrendingQuizzes(int limit);
+
+  /**
+   * Service for reporting the size and memory use of the suggestion index.
+   * @return The statistics of the suggestion index.
+   */
+  SuggestionIndexStatsDto getSuggestionIndexStats();
 }
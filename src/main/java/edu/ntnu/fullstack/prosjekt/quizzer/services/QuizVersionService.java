@@ -0,0 +1,62 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.services;
+
+import edu.ntnu.fullstack.prosjekt.quizzer.cache.QuizSnapshot;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.QuizDetailsDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.entities.QuizEntity;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.entities.QuizVersionEntity;
+import java.util.Map;
+
+/**
+ * Interface providing the immutable, numbered versions of quizzes that attempts are graded
+ * against.
+ */
+public interface QuizVersionService {
+
+  /**
+   * Service for storing the current state of a quiz and its questions as its next version.
+   * Must be called in the transaction that created or changed the quiz.
+   * @param quizEntity The quiz, with its questions.
+   * @return The stored version.
+   */
+  QuizVersionEntity publish(QuizEntity quizEntity);
+
+  /**
+   * Service for finding the number of the newest version of a quiz. Quizzes stored before
+   * versions existed get their first version when it is first asked for.
+   * @param quizId The id of the quiz.
+   * @return The newest version number.
+   */
+  int findCurrentVersion(Long quizId);
+
+  /**
+   * Service for finding the cached snapshot of a version of a quiz.
+   * @param quizId The id of the quiz.
+   * @param version The version number, or null for the newest version.
+   * @return The snapshot of the version.
+   */
+  QuizSnapshot findSnapshot(Long quizId, Integer version);
+
+  /**
+   * Service for finding a version of a quiz as it was published.
+   * @param quizId The id of the quiz.
+   * @param version The version number.
+   * @return The quiz and its questions, as they were in the version.
+   */
+  QuizDetailsDto findVersion(Long quizId, Integer version);
+
+  /**
+   * Service for pointing the image links of the newest version of a quiz to copies of the same
+   * images, in place, as the content of the version does not change. Must be called in the
+   * transaction that rewrote the links of the quiz.
+   * @param quizId The id of the quiz.
+   * @param links The new link of each replaced link.
+   */
+  void replaceImageLinks(Long quizId, Map<String, String> links);
+
+  /**
+   * Service for forgetting the cached versions of a deleted quiz. The stored versions are
+   * purged together with the quiz.
+   * @param quizId The id of the quiz.
+   */
+  void forgetVersions(Long quizId);
+}
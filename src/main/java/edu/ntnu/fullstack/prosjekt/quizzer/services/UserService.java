@@ -1,6 +1,7 @@
 package edu.ntnu.fullstack.prosjekt.quizzer.services;
 
 import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.LoginDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.RecommendationDto;
 import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.SavedQuizAttemptDto;
 import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.UserDto;
 import edu.ntnu.fullstack.prosjekt.quizzer.domain.entities.UserEntity;
@@ -74,4 +75,13 @@ public interface UserService {
    * @return
    */
   Page<SavedQuizAttemptDto> findAttemptsByUser(String username, Pageable pageable);
+
+  /**
+   * Service for recommending quizzes to a user, based on the quizzes the user has attempted.
+   *
+   * @param username The user to recommend quizzes to.
+   * @param limit The maximum amount of quizzes.
+   * @return The recommended quizzes, most recommended first.
+   */
+  List<RecommendationDto> findRecommendedQuizzes(String username, int limit);
 }
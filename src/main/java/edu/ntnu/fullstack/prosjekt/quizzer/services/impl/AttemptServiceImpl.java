@@ -0,0 +1,210 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.services.impl;
+
+import edu.ntnu.fullstack.prosjekt.quizzer.cache.QuizSnapshot;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.AttemptResultDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.AttemptSubmissionDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.QuizAttemptDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.entities.QuizAttemptEntity;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.entities.QuizEntity;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.entities.QuizVersionEntity;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.entities.UserEntity;
+import edu.ntnu.fullstack.prosjekt.quizzer.enums.AttemptResultStatus;
+import edu.ntnu.fullstack.prosjekt.quizzer.practice.MasteryStore;
+import edu.ntnu.fullstack.prosjekt.quizzer.repositories.AttemptRepository;
+import edu.ntnu.fullstack.prosjekt.quizzer.recommend.QuizRecommender;
+import edu.ntnu.fullstack.prosjekt.quizzer.recommend.TrendingQuizzes;
+import edu.ntnu.fullstack.prosjekt.quizzer.search.QuizSuggestionIndex;
+import edu.ntnu.fullstack.prosjekt.quizzer.services.AttemptService;
+import edu.ntnu.fullstack.prosjekt.quizzer.services.QuizService;
+import jakarta.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.extern.java.Log;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * A class implementing the methods specified in its interface.
+ * Attempts are grouped by quiz version, so that each answer key is looked up once, graded in
+ * parallel against the cached snapshots, and saved in one transaction, which Hibernate sends as
+ * batched inserts. If the batch can not be saved, the attempts are saved one by one, so that a
+ * single bad attempt only fails itself.
+ */
+@Service
+@Log
+public class AttemptServiceImpl implements AttemptService {
+
+  /**
+   * Batches smaller than this are graded on the calling thread, as grading is cheaper than
+   * handing the work to other threads.
+   */
+  private static final int PARALLEL_THRESHOLD = 64;
+
+  /**
+   * Used for Dependency Injection.
+   */
+  private final QuizService quizService;
+
+  private final AttemptRepository attemptRepository;
+
+  private final QuizSuggestionIndex quizSuggestionIndex;
+
+  private final QuizRecommender quizRecommender;
+
+  private final TrendingQuizzes trendingQuizzes;
+
+  private final MasteryStore masteryStore;
+
+  private final EntityManager entityManager;
+
+  private final TransactionTemplate transactionTemplate;
+
+  /**
+   * Used for Dependency Injection.
+   *
+   * @param quizService The injected QuizService object.
+   * @param attemptRepository The injected AttemptRepository object.
+   * @param quizSuggestionIndex The injected QuizSuggestionIndex object.
+   * @param quizRecommender The injected QuizRecommender object.
+   * @param trendingQuizzes The injected TrendingQuizzes object.
+   * @param masteryStore The injected MasteryStore object.
+   * @param entityManager The injected EntityManager object.
+   * @param transactionManager The transaction manager the attempts are saved in.
+   */
+  public AttemptServiceImpl(QuizService quizService, AttemptRepository attemptRepository,
+                            QuizSuggestionIndex quizSuggestionIndex, QuizRecommender quizRecommender,
+                            TrendingQuizzes trendingQuizzes, MasteryStore masteryStore, EntityManager entityManager,
+                            PlatformTransactionManager transactionManager) {
+    this.quizService = quizService;
+    this.attemptRepository = attemptRepository;
+    this.quizSuggestionIndex = quizSuggestionIndex;
+    this.quizRecommender = quizRecommender;
+    this.trendingQuizzes = trendingQuizzes;
+    this.masteryStore = masteryStore;
+    this.entityManager = entityManager;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+  }
+
+  /**
+   * Grades and saves a batch of attempts, which may be of different quizzes.
+   *
+   * @param submissions The attempts, each with the id of its quiz.
+   * @param userEntity  The user who made the attempts.
+   * @return The outcome of every attempt, in the order they were submitted.
+   */
+  @Override
+  public List<AttemptResultDto> submitAttempts(List<AttemptSubmissionDto> submissions, UserEntity userEntity) {
+    if (userEntity == null) {
+      throw new IllegalArgumentException("No user to save the attempts for");
+    }
+    AttemptResultDto[] results = new AttemptResultDto[submissions.size()];
+    Map<QuizVersion, List<Integer>> byVersion = new LinkedHashMap<>();
+    for (int i = 0; i < submissions.size(); i++) {
+      AttemptSubmissionDto submission = submissions.get(i);
+      if (submission == null || submission.getQuizId() == null || submission.getAttempt() == null) {
+        results[i] = failed(i, submission == null ? null : submission.getQuizId(),
+                "An attempt needs a quiz id and answers");
+      } else {
+        byVersion.computeIfAbsent(new QuizVersion(submission.getQuizId(), submission.getAttempt().getVersion()),
+                quizVersion -> new ArrayList<>()).add(i);
+      }
+    }
+
+    QuizSnapshot[] answerKeys = new QuizSnapshot[submissions.size()];
+    List<Integer> gradable = new ArrayList<>(submissions.size());
+    for (Map.Entry<QuizVersion, List<Integer>> group : byVersion.entrySet()) {
+      QuizVersion quizVersion = group.getKey();
+      try {
+        QuizSnapshot answerKey = quizService.findQuizSnapshot(quizVersion.quizId(), quizVersion.version());
+        group.getValue().forEach(i -> answerKeys[i] = answerKey);
+        gradable.addAll(group.getValue());
+      } catch (ResponseStatusException e) {
+        String error = quizVersion.version() == null ? "No quiz with id " + quizVersion.quizId()
+                : "No version " + quizVersion.version() + " of quiz " + quizVersion.quizId();
+        group.getValue().forEach(i -> results[i] = failed(i, quizVersion.quizId(), error));
+      }
+    }
+
+    (gradable.size() < PARALLEL_THRESHOLD ? gradable.stream() : gradable.parallelStream()).forEach(i ->
+            answerKeys[i].grade(submissions.get(i).getAttempt()));
+
+    Map<QuizSnapshot, Integer> attemptsPerQuiz = new LinkedHashMap<>();
+    for (Map.Entry<Integer, Long> saved
+            : save(gradable, submissions, answerKeys, userEntity.getUsername(), results).entrySet()) {
+      int i = saved.getKey();
+      attemptsPerQuiz.merge(answerKeys[i], 1, Integer::sum);
+      AttemptSubmissionDto submission = submissions.get(i);
+      results[i] = new AttemptResultDto(i, submission.getQuizId(), AttemptResultStatus.SAVED,
+              saved.getValue(), submission.getAttempt(), null);
+      quizSuggestionIndex.recordAttempt(submission.getQuizId());
+      quizRecommender.recordAttempt(userEntity.getUsername(), submission.getQuizId());
+      masteryStore.record(userEntity.getUsername(), answerKeys[i], submission.getAttempt().getQuestionAttempts(),
+              System.currentTimeMillis());
+    }
+    attemptsPerQuiz.forEach((answerKey, attempts) ->
+            trendingQuizzes.recordAttempts(answerKey.getQuizId(), answerKey.getTitle(), attempts));
+    return Arrays.asList(results);
+  }
+
+  /**
+   * Saves graded attempts in one transaction, falling back to one transaction per attempt if the
+   * batch fails. Attempts that can not be saved are marked as failed.
+   *
+   * @return The ids of the saved attempts, by their index in the batch.
+   */
+  private Map<Integer, Long> save(List<Integer> indices, List<AttemptSubmissionDto> submissions,
+                                  QuizSnapshot[] answerKeys, String username, AttemptResultDto[] results) {
+    Map<Integer, Long> saved = new LinkedHashMap<>();
+    if (indices.isEmpty()) {
+      return saved;
+    }
+    try {
+      List<QuizAttemptEntity> entities = transactionTemplate.execute(status ->
+              attemptRepository.saveAll(toEntities(indices, submissions, answerKeys, username)));
+      for (int i = 0; i < indices.size(); i++) {
+        saved.put(indices.get(i), entities.get(i).getAttemptId());
+      }
+    } catch (RuntimeException e) {
+      log.info("Batch of attempts failed, saving them one by one: " + e.getMessage());
+      for (Integer index : indices) {
+        try {
+          QuizAttemptEntity entity = transactionTemplate.execute(status ->
+                  attemptRepository.save(toEntities(List.of(index), submissions, answerKeys, username).get(0)));
+          saved.put(index, entity.getAttemptId());
+        } catch (RuntimeException attemptException) {
+          results[index] = failed(index, submissions.get(index).getQuizId(), attemptException.getMessage());
+        }
+      }
+    }
+    return saved;
+  }
+
+  private List<QuizAttemptEntity> toEntities(List<Integer> indices, List<AttemptSubmissionDto> submissions,
+                                             QuizSnapshot[] answerKeys, String username) {
+    UserEntity user = entityManager.getReference(UserEntity.class, username);
+    List<QuizAttemptEntity> entities = new ArrayList<>(indices.size());
+    for (Integer index : indices) {
+      AttemptSubmissionDto submission = submissions.get(index);
+      QuizAttemptDto attempt = submission.getAttempt();
+      entities.add(new QuizAttemptEntity(null, attempt.getScore(), attempt.getDuration(), user,
+              entityManager.getReference(QuizEntity.class, submission.getQuizId()),
+              entityManager.getReference(QuizVersionEntity.class, answerKeys[index].getVersionId())));
+    }
+    return entities;
+  }
+
+  /**
+   * A quiz and the version its attempts were played at, null for the newest version.
+   */
+  private record QuizVersion(Long quizId, Integer version) {
+  }
+
+  private static AttemptResultDto failed(int index, Long quizId, String error) {
+    return new AttemptResultDto(index, quizId, AttemptResultStatus.FAILED, null, null, error);
+  }
+}
@@ -0,0 +1,521 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.services.impl;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.ntnu.fullstack.prosjekt.quizzer.acl.QuizPermissions;
+import edu.ntnu.fullstack.prosjekt.quizzer.cache.ResourceVersions;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.BulkJobDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.CategoryDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.QuestionDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.QuizDetailsDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.UserDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.entities.CategoryEntity;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.entities.QuestionEntity;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.entities.QuizEntity;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.entities.UserEntity;
+import edu.ntnu.fullstack.prosjekt.quizzer.enums.BulkJobStatus;
+import edu.ntnu.fullstack.prosjekt.quizzer.enums.BulkJobType;
+import edu.ntnu.fullstack.prosjekt.quizzer.repositories.CategoryRepository;
+import edu.ntnu.fullstack.prosjekt.quizzer.repositories.QuizRepository;
+import edu.ntnu.fullstack.prosjekt.quizzer.repositories.UserRepository;
+import edu.ntnu.fullstack.prosjekt.quizzer.recommend.QuizRecommender;
+import edu.ntnu.fullstack.prosjekt.quizzer.search.QuizSuggestionIndex;
+import edu.ntnu.fullstack.prosjekt.quizzer.services.BulkQuizService;
+import edu.ntnu.fullstack.prosjekt.quizzer.services.ImageService;
+import edu.ntnu.fullstack.prosjekt.quizzer.services.QuestionService;
+import jakarta.persistence.EntityManager;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import lombok.extern.java.Log;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * A class implementing the methods specified in its interface.
+ * Imports and exports quizzes as JSON Lines without holding the catalog in memory: imports are
+ * parsed one quiz at a time and saved in batched transactions, and exports are read through a
+ * database cursor, with the persistence context cleared after every batch.
+ */
+@Service
+@Log
+public class BulkQuizServiceImpl implements BulkQuizService {
+
+  /**
+   * Maximum amount of errors kept per job.
+   */
+  private static final int MAX_ERRORS = 20;
+
+  /**
+   * Maximum amount of jobs kept for progress reporting.
+   */
+  private static final int MAX_JOBS = 100;
+
+  /**
+   * Used for Dependency Injection.
+   */
+  private final QuizRepository quizRepository;
+
+  private final UserRepository userRepository;
+
+  private final CategoryRepository categoryRepository;
+
+  private final QuestionService questionService;
+
+  private final QuizSuggestionIndex quizSuggestionIndex;
+
+  private final QuizRecommender quizRecommender;
+
+  private final ResourceVersions resourceVersions;
+
+  private final QuizPermissions quizPermissions;
+
+  private final ImageService imageService;
+
+  private final ObjectMapper objectMapper;
+
+  private final EntityManager entityManager;
+
+  private final TransactionTemplate transactionTemplate;
+
+  private final TransactionTemplate readOnlyTransactionTemplate;
+
+  private final int batchSize;
+
+  private final Map<String, BulkJob> jobs = new ConcurrentHashMap<>();
+
+  /**
+   * Used for Dependency Injection.
+   *
+   * @param quizRepository The injected QuizRepository object.
+   * @param transactionManager The transaction manager the batches are run in.
+   * @param batchSize Amount of quizzes saved or written per transaction batch.
+   */
+  public BulkQuizServiceImpl(QuizRepository quizRepository, UserRepository userRepository,
+                             CategoryRepository categoryRepository, QuestionService questionService,
+                             QuizSuggestionIndex quizSuggestionIndex, QuizRecommender quizRecommender,
+                             ResourceVersions resourceVersions, QuizPermissions quizPermissions,
+                             ImageService imageService, ObjectMapper objectMapper,
+                             EntityManager entityManager, PlatformTransactionManager transactionManager,
+                             @Value("${quizzer.bulk.batch-size:100}") int batchSize) {
+    this.quizRepository = quizRepository;
+    this.userRepository = userRepository;
+    this.categoryRepository = categoryRepository;
+    this.questionService = questionService;
+    this.quizSuggestionIndex = quizSuggestionIndex;
+    this.quizRecommender = quizRecommender;
+    this.resourceVersions = resourceVersions;
+    this.quizPermissions = quizPermissions;
+    this.imageService = imageService;
+    this.objectMapper = objectMapper;
+    this.entityManager = entityManager;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+    this.readOnlyTransactionTemplate.setReadOnly(true);
+    this.batchSize = batchSize;
+  }
+
+  /**
+   * Imports a JSON Lines stream of quizzes. Quizzes are parsed one at a time and saved in
+   * batches, each in its own transaction. If a batch fails, its quizzes are retried one by one,
+   * so a single bad quiz only fails itself. A malformed line stops the import, keeping the
+   * batches saved before it.
+   *
+   * @param jobId       The id to report progress under, or null to pick a new one.
+   * @param inputStream The stream of quizzes, one quiz per line.
+   * @param owner       The user who will own the imported quizzes.
+   * @return The finished job.
+   */
+  @Override
+  public BulkJobDto importQuizzes(String jobId, InputStream inputStream, UserEntity owner) {
+    if (owner == null) {
+      throw new IllegalArgumentException("No user to own the imported quizzes");
+    }
+    BulkJob job = register(jobId, BulkJobType.IMPORT);
+    List<ImportLine> batch = new ArrayList<>(batchSize);
+    try (JsonParser parser = objectMapper.createParser(inputStream);
+         MappingIterator<QuizDetailsDto> iterator = objectMapper.readerFor(QuizDetailsDto.class)
+                 .readValues(parser)) {
+      while (iterator.hasNextValue()) {
+        int line = parser.currentTokenLocation().getLineNr();
+        QuizDetailsDto quizDetailsDto = iterator.nextValue();
+        job.processed.incrementAndGet();
+        batch.add(new ImportLine(line, quizDetailsDto));
+        if (batch.size() >= batchSize) {
+          saveBatch(batch, owner.getUsername(), job);
+          batch.clear();
+        }
+      }
+      saveBatch(batch, owner.getUsername(), job);
+      job.finish(BulkJobStatus.COMPLETED);
+    } catch (IOException | RuntimeException e) {
+      log.warning("Import " + job.jobId + " stopped: " + e.getMessage());
+      saveBatch(batch, owner.getUsername(), job);
+      job.error("Stopped reading: " + e.getMessage());
+      job.finish(BulkJobStatus.FAILED);
+    }
+    log.info("Import " + job.jobId + " saved " + job.succeeded + " of " + job.processed + " quizzes");
+    return job.toDto();
+  }
+
+  /**
+   * Registers an export job, so its id can be returned before the stream is written.
+   *
+   * @return The started job.
+   */
+  @Override
+  public BulkJobDto startExport() {
+    return register(null, BulkJobType.EXPORT).toDto();
+  }
+
+  /**
+   * Writes every quiz to a stream as JSON Lines. The quizzes are read through a cursor in a
+   * read-only transaction, and written in batches, so that the lazy collections of a batch are
+   * fetched together and the persistence context can be cleared between batches.
+   *
+   * @param jobId        The id of the job started for the export.
+   * @param outputStream The stream to write the quizzes to.
+   * @throws IOException If the stream could not be written to.
+   */
+  @Override
+  public void exportQuizzes(String jobId, OutputStream outputStream) throws IOException {
+    BulkJob job = jobs.get(jobId);
+    if (job == null || job.type != BulkJobType.EXPORT) {
+      throw new IllegalArgumentException("No export job with id: " + jobId);
+    }
+    try (JsonGenerator generator = objectMapper.createGenerator(outputStream)) {
+      generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+      generator.setRootValueSeparator(null);
+      readOnlyTransactionTemplate.executeWithoutResult(status -> {
+        try (Stream<QuizEntity> quizzes = quizRepository.streamAllByOrderByQuizId()) {
+          List<QuizEntity> batch = new ArrayList<>(batchSize);
+          Iterator<QuizEntity> iterator = quizzes.iterator();
+          while (iterator.hasNext()) {
+            batch.add(iterator.next());
+            if (batch.size() >= batchSize) {
+              writeBatch(batch, generator, job);
+            }
+          }
+          writeBatch(batch, generator, job);
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      });
+      job.finish(BulkJobStatus.COMPLETED);
+    } catch (IOException | RuntimeException e) {
+      log.warning("Export " + jobId + " stopped: " + e.getMessage());
+      job.error("Stopped writing: " + e.getMessage());
+      job.finish(BulkJobStatus.FAILED);
+      throw e;
+    }
+    log.info("Export " + jobId + " wrote " + job.succeeded + " quizzes");
+  }
+
+  /**
+   * Finds the progress of a bulk job.
+   *
+   * @param jobId The id of the job.
+   * @return The job, or null if there is no such job.
+   */
+  @Override
+  public BulkJobDto findJob(String jobId) {
+    BulkJob job = jobs.get(jobId);
+    return job == null ? null : job.toDto();
+  }
+
+  /**
+   * Finds the progress of the most recent bulk jobs.
+   *
+   * @return The jobs, most recent first.
+   */
+  @Override
+  public List<BulkJobDto> findJobs() {
+    return jobs.values().stream()
+            .sorted(Comparator.comparing((BulkJob job) -> job.startedAt).reversed())
+            .map(BulkJob::toDto)
+            .toList();
+  }
+
+  /**
+   * Saves a batch of quizzes in one transaction, falling back to one transaction per quiz if the
+   * batch fails, and adds the saved quizzes to the suggestion index.
+   */
+  private void saveBatch(List<ImportLine> batch, String username, BulkJob job) {
+    List<ImportLine> valid = new ArrayList<>(batch.size());
+    for (ImportLine importLine : batch) {
+      String problem = validate(importLine.quiz);
+      if (problem == null) {
+        valid.add(importLine);
+      } else {
+        job.failed(importLine.line, problem);
+      }
+    }
+    if (valid.isEmpty()) {
+      return;
+    }
+    List<QuizEntity> saved;
+    try {
+      saved = transactionTemplate.execute(status -> persist(valid, username));
+    } catch (RuntimeException e) {
+      log.info("Batch failed, retrying quizzes one by one: " + e.getMessage());
+      saved = new ArrayList<>();
+      for (ImportLine importLine : valid) {
+        try {
+          saved.addAll(transactionTemplate.execute(status -> persist(List.of(importLine), username)));
+        } catch (RuntimeException quizException) {
+          job.failed(importLine.line, quizException.getMessage());
+        }
+      }
+    }
+    for (QuizEntity quizEntity : saved) {
+      List<String> categoryNames = quizEntity.getCategories().stream().map(CategoryEntity::getCategoryName).toList();
+      quizSuggestionIndex.addQuiz(quizEntity.getQuizId(), quizEntity.getTitle(), categoryNames);
+      quizRecommender.addQuiz(quizEntity.getQuizId(), quizEntity.getTitle(), categoryNames);
+      imageService.localizeImages(quizEntity.getQuizId());
+    }
+    resourceVersions.catalogChanged();
+    job.succeeded.addAndGet(saved.size());
+  }
+
+  /**
+   * Persists quizzes with their questions, looking up the categories and collaborators of the
+   * whole batch at once. Missing categories are created, and unknown collaborators are left out.
+   */
+  private List<QuizEntity> persist(List<ImportLine> batch, String username) {
+    UserEntity owner = entityManager.getReference(UserEntity.class, username);
+    Map<String, CategoryEntity> categories = findOrCreateCategories(batch);
+    Map<String, UserEntity> collaborators = findCollaborators(batch);
+    List<QuizEntity> saved = new ArrayList<>(batch.size());
+    for (ImportLine importLine : batch) {
+      QuizDetailsDto quizDetailsDto = importLine.quiz;
+      QuizEntity quizEntity = new QuizEntity();
+      quizEntity.setTitle(quizDetailsDto.getTitle());
+      quizEntity.setDescription(quizDetailsDto.getDescription());
+      quizEntity.setImageLink(Objects.requireNonNullElse(quizDetailsDto.getImageLink(), ""));
+      quizEntity.setOwner(owner);
+      quizEntity.setCategories(new HashSet<>());
+      for (String categoryName : categoryNames(quizDetailsDto)) {
+        quizEntity.getCategories().add(categories.get(categoryName));
+      }
+      quizEntity.setCollaborators(new ArrayList<>());
+      for (String collaborator : collaboratorNames(quizDetailsDto)) {
+        if (collaborators.containsKey(collaborator)) {
+          quizEntity.getCollaborators().add(collaborators.get(collaborator));
+        }
+      }
+      quizEntity.setQuestions(new ArrayList<>(
+              questionService.mapToEntities(quizDetailsDto.getQuestions(), quizEntity)));
+      entityManager.persist(quizEntity);
+      saved.add(quizEntity);
+    }
+    entityManager.flush();
+    saved.forEach(quizPermissions::grant);
+    entityManager.clear();
+    return saved;
+  }
+
+  private Map<String, CategoryEntity> findOrCreateCategories(List<ImportLine> batch) {
+    Set<String> names = new HashSet<>();
+    batch.forEach(importLine -> names.addAll(categoryNames(importLine.quiz)));
+    Map<String, CategoryEntity> categories = new HashMap<>();
+    if (names.isEmpty()) {
+      return categories;
+    }
+    categoryRepository.findAllById(names).forEach(category ->
+            categories.put(category.getCategoryName(), category));
+    for (String name : names) {
+      if (!categories.containsKey(name)) {
+        CategoryEntity categoryEntity = new CategoryEntity(name);
+        entityManager.persist(categoryEntity);
+        categories.put(name, categoryEntity);
+      }
+    }
+    return categories;
+  }
+
+  private Map<String, UserEntity> findCollaborators(List<ImportLine> batch) {
+    Set<String> usernames = new HashSet<>();
+    batch.forEach(importLine -> usernames.addAll(collaboratorNames(importLine.quiz)));
+    Map<String, UserEntity> collaborators = new HashMap<>();
+    if (!usernames.isEmpty()) {
+      userRepository.findAllById(usernames).forEach(user -> collaborators.put(user.getUsername(), user));
+    }
+    return collaborators;
+  }
+
+  /**
+   * Writes a batch of quizzes, then detaches them so the cursor can move on in constant memory.
+   */
+  private void writeBatch(List<QuizEntity> batch, JsonGenerator generator, BulkJob job)
+          throws IOException {
+    for (QuizEntity quizEntity : batch) {
+      generator.writeObject(toExportDto(quizEntity));
+      generator.writeRaw('\n');
+      job.processed.incrementAndGet();
+      job.succeeded.incrementAndGet();
+    }
+    generator.flush();
+    batch.clear();
+    entityManager.clear();
+  }
+
+  /**
+   * Maps a quiz to the exported format, which leaves out the reverse relations of its categories
+   * and everything but the names of its users.
+   */
+  private QuizDetailsDto toExportDto(QuizEntity quizEntity) {
+    QuizDetailsDto quizDetailsDto = new QuizDetailsDto();
+    quizDetailsDto.setQuizId(quizEntity.getQuizId());
+    quizDetailsDto.setTitle(quizEntity.getTitle());
+    quizDetailsDto.setDescription(quizEntity.getDescription());
+    quizDetailsDto.setImageLink(quizEntity.getImageLink());
+    if (quizEntity.getOwner() != null) {
+      quizDetailsDto.setOwner(exportUser(quizEntity.getOwner()));
+    }
+    if (quizEntity.getCategories() != null) {
+      quizEntity.getCategories().forEach(category -> quizDetailsDto.getCategories()
+              .add(CategoryDto.builder().categoryName(category.getCategoryName()).build()));
+    }
+    if (quizEntity.getCollaborators() != null) {
+      quizEntity.getCollaborators().forEach(user -> quizDetailsDto.getCollaborators().add(exportUser(user)));
+    }
+    if (quizEntity.getQuestions() != null) {
+      List<QuestionEntity> questions = new ArrayList<>(quizEntity.getQuestions());
+      questions.sort(Comparator.comparing(QuestionEntity::getPosition,
+              Comparator.nullsLast(Comparator.naturalOrder())));
+      List<QuestionDto> questionDtos = questionService.mapToDtos(questions);
+      questionDtos.forEach(questionDto -> questionDto.setQuizId(null));
+      quizDetailsDto.setQuestions(questionDtos);
+    }
+    return quizDetailsDto;
+  }
+
+  private static UserDto exportUser(UserEntity userEntity) {
+    return UserDto.builder().username(userEntity.getUsername()).fullName(userEntity.getFullName()).build();
+  }
+
+  /**
+   * Checks the fields a quiz must have before it is saved.
+   *
+   * @return The problem with the quiz, or null if it can be saved.
+   */
+  private static String validate(QuizDetailsDto quizDetailsDto) {
+    if (quizDetailsDto == null) {
+      return "Empty quiz";
+    }
+    if (quizDetailsDto.getTitle() == null || quizDetailsDto.getTitle().isEmpty()) {
+      return "Undefined quiz title";
+    }
+    if (quizDetailsDto.getQuestions() != null) {
+      for (QuestionDto questionDto : quizDetailsDto.getQuestions()) {
+        if (questionDto == null || questionDto.getLabel() == null || questionDto.getLabel().isEmpty()) {
+          return "Undefined question label";
+        }
+        if (questionDto.getType() == null) {
+          return "Undefined question type";
+        }
+      }
+    }
+    return null;
+  }
+
+  private static Collection<String> categoryNames(QuizDetailsDto quizDetailsDto) {
+    if (quizDetailsDto.getCategories() == null) {
+      return List.of();
+    }
+    return quizDetailsDto.getCategories().stream().filter(Objects::nonNull)
+            .map(CategoryDto::getCategoryName).filter(Objects::nonNull).distinct().toList();
+  }
+
+  private static Collection<String> collaboratorNames(QuizDetailsDto quizDetailsDto) {
+    if (quizDetailsDto.getCollaborators() == null) {
+      return List.of();
+    }
+    return quizDetailsDto.getCollaborators().stream().filter(Objects::nonNull)
+            .map(UserDto::getUsername).filter(Objects::nonNull).distinct().toList();
+  }
+
+  /**
+   * Registers a new job, forgetting the oldest finished job if too many are kept.
+   */
+  private BulkJob register(String jobId, BulkJobType type) {
+    if (jobs.size() >= MAX_JOBS) {
+      jobs.values().stream()
+              .filter(job -> job.status != BulkJobStatus.RUNNING)
+              .min(Comparator.comparing(job -> job.startedAt))
+              .ifPresent(job -> jobs.remove(job.jobId));
+    }
+    BulkJob job = new BulkJob(jobId != null ? jobId : UUID.randomUUID().toString(), type);
+    if (jobs.putIfAbsent(job.jobId, job) != null) {
+      throw new IllegalArgumentException("A job with id " + jobId + " already exists");
+    }
+    return job;
+  }
+
+  /**
+   * A quiz read from the import stream, with the line it started on.
+   */
+  private record ImportLine(int line, QuizDetailsDto quiz) {
+  }
+
+  /**
+   * Progress of a running or finished bulk job.
+   */
+  private static final class BulkJob {
+    private final String jobId;
+    private final BulkJobType type;
+    private final Instant startedAt = Instant.now();
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong succeeded = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final List<String> errors = new ArrayList<>();
+    private volatile BulkJobStatus status = BulkJobStatus.RUNNING;
+    private volatile Instant finishedAt;
+
+    private BulkJob(String jobId, BulkJobType type) {
+      this.jobId = jobId;
+      this.type = type;
+    }
+
+    private void failed(int line, String message) {
+      failed.incrementAndGet();
+      error("Line " + line + ": " + message);
+    }
+
+    private synchronized void error(String message) {
+      if (errors.size() < MAX_ERRORS) {
+        errors.add(message);
+      }
+    }
+
+    private void finish(BulkJobStatus status) {
+      this.finishedAt = Instant.now();
+      this.status = status;
+    }
+
+    private synchronized BulkJobDto toDto() {
+      return new BulkJobDto(jobId, type, status, processed.get(), succeeded.get(), failed.get(),
+              List.copyOf(errors), startedAt, finishedAt);
+    }
+  }
+}
@@ -0,0 +1,60 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.services.impl;
+
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.CacheRegionStatsDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.services.CacheStatisticsService;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+
+/**
+ * A class implementing the methods specified in its interface.
+ * Reads the statistics Hibernate keeps for every region of the second-level cache.
+ */
+@Service
+public class CacheStatisticsServiceImpl implements CacheStatisticsService {
+
+  /**
+   * Used for Dependency Injection.
+   */
+  private final EntityManagerFactory entityManagerFactory;
+
+  /**
+   * Used for Dependency Injection.
+   *
+   * @param entityManagerFactory The injected EntityManagerFactory object.
+   */
+  public CacheStatisticsServiceImpl(EntityManagerFactory entityManagerFactory) {
+    this.entityManagerFactory = entityManagerFactory;
+  }
+
+  /**
+   * Finds the hit rate and size of every second-level cache region.
+   *
+   * @return The statistics of every region, sorted by region name.
+   */
+  @Override
+  public List<CacheRegionStatsDto> getRegionStatistics() {
+    Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    return Arrays.stream(statistics.getSecondLevelCacheRegionNames())
+            .sorted()
+            .map(region -> toDto(region, statistics.getCacheRegionStatistics(region)))
+            .filter(Objects::nonNull)
+            .toList();
+  }
+
+  private static CacheRegionStatsDto toDto(String region, CacheRegionStatistics statistics) {
+    if (statistics == null) {
+      return null;
+    }
+    long hits = statistics.getHitCount();
+    long misses = statistics.getMissCount();
+    long lookups = hits + misses;
+    return new CacheRegionStatsDto(region, hits, misses, statistics.getPutCount(),
+            lookups == 0 ? 0 : (double) hits / lookups, statistics.getElementCountInMemory());
+  }
+}
@@ -0,0 +1,183 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.services.impl;
+
+import edu.ntnu.fullstack.prosjekt.quizzer.cache.ResourceVersions;
+import edu.ntnu.fullstack.prosjekt.quizzer.datasource.PrimaryReads;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.ImageDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.entities.QuestionEntity;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.entities.QuizEntity;
+import edu.ntnu.fullstack.prosjekt.quizzer.images.ImageStore;
+import edu.ntnu.fullstack.prosjekt.quizzer.images.RemoteImageFetcher;
+import edu.ntnu.fullstack.prosjekt.quizzer.repositories.QuizRepository;
+import edu.ntnu.fullstack.prosjekt.quizzer.services.ImageService;
+import edu.ntnu.fullstack.prosjekt.quizzer.services.QuizVersionService;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import lombok.extern.java.Log;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Stores images in the local image store, and moves the images quizzes link to there.
+ * Remote images are downloaded without following redirects, and only from public addresses,
+ * so a quiz can not make the server fetch from the internal network. A download must finish
+ * within a deadline, and its size is bounded by the image store.
+ * The links are read from the primary, as the quiz has only just been committed there, and
+ * are rewritten in the newest version too, instead of publishing a version per edit, since the
+ * images stay the same.
+ */
+@Log
+@Service
+public class ImageServiceImpl implements ImageService {
+
+  /**
+   * Used for Dependency Injection.
+   */
+  private final ImageStore imageStore;
+
+  private final QuizRepository quizRepository;
+
+  private final QuizVersionService quizVersionService;
+
+  private final ResourceVersions resourceVersions;
+
+  private final TransactionTemplate transactionTemplate;
+
+  private final PrimaryReads primaryReads;
+
+  private final boolean localizeLinks;
+
+  private final RemoteImageFetcher fetcher =
+          new RemoteImageFetcher(Duration.ofSeconds(5), Duration.ofSeconds(30));
+
+  private final ExecutorService localizer = Executors.newSingleThreadExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "image-localizer");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  /**
+   * Used for Dependency Injection.
+   *
+   * @param imageStore The injected ImageStore object.
+   * @param primaryReads The injected PrimaryReads object.
+   * @param transactionManager The transaction manager the rewritten links are saved in.
+   * @param localizeLinks Whether remote images of quizzes are downloaded to the image store.
+   */
+  public ImageServiceImpl(ImageStore imageStore, QuizRepository quizRepository,
+                          QuizVersionService quizVersionService, ResourceVersions resourceVersions,
+                          PrimaryReads primaryReads, PlatformTransactionManager transactionManager,
+                          @Value("${quizzer.images.localize-links:true}") boolean localizeLinks) {
+    this.imageStore = imageStore;
+    this.quizRepository = quizRepository;
+    this.quizVersionService = quizVersionService;
+    this.resourceVersions = resourceVersions;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.primaryReads = primaryReads;
+    this.localizeLinks = localizeLinks;
+  }
+
+  /**
+   * Stores an uploaded image.
+   *
+   * @param inputStream The bytes of the image.
+   * @return The stored image, with its local link.
+   * @throws IOException If the image could not be read or stored.
+   */
+  @Override
+  public ImageDto upload(InputStream inputStream) throws IOException {
+    ImageStore.StoredImage image = imageStore.store(inputStream);
+    return new ImageDto(IMAGE_PATH + image.name(), image.contentType(), image.size(), image.deduplicated(),
+            image.thumbnails().stream().map(name -> IMAGE_PATH + name).toList());
+  }
+
+  /**
+   * Downloads the remote images of a quiz in the background, once the current transaction
+   * has committed the quiz.
+   *
+   * @param quizId The id of the quiz.
+   */
+  @Override
+  public void localizeImages(Long quizId) {
+    if (!localizeLinks || quizId == null) {
+      return;
+    }
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          localizer.execute(() -> localize(quizId));
+        }
+      });
+    } else {
+      localizer.execute(() -> localize(quizId));
+    }
+  }
+
+  private void localize(Long quizId) {
+    Set<String> remoteLinks = primaryReads.read(() -> {
+      Set<String> links = new LinkedHashSet<>();
+      quizRepository.findById(quizId).ifPresent(quizEntity -> {
+        addIfRemote(links, quizEntity.getImageLink());
+        for (QuestionEntity questionEntity : quizEntity.getQuestions()) {
+          addIfRemote(links, questionEntity.getImageLink());
+        }
+      });
+      return links;
+    });
+    Map<String, String> localLinks = new HashMap<>();
+    for (String link : remoteLinks) {
+      if (Thread.currentThread().isInterrupted()) {
+        return;
+      }
+      try {
+        localLinks.put(link, download(link));
+      } catch (IOException | IllegalArgumentException e) {
+        log.info("Keeping image link " + link + " of quiz " + quizId + ": " + e.getMessage());
+      }
+    }
+    if (localLinks.isEmpty()) {
+      return;
+    }
+    transactionTemplate.executeWithoutResult(status -> quizRepository.findById(quizId).ifPresent(quizEntity -> {
+      quizEntity.setImageLink(localLinks.getOrDefault(quizEntity.getImageLink(), quizEntity.getImageLink()));
+      for (QuestionEntity questionEntity : quizEntity.getQuestions()) {
+        questionEntity.setImageLink(
+                localLinks.getOrDefault(questionEntity.getImageLink(), questionEntity.getImageLink()));
+      }
+      quizRepository.save(quizEntity);
+      quizVersionService.replaceImageLinks(quizId, localLinks);
+    }));
+    resourceVersions.quizChanged(quizId);
+    log.info("Moved " + localLinks.size() + " images of quiz " + quizId + " to the image store");
+  }
+
+  private static void addIfRemote(Set<String> links, String link) {
+    if (link != null && (link.startsWith("http://") || link.startsWith("https://"))) {
+      links.add(link);
+    }
+  }
+
+  private String download(String link) throws IOException {
+    try (InputStream body = fetcher.open(URI.create(link))) {
+      return IMAGE_PATH + imageStore.store(body).name();
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    localizer.shutdownNow();
+  }
+}
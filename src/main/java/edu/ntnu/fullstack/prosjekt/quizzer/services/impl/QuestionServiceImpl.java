@@ -8,13 +8,18 @@ import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.QuizDetailsDto;
 import edu.ntnu.fullstack.prosjekt.quizzer.domain.entities.QuestionEntity;
 import edu.ntnu.fullstack.prosjekt.quizzer.domain.entities.QuizEntity;
 import edu.ntnu.fullstack.prosjekt.quizzer.mappers.Mapper;
+import edu.ntnu.fullstack.prosjekt.quizzer.mappers.impl.QuestionMapperImpl;
 import edu.ntnu.fullstack.prosjekt.quizzer.repositories.QuestionRepository;
 import edu.ntnu.fullstack.prosjekt.quizzer.services.QuestionService;
 import lombok.extern.java.Log;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * A class implementing the methods specified in its interface.
@@ -88,6 +93,7 @@ public class QuestionServiceImpl implements QuestionService {
    * @return A list of questions as dtos.
    */
   @Override
+  @Transactional(readOnly = true)
   public List<QuestionDto> getQuestionsByQuiz(QuizEntity quizEntity) {
     List<QuestionEntity> questionEntities = questionRepository.findQuestionEntitiesByQuiz(quizEntity);
     log.info("Before mapping to dot");
@@ -104,21 +110,40 @@ public class QuestionServiceImpl implements QuestionService {
    * @return The amount of questions.
    */
   @Override
+  @Transactional(readOnly = true)
   public int getAmountOfQuestionsByQuiz(QuizEntity quizEntity) {
-    return questionRepository.findQuestionEntitiesByQuiz(quizEntity).size();
+    return (int) questionRepository.countByQuiz(quizEntity);
   }
 
   /**
-   * Clears all questions belonging to a quiz.
+   * Finds the amount of questions of several quizzes, in one query.
+   *
+   * @param quizIds The ids of the quizzes.
+   * @return The amount of questions by quiz id, without quizzes that have no questions.
+   */
+  @Override
+  @Transactional(readOnly = true)
+  public Map<Long, Integer> getAmountsOfQuestionsByQuizIds(Collection<Long> quizIds) {
+    Map<Long, Integer> amounts = new HashMap<>();
+    if (quizIds.isEmpty()) {
+      return amounts;
+    }
+    for (Object[] row : questionRepository.countByQuizIds(quizIds)) {
+      amounts.put((Long) row[0], ((Number) row[1]).intValue());
+    }
+    return amounts;
+  }
+
+  /**
+   * Clears all questions belonging to a quiz, in one statement.
    *
    * @param quizEntity The quiz to clear questions for.
    */
   @Override
   @Transactional
   public void deleteQuestionsByQuizEntity(QuizEntity quizEntity) {
-    List<QuestionEntity> questionEntities = questionRepository.findQuestionEntitiesByQuiz(quizEntity);
-    log.info("Trying to delete questions");
-    questionRepository.deleteAll(questionEntities);
+    int deleted = questionRepository.deleteByQuiz(quizEntity);
+    log.info("Deleted " + deleted + " questions of quiz " + quizEntity.getQuizId());
   }
 
   /**
@@ -138,6 +163,92 @@ public class QuestionServiceImpl implements QuestionService {
     }
   }
 
+  /**
+   * Maps a list of questions to new entities belonging to a quiz, without saving them.
+   * Question ids are cleared so the questions are always inserted, and missing positions are
+   * filled in from the order of the list.
+   *
+   * @param questionDtos The list of questions to map.
+   * @param quizEntity   The quiz the questions belong to.
+   * @return The unsaved question entities.
+   */
+  @Override
+  public List<QuestionEntity> mapToEntities(List<QuestionDto> questionDtos, QuizEntity quizEntity) {
+    if (quizEntity == null) {
+      throw new IllegalArgumentException("Quiz is not defined");
+    }
+    List<QuestionEntity> questionEntities = new ArrayList<>();
+    if (questionDtos == null) {
+      return questionEntities;
+    }
+    for (int i = 0; i < questionDtos.size(); i++) {
+      QuestionDto questionDto = questionDtos.get(i);
+      if (questionDto.getLabel() == null || questionDto.getLabel().isEmpty()) {
+        throw new IllegalArgumentException("Undefined question label");
+      }
+      QuestionEntity questionEntity = questionMapper.mapFrom(questionDto);
+      questionEntity.setQuestionId(null);
+      questionEntity.setQuiz(quizEntity);
+      if (questionEntity.getPosition() == null) {
+        questionEntity.setPosition((short) i);
+      }
+      mapToJson(questionDto.getAlternatives(), questionEntity);
+      questionEntities.add(questionEntity);
+    }
+    return questionEntities;
+  }
+
+  /**
+   * Applies an edited list of questions to the questions of a quiz, without saving them.
+   * A question sent with the id of one of the quiz's questions is edited in place, so it keeps
+   * its id, and with it what learners have mastered of it. Other questions are new, and the
+   * quiz's questions left out of the list are removed when the quiz is saved.
+   *
+   * @param questionDtos The edited list of questions.
+   * @param quizEntity   The quiz the questions belong to, with its current questions.
+   * @return The questions the quiz should have, edited or new.
+   */
+  @Override
+  public List<QuestionEntity> mergeEntities(List<QuestionDto> questionDtos, QuizEntity quizEntity) {
+    List<QuestionEntity> mapped = mapToEntities(questionDtos, quizEntity);
+    Map<Long, QuestionEntity> existing = new HashMap<>();
+    if (quizEntity.getQuestions() != null) {
+      for (QuestionEntity questionEntity : quizEntity.getQuestions()) {
+        existing.put(questionEntity.getQuestionId(), questionEntity);
+      }
+    }
+    List<QuestionEntity> merged = new ArrayList<>(mapped.size());
+    for (int i = 0; i < mapped.size(); i++) {
+      QuestionEntity edited = mapped.get(i);
+      Long questionId = questionDtos.get(i).getQuestionId();
+      QuestionEntity questionEntity = questionId != null ? existing.remove(questionId) : null;
+      if (questionEntity == null) {
+        merged.add(edited);
+        continue;
+      }
+      questionEntity.setLabel(edited.getLabel());
+      questionEntity.setImageLink(edited.getImageLink());
+      questionEntity.setPosition(edited.getPosition());
+      questionEntity.setAlternatives(edited.getAlternatives());
+      questionEntity.setType(edited.getType());
+      merged.add(questionEntity);
+    }
+    return merged;
+  }
+
+  /**
+   * Maps already loaded question entities to dtos, without querying the database.
+   *
+   * @param questionEntities The questions to map.
+   * @return The questions as dtos.
+   */
+  @Override
+  public List<QuestionDto> mapToDtos(List<QuestionEntity> questionEntities) {
+    if (questionEntities == null) {
+      return new ArrayList<>();
+    }
+    return questionEntities.stream().map(questionMapper::mapTo).toList();
+  }
 
   /**
    * Maps a question entity to a question dto.
@@ -149,7 +260,8 @@ public class QuestionServiceImpl implements QuestionService {
     QuestionDto questionDto = questionMapper.mapTo(questionEntity);
     if (questionEntity.getAlternatives() != null) {
       try {
-        questionDto.setAlternatives(objectMapper.readValue(questionEntity.getAlternatives(), List.class));
+        questionDto.setAlternatives(objectMapper.readValue(questionEntity.getAlternatives(),
+                QuestionMapperImpl.ALTERNATIVES_TYPE));
         return questionDto;
       } catch (JsonProcessingException e) {
         throw new RuntimeException(e);
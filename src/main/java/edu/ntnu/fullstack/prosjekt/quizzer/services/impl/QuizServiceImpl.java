@@ -3,30 +3,53 @@ package edu.ntnu.fullstack.prosjekt.quizzer.services.impl;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.ntnu.fullstack.prosjekt.quizzer.acl.QuizPermissions;
+import edu.ntnu.fullstack.prosjekt.quizzer.cache.QuizSnapshot;
+import edu.ntnu.fullstack.prosjekt.quizzer.cache.ResourceVersions;
 import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.*;
 import edu.ntnu.fullstack.prosjekt.quizzer.domain.entities.*;
+import edu.ntnu.fullstack.prosjekt.quizzer.enums.QuizRole;
+import edu.ntnu.fullstack.prosjekt.quizzer.fork.QuizForker;
+import edu.ntnu.fullstack.prosjekt.quizzer.jfr.QuizChangeEvent;
+import edu.ntnu.fullstack.prosjekt.quizzer.jfr.QuizSearchEvent;
 import edu.ntnu.fullstack.prosjekt.quizzer.mappers.Mapper;
+import edu.ntnu.fullstack.prosjekt.quizzer.practice.MasteryStore;
+import edu.ntnu.fullstack.prosjekt.quizzer.purge.QuizPurger;
+import edu.ntnu.fullstack.prosjekt.quizzer.recommend.QuizRecommender;
+import edu.ntnu.fullstack.prosjekt.quizzer.recommend.TrendingQuizzes;
 import edu.ntnu.fullstack.prosjekt.quizzer.repositories.AttemptRepository;
 import edu.ntnu.fullstack.prosjekt.quizzer.repositories.CategoryRepository;
 import edu.ntnu.fullstack.prosjekt.quizzer.repositories.QuizRepository;
+import edu.ntnu.fullstack.prosjekt.quizzer.repositories.QuizVersionRepository;
+import edu.ntnu.fullstack.prosjekt.quizzer.search.QuizSuggestionIndex;
 import edu.ntnu.fullstack.prosjekt.quizzer.services.QuestionService;
+import edu.ntnu.fullstack.prosjekt.quizzer.services.ImageService;
 import edu.ntnu.fullstack.prosjekt.quizzer.services.QuizService;
+import edu.ntnu.fullstack.prosjekt.quizzer.services.QuizVersionService;
 import edu.ntnu.fullstack.prosjekt.quizzer.services.UserService;
+import edu.ntnu.fullstack.prosjekt.quizzer.timing.RequestTiming;
+import jakarta.persistence.EntityManager;
 import lombok.extern.java.Log;
 import org.apache.catalina.User;
 import org.modelmapper.ModelMapper;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.core.parameters.P;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.Collectors;
 
 /**
@@ -56,6 +79,29 @@ public class QuizServiceImpl implements QuizService {
 
   private AttemptRepository attemptRepository;
 
+  private QuizSuggestionIndex quizSuggestionIndex;
+
+  private QuizVersionService quizVersionService;
+
+  private QuizVersionRepository quizVersionRepository;
+
+  private ResourceVersions resourceVersions;
+
+  private ImageService imageService;
+
+  private QuizPurger quizPurger;
+
+  private QuizRecommender quizRecommender;
+
+  private TrendingQuizzes trendingQuizzes;
+
+  private MasteryStore masteryStore;
+
+  private EntityManager entityManager;
+
+  private QuizPermissions quizPermissions;
+
+  private QuizForker quizForker;
 
   /**
    * Used for Dependency Injection.
@@ -65,7 +111,13 @@ public class QuizServiceImpl implements QuizService {
   public QuizServiceImpl(QuizRepository quizRepository, CategoryRepository categoryRepository,
                          QuestionService questionService, Mapper<QuizEntity, QuizDetailsDto> quizMapper,
                          Mapper<CategoryEntity, CategoryDto> categoryMapper, ObjectMapper objectMapper,
-                         AttemptRepository attemptRepository) {
+                         AttemptRepository attemptRepository, QuizSuggestionIndex quizSuggestionIndex,
+                         QuizVersionService quizVersionService, QuizVersionRepository quizVersionRepository,
+                         ResourceVersions resourceVersions, ImageService imageService,
+                         QuizPurger quizPurger, QuizRecommender quizRecommender,
+                         TrendingQuizzes trendingQuizzes, MasteryStore masteryStore,
+                         EntityManager entityManager, QuizPermissions quizPermissions,
+                         QuizForker quizForker) {
     this.quizRepository = quizRepository;
     this.categoryRepository = categoryRepository;
     this.quizMapper = quizMapper;
@@ -73,15 +125,28 @@ public class QuizServiceImpl implements QuizService {
     this.categoryMapper = categoryMapper;
     this.objectMapper = objectMapper;
     this.attemptRepository = attemptRepository;
+    this.quizSuggestionIndex = quizSuggestionIndex;
+    this.quizVersionService = quizVersionService;
+    this.quizVersionRepository = quizVersionRepository;
+    this.resourceVersions = resourceVersions;
+    this.imageService = imageService;
+    this.quizPurger = quizPurger;
+    this.quizRecommender = quizRecommender;
+    this.trendingQuizzes = trendingQuizzes;
+    this.masteryStore = masteryStore;
+    this.entityManager = entityManager;
+    this.quizPermissions = quizPermissions;
+    this.quizForker = quizForker;
   }
 
   /**
-   * Creates a quiz in the database table.
+   * Creates a quiz in the database table, together with its first version.
    *
    * @param quizDetailsDto QuizEntity that should be added.
    * @return The created QuizEntity
    */
   @Override
+  @Transactional
   public QuizDetailsDto createQuiz(QuizDetailsDto quizDetailsDto, UserEntity userEntity) {
     log.info("Creating quiz");
 
@@ -95,32 +160,66 @@ public class QuizServiceImpl implements QuizService {
       log.info("Could not find user");
       throw new IllegalArgumentException("No user with username: " + quizDetailsDto.getOwner());
     }
+    QuizChangeEvent event = new QuizChangeEvent();
+    event.begin();
     QuizEntity quizEntity = quizMapper.mapFrom(quizDetailsDto);
+    quizEntity.setQuizId(null);
     quizEntity.setOwner(userEntity);
+    // The questions are saved through the cascade on the quiz, in the same flush as the quiz.
+    quizEntity.setQuestions(new ArrayList<>(
+            questionService.mapToEntities(quizDetailsDto.getQuestions(), quizEntity)));
 
     log.info("questions: " + quizDetailsDto.getQuestions());
     QuizEntity savedQuizEntity = quizRepository.save(quizEntity);
-    questionService.addListOfQuestions(quizDetailsDto.getQuestions(), quizEntity);
+    QuizVersionEntity quizVersionEntity = quizVersionService.publish(savedQuizEntity);
+    quizPermissions.grant(savedQuizEntity);
+    indexAfterCommit(null, savedQuizEntity);
+    resourceVersions.quizChanged(savedQuizEntity.getQuizId());
+    imageService.localizeImages(savedQuizEntity.getQuizId());
+    commitChange(event, "create", savedQuizEntity.getQuizId(), savedQuizEntity.getQuestions().size());
 
     log.info("Saved quiz entity: " + savedQuizEntity);
 
     QuizDetailsDto savedQuizDto = quizMapper.mapTo(savedQuizEntity);
+    savedQuizDto.setQuestions(questionService.mapToDtos(savedQuizEntity.getQuestions()));
+    savedQuizDto.setVersion(quizVersionEntity.getNumber());
     log.info("Saved quiz dto: " + savedQuizDto);
     return savedQuizDto;
   }
 
   /**
    * Finds a page of quizzes in the database.
+   * Unsorted pages are ordered by id, so that they are read in primary key order and no quiz
+   * moves between pages.
    *
    * @return A page of quizzes.
    */
   @Override
+  @Transactional(readOnly = true)
   public Page<QuizGeneralDto> findPageOfQuizzes(Pageable pageable) {
-    Page<QuizEntity> quizEntityPage = quizRepository.findAll(pageable);
+    if (pageable.isPaged()) {
+      pageable = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(),
+              pageable.getSortOr(Sort.by("quizId")));
+    }
+    return toGeneralDtos(quizRepository.findAll(pageable));
+  }
 
+  /**
+   * Maps a page of quizzes, counting the questions of the whole page in one query instead of one
+   * query per quiz.
+   *
+   * @param quizEntityPage The page of quizzes.
+   * @return The page of mapped quizzes.
+   */
+  private Page<QuizGeneralDto> toGeneralDtos(Page<QuizEntity> quizEntityPage) {
+    Map<Long, Integer> amountsOfQuestions = questionService.getAmountsOfQuestionsByQuizIds(
+            quizEntityPage.getContent().stream().map(QuizEntity::getQuizId).toList());
+    ModelMapper mapper = new ModelMapper();
     return quizEntityPage.map(obj -> {
-      QuizGeneralDto converted = new ModelMapper().map(obj, QuizGeneralDto.class);
-      converted.setAmountOfQuestions(questionService.getAmountOfQuestionsByQuiz(obj));
+      long start = RequestTiming.start();
+      QuizGeneralDto converted = mapper.map(obj, QuizGeneralDto.class);
+      RequestTiming.stop(RequestTiming.Phase.MAPPING, start);
+      converted.setAmountOfQuestions(amountsOfQuestions.getOrDefault(obj.getQuizId(), 0));
       return converted;
     });
   }
@@ -132,14 +231,11 @@ public class QuizServiceImpl implements QuizService {
    * @return A Dto of the queried quiz.
    */
   @Override
+  @Transactional(readOnly = true)
   public QuizDetailsDto findQuizDtoById(String quizId) {
     Long idValue = Long.parseLong(quizId);
-    if (quizRepository.findById(idValue).isPresent()) {
-      QuizEntity quizEntity = quizRepository.findById(idValue).get();
-      QuizDetailsDto foundQuizDetailsDto = quizMapper.mapTo(quizEntity);
-      return quizMapper.mapTo(quizEntity);
-    }
-    return null;
+    return quizRepository.findById(idValue).filter(quizEntity -> !quizEntity.isDeleted())
+            .map(quizMapper::mapTo).orElse(null);
   }
 
   /**
@@ -151,96 +247,268 @@ public class QuizServiceImpl implements QuizService {
   @Override
   public QuizEntity findQuizEntityById(String quizId) {
     Long idValue = Long.parseLong(quizId);
-    if (quizRepository.findById(idValue).isPresent()) {
-      log.info("Found QuizEntity");
-      return quizRepository.findById(idValue).get();
-    }
-    throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+    return quizRepository.findById(idValue).filter(quizEntity -> !quizEntity.isDeleted())
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
   }
 
   /**
-   * Updates a quiz in the database.
+   * Updates a quiz in the database, keeping its id, and publishes the result as its next version.
+   * Questions that are sent with their id are edited in place and keep it, so mastery of them
+   * is kept. Earlier versions, and the attempts graded against them, are left as they were, since
+   * versions are stored separately from the questions.
+   * Only the owner may change who collaborates on the quiz, so collaborators can edit its
+   * content, but not grant or take away access to it.
    *
    * @param quizDetailsDto The updated quiz.
+   * @param userEntity The user editing the quiz.
+   * @throws ResponseStatusException 403 if a collaborator tries to change the collaborators.
    */
   @Override
+  @Transactional
   public void updateQuizEntity(QuizDetailsDto quizDetailsDto, UserEntity userEntity) {
-    /*
-    log.info("Quiz id: " + quizDetailsDto.getQuizId());
-    log.info("Quiz title: " + quizDetailsDto.getTitle());
-    questionService.clearQuestionsByQuizEntity(quizEntity);
-    questionService.addListOfQuestions(quizDetailsDto.getQuestions(), quizEntity);
-    QuizEntity updatedQuizEntity = new ModelMapper().map(quizDetailsDto, QuizEntity.class);
-    quizRepository.save(updatedQuizEntity);*/
+    if (quizDetailsDto.getTitle() == null || quizDetailsDto.getTitle().isEmpty()) {
+      log.info("Undefined quiz title");
+      throw new IllegalArgumentException("Undefined quiz title");
+    }
+    QuizChangeEvent event = new QuizChangeEvent();
+    event.begin();
     QuizEntity quizEntity = findQuizEntityById(quizDetailsDto.getQuizId().toString());
-    questionService.deleteQuestionsByQuizEntity(quizEntity);
-    quizRepository.delete(quizEntity);
-    createQuiz(quizDetailsDto, userEntity);
+    List<String> categoryNames = categoryNames(quizEntity);
+    QuizEntity updatedQuizEntity = quizMapper.mapFrom(quizDetailsDto);
+    quizEntity.setTitle(updatedQuizEntity.getTitle());
+    quizEntity.setDescription(updatedQuizEntity.getDescription());
+    quizEntity.setImageLink(updatedQuizEntity.getImageLink());
+    quizEntity.setCategories(updatedQuizEntity.getCategories());
+    if (!usernames(updatedQuizEntity.getCollaborators()).equals(usernames(quizEntity.getCollaborators()))) {
+      if (quizPermissions.role(quizEntity.getQuizId(), userEntity.getUsername()) != QuizRole.OWNER) {
+        throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Only the owner can change the collaborators");
+      }
+      quizEntity.setCollaborators(updatedQuizEntity.getCollaborators());
+    }
+    if (quizEntity.getOwner() == null) {
+      quizEntity.setOwner(userEntity);
+    }
+    if (quizEntity.getQuestions() == null) {
+      quizEntity.setQuestions(new ArrayList<>());
+    }
+    List<QuestionEntity> questions = questionService.mergeEntities(quizDetailsDto.getQuestions(), quizEntity);
+    quizEntity.getQuestions().clear();
+    quizEntity.getQuestions().addAll(questions);
+    quizVersionService.publish(quizEntity);
+    quizPermissions.grant(quizEntity);
+    resourceVersions.quizChanged(quizEntity.getQuizId());
+    indexAfterCommit(categoryNames, quizEntity);
+    imageService.localizeImages(quizEntity.getQuizId());
+    commitChange(event, "update", quizEntity.getQuizId(), quizEntity.getQuestions().size());
   }
 
+  /**
+   * Suggests and recommends a created or updated quiz once the current transaction commits, in
+   * place of its old title and categories, if any.
+   */
+  private void indexAfterCommit(List<String> oldCategoryNames, QuizEntity quizEntity) {
+    Long quizId = quizEntity.getQuizId();
+    String title = quizEntity.getTitle();
+    List<String> categoryNames = categoryNames(quizEntity);
+    afterCommit(() -> {
+      if (oldCategoryNames != null) {
+        quizSuggestionIndex.removeQuiz(quizId, oldCategoryNames);
+      }
+      quizSuggestionIndex.addQuiz(quizId, title, categoryNames);
+      quizRecommender.addQuiz(quizId, title, categoryNames);
+    });
+  }
+
+  /**
+   * Runs an update of an index kept in memory once the current transaction commits, so quizzes
+   * whose transaction rolls back never show up in it.
+   */
+  private static void afterCommit(Runnable update) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      update.run();
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        update.run();
+      }
+    });
+  }
+
+  private static void commitChange(QuizChangeEvent event, String operation, Long quizId, int questionCount) {
+    event.end();
+    if (event.shouldCommit()) {
+      event.operation = operation;
+      event.quizId = quizId;
+      event.questionCount = questionCount;
+      event.commit();
+    }
+  }
+
+  /**
+   * Forks a quiz into a new quiz owned by the user. The quiz, its questions and its categories
+   * are copied by the database, and the copies are read back once, to publish the first version
+   * of the fork in the same transaction.
+   *
+   * @param quizId The id of the quiz to fork.
+   * @param userEntity The owner of the new quiz.
+   * @return The new quiz, without its questions.
+   */
   @Override
+  @Transactional
+  public QuizGeneralDto forkQuiz(String quizId, UserEntity userEntity) {
+    if (userEntity == null) {
+      log.info("Could not find user");
+      throw new IllegalArgumentException("No user to fork quiz " + quizId + " for");
+    }
+    QuizChangeEvent event = new QuizChangeEvent();
+    event.begin();
+    QuizEntity source = findQuizEntityById(quizId);
+    QuizForker.Fork fork = quizForker.fork(source.getQuizId(), userEntity.getUsername());
+    quizVersionService.publish(quizRepository.findById(fork.quizId()).orElseThrow());
+    quizPermissions.grantOwner(fork.quizId(), userEntity.getUsername());
+    List<String> forkCategoryNames = categoryNames(source);
+    afterCommit(() -> {
+      quizSuggestionIndex.addQuiz(fork.quizId(), source.getTitle(), forkCategoryNames);
+      quizRecommender.addQuiz(fork.quizId(), source.getTitle(), forkCategoryNames);
+    });
+    resourceVersions.quizChanged(fork.quizId());
+    commitChange(event, "fork", fork.quizId(), fork.questionCount());
+
+    List<CategoryDto> categories = source.getCategories() == null ? new ArrayList<>()
+            : source.getCategories().stream().map(categoryMapper::mapTo).collect(Collectors.toList());
+    return new QuizGeneralDto(fork.quizId(), source.getTitle(), source.getDescription(), source.getImageLink(),
+            fork.questionCount(), categories,
+            new UserDto(userEntity.getUsername(), userEntity.getFullName(), userEntity.getEmail(), null));
+  }
+
+  /**
+   * Deletes a quiz by marking it, which hides it from every read at once. Its questions,
+   * versions and attempts are purged in the background.
+   *
+   * @param quizDetailsDto The quiz to delete.
+   * @return True once the quiz is marked as deleted.
+   */
+  @Override
+  @Transactional
   public Boolean deleteQuizEntity(QuizDetailsDto quizDetailsDto) {
     QuizEntity quizEntity = findQuizEntityById(quizDetailsDto.getQuizId().toString());
-    quizRepository.delete(quizEntity);
-    if (quizRepository.findById(quizEntity.getQuizId()).isPresent()) {
-      return false;
-    } return true;
+    List<String> categoryNames = categoryNames(quizEntity);
+    quizEntity.setDeleted(true);
+    quizRepository.save(quizEntity);
+    quizVersionService.forgetVersions(quizEntity.getQuizId());
+    quizPermissions.revoke(quizEntity.getQuizId());
+    quizPurger.schedule(quizEntity.getQuizId());
+    resourceVersions.quizChanged(quizEntity.getQuizId());
+    afterCommit(() -> {
+      quizSuggestionIndex.removeQuiz(quizEntity.getQuizId(), categoryNames);
+      quizRecommender.removeQuiz(quizEntity.getQuizId());
+    });
+    trendingQuizzes.removeQuiz(quizEntity.getQuizId());
+    return true;
   }
 
   /**
    * Finds a detailed quiz given an id.
+   * The quiz is read together with its owner, categories and collaborators, and its questions
+   * are read through their cached collection.
    * @param quizId The id of the quiz.
    * @return The quiz as a dto.
    */
   @Override
+  @Transactional(readOnly = true)
   public QuizDetailsDto findQuizDetails(String quizId) {
-    QuizEntity quizEntity = findQuizEntityById(quizId);
-    List<QuestionDto> questions = questionService.getQuestionsByQuiz(quizEntity);
+    QuizEntity quizEntity = quizRepository.findDetailsById(Long.parseLong(quizId))
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+    List<QuestionDto> questions = questionService.mapToDtos(quizEntity.getQuestions());
     QuizDetailsDto quizDetailsDto = quizMapper.mapTo(quizEntity);
     quizDetailsDto.setQuestions(questions);
+    quizDetailsDto.setVersion(quizVersionService.findCurrentVersion(quizEntity.getQuizId()));
+    trendingQuizzes.recordView(quizEntity.getQuizId(), quizEntity.getTitle());
     return quizDetailsDto;
   }
 
   /**
-   * Checks the answers of a quiz attempt.
+   * Checks the answers of a quiz attempt, against the version of the quiz it was played at.
+   * The quiz is only known through its cached snapshot, so grading and storing the attempt
+   * reads nothing but the snapshot when it is cached.
    * @param quizId The id of the quiz.
-   * @param quizAttemptDto The attempt to check.
+   * @param quizAttemptDto The attempt to check. Without a version, the newest version is used.
    * @param userEntity The user who attempted the quiz.
    * @return The attempt with the score.
    */
   @Override
   public QuizAttemptDto checkAnswers(String quizId, QuizAttemptDto quizAttemptDto, UserEntity userEntity) {
-    List<QuestionDto> quizQuestions = questionService.getQuestionsByQuiz(findQuizEntityById(quizId));
-    List<QuestionAttemptDto> submittedAnswers = quizAttemptDto.getQuestionAttempts();
-    log.info("Questions in quiz: " + quizQuestions);
-    log.info("Quiz id: " + quizId);
-    for (int i = 0; i < quizQuestions.size(); i++) {
-      log.info("Question alternatives: " + quizQuestions.get(i).getAlternatives());
-      for (int j = 0; j < quizQuestions.get(i).getAlternatives().size(); j++) {
-        Object alternative = quizQuestions.get(i).getAlternatives().get(j);
-        if (alternative instanceof Map) {
-          Map<String, Object> alternativeMap = (Map<String, Object>) alternative;
-          String answer = (String) alternativeMap.get("answer");
-          Object isCorrect = alternativeMap.get("isCorrect");
-          boolean casted = isCorrect != null && (boolean) isCorrect;
-          if (answer.equalsIgnoreCase(submittedAnswers.get(i).getAnswerLabel()) && casted) {
-            quizAttemptDto.setScore(quizAttemptDto.getScore() + 1);
-            quizAttemptDto.getQuestionAttempts().get(i).setAnsweredCorrect(true);
-          }
-        }
-      }
-    }
+    QuizSnapshot snapshot = findQuizSnapshot(Long.parseLong(quizId), quizAttemptDto.getVersion());
+    snapshot.grade(quizAttemptDto);
     log.info("Quizattempt: " + quizAttemptDto.getQuestionAttempts());
-    QuizAttemptEntity quizAttemptEntity = new ModelMapper().map(quizAttemptDto, QuizAttemptEntity.class);
-    log.info("Found userENTITY: " + userEntity);
-    quizAttemptEntity.setUser(userEntity);
-    log.info("Found quizentity: " + findQuizEntityById(quizId));
-    quizAttemptEntity.setQuiz(findQuizEntityById(quizId));
-    log.info("Saving attempt: " + quizAttemptEntity);
+    QuizAttemptEntity quizAttemptEntity = new QuizAttemptEntity(null, quizAttemptDto.getScore(),
+            quizAttemptDto.getDuration(), userEntity, entityManager.getReference(QuizEntity.class, snapshot.getQuizId()),
+            quizVersionRepository.getReferenceById(snapshot.getVersionId()));
     attemptRepository.save(quizAttemptEntity);
+    quizSuggestionIndex.recordAttempt(snapshot.getQuizId());
+    trendingQuizzes.recordAttempt(snapshot.getQuizId(), snapshot.getTitle());
+    if (userEntity != null) {
+      quizRecommender.recordAttempt(userEntity.getUsername(), snapshot.getQuizId());
+      masteryStore.record(userEntity.getUsername(), snapshot, quizAttemptDto.getQuestionAttempts(),
+              System.currentTimeMillis());
+    }
     return quizAttemptDto;
   }
 
+  /**
+   * Draws a shuffled selection of questions from a quiz, without their correct answers.
+   * @param quizId The id of the quiz.
+   * @param count The amount of questions to draw.
+   * @param seed The seed to shuffle with, or null to pick a new one.
+   * @return The questions to play, and the seed they were drawn with.
+   */
+  @Override
+  public QuizPlayDto playQuiz(String quizId, int count, Long seed) {
+    QuizSnapshot snapshot = findQuizSnapshot(Long.parseLong(quizId), null);
+    long actualSeed = seed != null ? seed : ThreadLocalRandom.current().nextLong();
+    return new QuizPlayDto(snapshot.getQuizId(), snapshot.getVersion(), snapshot.getTitle(), actualSeed,
+            snapshot.size(), snapshot.sample(count, actualSeed));
+  }
+
+  /**
+   * Picks the questions of a quiz a user should practice next, without their correct answers.
+   * @param quizId The id of the quiz.
+   * @param count The amount of questions to pick.
+   * @param username The user who practices.
+   * @return The questions to practice, most needed first.
+   */
+  @Override
+  public QuizPlayDto practiceQuiz(String quizId, int count, String username) {
+    QuizSnapshot snapshot = findQuizSnapshot(Long.parseLong(quizId), null);
+    int[] picked = masteryStore.next(username, snapshot.questionIds(), count, System.currentTimeMillis());
+    return new QuizPlayDto(snapshot.getQuizId(), snapshot.getVersion(), snapshot.getTitle(), null,
+            snapshot.size(), snapshot.pick(picked));
+  }
+
+  /**
+   * Finds the cached snapshot of a version of a quiz, compiling it from the stored version if needed.
+   * @param quizId The id of the quiz.
+   * @param version The version number, or null for the newest version.
+   * @return The snapshot of the quiz.
+   */
+  @Override
+  public QuizSnapshot findQuizSnapshot(Long quizId, Integer version) {
+    return quizVersionService.findSnapshot(quizId, version);
+  }
+
+  /**
+   * Finds a version of a quiz as it was published.
+   * @param quizId The id of the quiz.
+   * @param version The version number.
+   * @return The quiz and its questions, as they were in the version.
+   */
+  @Override
+  public QuizDetailsDto findQuizVersion(String quizId, Integer version) {
+    return quizVersionService.findVersion(Long.parseLong(quizId), version);
+  }
+
   /**
    * Filters quizzes based on a search query.
    * @param searchQuery The search query.
@@ -248,22 +516,99 @@ public class QuizServiceImpl implements QuizService {
    * @return A page of quizzes.
    */
   @Override
+  @Transactional(readOnly = true)
   public Page<QuizGeneralDto> filterQuizzes(String searchQuery, Pageable pageable) {
-    Page<QuizEntity> quizEntityPage = quizRepository.findByCategoriesInOrTitleContaining(searchQuery, pageable);
-    ModelMapper mapper = new ModelMapper();
-    return quizEntityPage.map(obj -> {
-      QuizGeneralDto converted = mapper.map(obj, QuizGeneralDto.class);
-      converted.setAmountOfQuestions(questionService.getAmountOfQuestionsByQuiz(obj));
-      return converted;
-    });
+    QuizSearchEvent event = new QuizSearchEvent();
+    event.begin();
+    Page<QuizGeneralDto> quizzes = toGeneralDtos(
+            quizRepository.findByCategoriesInOrTitleContaining(searchQuery, pageable));
+    event.end();
+    if (event.shouldCommit()) {
+      event.kind = "filter";
+      event.queryLength = searchQuery == null ? 0 : searchQuery.length();
+      event.hits = quizzes.getTotalElements();
+      event.commit();
+    }
+    return quizzes;
   }
 
   /**
    * Finds all quiz categories.
    * @return A list of all categories.
    */
+  @Transactional(readOnly = true)
   public List<CategoryDto> findAllCategories() {
     List<CategoryDto> categories = categoryRepository.findAll().stream().map(categoryEntity -> categoryMapper.mapTo(categoryEntity)).toList();
     return categories;
   }
+
+  /**
+   * Suggests quiz titles and categories matching what the user has typed so far.
+   * @param prefix The text typed so far.
+   * @param limit The maximum amount of suggestions.
+   * @return The most popular suggestions, most popular first.
+   */
+  @Override
+  public List<SuggestionDto> suggest(String prefix, int limit) {
+    QuizSearchEvent event = new QuizSearchEvent();
+    event.begin();
+    List<SuggestionDto> suggestions = quizSuggestionIndex.suggest(prefix, limit);
+    event.end();
+    if (event.shouldCommit()) {
+      event.kind = "suggest";
+      event.queryLength = prefix == null ? 0 : prefix.length();
+      event.hits = suggestions.size();
+      event.commit();
+    }
+    return suggestions;
+  }
+
+  /**
+   * Finds the quizzes most similar to a quiz, from the precomputed recommendations.
+   * @param quizId The id of the quiz.
+   * @param limit The maximum amount of quizzes.
+   * @return The most similar quizzes, most similar first.
+   */
+  @Override
+  public List<RecommendationDto> findSimilarQuizzes(String quizId, int limit) {
+    return quizRecommender.similar(findQuizEntityById(quizId).getQuizId(), limit);
+  }
+
+  /**
+   * Finds the quizzes that are trending right now, from their recent views and attempts.
+   * @param limit The maximum amount of quizzes.
+   * @return The trending quizzes, most trending first.
+   */
+  @Override
+  public List<TrendingQuizDto> findTrendingQuizzes(int limit) {
+    return trendingQuizzes.trending(limit);
+  }
+
+  /**
+   * Reports the size and estimated memory use of the suggestion index.
+   * @return The statistics of the suggestion index.
+   */
+  @Override
+  public SuggestionIndexStatsDto getSuggestionIndexStats() {
+    return quizSuggestionIndex.stats();
+  }
+
+  /**
+   * Finds the names of the categories a quiz belongs to.
+   * @param quizEntity The quiz.
+   * @return The category names, empty if the quiz has no categories.
+   */
+  private static Set<String> usernames(List<UserEntity> userEntities) {
+    if (userEntities == null) {
+      return Set.of();
+    }
+    return userEntities.stream().map(UserEntity::getUsername).collect(Collectors.toSet());
+  }
+
+  private static List<String> categoryNames(QuizEntity quizEntity) {
+    if (quizEntity.getCategories() == null) {
+      return List.of();
+    }
+    return quizEntity.getCategories().stream().map(CategoryEntity::getCategoryName).toList();
+  }
 }
@@ -0,0 +1,272 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.services.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.ntnu.fullstack.prosjekt.quizzer.cache.QuizSnapshot;
+import edu.ntnu.fullstack.prosjekt.quizzer.cache.QuizSnapshotCache;
+import edu.ntnu.fullstack.prosjekt.quizzer.datasource.PrimaryReads;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.QuestionDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.QuizDetailsDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.entities.QuizEntity;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.entities.QuizVersionEntity;
+import edu.ntnu.fullstack.prosjekt.quizzer.grading.ShortAnswerTolerance;
+import edu.ntnu.fullstack.prosjekt.quizzer.mappers.Mapper;
+import edu.ntnu.fullstack.prosjekt.quizzer.repositories.QuizRepository;
+import edu.ntnu.fullstack.prosjekt.quizzer.repositories.QuizVersionRepository;
+import edu.ntnu.fullstack.prosjekt.quizzer.services.QuestionService;
+import edu.ntnu.fullstack.prosjekt.quizzer.services.QuizVersionService;
+import jakarta.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.Map;
+import lombok.extern.java.Log;
+import org.hibernate.query.NativeQuery;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * A class implementing the methods specified in its interface.
+ * A version stores the quiz and its questions as the same JSON the quiz is served as, including
+ * the correct answers, so the answer key of a version can be compiled from that one row.
+ * Publishing locks the row of the quiz, so concurrent edits are numbered one after the other,
+ * and the unique version numbers per quiz only guard against overwriting a version.
+ * The newest version number is read from the primary, since it is cached.
+ * Image links are the one part of a version that may be rewritten, when the images are copied
+ * to the image store, since the images they point to stay the same.
+ */
+@Service
+@Log
+public class QuizVersionServiceImpl implements QuizVersionService {
+
+  /**
+   * Used for Dependency Injection.
+   */
+  private final QuizVersionRepository quizVersionRepository;
+
+  private final QuizRepository quizRepository;
+
+  private final QuestionService questionService;
+
+  private final Mapper<QuizEntity, QuizDetailsDto> quizMapper;
+
+  private final ObjectMapper objectMapper;
+
+  private final QuizSnapshotCache quizSnapshotCache;
+
+  private final PrimaryReads primaryReads;
+
+  private final TransactionTemplate transactionTemplate;
+
+  private final ShortAnswerTolerance shortAnswerTolerance;
+
+  private final EntityManager entityManager;
+
+  /**
+   * Used for Dependency Injection.
+   *
+   * @param quizVersionRepository The injected QuizVersionRepository object.
+   * @param quizRepository The injected QuizRepository object.
+   * @param questionService The injected QuestionService object.
+   * @param quizMapper The injected quiz Mapper object.
+   * @param objectMapper The injected ObjectMapper object.
+   * @param quizSnapshotCache The injected QuizSnapshotCache object.
+   * @param primaryReads The injected PrimaryReads object.
+   * @param transactionManager The transaction manager first versions of older quizzes are saved in.
+   * @param maxEdits The most typos accepted in answers to short-answer questions.
+   * @param charactersPerEdit The length of correct answer needed for each accepted typo.
+   * @param entityManager The injected EntityManager object.
+   */
+  public QuizVersionServiceImpl(QuizVersionRepository quizVersionRepository, QuizRepository quizRepository,
+                                QuestionService questionService, Mapper<QuizEntity, QuizDetailsDto> quizMapper,
+                                ObjectMapper objectMapper, QuizSnapshotCache quizSnapshotCache,
+                                PrimaryReads primaryReads, PlatformTransactionManager transactionManager,
+                                @Value("${quizzer.grading.short-answer.max-edits:2}") int maxEdits,
+                                @Value("${quizzer.grading.short-answer.characters-per-edit:4}") int charactersPerEdit,
+                                EntityManager entityManager) {
+    this.quizVersionRepository = quizVersionRepository;
+    this.quizRepository = quizRepository;
+    this.questionService = questionService;
+    this.quizMapper = quizMapper;
+    this.objectMapper = objectMapper;
+    this.quizSnapshotCache = quizSnapshotCache;
+    this.primaryReads = primaryReads;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    this.shortAnswerTolerance = new ShortAnswerTolerance(maxEdits, charactersPerEdit);
+    this.entityManager = entityManager;
+  }
+
+  /**
+   * Stores the current state of a quiz and its questions as its next version.
+   *
+   * @param quizEntity The quiz, with its questions.
+   * @return The stored version.
+   */
+  @Override
+  public QuizVersionEntity publish(QuizEntity quizEntity) {
+    // Questions added to the quiz only get their ids once flushed, and the version needs them.
+    quizVersionRepository.flush();
+    quizRepository.lockById(quizEntity.getQuizId());
+    Integer latest = quizVersionRepository.findLatestNumberForUpdate(quizEntity.getQuizId());
+    int number = latest == null ? 1 : latest + 1;
+    QuizDetailsDto quizDetailsDto = quizMapper.mapTo(quizEntity);
+    quizDetailsDto.setQuestions(questionService.mapToDtos(quizEntity.getQuestions()));
+    quizDetailsDto.setVersion(number);
+    String content = write(quizDetailsDto);
+    QuizVersionEntity saved = quizVersionRepository.save(
+            new QuizVersionEntity(null, quizEntity, number, content, LocalDateTime.now()));
+    quizSnapshotCache.evict(quizEntity.getQuizId());
+    log.info("Published version " + number + " of quiz " + quizEntity.getQuizId());
+    return saved;
+  }
+
+  /**
+   * Finds the number of the newest version of a quiz, publishing the first version of quizzes
+   * stored before versions existed.
+   *
+   * @param quizId The id of the quiz.
+   * @return The newest version number.
+   */
+  @Override
+  public int findCurrentVersion(Long quizId) {
+    return quizSnapshotCache.currentVersion(quizId, id -> {
+      Integer latest = primaryReads.read(() -> quizVersionRepository.findLatestNumber(id));
+      return latest != null ? latest : publishFirstVersion(id);
+    });
+  }
+
+  /**
+   * Finds the cached snapshot of a version of a quiz, compiling it from the stored version the
+   * first time it is asked for.
+   *
+   * @param quizId The id of the quiz.
+   * @param version The version number, or null for the newest version.
+   * @return The snapshot of the version.
+   */
+  @Override
+  public QuizSnapshot findSnapshot(Long quizId, Integer version) {
+    int number = version != null ? version : findCurrentVersion(quizId);
+    return quizSnapshotCache.get(quizId, number, key -> {
+      QuizVersionEntity quizVersionEntity = findVersionEntity(key.quizId(), key.version());
+      return QuizSnapshot.of(read(quizVersionEntity), quizVersionEntity.getVersionId(), shortAnswerTolerance);
+    });
+  }
+
+  /**
+   * Finds a version of a quiz as it was published.
+   *
+   * @param quizId The id of the quiz.
+   * @param version The version number.
+   * @return The quiz and its questions, as they were in the version.
+   */
+  @Override
+  public QuizDetailsDto findVersion(Long quizId, Integer version) {
+    return read(findVersionEntity(quizId, version));
+  }
+
+  /**
+   * Points the image links of the newest version of a quiz to copies of the same images. The
+   * row is updated without Hibernate evicting every cached version, and only this version is
+   * evicted, again once the transaction commits.
+   *
+   * @param quizId The id of the quiz.
+   * @param links The new link of each replaced link.
+   */
+  @Override
+  public void replaceImageLinks(Long quizId, Map<String, String> links) {
+    quizRepository.lockById(quizId);
+    Integer latest = quizVersionRepository.findLatestNumberForUpdate(quizId);
+    if (latest == null) {
+      return;
+    }
+    quizVersionRepository.findByQuizQuizIdAndNumber(quizId, latest).ifPresent(quizVersionEntity -> {
+      QuizDetailsDto quizDetailsDto = read(quizVersionEntity);
+      quizDetailsDto.setImageLink(relink(links, quizDetailsDto.getImageLink()));
+      for (QuestionDto questionDto : quizDetailsDto.getQuestions()) {
+        questionDto.setImageLink(relink(links, questionDto.getImageLink()));
+      }
+      Long versionId = quizVersionEntity.getVersionId();
+      entityManager.createNativeQuery("UPDATE quiz_versions SET content = :content WHERE version_id = :versionId")
+              .unwrap(NativeQuery.class)
+              .addSynchronizedQuerySpace("quiz_version_links")
+              .setParameter("content", write(quizDetailsDto))
+              .setParameter("versionId", versionId)
+              .executeUpdate();
+      entityManager.detach(quizVersionEntity);
+      evictVersion(versionId);
+      if (TransactionSynchronizationManager.isSynchronizationActive()) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+          @Override
+          public void afterCommit() {
+            evictVersion(versionId);
+          }
+        });
+      }
+      quizSnapshotCache.remove(quizId);
+    });
+  }
+
+  /**
+   * Forgets the snapshots of every version of a deleted quiz.
+   *
+   * @param quizId The id of the quiz.
+   */
+  @Override
+  public void forgetVersions(Long quizId) {
+    quizSnapshotCache.remove(quizId);
+  }
+
+  private int publishFirstVersion(Long quizId) {
+    return transactionTemplate.execute(status -> {
+      // Another request may be publishing the first version, and holds the lock until it has.
+      if (quizRepository.lockById(quizId) == null) {
+        throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+      }
+      Integer latest = quizVersionRepository.findLatestNumberForUpdate(quizId);
+      if (latest != null) {
+        return latest;
+      }
+      QuizEntity quizEntity = quizRepository.findById(quizId)
+              .filter(quiz -> !quiz.isDeleted())
+              .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+      return publish(quizEntity).getNumber();
+    });
+  }
+
+  private QuizVersionEntity findVersionEntity(Long quizId, Integer version) {
+    return quizVersionRepository.findByQuizQuizIdAndNumber(quizId, version)
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+  }
+
+  private static String relink(Map<String, String> links, String link) {
+    return link == null ? null : links.getOrDefault(link, link);
+  }
+
+  private void evictVersion(Long versionId) {
+    entityManager.getEntityManagerFactory().getCache().evict(QuizVersionEntity.class, versionId);
+  }
+
+  private String write(QuizDetailsDto quizDetailsDto) {
+    try {
+      return objectMapper.writeValueAsString(quizDetailsDto);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Could not store version " + quizDetailsDto.getVersion() + " of quiz "
+              + quizDetailsDto.getQuizId(), e);
+    }
+  }
+
+  private QuizDetailsDto read(QuizVersionEntity quizVersionEntity) {
+    try {
+      return objectMapper.readValue(quizVersionEntity.getContent(), QuizDetailsDto.class);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Could not read version " + quizVersionEntity.getNumber()
+              + " of quiz " + quizVersionEntity.getQuiz().getQuizId(), e);
+    }
+  }
+}
@@ -1,24 +1,37 @@
 package edu.ntnu.fullstack.prosjekt.quizzer.services.impl;
 
+import edu.ntnu.fullstack.prosjekt.quizzer.cache.ResourceVersions;
 import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.LoginDto;
 import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.QuizAttemptDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.RecommendationDto;
 import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.SavedQuizAttemptDto;
 import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.UserDto;
 import edu.ntnu.fullstack.prosjekt.quizzer.domain.entities.QuizAttemptEntity;
 import edu.ntnu.fullstack.prosjekt.quizzer.domain.entities.UserEntity;
 import edu.ntnu.fullstack.prosjekt.quizzer.mappers.Mapper;
+import edu.ntnu.fullstack.prosjekt.quizzer.recommend.QuizRecommender;
 import edu.ntnu.fullstack.prosjekt.quizzer.repositories.AttemptRepository;
 import edu.ntnu.fullstack.prosjekt.quizzer.repositories.UserRepository;
+import edu.ntnu.fullstack.prosjekt.quizzer.search.UserSearchIndex;
 import edu.ntnu.fullstack.prosjekt.quizzer.services.UserService;
+import edu.ntnu.fullstack.prosjekt.quizzer.timing.RequestTiming;
 import lombok.extern.java.Log;
 import org.modelmapper.ModelMapper;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * A class implementing the methods specified in its interface.
@@ -48,20 +61,42 @@ public class UserServiceImpl implements UserService {
    */
   private PasswordEncoder passwordEncoder;
 
+  /**
+   * Used for Dependency Injection.
+   */
+  private UserSearchIndex userSearchIndex;
+
+  /**
+   * Used for Dependency Injection.
+   */
+  private ResourceVersions resourceVersions;
+
+  /**
+   * Used for Dependency Injection.
+   */
+  private QuizRecommender quizRecommender;
+
   /**
    * Used for Dependency Injection.
    *
    * @param userRepository  The injected UserRepository object.
    * @param passwordEncoder The injected PasswordEncoder object,
    *                        used for salting and hashing passwords.
+   * @param userSearchIndex The injected UserSearchIndex object.
+   * @param resourceVersions The injected ResourceVersions object.
+   * @param quizRecommender The injected QuizRecommender object.
    */
   public UserServiceImpl(UserRepository userRepository,
                          Mapper<UserEntity, UserDto> userMapper, PasswordEncoder passwordEncoder,
-                         AttemptRepository attemptRepository) {
+                         AttemptRepository attemptRepository, UserSearchIndex userSearchIndex,
+                         ResourceVersions resourceVersions, QuizRecommender quizRecommender) {
     this.userRepository = userRepository;
     this.userMapper = userMapper;
     this.passwordEncoder = passwordEncoder;
     this.attemptRepository = attemptRepository;
+    this.userSearchIndex = userSearchIndex;
+    this.resourceVersions = resourceVersions;
+    this.quizRecommender = quizRecommender;
   }
 
 
@@ -98,6 +133,7 @@ public class UserServiceImpl implements UserService {
       String hashedPassword = passwordEncoder.encode(userEntity.getPassword());
       userEntity.setPassword(hashedPassword);
       UserEntity savedUserEntity = userRepository.save(userEntity);
+      userSearchIndex.index(savedUserEntity);
       return userMapper.mapTo(savedUserEntity);
     }
     throw new IllegalArgumentException("User already exists");
@@ -122,12 +158,9 @@ public class UserServiceImpl implements UserService {
    * @return A Dto representing the found user.
    */
   @Override
+  @Transactional(readOnly = true)
   public UserDto findDtoByUsername(String username) {
-    if (userRepository.findById(username).isPresent()) {
-      UserEntity foundUserEntity = userRepository.findById(username).get();
-      return userMapper.mapTo(foundUserEntity);
-    }
-    return null;
+    return userRepository.findById(username).map(userMapper::mapTo).orElse(null);
   }
 
   /**
@@ -138,24 +171,35 @@ public class UserServiceImpl implements UserService {
    */
   @Override
   public UserEntity findEntityByUsername(String username) {
-    if (userRepository.findById(username).isPresent()) {
-      return userRepository.findById(username).get();
-    }
-    return null;
+    return userRepository.findById(username).orElse(null);
   }
 
   /**
    * Searches for users based on a search query.
+   * Matching and ranking is done by the in-memory trigram index, so only the users on the
+   * requested page are loaded from the database, by primary key.
    *
    * @param searchQuery The search query.
-   * @param pageable    The pageable object.
-   * @return A page of users.
+   * @param pageable    The pageable object. Sorting is ignored, as results are ranked.
+   * @return A page of users, best match first.
    */
   @Override
+  @Transactional(readOnly = true)
   public Page<UserDto> searchUsers(String searchQuery, Pageable pageable) {
-    Page<UserEntity> users = userRepository.findAllByUsernameContainingIgnoreCaseOrFullNameContainingIgnoreCase(searchQuery, searchQuery, pageable);
-    ModelMapper mapper = new ModelMapper();
-    return users.map(obj -> mapper.map(obj, UserDto.class));
+    if (searchQuery == null || searchQuery.isBlank()) {
+      return userRepository.findAll(pageable).map(userMapper::mapTo);
+    }
+    long offset = pageable.isPaged() ? pageable.getOffset() : 0;
+    int limit = pageable.isPaged() ? pageable.getPageSize() : Integer.MAX_VALUE;
+    UserSearchIndex.Result result = userSearchIndex.search(searchQuery, offset, limit);
+    Map<String, UserEntity> users = userRepository.findAllById(result.usernames()).stream()
+            .collect(Collectors.toMap(UserEntity::getUsername, Function.identity()));
+    List<UserDto> content = result.usernames().stream()
+            .map(users::get)
+            .filter(Objects::nonNull)
+            .map(userMapper::mapTo)
+            .toList();
+    return new PageImpl<>(content, pageable, result.total());
   }
 
   /**
@@ -170,6 +214,7 @@ public class UserServiceImpl implements UserService {
         .orElseThrow(() -> new RuntimeException("User not found"));
     user.setEmail(newEmail);
     userRepository.save(user);
+    resourceVersions.everythingChanged();
   }
 
   /**
@@ -184,6 +229,8 @@ public class UserServiceImpl implements UserService {
         .orElseThrow(() -> new RuntimeException("User not found"));
     user.setFullName(newFullName);
     userRepository.save(user);
+    userSearchIndex.index(user);
+    resourceVersions.everythingChanged();
   }
 
   /**
@@ -203,18 +250,39 @@ public class UserServiceImpl implements UserService {
 
     /**
      * Finds quiz attempts based on a user.
+     * Unsorted pages are ordered by id, which the attempt history index of the user is sorted by.
      *
      * @param username the username of the user.
      * @param pageable the pageable object.
      * @return a page of attempts.
      */
   @Override
+  @Transactional(readOnly = true)
   public Page<SavedQuizAttemptDto> findAttemptsByUser(String username, Pageable pageable) {
     UserEntity userEntity = findEntityByUsername(username);
-    Page<QuizAttemptEntity> quizAttemptEntities = attemptRepository.findQuizAttemptEntitiesByUser(userEntity, pageable);
+    if (pageable.isPaged()) {
+      pageable = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(),
+              pageable.getSortOr(Sort.by("attemptId")));
+    }
+    Page<QuizAttemptEntity> quizAttemptEntities = attemptRepository.findQuizAttemptEntitiesByUserAndQuizDeletedFalse(userEntity, pageable);
     return quizAttemptEntities.map(quizAttemptEntity -> {
+      long start = RequestTiming.start();
       SavedQuizAttemptDto quizAttemptDto = new ModelMapper().map(quizAttemptEntity, SavedQuizAttemptDto.class);
+      RequestTiming.stop(RequestTiming.Phase.MAPPING, start);
       return quizAttemptDto;
     });
   }
+
+  /**
+   * Recommends quizzes to a user from the precomputed recommendations, leaving out the quizzes
+   * the user has already attempted.
+   *
+   * @param username The user to recommend quizzes to.
+   * @param limit The maximum amount of quizzes.
+   * @return The recommended quizzes, most recommended first.
+   */
+  @Override
+  public List<RecommendationDto> findRecommendedQuizzes(String username, int limit) {
+    return quizRecommender.recommend(username, limit);
+  }
 }
@@ -0,0 +1,184 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.timing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Time and counts spent in each phase of the request handled on the current thread, reported
+ * in the Server-Timing header by {@link ServerTimingFilter}.
+ * Instrumented code calls {@link #start()} and {@link #stop(Phase, long)} around a phase. Outside
+ * a timed request, or with the filter turned off, that is one thread-local lookup and nothing
+ * else. Phases can overlap, such as statements run while a lazy collection is mapped, which are
+ * counted both as database and as mapping time.
+ */
+public final class RequestTiming {
+
+  /**
+   * Value returned by {@link #start()} outside a timed request.
+   */
+  public static final long OFF = Long.MIN_VALUE;
+
+  /**
+   * A phase of a request, named as in the Server-Timing header.
+   */
+  public enum Phase {
+    AUTH("auth", "JWT verification"),
+    DB("db", "SQL statements"),
+    MAPPING("map", "Mapping"),
+    ALTERNATIVES("alt", "Alternatives parsing"),
+    SERIALIZATION("json", "Response serialization");
+
+    private final String metric;
+
+    private final String description;
+
+    Phase(String metric, String description) {
+      this.metric = metric;
+      this.description = description;
+    }
+  }
+
+  private static final ThreadLocal<RequestTiming> CURRENT = new ThreadLocal<>();
+
+  private final long startedAt = System.nanoTime();
+
+  private final long[] nanos = new long[Phase.values().length];
+
+  private final int[] counts = new int[Phase.values().length];
+
+  private final List<String> statements = new ArrayList<>();
+
+  private final int maxStatements;
+
+  private long serializationStartedAt = OFF;
+
+  private RequestTiming(int maxStatements) {
+    this.maxStatements = maxStatements;
+  }
+
+  /**
+   * Starts timing the request handled on the current thread.
+   *
+   * @param maxStatements The most SQL statements kept for the slow request log.
+   * @return The timing of the request.
+   */
+  static RequestTiming begin(int maxStatements) {
+    RequestTiming timing = new RequestTiming(maxStatements);
+    CURRENT.set(timing);
+    return timing;
+  }
+
+  /**
+   * Stops timing on the current thread.
+   */
+  static void end() {
+    CURRENT.remove();
+  }
+
+  /**
+   * Starts a phase.
+   *
+   * @return The start of the phase, to pass to {@link #stop(Phase, long)}, or {@link #OFF}
+   *         when the request is not timed.
+   */
+  public static long start() {
+    return CURRENT.get() == null ? OFF : System.nanoTime();
+  }
+
+  /**
+   * Ends a phase, adding its time and counting it once.
+   *
+   * @param phase The phase.
+   * @param start The value returned by {@link #start()}.
+   */
+  public static void stop(Phase phase, long start) {
+    if (start == OFF) {
+      return;
+    }
+    RequestTiming timing = CURRENT.get();
+    if (timing != null) {
+      timing.nanos[phase.ordinal()] += System.nanoTime() - start;
+      timing.counts[phase.ordinal()]++;
+    }
+  }
+
+  /**
+   * Keeps an SQL statement prepared for the current request, for the slow request log.
+   *
+   * @param sql The statement.
+   */
+  static void statement(String sql) {
+    RequestTiming timing = CURRENT.get();
+    if (timing != null && timing.statements.size() < timing.maxStatements) {
+      timing.statements.add(sql);
+    }
+  }
+
+  /**
+   * Marks the start of writing the response body. Serialization lasts until the body has been
+   * written, which for bodies larger than the response buffer is after the response is committed.
+   */
+  static void startSerialization() {
+    RequestTiming timing = CURRENT.get();
+    if (timing != null && timing.serializationStartedAt == OFF) {
+      timing.serializationStartedAt = System.nanoTime();
+    }
+  }
+
+  /**
+   * Ends the serialization phase, if it was started.
+   */
+  void finishSerialization() {
+    if (serializationStartedAt != OFF) {
+      nanos[Phase.SERIALIZATION.ordinal()] += System.nanoTime() - serializationStartedAt;
+      counts[Phase.SERIALIZATION.ordinal()]++;
+      serializationStartedAt = OFF;
+    }
+  }
+
+  /**
+   * Tells whether the response body is still being written.
+   *
+   * @return True if serialization has started and not finished.
+   */
+  boolean serializing() {
+    return serializationStartedAt != OFF;
+  }
+
+  long elapsedNanos() {
+    return System.nanoTime() - startedAt;
+  }
+
+  List<String> statements() {
+    return statements;
+  }
+
+  /**
+   * Formats the phases that were entered, and the total time so far, as a Server-Timing header.
+   * A body still being written counts with its time so far.
+   *
+   * @return The header value, such as: db;desc="SQL statements (3)";dur=4.2, total;dur=9.8
+   */
+  String header() {
+    StringBuilder header = new StringBuilder();
+    long now = System.nanoTime();
+    for (Phase phase : Phase.values()) {
+      int count = counts[phase.ordinal()];
+      long phaseNanos = nanos[phase.ordinal()];
+      if (phase == Phase.SERIALIZATION && serializing()) {
+        count++;
+        phaseNanos += now - serializationStartedAt;
+      }
+      if (count > 0) {
+        header.append(phase.metric).append(";desc=\"").append(phase.description).append(" (").append(count)
+                .append(")\";dur=").append(millis(phaseNanos)).append(", ");
+      }
+    }
+    return header.append("total;dur=").append(millis(now - startedAt)).toString();
+  }
+
+  private static String millis(long nanos) {
+    return String.format(Locale.ROOT, "%.2f", nanos / 1_000_000.0);
+  }
+}
@@ -0,0 +1,107 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.timing;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import lombok.extern.java.Log;
+import org.springframework.security.web.util.OnCommittedResponseWrapper;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Times the phases of every request and sends them in a Server-Timing header.
+ * The header is added just before the response is committed, so bodies are never buffered to
+ * make room for it. A body larger than the response buffer is committed before it has been
+ * written, so the header only has its serialization time so far, and the complete timing is
+ * sent again as a trailer, where the connection supports trailers. Requests slower than the
+ * threshold are logged with their complete phases and SQL statements, for a sample of them, so a
+ * burst of slow requests does not flood the log.
+ */
+@Log
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+  /**
+   * The name of the header.
+   */
+  public static final String SERVER_TIMING = "Server-Timing";
+
+  private final long slowNanos;
+
+  private final double slowSampleRate;
+
+  private final int maxStatements;
+
+  /**
+   * Creates the filter.
+   *
+   * @param slowMillis     Requests taking at least this long are logged.
+   * @param slowSampleRate The share of the slow requests that are logged, from 0 to 1.
+   * @param maxStatements  The most SQL statements logged per request.
+   */
+  public ServerTimingFilter(long slowMillis, double slowSampleRate, int maxStatements) {
+    this.slowNanos = slowMillis * 1_000_000;
+    this.slowSampleRate = slowSampleRate;
+    this.maxStatements = maxStatements;
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                  FilterChain filterChain) throws ServletException, IOException {
+    RequestTiming timing = RequestTiming.begin(maxStatements);
+    TimedResponse timedResponse = new TimedResponse(response, timing);
+    try {
+      filterChain.doFilter(request, timedResponse);
+    } finally {
+      timing.finishSerialization();
+      RequestTiming.end();
+      if (!response.isCommitted()) {
+        timedResponse.addTimingHeader();
+      }
+    }
+    long elapsed = timing.elapsedNanos();
+    if (elapsed >= slowNanos && ThreadLocalRandom.current().nextDouble() < slowSampleRate) {
+      log.warning(String.format("Slow request %s %s answered %d after %d ms: %s%n  %s", request.getMethod(),
+              request.getRequestURI(), response.getStatus(), elapsed / 1_000_000, timing.header(),
+              String.join(System.lineSeparator() + "  ", timing.statements())));
+    }
+  }
+
+  /**
+   * Adds the Server-Timing header when the response is about to be committed.
+   */
+  private static final class TimedResponse extends OnCommittedResponseWrapper {
+
+    private final RequestTiming timing;
+
+    private boolean timingAdded;
+
+    TimedResponse(HttpServletResponse response, RequestTiming timing) {
+      super(response);
+      this.timing = timing;
+    }
+
+    @Override
+    protected void onResponseCommitted() {
+      addTimingHeader();
+    }
+
+    void addTimingHeader() {
+      if (!timingAdded) {
+        timingAdded = true;
+        HttpServletResponse response = (HttpServletResponse) getResponse();
+        response.setHeader(SERVER_TIMING, timing.header());
+        if (timing.serializing()) {
+          try {
+            response.setTrailerFields(() -> Map.of(SERVER_TIMING, timing.header()));
+            response.setHeader("Trailer", SERVER_TIMING);
+          } catch (IllegalStateException e) {
+            // The connection has no trailers, such as HTTP/1.0 or a response of known length.
+          }
+        }
+      }
+    }
+  }
+}
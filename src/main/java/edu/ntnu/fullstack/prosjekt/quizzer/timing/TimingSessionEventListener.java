@@ -0,0 +1,36 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.timing;
+
+import org.hibernate.SessionEventListener;
+
+/**
+ * Adds the time Hibernate spends executing SQL statements and batches to the timed request.
+ * Hibernate creates one listener per session, so a listener is never used by two threads at once.
+ */
+public class TimingSessionEventListener implements SessionEventListener {
+
+  private static final long serialVersionUID = 1L;
+
+  private transient long start = RequestTiming.OFF;
+
+  @Override
+  public void jdbcExecuteStatementStart() {
+    start = RequestTiming.start();
+  }
+
+  @Override
+  public void jdbcExecuteStatementEnd() {
+    RequestTiming.stop(RequestTiming.Phase.DB, start);
+    start = RequestTiming.OFF;
+  }
+
+  @Override
+  public void jdbcExecuteBatchStart() {
+    start = RequestTiming.start();
+  }
+
+  @Override
+  public void jdbcExecuteBatchEnd() {
+    RequestTiming.stop(RequestTiming.Phase.DB, start);
+    start = RequestTiming.OFF;
+  }
+}
@@ -0,0 +1,29 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.timing;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Keeps the SQL statements prepared for the timed request, for the slow request log, and then
+ * hands them to the inspector that was configured before, if any.
+ */
+public class TimingStatementInspector implements StatementInspector {
+
+  private static final long serialVersionUID = 1L;
+
+  private final StatementInspector delegate;
+
+  /**
+   * Creates the inspector.
+   *
+   * @param delegate The inspector that was configured before, or null.
+   */
+  public TimingStatementInspector(StatementInspector delegate) {
+    this.delegate = delegate;
+  }
+
+  @Override
+  public String inspect(String sql) {
+    RequestTiming.statement(sql);
+    return delegate == null ? sql : delegate.inspect(sql);
+  }
+}
@@ -0,0 +1,17 @@
+-- Categories of a quiz were mapped from both sides, as two unrelated join tables.
+insert into quizzes_categories (quiz_entity_quiz_id, categories_category_name)
+select link.quizzes_quiz_id, link.category_entity_category_name
+from categories_quizzes link
+where not exists (select 1 from quizzes_categories existing
+                  where existing.quiz_entity_quiz_id = link.quizzes_quiz_id
+                    and existing.categories_category_name = link.category_entity_category_name);
+
+drop table categories_quizzes;
+
+create index idx_questions_quiz_position on questions (quiz_id, position);
+
+create index idx_attempts_user_history on quiz_attempt_entity (user_username, attempt_id, score, duration, quiz_quiz_id);
+
+create index idx_quiz_categories_category on quizzes_categories (categories_category_name, quiz_entity_quiz_id);
+
+create index idx_quiz_collaborators_quiz on quizzes_collaborators (quiz_entity_quiz_id, collaborators_username);
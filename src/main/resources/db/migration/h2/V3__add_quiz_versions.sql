@@ -0,0 +1,23 @@
+-- Immutable, numbered versions of quizzes, and the version each attempt was graded against.
+-- Attempts made before versions existed keep no version.
+
+create sequence quiz_version_id_seq start with 1 increment by 50;
+
+create table quiz_versions (
+    version_id bigint not null,
+    quiz_id bigint not null,
+    version_number integer not null,
+    content longtext,
+    created_at timestamp(6),
+    primary key (version_id),
+    constraint uk_quiz_versions_quiz_number unique (quiz_id, version_number),
+    constraint fk_quiz_versions_quiz foreign key (quiz_id) references quizzes (quiz_id)
+);
+
+alter table quiz_attempt_entity add column version_version_id bigint;
+alter table quiz_attempt_entity add constraint fk_attempts_version
+    foreign key (version_version_id) references quiz_versions (version_id);
+
+-- The attempt history is still answered from the index alone, now including the version.
+drop index idx_attempts_user_history;
+create index idx_attempts_user_history on quiz_attempt_entity (user_username, attempt_id, score, duration, quiz_quiz_id, version_version_id);
@@ -0,0 +1,5 @@
+-- Deleted quizzes are only marked, and purged in the background.
+alter table quizzes add column deleted boolean default false not null;
+
+-- Pages and counts of live quizzes are read from this index, as is the purger's sweep.
+create index idx_quizzes_live on quizzes (deleted, quiz_id);
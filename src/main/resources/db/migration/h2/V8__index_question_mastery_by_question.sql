@@ -0,0 +1,3 @@
+-- Finds the mastery of a question across users, so it can be deleted along with the question.
+
+create index idx_question_mastery_question on question_mastery (question_id);
@@ -0,0 +1,89 @@
+-- Schema as created by Hibernate before migrations were introduced.
+-- Databases created that way are baselined at this version, and only run the later migrations.
+
+create table attempt_id_seq (
+    next_val bigint
+) engine=InnoDB;
+
+insert into attempt_id_seq values (1);
+
+create table question_id_seq (
+    next_val bigint
+) engine=InnoDB;
+
+insert into question_id_seq values (1);
+
+create table quiz_id_seq (
+    next_val bigint
+) engine=InnoDB;
+
+insert into quiz_id_seq values (1);
+
+create table users (
+    username varchar(255) not null,
+    email varchar(255),
+    full_name varchar(255),
+    password varchar(255),
+    primary key (username)
+) engine=InnoDB;
+
+create table categories (
+    category_name varchar(255) not null,
+    primary key (category_name)
+) engine=InnoDB;
+
+create table quizzes (
+    quiz_id bigint not null,
+    description varchar(255),
+    image_link varchar(255),
+    title varchar(255),
+    username varchar(255),
+    primary key (quiz_id),
+    constraint FK341beywgyl39plgar95elvq04 foreign key (username) references users (username)
+) engine=InnoDB;
+
+create table categories_quizzes (
+    quizzes_quiz_id bigint not null,
+    category_entity_category_name varchar(255) not null,
+    primary key (quizzes_quiz_id, category_entity_category_name),
+    constraint FK88fyfmek1cu9f9sbng20ehwc8 foreign key (quizzes_quiz_id) references quizzes (quiz_id),
+    constraint FKjiwc0v1ydkbtasc3nhjveiai7 foreign key (category_entity_category_name) references categories (category_name)
+) engine=InnoDB;
+
+create table quizzes_categories (
+    quiz_entity_quiz_id bigint not null,
+    categories_category_name varchar(255) not null,
+    primary key (quiz_entity_quiz_id, categories_category_name),
+    constraint FK24r8rc7xsb5b3wqs5h7uhbxfn foreign key (quiz_entity_quiz_id) references quizzes (quiz_id),
+    constraint FKcrshdrgulipwsh52mqhdude11 foreign key (categories_category_name) references categories (category_name)
+) engine=InnoDB;
+
+create table quizzes_collaborators (
+    quiz_entity_quiz_id bigint not null,
+    collaborators_username varchar(255) not null,
+    constraint FKc0gdhghyyu18bnc6txlsb1xa1 foreign key (quiz_entity_quiz_id) references quizzes (quiz_id),
+    constraint FKnnp0fh0v473r09cf0cmmjhgbj foreign key (collaborators_username) references users (username)
+) engine=InnoDB;
+
+create table questions (
+    question_id bigint not null,
+    alternatives longtext,
+    image_link varchar(255),
+    label varchar(255),
+    position smallint,
+    type tinyint,
+    quiz_id bigint,
+    primary key (question_id),
+    constraint FKn3gvco4b0kewxc0bywf1igfms foreign key (quiz_id) references quizzes (quiz_id)
+) engine=InnoDB;
+
+create table quiz_attempt_entity (
+    attempt_id bigint not null,
+    duration integer,
+    score integer,
+    quiz_quiz_id bigint,
+    user_username varchar(255),
+    primary key (attempt_id),
+    constraint FKe5nnxlr2syyu98ojs5ucje3o3 foreign key (quiz_quiz_id) references quizzes (quiz_id),
+    constraint FK8m607c8gipi8c51k6rk1xrind foreign key (user_username) references users (username)
+) engine=InnoDB;
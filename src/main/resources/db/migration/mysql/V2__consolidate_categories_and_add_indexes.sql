@@ -0,0 +1,26 @@
+-- Categories of a quiz were mapped from both sides, as two unrelated join tables.
+-- Only quizzes_categories was ever written, but any links in categories_quizzes are kept.
+insert into quizzes_categories (quiz_entity_quiz_id, categories_category_name)
+select link.quizzes_quiz_id, link.category_entity_category_name
+from categories_quizzes link
+where not exists (select 1 from quizzes_categories existing
+                  where existing.quiz_entity_quiz_id = link.quizzes_quiz_id
+                    and existing.categories_category_name = link.category_entity_category_name);
+
+drop table categories_quizzes;
+
+-- Questions of a quiz, in order, and counting them without reading the rows.
+create index idx_questions_quiz_position on questions (quiz_id, position);
+alter table questions drop index FKn3gvco4b0kewxc0bywf1igfms;
+
+-- Attempt history of a user, newest last, answered from the index alone.
+create index idx_attempts_user_history on quiz_attempt_entity (user_username, attempt_id, score, duration, quiz_quiz_id);
+alter table quiz_attempt_entity drop index FK8m607c8gipi8c51k6rk1xrind;
+
+-- Quizzes in a category, for filtering and for removing a category.
+create index idx_quiz_categories_category on quizzes_categories (categories_category_name, quiz_entity_quiz_id);
+alter table quizzes_categories drop index FKcrshdrgulipwsh52mqhdude11;
+
+-- Collaborators of a quiz, answered from the index alone.
+create index idx_quiz_collaborators_quiz on quizzes_collaborators (quiz_entity_quiz_id, collaborators_username);
+alter table quizzes_collaborators drop index FKc0gdhghyyu18bnc6txlsb1xa1;
@@ -0,0 +1,9 @@
+-- Minute buckets of recent views and attempts per quiz, saved now and then so a restart keeps
+-- what is trending. Rows are replaced as a whole, and may outlive their quiz until the next save.
+
+create table quiz_trends (
+    quiz_id bigint not null,
+    newest_minute bigint not null,
+    buckets varbinary(480),
+    primary key (quiz_id)
+) engine=InnoDB;
@@ -0,0 +1,10 @@
+-- How well each user knows each question they have answered, packed into one number, for
+-- spaced-repetition practice. Written in batches from memory, so a row may trail the latest
+-- answers by a few seconds.
+
+create table question_mastery (
+    username varchar(255) not null,
+    question_id bigint not null,
+    state bigint not null,
+    primary key (username, question_id)
+) engine=InnoDB;
@@ -0,0 +1,19 @@
+-- Who may change each quiz, one row per user and quiz. Edits and deletes are authorized from
+-- this table alone, through its primary key, without reading the quiz.
+
+create table quiz_permissions (
+    quiz_id bigint not null,
+    username varchar(255) not null,
+    role varchar(16) not null,
+    primary key (quiz_id, username)
+) engine=InnoDB;
+
+insert into quiz_permissions (quiz_id, username, role)
+select quiz_id, username, 'OWNER' from quizzes where username is not null and deleted = false;
+
+insert into quiz_permissions (quiz_id, username, role)
+select distinct collaborators.quiz_entity_quiz_id, collaborators.collaborators_username, 'COLLABORATOR'
+from quizzes_collaborators collaborators
+join quizzes quiz on quiz.quiz_id = collaborators.quiz_entity_quiz_id
+where quiz.deleted = false
+and (quiz.username is null or quiz.username <> collaborators.collaborators_username);
@@ -0,0 +1,39 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompressedResponseCacheTest {
+
+  private static final byte[] BODY = "{\"title\":\"Shark Quiz\"}".getBytes(StandardCharsets.UTF_8);
+
+  @Test
+  void forgetsTheLeastRecentlyUsedResponse() {
+    CompressedResponseCache cache = new CompressedResponseCache(2, Duration.ofMinutes(1));
+    cache.put("a", "1", Map.of(), BODY);
+    cache.put("b", "1", Map.of(), BODY);
+    assertThat(cache.get("a", "1")).isNotNull();
+
+    cache.put("c", "1", Map.of(), BODY);
+
+    assertThat(cache.get("a", "1")).isNotNull();
+    assertThat(cache.get("b", "1")).isNull();
+    assertThat(cache.get("c", "1")).isNotNull();
+    assertThat(cache.get("c", "2")).isNull();
+  }
+
+  @Test
+  void responsesExpireEvenIfTheVersionNeverChanges() throws InterruptedException {
+    CompressedResponseCache cache = new CompressedResponseCache(10, Duration.ofMillis(50));
+    cache.put("a", "1", Map.of(), BODY);
+    assertThat(cache.get("a", "1")).isNotNull();
+
+    Thread.sleep(100);
+
+    assertThat(cache.get("a", "1")).isNull();
+  }
+}
@@ -0,0 +1,141 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.cache;
+
+import edu.ntnu.fullstack.prosjekt.quizzer.controllerTests.QuizControllerTestDataUtil;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.QuestionAnswersDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.QuestionAttemptDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.QuestionDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.QuizAttemptDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.QuizDetailsDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.enums.QuestionType;
+import edu.ntnu.fullstack.prosjekt.quizzer.grading.ShortAnswerTolerance;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QuizSnapshotTest {
+
+  QuizSnapshot snapshot;
+
+  @BeforeEach
+  void setUp() {
+    QuizDetailsDto quiz = QuizControllerTestDataUtil.createTestDtoQuizA();
+    List<QuestionDto> questions = QuizControllerTestDataUtil.createQuestions();
+    for (int i = 0; i < questions.size(); i++) {
+      questions.get(i).setQuestionId((long) i + 1);
+    }
+    quiz.setQuestions(questions);
+    snapshot = QuizSnapshot.of(quiz);
+  }
+
+  @Test
+  void sameSeedDrawsSameQuestionsInSameOrder() {
+    List<QuestionDto> first = snapshot.sample(2, 42L);
+    List<QuestionDto> second = snapshot.sample(2, 42L);
+
+    assertThat(first).hasSize(2);
+    assertThat(first).extracting(QuestionDto::getQuestionId)
+            .containsExactlyElementsOf(second.stream().map(QuestionDto::getQuestionId).toList());
+    assertThat(first).extracting(QuestionDto::getPosition).containsExactly((short) 0, (short) 1);
+  }
+
+  @Test
+  void sampleHidesCorrectAnswers() {
+    assertThat(snapshot.sample(3, 1L))
+            .flatExtracting(QuestionDto::getAlternatives)
+            .allSatisfy(alternative -> assertThat(alternative.getIsCorrect()).isNull());
+  }
+
+  @Test
+  void gradesByQuestionIdRegardlessOfOrder() {
+    List<QuestionAttemptDto> answers = new ArrayList<>();
+    answers.add(new QuestionAttemptDto(3L, "50", false));
+    answers.add(new QuestionAttemptDto(1L, "120", false));
+    answers.add(new QuestionAttemptDto(2L, "whale shark", false));
+    QuizAttemptDto attempt = new QuizAttemptDto(100, 30, answers, null);
+
+    snapshot.grade(attempt);
+
+    assertThat(attempt.getScore()).isEqualTo(2);
+    assertThat(answers).extracting(QuestionAttemptDto::getAnsweredCorrect).containsExactly(true, false, true);
+  }
+
+  @Test
+  void shortAnswersAreAcceptedWithTyposWhileAlternativesMustMatch() {
+    QuizDetailsDto quiz = QuizControllerTestDataUtil.createTestDtoQuizA();
+    QuestionDto shortAnswer = QuestionDto.builder()
+            .questionId(10L)
+            .label("Which city hosts the Louvre?")
+            .type(QuestionType.SHORT_ANSWER)
+            .alternatives(List.of(new QuestionAnswersDto("Paris", true)))
+            .build();
+    QuestionDto multipleChoice = QuestionDto.builder()
+            .questionId(11L)
+            .label("Largest fish?")
+            .type(QuestionType.MULTIPLE_CHOICE)
+            .alternatives(List.of(new QuestionAnswersDto("Whale Shark", true)))
+            .build();
+    quiz.setQuestions(List.of(shortAnswer, multipleChoice));
+
+    QuizSnapshot fuzzy = QuizSnapshot.of(quiz);
+    assertThat(fuzzy.isCorrect(10L, " paris!")).isTrue();
+    assertThat(fuzzy.isCorrect(10L, "Pariss")).isTrue();
+    assertThat(fuzzy.isCorrect(10L, "Prague")).isFalse();
+    assertThat(fuzzy.isCorrect(11L, "whale shark")).isTrue();
+    assertThat(fuzzy.isCorrect(11L, "Whale Shrak")).isFalse();
+    assertThat(fuzzy.correctAnswers(10L)).containsExactly("Paris");
+
+    QuizSnapshot exact = QuizSnapshot.of(quiz, null, ShortAnswerTolerance.EXACT);
+    assertThat(exact.isCorrect(10L, " paris!")).isTrue();
+    assertThat(exact.isCorrect(10L, "Pariss")).isFalse();
+  }
+
+  @Test
+  void gradesEachQuestionOnceAndDropsUnknownQuestions() {
+    List<QuestionAttemptDto> answers = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      answers.add(new QuestionAttemptDto(3L, "50", false));
+    }
+    answers.add(new QuestionAttemptDto(99L, "50", false));
+    answers.add(new QuestionAttemptDto(2L, "whale shark", false));
+    QuizAttemptDto attempt = new QuizAttemptDto(100, 30, answers, null);
+
+    snapshot.grade(attempt);
+
+    assertThat(attempt.getScore()).isEqualTo(2);
+    assertThat(attempt.getQuestionAttempts()).extracting(QuestionAttemptDto::getQuestionId).containsExactly(3L, 2L);
+  }
+
+  @Test
+  void sampleDrawsTheSameQuestionsAsAFullShuffle() {
+    QuizDetailsDto quiz = QuizControllerTestDataUtil.createTestDtoQuizA();
+    List<QuestionDto> questions = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      questions.add(QuestionDto.builder().questionId((long) i).label("Question " + i).build());
+    }
+    quiz.setQuestions(questions);
+    QuizSnapshot large = QuizSnapshot.of(quiz);
+
+    for (long seed = 0; seed < 50; seed++) {
+      for (int count : new int[] {1, 7, 64, 200}) {
+        int[] order = new int[200];
+        for (int i = 0; i < order.length; i++) {
+          order[i] = i;
+        }
+        SplittableRandom random = new SplittableRandom(seed);
+        List<Long> expected = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+          int j = i + random.nextInt(order.length - i);
+          int picked = order[j];
+          order[j] = order[i];
+          order[i] = picked;
+          expected.add((long) picked);
+        }
+        assertThat(large.sample(count, seed)).extracting(QuestionDto::getQuestionId).containsExactlyElementsOf(expected);
+      }
+    }
+  }
+}
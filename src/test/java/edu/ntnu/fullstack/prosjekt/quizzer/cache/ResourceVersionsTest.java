@@ -0,0 +1,41 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.cache;
+
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResourceVersionsTest {
+
+  @Test
+  void forgottenQuizzesNeverGetAVersionTheyHadBefore() {
+    ResourceVersions resourceVersions = new ResourceVersions();
+    Set<String> seen = new HashSet<>();
+    seen.add(resourceVersions.quizVersion(1L).tag());
+    resourceVersions.quizChanged(1L);
+    seen.add(resourceVersions.quizVersion(1L).tag());
+
+    for (long quizId = 2; quizId <= 20_000; quizId++) {
+      resourceVersions.quizChanged(quizId);
+    }
+
+    assertThat(seen).hasSize(2);
+    assertThat(seen).doesNotContain(resourceVersions.quizVersion(1L).tag());
+    assertThat(resourceVersions.quizVersion(20_000L).tag())
+            .isNotEqualTo(resourceVersions.quizVersion(1L).tag());
+  }
+
+  @Test
+  void changesAreTimed() {
+    ResourceVersions resourceVersions = new ResourceVersions();
+    assertThat(resourceVersions.quizVersion(1L).changedAt()).isZero();
+
+    long before = System.currentTimeMillis();
+    resourceVersions.quizChanged(1L);
+
+    assertThat(resourceVersions.quizVersion(1L).changedAt()).isGreaterThanOrEqualTo(before);
+    assertThat(resourceVersions.catalogVersion().changedAt()).isGreaterThanOrEqualTo(before);
+    assertThat(resourceVersions.quizVersion(2L).changedAt()).isZero();
+  }
+}
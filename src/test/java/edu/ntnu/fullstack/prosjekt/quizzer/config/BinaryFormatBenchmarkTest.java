@@ -0,0 +1,101 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.config;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.CategoryDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.QuestionAnswersDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.QuestionDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.QuizDetailsDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.QuizGeneralDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.UserDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.enums.QuestionType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the payload size and encoding time of JSON, Smile and CBOR on a quiz with many
+ * questions and on a page of quiz summaries. Sizes are asserted, timings are only logged,
+ * since they depend on the machine running the build.
+ */
+class BinaryFormatBenchmarkTest {
+
+  private static final Logger log = Logger.getLogger(BinaryFormatBenchmarkTest.class.getName());
+
+  private static final int ROUNDS = 2_000;
+
+  private final Map<String, ObjectMapper> mappers = Map.of(
+          "json", new ObjectMapper(),
+          "smile", new SmileMapper(),
+          "cbor", new CBORMapper());
+
+  private static QuizDetailsDto largeQuiz() {
+    List<QuestionDto> questions = new ArrayList<>();
+    for (short i = 0; i < 40; i++) {
+      List<QuestionAnswersDto> alternatives = new ArrayList<>();
+      for (int a = 0; a < 4; a++) {
+        alternatives.add(new QuestionAnswersDto("Alternative " + a + " of question " + i, a == 0));
+      }
+      questions.add(new QuestionDto((long) i + 1, "Which of these sharks lives in reef number " + i + "?",
+              null, i, alternatives, "1", QuestionType.MULTIPLE_CHOICE));
+    }
+    QuizDetailsDto quiz = new QuizDetailsDto();
+    quiz.setQuizId(1L);
+    quiz.setTitle("Sharks of the world");
+    quiz.setDescription("Forty questions about sharks, their habitats and their diets.");
+    quiz.setQuestions(questions);
+    quiz.setCategories(List.of(new CategoryDto("Nature", null), new CategoryDto("Animals", null)));
+    return quiz;
+  }
+
+  private static List<QuizGeneralDto> quizPage() {
+    List<QuizGeneralDto> page = new ArrayList<>();
+    for (long i = 0; i < 50; i++) {
+      page.add(new QuizGeneralDto(i, "Quiz number " + i, "A quiz about topic " + i, null, 12,
+              List.of(new CategoryDto("Nature", null)), new UserDto("owner" + i, "Owner " + i, null, null)));
+    }
+    return page;
+  }
+
+  private long[] measure(ObjectMapper mapper, Object value) throws Exception {
+    byte[] encoded = mapper.writeValueAsBytes(value);
+    for (int i = 0; i < ROUNDS; i++) {
+      mapper.writeValueAsBytes(value);
+    }
+    long start = System.nanoTime();
+    for (int i = 0; i < ROUNDS; i++) {
+      mapper.writeValueAsBytes(value);
+    }
+    return new long[]{encoded.length, (System.nanoTime() - start) / ROUNDS};
+  }
+
+  private void compare(String name, Object value, JavaType type) throws Exception {
+    long jsonSize = measure(mappers.get("json"), value)[0];
+    for (Map.Entry<String, ObjectMapper> format : mappers.entrySet()) {
+      long[] result = measure(format.getValue(), value);
+      log.info(String.format("%s as %s: %d bytes, %d ns per encode", name, format.getKey(), result[0], result[1]));
+      if (!format.getKey().equals("json")) {
+        assertThat(result[0]).isLessThan(jsonSize);
+      }
+      byte[] encoded = format.getValue().writeValueAsBytes(value);
+      assertThat((Object) format.getValue().readValue(encoded, type)).isEqualTo(value);
+    }
+  }
+
+  @Test
+  void binaryFormatsAreSmallerForQuizDetails() throws Exception {
+    compare("quiz details", largeQuiz(), mappers.get("json").constructType(QuizDetailsDto.class));
+  }
+
+  @Test
+  void binaryFormatsAreSmallerForQuizPages() throws Exception {
+    ObjectMapper json = mappers.get("json");
+    compare("quiz page", quizPage(), json.getTypeFactory().constructCollectionType(List.class, QuizGeneralDto.class));
+  }
+}
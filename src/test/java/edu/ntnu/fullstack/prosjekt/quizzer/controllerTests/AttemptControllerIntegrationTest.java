@@ -0,0 +1,118 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.controllerTests;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.AttemptResultDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.AttemptSubmissionDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.QuestionAttemptDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.QuizAttemptDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.QuizDetailsDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.entities.UserEntity;
+import edu.ntnu.fullstack.prosjekt.quizzer.enums.AttemptResultStatus;
+import edu.ntnu.fullstack.prosjekt.quizzer.repositories.AttemptRepository;
+import edu.ntnu.fullstack.prosjekt.quizzer.repositories.UserRepository;
+import edu.ntnu.fullstack.prosjekt.quizzer.services.QuizService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class AttemptControllerIntegrationTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private AttemptRepository attemptRepository;
+
+  @Autowired
+  private QuizService quizService;
+
+  private final UsernamePasswordAuthenticationToken tabletUser =
+          new UsernamePasswordAuthenticationToken("tabletuser", "password", Collections.emptyList());
+
+  private UserEntity userEntity;
+
+  private Long quizId;
+
+  @BeforeEach
+  void createQuiz() {
+    userEntity = userRepository.save(new UserEntity("tabletuser", "Tablet User", "tablet@example.com", "password"));
+    QuizDetailsDto quiz = QuizControllerTestDataUtil.createTestDtoQuizA();
+    quiz.setCategories(new ArrayList<>());
+    quiz.setQuestions(QuizControllerTestDataUtil.createQuestions());
+    quizId = quizService.createQuiz(quiz, userEntity).getQuizId();
+  }
+
+  private AttemptSubmissionDto submission(Long quizId, String... answers) {
+    List<QuestionAttemptDto> questionAttempts = new ArrayList<>();
+    for (String answer : answers) {
+      questionAttempts.add(new QuestionAttemptDto(null, answer, false));
+    }
+    return new AttemptSubmissionDto(quizId, new QuizAttemptDto(0, 30, questionAttempts, null));
+  }
+
+  @Test
+  void gradesAndSavesABatchWithPartialFailures() throws Exception {
+    long savedBefore = attemptRepository.findQuizAttemptEntitiesByUser(userEntity, Pageable.unpaged()).getTotalElements();
+    List<AttemptSubmissionDto> batch = List.of(
+            submission(quizId, "0", "Whale Shark", "50"),
+            submission(999_999L, "0"),
+            submission(quizId, "120", "Hammerhead Shark", "50"),
+            new AttemptSubmissionDto(null, null));
+
+    String body = mockMvc.perform(post("/api/attempts:batch")
+                    .with(authentication(tabletUser))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(batch)))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+    List<AttemptResultDto> results = objectMapper.readValue(body, new TypeReference<>() { });
+
+    assertEquals(4, results.size());
+    assertEquals(AttemptResultStatus.SAVED, results.get(0).getStatus());
+    assertEquals(3, results.get(0).getAttempt().getScore());
+    assertNotNull(results.get(0).getAttemptId());
+    assertEquals(AttemptResultStatus.FAILED, results.get(1).getStatus());
+    assertNotNull(results.get(1).getError());
+    assertEquals(AttemptResultStatus.SAVED, results.get(2).getStatus());
+    assertEquals(1, results.get(2).getAttempt().getScore());
+    assertEquals(AttemptResultStatus.FAILED, results.get(3).getStatus());
+    assertEquals(savedBefore + 2,
+            attemptRepository.findQuizAttemptEntitiesByUser(userEntity, Pageable.unpaged()).getTotalElements());
+  }
+
+  @Test
+  void rejectsUnknownUsers() throws Exception {
+    mockMvc.perform(post("/api/attempts:batch")
+                    .with(authentication(new UsernamePasswordAuthenticationToken("nobody", "password",
+                            Collections.emptyList())))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(List.of(submission(quizId, "0")))))
+            .andExpect(status().isUnauthorized());
+  }
+}
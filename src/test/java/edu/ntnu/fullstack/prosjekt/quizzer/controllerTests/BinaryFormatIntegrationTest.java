@@ -0,0 +1,110 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.controllerTests;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.QuestionAttemptDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.QuizAttemptDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.QuizDetailsDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.entities.UserEntity;
+import edu.ntnu.fullstack.prosjekt.quizzer.services.QuizService;
+import edu.ntnu.fullstack.prosjekt.quizzer.services.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.BDDMockito.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class BinaryFormatIntegrationTest {
+
+  private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+  private static final MediaType CBOR = MediaType.parseMediaType("application/cbor");
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @MockBean
+  private QuizService quizService;
+
+  @MockBean
+  private UserService userService;
+
+  private QuizDetailsDto quiz() {
+    QuizDetailsDto quiz = QuizControllerTestDataUtil.createTestDtoQuizA();
+    quiz.setQuestions(QuizControllerTestDataUtil.createQuestions());
+    return quiz;
+  }
+
+  @Test
+  void quizDetailsCanBeReadAsSmile() throws Exception {
+    when(quizService.findQuizDetails("1")).thenReturn(quiz());
+
+    byte[] body = mockMvc.perform(get("/api/quizzes/1").accept(SMILE))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(SMILE))
+            .andReturn().getResponse().getContentAsByteArray();
+
+    assertThat(new SmileMapper().readValue(body, QuizDetailsDto.class))
+            .usingRecursiveComparison().ignoringFields("owner.password").isEqualTo(quiz());
+  }
+
+  @Test
+  void attemptsCanBeSentAndReadAsCbor() throws Exception {
+    CBORMapper cbor = new CBORMapper();
+    QuizAttemptDto attempt = new QuizAttemptDto(0, 30,
+            List.of(new QuestionAttemptDto(1L, "Whale Shark", false)), null);
+    QuizAttemptDto graded = new QuizAttemptDto(1, 30,
+            List.of(new QuestionAttemptDto(1L, "Whale Shark", true)), 1);
+    when(userService.findEntityByUsername("cboruser")).thenReturn(new UserEntity());
+    when(quizService.checkAnswers(eq("1"), eq(attempt), any(UserEntity.class))).thenReturn(graded);
+
+    byte[] body = mockMvc.perform(post("/api/quizzes/1")
+                    .with(authentication(new UsernamePasswordAuthenticationToken("cboruser", "password",
+                            Collections.emptyList())))
+                    .contentType(CBOR)
+                    .accept(CBOR)
+                    .content(cbor.writeValueAsBytes(attempt)))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(CBOR))
+            .andReturn().getResponse().getContentAsByteArray();
+
+    assertThat(cbor.readValue(body, QuizAttemptDto.class)).isEqualTo(graded);
+  }
+
+  @Test
+  void jsonStaysTheDefault() throws Exception {
+    when(quizService.findQuizDetails("1")).thenReturn(quiz());
+
+    String body = mockMvc.perform(get("/api/quizzes/1").accept(MediaType.ALL))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+            .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+    assertThat(objectMapper.readValue(body, QuizDetailsDto.class))
+            .usingRecursiveComparison().ignoringFields("owner.password").isEqualTo(quiz());
+  }
+}
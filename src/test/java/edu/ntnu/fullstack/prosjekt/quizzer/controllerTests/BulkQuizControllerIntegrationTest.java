@@ -0,0 +1,127 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.controllerTests;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.ntnu.fullstack.prosjekt.quizzer.controllers.BulkQuizController;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.BulkJobDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.CategoryDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.QuestionAnswersDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.QuestionDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.QuizDetailsDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.entities.UserEntity;
+import edu.ntnu.fullstack.prosjekt.quizzer.enums.QuestionType;
+import edu.ntnu.fullstack.prosjekt.quizzer.repositories.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class BulkQuizControllerIntegrationTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  private final UsernamePasswordAuthenticationToken bulkUser =
+          new UsernamePasswordAuthenticationToken("bulkuser", "password", Collections.emptyList());
+
+  @BeforeEach
+  void createUser() {
+    userRepository.save(new UserEntity("bulkuser", "Bulk User", "bulk@example.com", "password"));
+  }
+
+  private String quizLine(String title, String category) throws Exception {
+    QuestionAnswersDto answer = new QuestionAnswersDto();
+    answer.setAnswer("Oslo");
+    answer.setIsCorrect(true);
+    QuestionDto question = new QuestionDto();
+    question.setLabel("Capital of Norway?");
+    question.setType(QuestionType.MULTIPLE_CHOICE);
+    question.setAlternatives(List.of(answer));
+    QuizDetailsDto quiz = new QuizDetailsDto();
+    quiz.setTitle(title);
+    quiz.setCategories(new ArrayList<>(List.of(CategoryDto.builder().categoryName(category).build())));
+    quiz.setQuestions(new ArrayList<>(List.of(question)));
+    return objectMapper.writeValueAsString(quiz);
+  }
+
+  @Test
+  void canImportAndExportQuizzes() throws Exception {
+    String body = quizLine("Bulk geography", "Bulk category") + "\n"
+            + quizLine("", "Bulk category") + "\n"
+            + quizLine("Bulk capitals", "Other bulk category") + "\n"
+            + quizLine("Bulk rivers", "Bulk category") + "\n";
+
+    MvcResult imported = mockMvc.perform(post("/api/quizzes/bulk")
+                    .with(authentication(bulkUser))
+                    .param("jobId", "bulk-import-test")
+                    .contentType(BulkQuizController.NDJSON)
+                    .content(body))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.status").value("COMPLETED"))
+            .andExpect(jsonPath("$.processed").value(4))
+            .andExpect(jsonPath("$.succeeded").value(3))
+            .andExpect(jsonPath("$.failed").value(1))
+            .andExpect(jsonPath("$.errors[0]").value("Line 2: Undefined quiz title"))
+            .andReturn();
+    assertEquals("bulk-import-test",
+            objectMapper.readValue(imported.getResponse().getContentAsString(), BulkJobDto.class).getJobId());
+
+    mockMvc.perform(post("/api/quizzes/bulk")
+                    .with(authentication(bulkUser))
+                    .param("jobId", "bulk-import-test")
+                    .contentType(BulkQuizController.NDJSON)
+                    .content(body))
+            .andExpect(status().isConflict());
+
+    MvcResult started = mockMvc.perform(get("/api/quizzes/export"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+    MvcResult exported = mockMvc.perform(asyncDispatch(started))
+            .andExpect(status().isOk())
+            .andReturn();
+    String jobId = exported.getResponse().getHeader("X-Job-Id");
+
+    List<QuizDetailsDto> quizzes = new ArrayList<>();
+    for (String line : exported.getResponse().getContentAsString().split("\n")) {
+      quizzes.add(objectMapper.readValue(line, QuizDetailsDto.class));
+    }
+    QuizDetailsDto capitals = quizzes.stream()
+            .filter(quiz -> "Bulk capitals".equals(quiz.getTitle())).findFirst().orElseThrow();
+    assertEquals("bulkuser", capitals.getOwner().getUsername());
+    assertEquals("Other bulk category", capitals.getCategories().get(0).getCategoryName());
+    assertEquals(1, capitals.getQuestions().size());
+    assertEquals("Oslo", capitals.getQuestions().get(0).getAlternatives().get(0).getAnswer());
+    assertTrue(capitals.getQuestions().get(0).getAlternatives().get(0).getIsCorrect());
+
+    mockMvc.perform(get("/api/quizzes/bulk/jobs/" + jobId))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.type").value("EXPORT"))
+            .andExpect(jsonPath("$.status").value("COMPLETED"))
+            .andExpect(jsonPath("$.succeeded").value(quizzes.size()));
+
+    mockMvc.perform(get("/api/quizzes/bulk/jobs/missing"))
+            .andExpect(status().isNotFound());
+  }
+}
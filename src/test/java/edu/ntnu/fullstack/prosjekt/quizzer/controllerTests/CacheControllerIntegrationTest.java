@@ -0,0 +1,73 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.controllerTests;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.CacheRegionStatsDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.entities.CategoryEntity;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.entities.UserEntity;
+import edu.ntnu.fullstack.prosjekt.quizzer.repositories.CategoryRepository;
+import edu.ntnu.fullstack.prosjekt.quizzer.repositories.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class CacheControllerIntegrationTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private CategoryRepository categoryRepository;
+
+  private CacheRegionStatsDto region(String name) throws Exception {
+    String body = mockMvc.perform(get("/api/cache/stats"))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+    return objectMapper.readValue(body, new TypeReference<List<CacheRegionStatsDto>>() { })
+            .stream().filter(region -> region.getRegion().equals(name)).findFirst().orElseThrow();
+  }
+
+  @Test
+  void repeatedUserLookupsHitTheCache() throws Exception {
+    userRepository.save(new UserEntity("cacheduser", "Cached User", "cached@example.com", "password"));
+    long hitsBefore = region("quizzer.users").getHits();
+
+    userRepository.findById("cacheduser");
+    userRepository.findById("cacheduser");
+
+    CacheRegionStatsDto users = region("quizzer.users");
+    assertThat(users.getHits()).isGreaterThanOrEqualTo(hitsBefore + 2);
+    assertThat(users.getHitRate()).isGreaterThan(0);
+  }
+
+  @Test
+  void categoryListIsCachedAndInvalidatedOnWrite() throws Exception {
+    categoryRepository.findAll();
+    long hitsBefore = region("quizzer.category-list").getHits();
+
+    categoryRepository.findAll();
+    assertThat(region("quizzer.category-list").getHits()).isEqualTo(hitsBefore + 1);
+
+    categoryRepository.save(new CategoryEntity("Cached category"));
+    assertThat(categoryRepository.findAll()).extracting(CategoryEntity::getCategoryName)
+            .contains("Cached category");
+  }
+}
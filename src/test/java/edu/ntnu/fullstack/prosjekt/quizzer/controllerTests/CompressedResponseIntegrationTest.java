@@ -0,0 +1,119 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.controllerTests;
+
+import edu.ntnu.fullstack.prosjekt.quizzer.cache.CompressedResponseCache;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.QuestionDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.QuizDetailsDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.entities.UserEntity;
+import edu.ntnu.fullstack.prosjekt.quizzer.repositories.UserRepository;
+import edu.ntnu.fullstack.prosjekt.quizzer.services.QuizService;
+import edu.ntnu.fullstack.prosjekt.quizzer.services.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class CompressedResponseIntegrationTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private QuizService quizService;
+
+  @Autowired
+  private UserService userService;
+
+  @Autowired
+  private CompressedResponseCache compressedResponseCache;
+
+  private Long quizId;
+
+  @BeforeEach
+  void createQuiz() {
+    UserEntity owner = userRepository.save(
+            new UserEntity("gzipowner", "Gzip Owner", "gzip@example.com", "password"));
+    QuizDetailsDto quiz = QuizControllerTestDataUtil.createTestDtoQuizA();
+    quiz.setCategories(new ArrayList<>());
+    List<QuestionDto> questions = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      questions.addAll(QuizControllerTestDataUtil.createQuestions());
+    }
+    quiz.setQuestions(questions);
+    quizId = quizService.createQuiz(quiz, owner).getQuizId();
+  }
+
+  private MvcResult getGzipped(String path) throws Exception {
+    return mockMvc.perform(get(path).header(HttpHeaders.ACCEPT_ENCODING, "br;q=1.0, gzip;q=0.8"))
+            .andExpect(status().isOk())
+            .andExpect(header().stringValues(HttpHeaders.VARY, hasItem("Accept-Encoding, Accept, Origin")))
+            .andReturn();
+  }
+
+  private static String gunzip(byte[] body) throws Exception {
+    try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(body))) {
+      return new String(gzip.readAllBytes(), StandardCharsets.UTF_8);
+    }
+  }
+
+  @Test
+  void quizDetailsAreCompressedOncePerVersion() throws Exception {
+    long compressionsBefore = compressedResponseCache.getCompressions();
+
+    MvcResult first = getGzipped("/api/quizzes/" + quizId);
+    MvcResult second = getGzipped("/api/quizzes/" + quizId);
+
+    assertThat(first.getResponse().getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+    assertThat(second.getResponse().getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+    assertThat(second.getResponse().getContentType()).startsWith("application/json");
+    assertThat(second.getResponse().getContentAsByteArray()).isEqualTo(first.getResponse().getContentAsByteArray());
+    assertThat(gunzip(second.getResponse().getContentAsByteArray())).contains("Shark Quiz", "Gzip Owner");
+    assertThat(compressedResponseCache.getCompressions()).isEqualTo(compressionsBefore + 1);
+
+    userService.updateUserFullName("gzipowner", "Renamed Owner");
+
+    MvcResult renamed = getGzipped("/api/quizzes/" + quizId);
+    assertThat(gunzip(renamed.getResponse().getContentAsByteArray())).contains("Renamed Owner");
+    assertThat(compressedResponseCache.getCompressions()).isEqualTo(compressionsBefore + 2);
+  }
+
+  @Test
+  void uncompressedForClientsWithoutGzipAndForTinyBodies() throws Exception {
+    MvcResult plain = mockMvc.perform(get("/api/quizzes/" + quizId))
+            .andExpect(status().isOk())
+            .andReturn();
+    assertThat(plain.getResponse().getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+    assertThat(plain.getResponse().getContentAsString(StandardCharsets.UTF_8)).contains("Shark Quiz");
+
+    MvcResult refused = mockMvc.perform(get("/api/quizzes/" + quizId)
+                    .header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, identity"))
+            .andExpect(status().isOk())
+            .andReturn();
+    assertThat(refused.getResponse().getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+
+    MvcResult tiny = getGzipped("/api/quizzes/categories");
+    assertThat(tiny.getResponse().getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+  }
+}
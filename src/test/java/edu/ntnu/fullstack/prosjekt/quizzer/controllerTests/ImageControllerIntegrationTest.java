@@ -0,0 +1,155 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.controllerTests;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.ImageDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.entities.UserEntity;
+import edu.ntnu.fullstack.prosjekt.quizzer.repositories.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.zip.CRC32;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class ImageControllerIntegrationTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  private final UsernamePasswordAuthenticationToken uploader =
+          new UsernamePasswordAuthenticationToken("imageuploader", "password", Collections.emptyList());
+
+  private byte[] png;
+
+  @BeforeEach
+  void createImage() throws Exception {
+    userRepository.save(new UserEntity("imageuploader", "Image Uploader", "images@example.com", "password"));
+    BufferedImage image = new BufferedImage(640, 320, BufferedImage.TYPE_INT_RGB);
+    Graphics2D graphics = image.createGraphics();
+    graphics.setColor(Color.BLUE);
+    graphics.fillRect(0, 0, 320, 320);
+    graphics.dispose();
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    ImageIO.write(image, "png", out);
+    png = out.toByteArray();
+  }
+
+  private ImageDto upload(byte[] bytes, int expectedStatus) throws Exception {
+    String body = mockMvc.perform(multipart("/api/images")
+                    .file(new MockMultipartFile("file", "shark.png", "image/png", bytes))
+                    .with(authentication(uploader)))
+            .andExpect(status().is(expectedStatus))
+            .andReturn().getResponse().getContentAsString();
+    return expectedStatus == 201 ? objectMapper.readValue(body, ImageDto.class) : null;
+  }
+
+  @Test
+  void uploadsAreStoredOnceAndServedWithImmutableHeaders() throws Exception {
+    ImageDto first = upload(png, 201);
+    ImageDto second = upload(png, 201);
+
+    assertThat(first.getUrl()).matches("/api/images/[0-9a-f]{64}\\.png");
+    assertThat(first.getContentType()).isEqualTo("image/png");
+    assertThat(second.getUrl()).isEqualTo(first.getUrl());
+    assertThat(second.isDeduplicated()).isTrue();
+
+    byte[] served = mockMvc.perform(get(first.getUrl()))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "public, max-age=31536000, immutable"))
+            .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+            .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, png.length))
+            .andReturn().getResponse().getContentAsByteArray();
+    assertThat(served).isEqualTo(png);
+
+    String etag = "\"" + first.getUrl().substring("/api/images/".length()) + "\"";
+    mockMvc.perform(get(first.getUrl()).header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isNotModified());
+  }
+
+  @Test
+  void servesByteRanges() throws Exception {
+    ImageDto image = upload(png, 201);
+
+    byte[] head = mockMvc.perform(get(image.getUrl()).header(HttpHeaders.RANGE, "bytes=0-9"))
+            .andExpect(status().isPartialContent())
+            .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 0-9/" + png.length))
+            .andReturn().getResponse().getContentAsByteArray();
+    assertThat(head).isEqualTo(Arrays.copyOf(png, 10));
+
+    byte[] tail = mockMvc.perform(get(image.getUrl()).header(HttpHeaders.RANGE, "bytes=-5"))
+            .andExpect(status().isPartialContent())
+            .andReturn().getResponse().getContentAsByteArray();
+    assertThat(tail).isEqualTo(Arrays.copyOfRange(png, png.length - 5, png.length));
+
+    mockMvc.perform(get(image.getUrl()).header(HttpHeaders.RANGE, "bytes=" + png.length + "-"))
+            .andExpect(status().isRequestedRangeNotSatisfiable())
+            .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */" + png.length));
+  }
+
+  @Test
+  void thumbnailsAreMadeInTheBackground() throws Exception {
+    ImageDto image = upload(png, 201);
+    assertThat(image.getThumbnails()).hasSize(2);
+    String smallest = image.getThumbnails().get(0);
+
+    await().atMost(Duration.ofSeconds(10)).until(() ->
+            mockMvc.perform(get(smallest)).andReturn().getResponse().getStatus() == 200);
+    byte[] thumbnail = mockMvc.perform(get(smallest)).andReturn().getResponse().getContentAsByteArray();
+    BufferedImage scaled = ImageIO.read(new ByteArrayInputStream(thumbnail));
+    assertThat(scaled.getWidth()).isEqualTo(160);
+    assertThat(scaled.getHeight()).isEqualTo(80);
+  }
+
+  @Test
+  void rejectsFilesThatAreNotImagesAndUnknownNames() throws Exception {
+    upload("not an image".getBytes(), 400);
+    mockMvc.perform(get("/api/images/..%2Fapplication.properties")).andExpect(status().is4xxClientError());
+    mockMvc.perform(get("/api/images/application.properties")).andExpect(status().isNotFound());
+    mockMvc.perform(get("/api/images/" + "0".repeat(64) + ".png")).andExpect(status().isNotFound());
+  }
+
+  @Test
+  void rejectsImagesWithTooManyPixelsBeforeDecodingThem() throws Exception {
+    byte[] bomb = png.clone();
+    ByteBuffer header = ByteBuffer.wrap(bomb);
+    header.putInt(16, 100_000).putInt(20, 100_000);
+    CRC32 crc = new CRC32();
+    crc.update(bomb, 12, 17);
+    header.putInt(29, (int) crc.getValue());
+
+    upload(bomb, 400);
+  }
+}
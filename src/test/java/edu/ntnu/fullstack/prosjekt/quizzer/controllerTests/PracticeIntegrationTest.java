@@ -0,0 +1,142 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.controllerTests;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.ntnu.fullstack.prosjekt.quizzer.cache.QuizSnapshot;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.QuestionAttemptDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.QuestionDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.QuizAttemptDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.QuizDetailsDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.QuizPlayDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.entities.UserEntity;
+import edu.ntnu.fullstack.prosjekt.quizzer.practice.MasteryStore;
+import edu.ntnu.fullstack.prosjekt.quizzer.repositories.UserRepository;
+import edu.ntnu.fullstack.prosjekt.quizzer.services.QuizService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class PracticeIntegrationTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private QuizService quizService;
+
+  @Autowired
+  private MasteryStore masteryStore;
+
+  @Autowired
+  private EntityManager entityManager;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  private List<Long> practice(Long quizId) throws Exception {
+    String body = mockMvc.perform(get("/api/quizzes/" + quizId + "/practice")
+                    .with(authentication(new UsernamePasswordAuthenticationToken("practiceuser", "password",
+                            Collections.emptyList()))))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+    QuizPlayDto play = objectMapper.readValue(body, QuizPlayDto.class);
+    assertNull(play.getSeed());
+    return play.getQuestions().stream().map(QuestionDto::getQuestionId).toList();
+  }
+
+  @Test
+  void wrongAnswersComeBackBeforeNewAndKnownQuestions() throws Exception {
+    UserEntity userEntity = userRepository.save(new UserEntity("practiceuser", "Practice User", "practice@example.com", "password"));
+    QuizDetailsDto quiz = QuizControllerTestDataUtil.createTestDtoQuizA();
+    quiz.setCategories(new ArrayList<>());
+    quiz.setQuestions(QuizControllerTestDataUtil.createQuestions());
+    Long quizId = quizService.createQuiz(quiz, userEntity).getQuizId();
+
+    List<Long> questionIds = practice(quizId);
+    assertEquals(3, questionIds.size());
+    Long known = questionIds.get(0);
+    Long missed = questionIds.get(1);
+    Long unseen = questionIds.get(2);
+
+    mockMvc.perform(post("/api/quizzes/" + quizId)
+                    .with(authentication(new UsernamePasswordAuthenticationToken("practiceuser", "password",
+                            Collections.emptyList())))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(new QuizAttemptDto(0, 30, List.of(
+                            new QuestionAttemptDto(known, "0", false),
+                            new QuestionAttemptDto(missed, "Hammerhead Shark", false)), null))))
+            .andExpect(status().isOk());
+
+    assertEquals(List.of(missed, unseen, known), practice(quizId));
+    mockMvc.perform(get("/api/quizzes/" + quizId + "/practice")).andExpect(status().isUnauthorized());
+
+    masteryStore.flush();
+    MasteryStore restarted = new MasteryStore(entityManager, transactionManager, 100, 3_600_000);
+    try {
+      long[] ids = {known, missed, unseen};
+      assertArrayEquals(new int[] {1, 2, 0}, restarted.next("practiceuser", ids, 3, System.currentTimeMillis()));
+      assertArrayEquals(new int[] {1}, restarted.next("practiceuser", ids, 1, System.currentTimeMillis()));
+    } finally {
+      restarted.shutdown();
+    }
+  }
+
+  @Test
+  void onlyTheFirstAnswerToEachQuestionOfTheQuizCounts() throws Exception {
+    UserEntity userEntity = userRepository.save(new UserEntity("masteryuser", "Mastery User", "mastery@example.com", "password"));
+    QuizDetailsDto quiz = QuizControllerTestDataUtil.createTestDtoQuizA();
+    quiz.setCategories(new ArrayList<>());
+    quiz.setQuestions(QuizControllerTestDataUtil.createQuestions());
+    Long quizId = quizService.createQuiz(quiz, userEntity).getQuizId();
+    QuizSnapshot snapshot = quizService.findQuizSnapshot(quizId, null);
+    long missed = snapshot.questionIds()[0];
+    long unseen = snapshot.questionIds()[1];
+    long foreign = 987654321L;
+
+    mockMvc.perform(post("/api/quizzes/" + quizId)
+                    .with(authentication(new UsernamePasswordAuthenticationToken("masteryuser", "password",
+                            Collections.emptyList())))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(new QuizAttemptDto(0, 30, List.of(
+                            new QuestionAttemptDto(missed, "Not an answer", false),
+                            new QuestionAttemptDto(missed, snapshot.correctAnswers(missed).get(0), false),
+                            new QuestionAttemptDto(foreign, "Anything", false)), null))))
+            .andExpect(status().isOk());
+
+    masteryStore.flush();
+    MasteryStore restarted = new MasteryStore(entityManager, transactionManager, 100, 3_600_000);
+    try {
+      assertArrayEquals(new int[] {0, 1, 2},
+              restarted.next("masteryuser", new long[] {missed, unseen, foreign}, 3, System.currentTimeMillis()));
+      assertArrayEquals(new int[] {1, 0},
+              restarted.next("masteryuser", new long[] {foreign, missed}, 2, System.currentTimeMillis()));
+    } finally {
+      restarted.shutdown();
+    }
+  }
+}
@@ -8,8 +8,13 @@ import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.*;
 import edu.ntnu.fullstack.prosjekt.quizzer.domain.entities.CategoryEntity;
 import edu.ntnu.fullstack.prosjekt.quizzer.domain.entities.QuizEntity;
 import edu.ntnu.fullstack.prosjekt.quizzer.domain.entities.UserEntity;
+import edu.ntnu.fullstack.prosjekt.quizzer.enums.SuggestionType;
+import edu.ntnu.fullstack.prosjekt.quizzer.repositories.UserRepository;
 import edu.ntnu.fullstack.prosjekt.quizzer.services.QuizService;
 import edu.ntnu.fullstack.prosjekt.quizzer.services.UserService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
@@ -23,6 +28,7 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.NestedTestConfiguration;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.ArrayList;
@@ -33,6 +39,7 @@ import java.util.List;
 import static org.awaitility.Awaitility.given;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.BDDMockito.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -53,7 +60,7 @@ public class QuizControllerIntegrationTest {
   @Autowired
   private ObjectMapper objectMapper;
 
-  QuizController controller = new QuizController(null, null);
+  QuizController controller = new QuizController(null, null, null);
 
   void mockSecurityContext(String username) {
     SecurityContextHolder.getContext().setAuthentication(
@@ -129,6 +136,31 @@ public class QuizControllerIntegrationTest {
             .andExpect(jsonPath("$.message").value("You are not authorized to delete this quiz"));
   }
 
+  @Test
+  void canPlayShuffledQuiz() throws Exception {
+    QuizPlayDto play = new QuizPlayDto(1L, 1, "Shark Quiz", 42L, 3, QuizControllerTestDataUtil.createQuestions());
+    when(quizService.playQuiz(eq("1"), eq(3), eq(42L))).thenReturn(play);
+
+    mockMvc.perform(get("/api/quizzes/{quizId}/play", "1")
+            .param("count", "3")
+            .param("seed", "42"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.seed").value(42))
+            .andExpect(jsonPath("$.questions.length()").value(3));
+  }
+
+  @Test
+  void canGetSuggestions() throws Exception {
+    List<SuggestionDto> suggestions = List.of(new SuggestionDto("Shark Quiz", SuggestionType.QUIZ, 1L, 3));
+    when(quizService.suggest(eq("sha"), anyInt())).thenReturn(suggestions);
+
+    mockMvc.perform(get("/api/quizzes/suggest").param("prefix", "sha"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+            .andExpect(jsonPath("$[0].text").value("Shark Quiz"))
+            .andExpect(jsonPath("$[0].type").value("QUIZ"));
+  }
+
   @Test
   void canGetCategories() throws Exception {
     List<CategoryDto> mockedCategories = QuizControllerTestDataUtil.createCategoryDtos();
@@ -140,4 +172,78 @@ public class QuizControllerIntegrationTest {
             .andExpect(jsonPath("$[0].categoryName").value("Nature"))
             .andExpect(jsonPath("$[1].categoryName").value("Geography"));
   }
+
+  /**
+   * Requests against the real services, held to the statement budgets of their endpoints.
+   */
+  @Nested
+  @NestedTestConfiguration(NestedTestConfiguration.EnclosingConfiguration.OVERRIDE)
+  @SpringBootTest
+  @AutoConfigureMockMvc
+  @ActiveProfiles("test")
+  class StatementBudgets {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private QuizService quizService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private QuizDetailsDto createQuiz(String username) {
+      UserEntity userEntity = userRepository.findById(username).orElseGet(() ->
+              userRepository.save(new UserEntity(username, "Budget User", username + "@example.com", "password")));
+      QuizDetailsDto quiz = QuizControllerTestDataUtil.createTestDtoQuizA();
+      quiz.setCategories(new ArrayList<>());
+      quiz.setQuestions(QuizControllerTestDataUtil.createQuestions());
+      QuizDetailsDto created = quizService.createQuiz(quiz, userEntity);
+      entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+      return created;
+    }
+
+    @Test
+    void pageOfQuizzesIsWithinBudget() throws Exception {
+      for (int i = 0; i < 5; i++) {
+        createQuiz("budgetpager");
+      }
+
+      StatementCounter.assertWithin(StatementBudget.QUIZ_PAGE, () ->
+              mockMvc.perform(get("/api/quizzes").param("size", "5"))
+                      .andExpect(status().isOk())
+                      .andExpect(jsonPath("$.content.length()").value(5))
+                      .andExpect(jsonPath("$.content[0].amountOfQuestions").value(3)));
+    }
+
+    @Test
+    void quizDetailsAreWithinBudget() throws Exception {
+      QuizDetailsDto quiz = createQuiz("budgetviewer");
+
+      StatementCounter.assertWithin(StatementBudget.QUIZ_DETAILS, () ->
+              mockMvc.perform(get("/api/quizzes/{quizId}", quiz.getQuizId()))
+                      .andExpect(status().isOk())
+                      .andExpect(jsonPath("$.questions.length()").value(3)));
+    }
+
+    @Test
+    void attemptSubmissionIsWithinBudget() throws Exception {
+      QuizDetailsDto quiz = createQuiz("budgetplayer");
+      mockMvc.perform(get("/api/quizzes/{quizId}/play", quiz.getQuizId())).andExpect(status().isOk());
+      QuizAttemptDto attempt = new QuizAttemptDto(0, 30, List.of(
+              new QuestionAttemptDto(quiz.getQuestions().get(0).getQuestionId(), "0", false)), quiz.getVersion());
+
+      StatementCounter.assertWithin(StatementBudget.ATTEMPT_SUBMISSION, () ->
+              mockMvc.perform(post("/api/quizzes/{quizId}", quiz.getQuizId())
+                              .with(authentication(new UsernamePasswordAuthenticationToken("budgetplayer",
+                                      "password", Collections.emptyList())))
+                              .contentType(MediaType.APPLICATION_JSON)
+                              .content(objectMapper.writeValueAsString(attempt)))
+                      .andExpect(status().isOk())
+                      .andExpect(jsonPath("$.score").value(1)));
+    }
+  }
 }
@@ -0,0 +1,138 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.controllerTests;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.QuestionAttemptDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.QuizAttemptDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.QuizDetailsDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.QuizGeneralDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.UserDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.entities.UserEntity;
+import edu.ntnu.fullstack.prosjekt.quizzer.purge.QuizPurger;
+import edu.ntnu.fullstack.prosjekt.quizzer.repositories.UserRepository;
+import edu.ntnu.fullstack.prosjekt.quizzer.services.QuizService;
+import edu.ntnu.fullstack.prosjekt.quizzer.services.UserService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class QuizDeleteIntegrationTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private QuizService quizService;
+
+  @Autowired
+  private UserService userService;
+
+  @Autowired
+  private QuizPurger quizPurger;
+
+  @Autowired
+  private EntityManager entityManager;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  private TransactionTemplate transactionTemplate;
+
+  private UserEntity userEntity;
+
+  private Long quizId;
+
+  @BeforeEach
+  void createQuizWithAttempt() {
+    transactionTemplate = new TransactionTemplate(transactionManager);
+    userEntity = userRepository.save(new UserEntity("deleteuser", "Delete User", "delete@example.com", "password"));
+    QuizDetailsDto quiz = QuizControllerTestDataUtil.createTestDtoQuizA();
+    quiz.setCategories(new ArrayList<>());
+    quiz.setQuestions(QuizControllerTestDataUtil.createQuestions());
+    quizId = quizService.createQuiz(quiz, userEntity).getQuizId();
+    quizService.checkAnswers(quizId.toString(),
+            new QuizAttemptDto(0, 30, List.of(new QuestionAttemptDto(null, "0", false)), null), userEntity);
+  }
+
+  private long rows(String table, String column) {
+    return ((Number) entityManager.createNativeQuery("SELECT COUNT(*) FROM " + table + " WHERE " + column + " = " + quizId)
+            .getSingleResult()).longValue();
+  }
+
+  private void insertMastery(long questionId) {
+    transactionTemplate.executeWithoutResult(status -> entityManager
+            .createNativeQuery("INSERT INTO question_mastery (username, question_id, state) VALUES ('deleteuser', "
+                    + questionId + ", 1)")
+            .executeUpdate());
+  }
+
+  private long mastery(long questionId) {
+    return ((Number) entityManager.createNativeQuery("SELECT COUNT(*) FROM question_mastery WHERE question_id = "
+            + questionId).getSingleResult()).longValue();
+  }
+
+  @Test
+  void deletedQuizzesAreHiddenAtOnceAndPurgedLater() throws Exception {
+    long questionId = ((Number) entityManager.createNativeQuery("SELECT MIN(question_id) FROM questions WHERE quiz_id = "
+            + quizId).getSingleResult()).longValue();
+    long removedQuestionId = 987_654_321L;
+    insertMastery(questionId);
+    insertMastery(removedQuestionId);
+    QuizDetailsDto toDelete = new QuizDetailsDto();
+    toDelete.setQuizId(quizId);
+    toDelete.setOwner(new UserDto("deleteuser", "Delete User", "delete@example.com", null));
+    // Holds off the purge the delete starts, to see the quiz while it is only marked.
+    synchronized (quizPurger) {
+      mockMvc.perform(delete("/api/quizzes")
+                      .with(authentication(new UsernamePasswordAuthenticationToken("deleteuser", "password",
+                              Collections.emptyList())))
+                      .contentType(MediaType.APPLICATION_JSON)
+                      .content(objectMapper.writeValueAsString(toDelete)))
+              .andExpect(status().isOk());
+
+      mockMvc.perform(get("/api/quizzes/" + quizId)).andExpect(status().isNotFound());
+      mockMvc.perform(get("/api/quizzes/" + quizId + "/play")).andExpect(status().isNotFound());
+      mockMvc.perform(get("/api/quizzes/" + quizId + "/versions/1")).andExpect(status().isNotFound());
+      assertTrue(quizService.findPageOfQuizzes(Pageable.unpaged()).stream()
+              .map(QuizGeneralDto::getQuizId).noneMatch(quizId::equals));
+      assertEquals(0, userService.findAttemptsByUser("deleteuser", Pageable.unpaged()).getTotalElements());
+      assertEquals(1, rows("quizzes", "quiz_id"));
+    }
+
+    quizPurger.purgeDeleted();
+    assertEquals(0, rows("quizzes", "quiz_id"));
+    assertEquals(0, rows("questions", "quiz_id"));
+    assertEquals(0, rows("quiz_attempt_entity", "quiz_quiz_id"));
+    assertEquals(0, rows("quiz_versions", "quiz_id"));
+    assertEquals(0, mastery(questionId));
+    assertEquals(0, mastery(removedQuestionId));
+  }
+}
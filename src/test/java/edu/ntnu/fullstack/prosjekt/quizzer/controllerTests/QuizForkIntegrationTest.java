@@ -0,0 +1,179 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.controllerTests;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.ntnu.fullstack.prosjekt.quizzer.acl.QuizPermissions;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.CategoryDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.QuestionDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.QuizDetailsDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.QuizGeneralDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.entities.CategoryEntity;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.entities.QuestionEntity;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.entities.QuizEntity;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.entities.UserEntity;
+import edu.ntnu.fullstack.prosjekt.quizzer.enums.QuizRole;
+import edu.ntnu.fullstack.prosjekt.quizzer.repositories.CategoryRepository;
+import edu.ntnu.fullstack.prosjekt.quizzer.repositories.QuizVersionRepository;
+import edu.ntnu.fullstack.prosjekt.quizzer.repositories.UserRepository;
+import edu.ntnu.fullstack.prosjekt.quizzer.services.QuizService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class QuizForkIntegrationTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private CategoryRepository categoryRepository;
+
+  @Autowired
+  private QuizService quizService;
+
+  @Autowired
+  private QuizPermissions quizPermissions;
+
+  @Autowired
+  private QuizVersionRepository quizVersionRepository;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  private UserEntity author;
+
+  private final UsernamePasswordAuthenticationToken forker =
+          new UsernamePasswordAuthenticationToken("forkuser", "password", Collections.emptyList());
+
+  @BeforeEach
+  void createUsers() {
+    author = userRepository.save(new UserEntity("forkauthor", "Fork Author", "forkauthor@example.com", "password"));
+    userRepository.save(new UserEntity("forkuser", "Fork User", "forkuser@example.com", "password"));
+    categoryRepository.save(new CategoryEntity("Forks"));
+  }
+
+  private QuizDetailsDto createQuiz(int questions) {
+    QuizDetailsDto quiz = QuizControllerTestDataUtil.createTestDtoQuizA();
+    quiz.setCategories(new ArrayList<>(List.of(new CategoryDto("Forks", null))));
+    List<QuestionDto> questionDtos = new ArrayList<>();
+    for (int i = 0; i < questions; i++) {
+      QuestionDto question = QuizControllerTestDataUtil.createQuestionA();
+      question.setLabel("Question " + i);
+      questionDtos.add(question);
+    }
+    quiz.setQuestions(questionDtos);
+    return quizService.createQuiz(quiz, author);
+  }
+
+  private QuizGeneralDto fork(Long quizId) throws Exception {
+    String body = mockMvc.perform(post("/api/quizzes/{quizId}/fork", quizId).with(authentication(forker)))
+            .andExpect(status().isCreated())
+            .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+    return objectMapper.readValue(body, QuizGeneralDto.class);
+  }
+
+  @Test
+  void forksCopyTheQuizForTheUser() throws Exception {
+    QuizDetailsDto source = createQuiz(3);
+
+    QuizGeneralDto forked = fork(source.getQuizId());
+    assertNotEquals(source.getQuizId(), forked.getQuizId());
+    assertEquals(3, forked.getAmountOfQuestions());
+    assertEquals("forkuser", forked.getOwner().getUsername());
+
+    QuizDetailsDto copy = quizService.findQuizDetails(forked.getQuizId().toString());
+    assertEquals(source.getTitle(), copy.getTitle());
+    assertEquals("forkuser", copy.getOwner().getUsername());
+    assertEquals(List.of("Forks"), copy.getCategories().stream().map(CategoryDto::getCategoryName).toList());
+    assertEquals(source.getQuestions().stream().map(QuestionDto::getLabel).toList(),
+            copy.getQuestions().stream().map(QuestionDto::getLabel).toList());
+    assertEquals(source.getQuestions().get(0).getAlternatives(), copy.getQuestions().get(0).getAlternatives());
+    Set<Long> sourceIds = source.getQuestions().stream().map(QuestionDto::getQuestionId).collect(Collectors.toSet());
+    assertTrue(copy.getQuestions().stream().map(QuestionDto::getQuestionId).noneMatch(sourceIds::contains));
+    assertEquals(1, copy.getVersion());
+    assertEquals(QuizRole.OWNER, quizPermissions.role(forked.getQuizId(), "forkuser"));
+    assertNull(quizPermissions.role(forked.getQuizId(), "forkauthor"));
+
+    mockMvc.perform(get("/api/quizzes/{quizId}/play", forked.getQuizId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.totalQuestions").value(3));
+    // Quizzes created after the fork take their ids from the same sequences, without colliding.
+    assertEquals(3, createQuiz(3).getQuestions().size());
+    assertEquals(3, quizService.findQuizDetails(source.getQuizId().toString()).getQuestions().size());
+  }
+
+  @Test
+  void forkingALargeQuizIsWithinBudget() throws Exception {
+    QuizDetailsDto source = createQuiz(500);
+    entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+
+    long before = nextQuestionIdValue();
+    QuizGeneralDto forked = StatementCounter.assertWithin(StatementBudget.QUIZ_FORK, () -> fork(source.getQuizId()));
+    long after = nextQuestionIdValue();
+    assertEquals(500, forked.getAmountOfQuestions());
+    // The 500 copies take 10 values, each reserving 50 ids, instead of a value each.
+    assertEquals(11 * 50, after - before);
+    List<Long> ids = jdbcTemplate.queryForList(
+            "SELECT question_id FROM questions WHERE quiz_id = ? ORDER BY position", Long.class, forked.getQuizId());
+    assertEquals(500, Set.copyOf(ids).size());
+    assertTrue(ids.stream().allMatch(id -> id > before && id < after));
+  }
+
+  private long nextQuestionIdValue() {
+    return jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR question_id_seq", Long.class);
+  }
+
+  @Test
+  void forkingPublishesTheFirstVersionAndKeepsCachedQuizzes() throws Exception {
+    QuizDetailsDto source = createQuiz(2);
+    quizService.findQuizDetails(source.getQuizId().toString());
+    Long questionId = source.getQuestions().get(0).getQuestionId();
+    assertTrue(entityManagerFactory.getCache().contains(QuizEntity.class, source.getQuizId()));
+    assertTrue(entityManagerFactory.getCache().contains(QuestionEntity.class, questionId));
+
+    QuizGeneralDto forked = fork(source.getQuizId());
+
+    assertEquals(1, quizVersionRepository.findLatestNumber(forked.getQuizId()));
+    assertTrue(entityManagerFactory.getCache().contains(QuizEntity.class, source.getQuizId()));
+    assertTrue(entityManagerFactory.getCache().contains(QuestionEntity.class, questionId));
+  }
+
+  @Test
+  void missingQuizzesCanNotBeForked() throws Exception {
+    mockMvc.perform(post("/api/quizzes/{quizId}/fork", Long.MAX_VALUE).with(authentication(forker)))
+            .andExpect(status().isNotFound());
+  }
+}
@@ -0,0 +1,124 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.controllerTests;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.ntnu.fullstack.prosjekt.quizzer.acl.QuizPermissions;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.QuizDetailsDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.UserDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.entities.UserEntity;
+import edu.ntnu.fullstack.prosjekt.quizzer.enums.QuizRole;
+import edu.ntnu.fullstack.prosjekt.quizzer.repositories.UserRepository;
+import edu.ntnu.fullstack.prosjekt.quizzer.services.QuizService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class QuizPermissionsIntegrationTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private QuizService quizService;
+
+  @Autowired
+  private QuizPermissions quizPermissions;
+
+  private Long quizId;
+
+  @BeforeEach
+  void createQuiz() {
+    UserEntity owner = userRepository.save(new UserEntity("aclowner", "Acl Owner", "aclowner@example.com", "password"));
+    userRepository.save(new UserEntity("aclcollaborator", "Acl Collaborator", "aclcollaborator@example.com", "password"));
+    userRepository.save(new UserEntity("aclstranger", "Acl Stranger", "aclstranger@example.com", "password"));
+    QuizDetailsDto quiz = QuizControllerTestDataUtil.createTestDtoQuizA();
+    quiz.setCategories(new ArrayList<>());
+    quiz.setQuestions(QuizControllerTestDataUtil.createQuestions());
+    quizId = quizService.createQuiz(quiz, owner).getQuizId();
+  }
+
+  private ResultActions updateAs(String username, List<UserDto> collaborators) throws Exception {
+    QuizDetailsDto quiz = quizService.findQuizDetails(quizId.toString());
+    quiz.setCollaborators(collaborators);
+    return mockMvc.perform(put("/api/quizzes")
+            .with(authentication(new UsernamePasswordAuthenticationToken(username, "password", Collections.emptyList())))
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(quiz)));
+  }
+
+  private ResultActions deleteAs(String username) throws Exception {
+    QuizDetailsDto quiz = new QuizDetailsDto();
+    quiz.setQuizId(quizId);
+    return mockMvc.perform(delete("/api/quizzes")
+            .with(authentication(new UsernamePasswordAuthenticationToken(username, "password", Collections.emptyList())))
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(quiz)));
+  }
+
+  @Test
+  void onlyOwnersAndCollaboratorsMayChangeAQuiz() throws Exception {
+    assertEquals(Map.of("aclowner", QuizRole.OWNER), quizPermissions.roles(quizId));
+    UserDto collaborator = new UserDto("aclcollaborator", "Acl Collaborator", "aclcollaborator@example.com", null);
+
+    updateAs("aclstranger", List.of()).andExpect(status().isUnauthorized())
+            .andExpect(jsonPath("$.message").value("You are not authorized to update this quiz"));
+    deleteAs("aclcollaborator").andExpect(status().isUnauthorized())
+            .andExpect(jsonPath("$.message").value("You are not authorized to delete this quiz"));
+
+    updateAs("aclowner", List.of(collaborator)).andExpect(status().isOk());
+    assertEquals(QuizRole.COLLABORATOR, quizPermissions.role(quizId, "aclcollaborator"));
+    updateAs("aclcollaborator", List.of(collaborator)).andExpect(status().isOk());
+
+    updateAs("aclowner", List.of()).andExpect(status().isOk());
+    updateAs("aclcollaborator", List.of()).andExpect(status().isUnauthorized());
+    updateAs("aclstranger", List.of()).andExpect(status().isUnauthorized());
+
+    deleteAs("aclowner").andExpect(status().isOk());
+    assertTrue(quizPermissions.roles(quizId).isEmpty());
+  }
+
+  @Test
+  void collaboratorsMayNotChangeTheCollaborators() throws Exception {
+    UserDto collaborator = new UserDto("aclcollaborator", "Acl Collaborator", "aclcollaborator@example.com", null);
+    UserDto stranger = new UserDto("aclstranger", "Acl Stranger", "aclstranger@example.com", null);
+    updateAs("aclowner", List.of(collaborator)).andExpect(status().isOk());
+    Map<String, QuizRole> roles = Map.of("aclowner", QuizRole.OWNER, "aclcollaborator", QuizRole.COLLABORATOR);
+    assertEquals(roles, quizPermissions.roles(quizId));
+
+    updateAs("aclcollaborator", List.of(collaborator, stranger)).andExpect(status().isForbidden());
+    updateAs("aclcollaborator", List.of()).andExpect(status().isForbidden());
+    assertEquals(roles, quizPermissions.roles(quizId));
+    assertEquals(List.of("aclcollaborator"), quizService.findQuizDetails(quizId.toString()).getCollaborators()
+            .stream().map(UserDto::getUsername).toList());
+
+    updateAs("aclowner", List.of(collaborator, stranger)).andExpect(status().isOk());
+    assertEquals(QuizRole.COLLABORATOR, quizPermissions.role(quizId, "aclstranger"));
+  }
+}
@@ -0,0 +1,259 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.controllerTests;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.CategoryDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.QuestionAnswersDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.QuestionAttemptDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.QuestionDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.QuizAttemptDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.QuizDetailsDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.QuizPlayDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.SuggestionDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.entities.CategoryEntity;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.entities.QuizAttemptEntity;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.entities.UserEntity;
+import edu.ntnu.fullstack.prosjekt.quizzer.enums.SuggestionType;
+import edu.ntnu.fullstack.prosjekt.quizzer.recommend.QuizRecommender;
+import edu.ntnu.fullstack.prosjekt.quizzer.repositories.AttemptRepository;
+import edu.ntnu.fullstack.prosjekt.quizzer.repositories.CategoryRepository;
+import edu.ntnu.fullstack.prosjekt.quizzer.repositories.QuizRepository;
+import edu.ntnu.fullstack.prosjekt.quizzer.repositories.QuizVersionRepository;
+import edu.ntnu.fullstack.prosjekt.quizzer.repositories.UserRepository;
+import edu.ntnu.fullstack.prosjekt.quizzer.services.QuizService;
+import edu.ntnu.fullstack.prosjekt.quizzer.services.QuizVersionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class QuizVersionIntegrationTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private QuizRepository quizRepository;
+
+  @Autowired
+  private QuizVersionRepository quizVersionRepository;
+
+  @Autowired
+  private AttemptRepository attemptRepository;
+
+  @Autowired
+  private QuizService quizService;
+
+  @Autowired
+  private QuizVersionService quizVersionService;
+
+  @Autowired
+  private QuizRecommender quizRecommender;
+
+  @Autowired
+  private CategoryRepository categoryRepository;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  private final UsernamePasswordAuthenticationToken versionUser =
+          new UsernamePasswordAuthenticationToken("versionuser", "password", Collections.emptyList());
+
+  private UserEntity userEntity;
+
+  private Long quizId;
+
+  @BeforeEach
+  void createQuiz() {
+    userEntity = userRepository.save(new UserEntity("versionuser", "Version User", "version@example.com", "password"));
+    QuizDetailsDto quiz = QuizControllerTestDataUtil.createTestDtoQuizA();
+    quiz.setCategories(new ArrayList<>());
+    quiz.setQuestions(QuizControllerTestDataUtil.createQuestions());
+    QuizDetailsDto created = quizService.createQuiz(quiz, userEntity);
+    assertEquals(1, created.getVersion());
+    quizId = created.getQuizId();
+  }
+
+  private QuizAttemptDto attempt(Integer version, Long questionId, String answer) {
+    return new QuizAttemptDto(0, 30, List.of(new QuestionAttemptDto(questionId, answer, false)), version);
+  }
+
+  private QuizAttemptDto submit(QuizAttemptDto attempt) throws Exception {
+    String body = mockMvc.perform(post("/api/quizzes/" + quizId)
+                    .with(authentication(versionUser))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(attempt)))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+    return objectMapper.readValue(body, QuizAttemptDto.class);
+  }
+
+  @Test
+  void editingKeepsTheQuizAndEarlierVersionsStillGrade() throws Exception {
+    long quizzesBefore = quizRepository.count();
+    QuizDetailsDto first = quizService.findQuizDetails(quizId.toString());
+    QuestionDto removed = first.getQuestions().get(0);
+    String correctAnswer = removed.getAlternatives().stream().filter(QuestionAnswersDto::getIsCorrect)
+            .map(QuestionAnswersDto::getAnswer).findFirst().orElseThrow();
+
+    QuizDetailsDto edited = quizService.findQuizDetails(quizId.toString());
+    edited.setTitle("Sharks, revised");
+    edited.setQuestions(new ArrayList<>(edited.getQuestions().subList(1, edited.getQuestions().size())));
+    mockMvc.perform(put("/api/quizzes")
+                    .with(authentication(versionUser))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(edited)))
+            .andExpect(status().isOk());
+
+    assertEquals(quizzesBefore, quizRepository.count());
+    QuizDetailsDto second = quizService.findQuizDetails(quizId.toString());
+    assertEquals(2, second.getVersion());
+    assertEquals("Sharks, revised", second.getTitle());
+    assertEquals(first.getQuestions().size() - 1, second.getQuestions().size());
+    assertEquals(first.getQuestions().subList(1, first.getQuestions().size()).stream()
+                    .map(QuestionDto::getQuestionId).collect(Collectors.toSet()),
+            second.getQuestions().stream().map(QuestionDto::getQuestionId).collect(Collectors.toSet()));
+
+    String playBody = mockMvc.perform(get("/api/quizzes/" + quizId + "/play"))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+    QuizPlayDto play = objectMapper.readValue(playBody, QuizPlayDto.class);
+    assertEquals(2, play.getVersion());
+    assertEquals(second.getQuestions().size(), play.getTotalQuestions());
+
+    QuizAttemptDto gradedAgainstFirst = submit(attempt(1, removed.getQuestionId(), correctAnswer));
+    assertEquals(1, gradedAgainstFirst.getScore());
+    assertEquals(1, gradedAgainstFirst.getVersion());
+    QuizAttemptDto gradedAgainstNewest = submit(attempt(null, removed.getQuestionId(), correctAnswer));
+    assertEquals(0, gradedAgainstNewest.getScore());
+    assertEquals(2, gradedAgainstNewest.getVersion());
+
+    Set<Long> versionIds = attemptRepository.findQuizAttemptEntitiesByUser(userEntity, Pageable.unpaged())
+            .stream().map(QuizAttemptEntity::getVersion).map(version -> version.getVersionId())
+            .collect(Collectors.toSet());
+    assertEquals(Set.of(quizVersionRepository.findByQuizQuizIdAndNumber(quizId, 1).orElseThrow().getVersionId(),
+            quizVersionRepository.findByQuizQuizIdAndNumber(quizId, 2).orElseThrow().getVersionId()), versionIds);
+  }
+
+  @Test
+  void localizedImageLinksAreRewrittenInTheNewestVersion() {
+    String remoteLink = "https://images.invalid/shark.png";
+    QuizDetailsDto quiz = QuizControllerTestDataUtil.createTestDtoQuizA();
+    quiz.setImageLink(remoteLink);
+    quiz.setCategories(new ArrayList<>());
+    quiz.setQuestions(QuizControllerTestDataUtil.createQuestions());
+    Long linkedQuizId = quizService.createQuiz(quiz, userEntity).getQuizId();
+    assertEquals(remoteLink, quizVersionService.findVersion(linkedQuizId, 1).getImageLink());
+
+    new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+            quizVersionService.replaceImageLinks(linkedQuizId, Map.of(remoteLink, "/api/images/shark.png")));
+
+    assertEquals(1, quizVersionService.findCurrentVersion(linkedQuizId));
+    QuizDetailsDto version = quizVersionService.findVersion(linkedQuizId, 1);
+    assertEquals("/api/images/shark.png", version.getImageLink());
+    assertEquals(3, version.getQuestions().size());
+  }
+
+  @Test
+  void quizzesCreatedInARolledBackTransactionAreNeverSuggestedOrRecommended() {
+    categoryRepository.save(new CategoryEntity("Narwhals"));
+    QuizDetailsDto quiz = QuizControllerTestDataUtil.createTestDtoQuizA();
+    quiz.setTitle("Narwhal Quiz");
+    quiz.setCategories(new ArrayList<>(List.of(new CategoryDto("Narwhals", null))));
+    quiz.setQuestions(QuizControllerTestDataUtil.createQuestions());
+
+    Long rolledBackQuizId = new TransactionTemplate(transactionManager).execute(status -> {
+      status.setRollbackOnly();
+      return quizService.createQuiz(quiz, userEntity).getQuizId();
+    });
+    assertTrue(quizService.suggest("narwhal", 10).isEmpty());
+
+    Long createdQuizId = quizService.createQuiz(quiz, userEntity).getQuizId();
+    assertEquals(List.of(createdQuizId), quizService.suggest("narwhal", 10).stream()
+            .filter(suggestion -> suggestion.getType() == SuggestionType.QUIZ)
+            .map(SuggestionDto::getQuizId).toList());
+    quizRecommender.refresh();
+    assertTrue(quizRecommender.similar(createdQuizId, 20).stream()
+            .noneMatch(recommendation -> rolledBackQuizId.equals(recommendation.getQuizId())));
+  }
+
+  @Test
+  void versionsAreServedAsImmutable() throws Exception {
+    MvcResult result = mockMvc.perform(get("/api/quizzes/" + quizId + "/versions/1"))
+            .andExpect(status().isOk())
+            .andReturn();
+    String eTag = result.getResponse().getHeader(HttpHeaders.ETAG);
+    assertNotNull(eTag);
+    assertTrue(result.getResponse().getHeader(HttpHeaders.CACHE_CONTROL).contains("immutable"));
+    QuizDetailsDto version = objectMapper.readValue(
+            result.getResponse().getContentAsString(StandardCharsets.UTF_8), QuizDetailsDto.class);
+    assertEquals(1, version.getVersion());
+    assertEquals(quizId, version.getQuizId());
+    assertEquals(3, version.getQuestions().size());
+
+    mockMvc.perform(get("/api/quizzes/" + quizId + "/versions/1").header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isNotModified());
+    mockMvc.perform(get("/api/quizzes/" + quizId + "/versions/9"))
+            .andExpect(status().isNotFound());
+  }
+
+  @Test
+  void concurrentEditsArePublishedAsConsecutiveVersions() throws Exception {
+    TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+    CountDownLatch start = new CountDownLatch(1);
+    List<CompletableFuture<Integer>> publishes = new ArrayList<>();
+    for (int i = 0; i < 2; i++) {
+      publishes.add(CompletableFuture.supplyAsync(() -> transactionTemplate.execute(status -> {
+        var quizEntity = quizRepository.findById(quizId).orElseThrow();
+        try {
+          start.await();
+        } catch (InterruptedException e) {
+          throw new IllegalStateException(e);
+        }
+        return quizVersionService.publish(quizEntity).getNumber();
+      })));
+    }
+    start.countDown();
+
+    Set<Integer> numbers = Set.of(publishes.get(0).get(10, TimeUnit.SECONDS),
+            publishes.get(1).get(10, TimeUnit.SECONDS));
+    assertEquals(Set.of(2, 3), numbers);
+    assertEquals(3, quizVersionService.findCurrentVersion(quizId));
+  }
+}
@@ -0,0 +1,71 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.controllerTests;
+
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.QuizDetailsDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.entities.UserEntity;
+import edu.ntnu.fullstack.prosjekt.quizzer.repositories.UserRepository;
+import edu.ntnu.fullstack.prosjekt.quizzer.services.QuizService;
+import edu.ntnu.fullstack.prosjekt.quizzer.timing.ServerTimingFilter;
+import java.util.ArrayList;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "quizzer.server-timing.enabled=true",
+        "quizzer.server-timing.slow-ms=0",
+        "quizzer.server-timing.slow-sample-rate=1"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class ServerTimingIntegrationTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private QuizService quizService;
+
+  private Long quizId;
+
+  @BeforeEach
+  void createQuiz() {
+    UserEntity owner = userRepository.findById("timingowner").orElseGet(() -> userRepository.save(
+            new UserEntity("timingowner", "Timing Owner", "timing@example.com", "password")));
+    QuizDetailsDto quiz = QuizControllerTestDataUtil.createTestDtoQuizA();
+    quiz.setCategories(new ArrayList<>());
+    quiz.setQuestions(QuizControllerTestDataUtil.createQuestions());
+    quizId = quizService.createQuiz(quiz, owner).getQuizId();
+  }
+
+  @Test
+  void quizDetailsReportTheirPhases() throws Exception {
+    mockMvc.perform(get("/api/quizzes/{quizId}", quizId))
+            .andExpect(status().isOk())
+            .andExpect(header().string(ServerTimingFilter.SERVER_TIMING, allOf(
+                    containsString("db;desc=\"SQL statements ("),
+                    containsString("map;desc=\"Mapping ("),
+                    containsString("alt;desc=\"Alternatives parsing (3)\""),
+                    containsString("json;desc=\"Response serialization (1)\""),
+                    containsString("total;dur="))));
+  }
+
+  @Test
+  void responsesWithoutBodyReportTheirTotal() throws Exception {
+    mockMvc.perform(get("/api/quizzes/{quizId}", Long.MAX_VALUE))
+            .andExpect(status().isNotFound())
+            .andExpect(header().string(ServerTimingFilter.SERVER_TIMING, containsString("total;dur=")));
+  }
+}
@@ -0,0 +1,39 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.controllerTests;
+
+/**
+ * The most SQL statements a request to an endpoint may prepare, checked with
+ * {@link StatementCounter}. Budgets hold for a quiz or user that is not cached yet, so a
+ * statement per returned row shows up as soon as a page has more than a few rows.
+ */
+public enum StatementBudget {
+  // The page, its total, the question counts, and the categories and owners in batches.
+  QUIZ_PAGE("GET /api/quizzes", 5),
+  // The quiz with its owner, categories and collaborators, its questions and its newest version.
+  QUIZ_DETAILS("GET /api/quizzes/{quizId}", 3),
+  // A block of attempt ids, the attempt, and the mastery of a user's first attempt.
+  ATTEMPT_SUBMISSION("POST /api/quizzes/{quizId}", 3),
+  // The user, the quiz, its categories, an id for the fork, its questions locked, a block of ids
+  // for them, one copy per table, and its owner,
+  // then the fork with its categories, collaborators and questions, locked and published.
+  QUIZ_FORK("POST /api/quizzes/{quizId}/fork", 17),
+  USER_DETAILS("GET /api/users/{username}", 1),
+  // The user, the page, its total, and the quizzes and their categories in batches.
+  USER_ATTEMPTS("GET /api/users/quiz-attempts", 5);
+
+  private final String endpoint;
+
+  private final int maxStatements;
+
+  StatementBudget(String endpoint, int maxStatements) {
+    this.endpoint = endpoint;
+    this.maxStatements = maxStatements;
+  }
+
+  public String getEndpoint() {
+    return endpoint;
+  }
+
+  public int getMaxStatements() {
+    return maxStatements;
+  }
+}
@@ -0,0 +1,50 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.controllerTests;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread, so tests can hold a
+ * request to its {@link StatementBudget}. Registered for every test through the
+ * hibernate.session_factory.statement_inspector property. Work done on other threads, such as
+ * scheduled flushes, is not counted.
+ */
+public class StatementCounter implements StatementInspector {
+
+  private static final ThreadLocal<List<String>> STATEMENTS = new ThreadLocal<>();
+
+  @Override
+  public String inspect(String sql) {
+    List<String> statements = STATEMENTS.get();
+    if (statements != null) {
+      statements.add(sql);
+    }
+    return sql;
+  }
+
+  /**
+   * Runs a request and fails if it prepared more statements than its budget allows.
+   *
+   * @param budget  The budget of the requested endpoint.
+   * @param request The request, run on the current thread.
+   * @return The result of the request.
+   */
+  public static <T> T assertWithin(StatementBudget budget, Callable<T> request) throws Exception {
+    List<String> statements = new ArrayList<>();
+    STATEMENTS.set(statements);
+    T result;
+    try {
+      result = request.call();
+    } finally {
+      STATEMENTS.remove();
+    }
+    if (statements.size() > budget.getMaxStatements()) {
+      throw new AssertionError(budget.getEndpoint() + " prepared " + statements.size()
+              + " SQL statements, but its budget is " + budget.getMaxStatements() + ":\n"
+              + String.join("\n", statements));
+    }
+    return result;
+  }
+}
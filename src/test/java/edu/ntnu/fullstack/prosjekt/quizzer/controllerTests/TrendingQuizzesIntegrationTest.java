@@ -0,0 +1,110 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.controllerTests;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.QuestionAttemptDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.QuizAttemptDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.QuizDetailsDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.TrendingQuizDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.entities.QuizTrendEntity;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.entities.UserEntity;
+import edu.ntnu.fullstack.prosjekt.quizzer.recommend.TrendingQuizzes;
+import edu.ntnu.fullstack.prosjekt.quizzer.repositories.QuizRepository;
+import edu.ntnu.fullstack.prosjekt.quizzer.repositories.UserRepository;
+import edu.ntnu.fullstack.prosjekt.quizzer.services.QuizService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class TrendingQuizzesIntegrationTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private QuizRepository quizRepository;
+
+  @Autowired
+  private QuizService quizService;
+
+  @Autowired
+  private TrendingQuizzes trendingQuizzes;
+
+  @Autowired
+  private EntityManager entityManager;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  private TrendingQuizDto trendOf(List<TrendingQuizDto> trending, Long quizId) {
+    return trending.stream().filter(trend -> trend.getQuizId().equals(quizId)).findFirst().orElseThrow();
+  }
+
+  @Test
+  void viewsAndAttemptsTrendAndSurviveARestart() throws Exception {
+    UserEntity userEntity = userRepository.save(new UserEntity("trenduser", "Trend User", "trend@example.com", "password"));
+    QuizDetailsDto quiz = QuizControllerTestDataUtil.createTestDtoQuizA();
+    quiz.setCategories(new ArrayList<>());
+    quiz.setQuestions(QuizControllerTestDataUtil.createQuestions());
+    Long quizId = quizService.createQuiz(quiz, userEntity).getQuizId();
+
+    mockMvc.perform(get("/api/quizzes/" + quizId)).andExpect(status().isOk());
+    mockMvc.perform(post("/api/quizzes/" + quizId)
+                    .with(authentication(new UsernamePasswordAuthenticationToken("trenduser", "password",
+                            Collections.emptyList())))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(
+                            new QuizAttemptDto(0, 30, List.of(new QuestionAttemptDto(null, "0", false)), null))))
+            .andExpect(status().isOk());
+
+    String body = mockMvc.perform(get("/api/quizzes/trending").param("limit", "50"))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+    TrendingQuizDto trend = trendOf(Arrays.asList(objectMapper.readValue(body, TrendingQuizDto[].class)), quizId);
+    assertEquals(quiz.getTitle(), trend.getTitle());
+    assertEquals(1, trend.getViews());
+    assertEquals(1, trend.getAttempts());
+
+    trendingQuizzes.save();
+    TrendingQuizzes restarted = new TrendingQuizzes(entityManager, transactionManager, quizRepository, 3_600_000);
+    try {
+      restarted.load();
+      TrendingQuizDto loaded = trendOf(restarted.trending(50), quizId);
+      assertEquals(quiz.getTitle(), loaded.getTitle());
+      assertEquals(1, loaded.getAttempts());
+    } finally {
+      restarted.shutdown();
+    }
+
+    assertNotNull(entityManager.find(QuizTrendEntity.class, quizId));
+    trendingQuizzes.removeQuiz(quizId);
+    trendingQuizzes.save();
+    assertNull(entityManager.find(QuizTrendEntity.class, quizId));
+  }
+}
@@ -3,9 +3,20 @@ package edu.ntnu.fullstack.prosjekt.quizzer.controllerTests;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import edu.ntnu.fullstack.prosjekt.quizzer.controllers.TokenController;
 import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.LoginDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.QuestionAttemptDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.QuizAttemptDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.QuizDetailsDto;
 import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.UserDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.entities.UserEntity;
+import edu.ntnu.fullstack.prosjekt.quizzer.repositories.UserRepository;
+import edu.ntnu.fullstack.prosjekt.quizzer.services.QuizService;
 import edu.ntnu.fullstack.prosjekt.quizzer.services.UserService;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
@@ -15,12 +26,14 @@ import org.springframework.http.MediaType;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.NestedTestConfiguration;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.web.server.ResponseStatusException;
 
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -126,5 +139,71 @@ class UserControllerIntegrationTest {
         .andExpect(status().isUnauthorized());
   }
 
-
+  /**
+   * Requests against the real services, held to the statement budgets of their endpoints.
+   */
+  @Nested
+  @NestedTestConfiguration(NestedTestConfiguration.EnclosingConfiguration.OVERRIDE)
+  @SpringBootTest
+  @AutoConfigureMockMvc
+  @ActiveProfiles("test")
+  class StatementBudgets {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private QuizService quizService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private UserEntity createUser(String username) {
+      return userRepository.findById(username).orElseGet(() ->
+              userRepository.save(new UserEntity(username, "Budget User", username + "@example.com", "password")));
+    }
+
+    private void evictCaches() {
+      entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+    }
+
+    @Test
+    void userDetailsAreWithinBudget() throws Exception {
+      createUser("budgetreader");
+      evictCaches();
+
+      StatementCounter.assertWithin(StatementBudget.USER_DETAILS, () ->
+              mockMvc.perform(get("/api/users/{username}", "budgetreader")
+                              .with(authentication(new UsernamePasswordAuthenticationToken("budgetreader",
+                                      "password", Collections.emptyList()))))
+                      .andExpect(status().isOk())
+                      .andExpect(jsonPath("$.username").value("budgetreader")));
+    }
+
+    @Test
+    void quizAttemptsAreWithinBudget() throws Exception {
+      UserEntity author = createUser("budgetauthor");
+      UserEntity player = createUser("budgetattempter");
+      for (int i = 0; i < 5; i++) {
+        QuizDetailsDto quiz = QuizControllerTestDataUtil.createTestDtoQuizA();
+        quiz.setCategories(new ArrayList<>());
+        quiz.setQuestions(QuizControllerTestDataUtil.createQuestions());
+        QuizDetailsDto created = quizService.createQuiz(quiz, author);
+        quizService.checkAnswers(created.getQuizId().toString(), new QuizAttemptDto(0, 30, List.of(
+                new QuestionAttemptDto(created.getQuestions().get(0).getQuestionId(), "0", false)),
+                created.getVersion()), player);
+      }
+      evictCaches();
+
+      StatementCounter.assertWithin(StatementBudget.USER_ATTEMPTS, () ->
+              mockMvc.perform(get("/api/users/quiz-attempts").param("size", "5")
+                              .with(authentication(new UsernamePasswordAuthenticationToken("budgetattempter",
+                                      "password", Collections.emptyList()))))
+                      .andExpect(status().isOk())
+                      .andExpect(jsonPath("$.content.length()").value(5)));
+    }
+  }
 }
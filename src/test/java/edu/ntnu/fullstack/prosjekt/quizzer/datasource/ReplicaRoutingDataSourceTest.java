@@ -0,0 +1,163 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.datasource;
+
+import edu.ntnu.fullstack.prosjekt.quizzer.acl.QuizPermissions;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.entities.UserEntity;
+import edu.ntnu.fullstack.prosjekt.quizzer.repositories.UserRepository;
+import edu.ntnu.fullstack.prosjekt.quizzer.services.UserService;
+import jakarta.persistence.EntityManagerFactory;
+import java.sql.Connection;
+import java.util.List;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+    "quizzer.datasource.replicas[0].url=" + ReplicaRoutingDataSourceTest.REPLICA_URL,
+    "quizzer.datasource.replica-lag-tolerance=300ms"
+})
+@ActiveProfiles("test")
+class ReplicaRoutingDataSourceTest {
+
+  static final String REPLICA_URL =
+      "jdbc:h2:mem:replica;MODE=MySql;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1";
+
+  @Autowired
+  private UserService userService;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private ReplicaRoutingDataSource routingDataSource;
+
+  @Autowired
+  private PrimaryReads primaryReads;
+
+  @Autowired
+  private QuizPermissions quizPermissions;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  private JdbcTemplate replica;
+
+  /**
+   * Creates the tables in the replica, as replication would, before the application reads from it.
+   */
+  @BeforeAll
+  static void createReplicaSchema() {
+    Flyway.configure().dataSource(REPLICA_URL, "user", "password")
+        .locations("classpath:db/migration/h2").load().migrate();
+  }
+
+  @BeforeEach
+  void setUp() {
+    replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "user", "password"));
+    replica.update("merge into users (username, full_name, email, password) key (username) "
+        + "values ('replicauser', 'Replica User', 'replica@example.com', 'password')");
+    entityManagerFactory.getCache().evictAll();
+  }
+
+  @AfterEach
+  void tearDown() {
+    SecurityContextHolder.clearContext();
+  }
+
+  @Test
+  void readOnlyTransactionsGoToTheReplicaAndWritesToThePrimary() {
+    assertThat(routingDataSource.getReplicaCount()).isEqualTo(1);
+    assertThat(userService.findDtoByUsername("replicauser").getFullName()).isEqualTo("Replica User");
+
+    userRepository.save(new UserEntity("primaryuser", "Primary User", "primary@example.com", "password"));
+    assertThat(replica.queryForObject("select count(*) from users where username = 'primaryuser'",
+        Integer.class)).isZero();
+  }
+
+  @Test
+  void usersReadTheirOwnWritesFromThePrimaryWithinTheLagTolerance() throws Exception {
+    SecurityContextHolder.getContext().setAuthentication(
+        new UsernamePasswordAuthenticationToken("writer", null, List.of()));
+    userRepository.save(new UserEntity("writer", "Writer", "writer@example.com", "password"));
+    entityManagerFactory.getCache().evictAll();
+
+    assertThat(routingDataSource.wroteRecently("writer")).isTrue();
+    assertThat(routingDataSource.wroteRecently("someoneelse")).isFalse();
+    assertThat(userService.findDtoByUsername("writer")).isNotNull();
+    assertThat(userService.findDtoByUsername("replicauser")).isNull();
+
+    Thread.sleep(400);
+    entityManagerFactory.getCache().evictAll();
+    assertThat(userService.findDtoByUsername("replicauser")).isNotNull();
+  }
+
+  @Test
+  void aTransactionRecordsItsWriteOnce() {
+    SecurityContextHolder.getContext().setAuthentication(
+        new UsernamePasswordAuthenticationToken("batchwriter", null, List.of()));
+    int registered = new TransactionTemplate(transactionManager).execute(status -> {
+      int before = TransactionSynchronizationManager.getSynchronizations().size();
+      for (int i = 0; i < 3; i++) {
+        try (Connection connection = routingDataSource.getConnection()) {
+          assertThat(connection.isReadOnly()).isFalse();
+        } catch (Exception e) {
+          throw new IllegalStateException(e);
+        }
+      }
+      return TransactionSynchronizationManager.getSynchronizations().size() - before;
+    });
+
+    assertThat(registered).isEqualTo(1);
+    assertThat(routingDataSource.wroteRecently("batchwriter")).isTrue();
+  }
+
+  @Test
+  void anonymousWritesOutsideRequestsPinNoOne() {
+    userRepository.save(new UserEntity("anonymouswrite", "Anonymous Write", "anonymous@example.com", "password"));
+
+    assertThat(routingDataSource.wroteRecently("")).isFalse();
+    assertThat(routingDataSource.wroteRecently(null)).isFalse();
+  }
+
+  @Test
+  void primaryReadsSkipTheReplicaWithoutPinningTheReader() {
+    SecurityContextHolder.getContext().setAuthentication(
+        new UsernamePasswordAuthenticationToken("primaryreader", null, List.of()));
+    TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+    readOnly.setReadOnly(true);
+
+    boolean[] found = readOnly.execute(status -> new boolean[] {
+        userRepository.existsById("replicauser"),
+        primaryReads.read(() -> userRepository.existsById("replicauser"))
+    });
+
+    assertThat(found).containsExactly(true, false);
+    assertThat(primaryReads.read(() -> userRepository.existsById("replicauser"))).isFalse();
+    assertThat(routingDataSource.wroteRecently("primaryreader")).isFalse();
+  }
+
+  @Test
+  void quizPermissionsAreReadFromThePrimary() {
+    replica.update("merge into quiz_permissions (quiz_id, username, role) key (quiz_id, username) "
+        + "values (424242, 'replicauser', 'OWNER')");
+
+    assertThat(quizPermissions.roles(424242L)).isEmpty();
+    assertThat(quizPermissions.canEdit(424242L, "replicauser")).isFalse();
+  }
+}
@@ -0,0 +1,139 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.fork;
+
+import edu.ntnu.fullstack.prosjekt.quizzer.controllerTests.QuizControllerTestDataUtil;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.QuestionDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.QuizDetailsDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.entities.UserEntity;
+import edu.ntnu.fullstack.prosjekt.quizzer.repositories.UserRepository;
+import edu.ntnu.fullstack.prosjekt.quizzer.services.QuizService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Forks quizzes the way they are forked on databases without sequences, like MySQL, where the
+ * next ids are kept in tables. The tables are created here, starting far above the ids the H2
+ * sequences hand out.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class QuizForkerTest {
+
+  private static final long FIRST_ID = 1_000_001;
+
+  @Autowired
+  private EntityManager entityManager;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private QuizService quizService;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  private QuizForker quizForker;
+
+  private final List<QuizDetailsDto> sources = new ArrayList<>();
+
+  @BeforeEach
+  void createIdTables() {
+    for (String table : List.of("quiz_id_seq", "question_id_seq")) {
+      jdbcTemplate.update("CREATE TABLE " + table + " (next_val BIGINT)");
+      jdbcTemplate.update("INSERT INTO " + table + " VALUES (" + FIRST_ID + ")");
+    }
+    quizForker = new QuizForker(entityManager, entityManagerFactory, transactionManager) {
+      @Override
+      boolean supportsSequences() {
+        return false;
+      }
+    };
+  }
+
+  @AfterEach
+  void dropIdTablesAndForks() {
+    jdbcTemplate.update("DELETE FROM questions WHERE quiz_id >= ?", FIRST_ID);
+    jdbcTemplate.update("DELETE FROM quizzes_categories WHERE quiz_entity_quiz_id >= ?", FIRST_ID);
+    jdbcTemplate.update("DELETE FROM quizzes WHERE quiz_id >= ?", FIRST_ID);
+    jdbcTemplate.update("DROP TABLE quiz_id_seq");
+    jdbcTemplate.update("DROP TABLE question_id_seq");
+    sources.forEach(quizService::deleteQuizEntity);
+  }
+
+  private QuizDetailsDto createQuiz(int questions) {
+    UserEntity author = userRepository.save(
+            new UserEntity("forkerauthor", "Forker Author", "forkerauthor@example.com", "password"));
+    QuizDetailsDto quiz = QuizControllerTestDataUtil.createTestDtoQuizA();
+    List<QuestionDto> questionDtos = new ArrayList<>();
+    for (int i = 0; i < questions; i++) {
+      QuestionDto question = QuizControllerTestDataUtil.createQuestionA();
+      question.setLabel("Question " + i);
+      questionDtos.add(question);
+    }
+    quiz.setQuestions(questionDtos);
+    QuizDetailsDto source = quizService.createQuiz(quiz, author);
+    sources.add(source);
+    return source;
+  }
+
+  private QuizForker.Fork fork(Long sourceId) {
+    return new TransactionTemplate(transactionManager).execute(status -> quizForker.fork(sourceId, "forkerauthor"));
+  }
+
+  private List<Long> questionIds(Long quizId) {
+    return jdbcTemplate.queryForList(
+            "SELECT question_id FROM questions WHERE quiz_id = ? ORDER BY position", Long.class, quizId);
+  }
+
+  private long nextValue(String table) {
+    return jdbcTemplate.queryForObject("SELECT next_val FROM " + table, Long.class);
+  }
+
+  @Test
+  void copiedQuestionsTakeConsecutiveIdsFromTheTable() {
+    QuizDetailsDto source = createQuiz(60);
+
+    QuizForker.Fork first = fork(source.getQuizId());
+    assertThat(first.quizId()).isEqualTo(FIRST_ID);
+    assertThat(first.questionCount()).isEqualTo(60);
+    assertThat(questionIds(first.quizId()))
+            .containsExactlyElementsOf(LongStream.range(FIRST_ID, FIRST_ID + 60).boxed().toList());
+    assertThat(nextValue("quiz_id_seq")).isEqualTo(FIRST_ID + 50);
+    assertThat(nextValue("question_id_seq")).isEqualTo(FIRST_ID + 150);
+
+    QuizForker.Fork second = fork(first.quizId());
+    assertThat(second.quizId()).isEqualTo(FIRST_ID + 50);
+    assertThat(questionIds(second.quizId()))
+            .containsExactlyElementsOf(LongStream.range(FIRST_ID + 150, FIRST_ID + 210).boxed().toList());
+    assertThat(questionIds(source.getQuizId())).hasSize(60).allMatch(id -> id < FIRST_ID);
+  }
+
+  @Test
+  void quizzesWithoutQuestionsReserveNoQuestionIds() {
+    QuizDetailsDto source = createQuiz(0);
+
+    QuizForker.Fork fork = fork(source.getQuizId());
+    assertThat(fork.questionCount()).isZero();
+    assertThat(nextValue("question_id_seq")).isEqualTo(FIRST_ID);
+  }
+}
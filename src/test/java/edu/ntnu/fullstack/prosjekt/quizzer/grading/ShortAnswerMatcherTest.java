@@ -0,0 +1,126 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.grading;
+
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ShortAnswerMatcherTest {
+
+  private static ShortAnswerMatcher matcher(ShortAnswerTolerance tolerance, String... answers) {
+    return ShortAnswerMatcher.compile(answers, tolerance);
+  }
+
+  @Test
+  void normalizesAccentsCaseWhitespaceAndPunctuation() {
+    assertThat(ShortAnswerMatcher.normalizedForm("  Café-au-LAIT!! ")).isEqualTo("cafe au lait");
+    assertThat(ShortAnswerMatcher.normalizedForm("O'Brien’s\tpub")).isEqualTo("obriens pub");
+    assertThat(ShortAnswerMatcher.normalizedForm("Ｔｏｋｙｏ")).isEqualTo("tokyo");
+    assertThat(ShortAnswerMatcher.normalizedForm("Ærøskøbing")).isEqualTo("ærøskøbing");
+
+    ShortAnswerMatcher exact = matcher(ShortAnswerTolerance.EXACT, "São Paulo");
+    assertThat(exact.matches("sao   paulo.")).isTrue();
+    assertThat(exact.matches("SAO-PAULO")).isTrue();
+    assertThat(exact.matches("saopaulo")).isFalse();
+  }
+
+  @Test
+  void acceptsTyposByLengthOfTheCorrectAnswer() {
+    ShortAnswerMatcher matcher = matcher(ShortAnswerTolerance.DEFAULT, "cat", "Paris", "Mediterranean");
+
+    assertThat(matcher.matches("cot")).isFalse();
+    assertThat(matcher.matches("Pariz")).isTrue();
+    assertThat(matcher.matches("Prais")).isFalse();
+    assertThat(matcher.matches("Mediteranian")).isTrue();
+    assertThat(matcher.matches("Meditranian")).isFalse();
+    assertThat(matcher.matches(null)).isFalse();
+    assertThat(matcher.matches("")).isFalse();
+  }
+
+  @Test
+  void answersWithDigitsMustMatchExactly() {
+    ShortAnswerMatcher matcher = matcher(ShortAnswerTolerance.DEFAULT, "World War 1918", "3.14");
+
+    assertThat(matcher.matches("world war 1918")).isTrue();
+    assertThat(matcher.matches("world war 1914")).isFalse();
+    assertThat(matcher.matches("31.4")).isFalse();
+  }
+
+  @Test
+  void answersMadeOfPunctuationAreComparedAsGiven() {
+    ShortAnswerMatcher matcher = matcher(ShortAnswerTolerance.DEFAULT, "?");
+
+    assertThat(matcher.matches(" ? ")).isTrue();
+    assertThat(matcher.matches("!")).isFalse();
+  }
+
+  @Test
+  void agreesWithTheTextbookEditDistance() {
+    SplittableRandom random = new SplittableRandom(7);
+    String alphabet = "abcdé ";
+    for (int round = 0; round < 5_000; round++) {
+      String answer = randomWord(random, alphabet, 1 + random.nextInt(round % 2 == 0 ? 12 : 90));
+      String given = mutate(random, answer, alphabet);
+      ShortAnswerTolerance tolerance = new ShortAnswerTolerance(random.nextInt(5), 1);
+      String normalizedAnswer = ShortAnswerMatcher.normalizedForm(answer);
+      String normalizedGiven = ShortAnswerMatcher.normalizedForm(given);
+      if (normalizedAnswer.isEmpty()) {
+        continue;
+      }
+      int allowed = Math.min(tolerance.maxEdits(), normalizedAnswer.length());
+      boolean expected = distance(normalizedAnswer, normalizedGiven) <= allowed;
+
+      assertThat(matcher(tolerance, answer).matches(given))
+              .as("%s against %s within %d", given, answer, allowed)
+              .isEqualTo(expected);
+    }
+  }
+
+  private static String randomWord(SplittableRandom random, String alphabet, int length) {
+    StringBuilder word = new StringBuilder(length);
+    for (int i = 0; i < length; i++) {
+      word.append(alphabet.charAt(random.nextInt(alphabet.length())));
+    }
+    return word.toString();
+  }
+
+  private static String mutate(SplittableRandom random, String word, String alphabet) {
+    StringBuilder mutated = new StringBuilder(word);
+    int edits = random.nextInt(6);
+    for (int i = 0; i < edits; i++) {
+      int at = random.nextInt(mutated.length() + 1);
+      char c = alphabet.charAt(random.nextInt(alphabet.length()));
+      switch (random.nextInt(3)) {
+        case 0 -> mutated.insert(at, c);
+        case 1 -> {
+          if (at < mutated.length()) {
+            mutated.deleteCharAt(at);
+          }
+        }
+        default -> {
+          if (at < mutated.length()) {
+            mutated.setCharAt(at, c);
+          }
+        }
+      }
+    }
+    return mutated.toString();
+  }
+
+  private static int distance(String a, String b) {
+    int[][] d = new int[a.length() + 1][b.length() + 1];
+    for (int i = 0; i <= a.length(); i++) {
+      d[i][0] = i;
+    }
+    for (int j = 0; j <= b.length(); j++) {
+      d[0][j] = j;
+    }
+    for (int i = 1; i <= a.length(); i++) {
+      for (int j = 1; j <= b.length(); j++) {
+        int substitution = d[i - 1][j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+        d[i][j] = Math.min(substitution, Math.min(d[i - 1][j], d[i][j - 1]) + 1);
+      }
+    }
+    return d[a.length()][b.length()];
+  }
+}
@@ -0,0 +1,43 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.images;
+
+import java.net.InetAddress;
+import java.net.URI;
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RemoteImageFetcherTest {
+
+  private static boolean isPublic(String address) throws Exception {
+    return RemoteImageFetcher.isPublic(InetAddress.getByName(address));
+  }
+
+  @Test
+  void onlyPublicAddressesArePublic() throws Exception {
+    for (String address : new String[] {"0.0.0.0", "0.1.2.3", "10.0.0.1", "100.64.0.1", "100.127.255.254",
+        "127.0.0.1", "169.254.169.254", "172.16.0.1", "172.31.255.255", "192.168.1.1", "192.0.0.8",
+        "198.18.0.1", "224.0.0.1", "240.0.0.1", "255.255.255.255",
+        "::", "::1", "fc00::1", "fd12:3456::1", "fe80::1", "ff02::1", "2001:db8::1",
+        "::ffff:127.0.0.1", "::ffff:10.0.0.1", "::10.0.0.1", "64:ff9b::a9fe:a9fe"}) {
+      assertThat(isPublic(address)).as(address).isFalse();
+    }
+    for (String address : new String[] {"8.8.8.8", "100.63.255.255", "100.128.0.1", "172.32.0.1",
+        "193.0.0.1", "2001:4860:4860::8888", "::ffff:8.8.8.8"}) {
+      assertThat(isPublic(address)).as(address).isTrue();
+    }
+  }
+
+  @Test
+  void refusesLinksToInternalAddressesBeforeConnecting() {
+    RemoteImageFetcher fetcher = new RemoteImageFetcher(Duration.ofSeconds(1), Duration.ofSeconds(1));
+
+    assertThatThrownBy(() -> fetcher.open(URI.create("http://127.0.0.1:8080/image.png")))
+            .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> fetcher.open(URI.create("http://[::ffff:169.254.169.254]/latest")))
+            .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> fetcher.open(URI.create("file:///etc/passwd")))
+            .isInstanceOf(IllegalArgumentException.class);
+  }
+}
@@ -0,0 +1,83 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.jfr;
+
+import edu.ntnu.fullstack.prosjekt.quizzer.cache.QuizSnapshot;
+import edu.ntnu.fullstack.prosjekt.quizzer.controllerTests.QuizControllerTestDataUtil;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.CategoryDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.QuestionAttemptDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.QuestionDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.QuizAttemptDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.QuizDetailsDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.mappers.impl.CategoryMapperImpl;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import jdk.jfr.Event;
+import jdk.jfr.Name;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.modelmapper.ModelMapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QuizzerEventsTest {
+
+  @TempDir
+  Path directory;
+
+  @Test
+  void gradingIsRecordedWithItsScore() throws IOException {
+    QuizDetailsDto quiz = QuizControllerTestDataUtil.createTestDtoQuizA();
+    List<QuestionDto> questions = QuizControllerTestDataUtil.createQuestions();
+    for (int i = 0; i < questions.size(); i++) {
+      questions.get(i).setQuestionId((long) i + 1);
+    }
+    quiz.setQuizId(7L);
+    quiz.setVersion(2);
+    quiz.setQuestions(questions);
+    QuizSnapshot snapshot = QuizSnapshot.of(quiz);
+
+    List<RecordedEvent> events = record(GradingEvent.class, () -> snapshot.grade(new QuizAttemptDto(0, 30,
+            List.of(new QuestionAttemptDto(1L, "120", false), new QuestionAttemptDto(3L, "50", false)), null)));
+
+    assertThat(events).singleElement().satisfies(event -> {
+      assertThat(event.getLong("quizId")).isEqualTo(7L);
+      assertThat(event.getInt("version")).isEqualTo(2);
+      assertThat(event.getInt("questionCount")).isEqualTo(2);
+      assertThat(event.getInt("score")).isEqualTo(1);
+      assertThat(event.getStackTrace()).isNull();
+    });
+  }
+
+  @Test
+  void mappingsAreRecordedOnceOverTheThreshold() throws IOException {
+    CategoryMapperImpl mapper = new CategoryMapperImpl(new ModelMapper());
+
+    List<RecordedEvent> events = record(MapperEvent.class, () -> mapper.mapFrom(new CategoryDto("Nature", null)));
+
+    assertThat(events).singleElement().satisfies(event -> {
+      assertThat(event.getString("mapper")).isEqualTo("CategoryMapperImpl");
+      assertThat(event.getString("direction")).isEqualTo("from");
+    });
+  }
+
+  private List<RecordedEvent> record(Class<? extends Event> type, Runnable action) throws IOException {
+    Path file = directory.resolve(type.getSimpleName() + ".jfr");
+    try (Recording recording = new Recording()) {
+      recording.enable(type).withThreshold(Duration.ZERO);
+      recording.start();
+      action.run();
+      recording.stop();
+      recording.dump(file);
+    }
+    List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+            .filter(event -> event.getEventType().getName().equals(type.getAnnotation(Name.class).value()))
+            .toList();
+    Files.deleteIfExists(file);
+    return events;
+  }
+}
@@ -0,0 +1,73 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.live;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.ntnu.fullstack.prosjekt.quizzer.cache.QuizSnapshot;
+import edu.ntnu.fullstack.prosjekt.quizzer.controllerTests.QuizControllerTestDataUtil;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.QuestionDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.QuizDetailsDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.services.QuizService;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.socket.WebSocketSession;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+class LiveRoomRegistryTest {
+
+  LiveRoomRegistry registry;
+
+  @BeforeEach
+  void setUp() {
+    QuizDetailsDto quiz = QuizControllerTestDataUtil.createTestDtoQuizA();
+    List<QuestionDto> questions = QuizControllerTestDataUtil.createQuestions();
+    for (int i = 0; i < questions.size(); i++) {
+      questions.get(i).setQuestionId((long) i + 1);
+    }
+    quiz.setQuestions(questions);
+    QuizService quizService = mock(QuizService.class);
+    given(quizService.findQuizSnapshot(1L, null)).willReturn(QuizSnapshot.of(quiz));
+    registry = new LiveRoomRegistry(quizService, null, null, null, null, null, null, null, null,
+            new ObjectMapper(), mock(PlatformTransactionManager.class), 60_000, 2);
+  }
+
+  @AfterEach
+  void tearDown() {
+    registry.shutdown();
+  }
+
+  private static WebSocketSession session(String id) {
+    WebSocketSession session = mock(WebSocketSession.class);
+    given(session.getId()).willReturn(id);
+    return session;
+  }
+
+  @Test
+  void aSessionCanNotHostASecondRoom() {
+    WebSocketSession host = session("host");
+    registry.create(host, "host", 1L, null, 20);
+
+    assertThatThrownBy(() -> registry.create(host, "host", 1L, null, 20))
+            .isInstanceOf(IllegalArgumentException.class);
+    assertThat(registry.size()).isEqualTo(1);
+
+    registry.disconnected(host);
+    assertThat(registry.size()).isZero();
+  }
+
+  @Test
+  void aUserHostsOnlyAFewRoomsAtOnce() {
+    registry.create(session("first"), "host", 1L, null, 20);
+    registry.create(session("second"), "host", 1L, null, 20);
+
+    assertThatThrownBy(() -> registry.create(session("third"), "host", 1L, null, 20))
+            .isInstanceOf(IllegalArgumentException.class);
+    registry.create(session("other"), "other", 1L, null, 20);
+    assertThat(registry.size()).isEqualTo(3);
+  }
+}
@@ -0,0 +1,117 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.live;
+
+import edu.ntnu.fullstack.prosjekt.quizzer.cache.QuizSnapshot;
+import edu.ntnu.fullstack.prosjekt.quizzer.controllerTests.QuizControllerTestDataUtil;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.QuestionDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.QuizDetailsDto;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LiveRoomTest {
+
+  LiveRoom room;
+
+  @BeforeEach
+  void setUp() {
+    QuizDetailsDto quiz = QuizControllerTestDataUtil.createTestDtoQuizA();
+    List<QuestionDto> questions = QuizControllerTestDataUtil.createQuestions();
+    for (int i = 0; i < questions.size(); i++) {
+      questions.get(i).setQuestionId((long) i + 1);
+    }
+    quiz.setQuestions(questions);
+    room = new LiveRoom("ABC123", QuizSnapshot.of(quiz), questions, 10_000, "host", null, 0);
+  }
+
+  @Test
+  void countsConcurrentAnswersExactlyOncePerPlayer() throws Exception {
+    int players = 2000;
+    for (int i = 0; i < players; i++) {
+      room.join("player" + i, null);
+    }
+    room.next(0);
+    room.next(0);
+    AtomicInteger accepted = new AtomicInteger();
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    for (int attempt = 0; attempt < 2; attempt++) {
+      for (int i = 0; i < players; i++) {
+        String username = "player" + i;
+        String answer = i % 4 == 0 ? "Hammerhead Shark" : "Whale Shark";
+        executor.execute(() -> {
+          if (room.answer(username, 1, answer, 1_000) == LiveRoom.AnswerOutcome.ACCEPTED) {
+            accepted.incrementAndGet();
+          }
+        });
+      }
+    }
+    executor.shutdown();
+    assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+    LiveRoom.Round round = room.getRound();
+    assertThat(accepted.get()).isEqualTo(players);
+    assertThat(round.getAnswered()).isEqualTo(players);
+    assertThat(round.getCorrect()).isEqualTo(players * 3 / 4);
+    assertThat(round.getCounts()).containsExactly(players / 4, players * 3 / 4, 0);
+    assertThat(round.getCorrectAnswers()).containsExactly("Whale Shark", "Great White Shark");
+  }
+
+  @Test
+  void rejectsLateAndClosedAnswers() {
+    room.join("early", null);
+    room.join("late", null);
+    room.next(0);
+
+    assertThat(room.answer("early", 0, "120", 5_000)).isEqualTo(LiveRoom.AnswerOutcome.ACCEPTED);
+    assertThat(room.answer("early", 0, "120", 5_000)).isEqualTo(LiveRoom.AnswerOutcome.DUPLICATE);
+    assertThat(room.answer("late", 0, "120", 10_001)).isEqualTo(LiveRoom.AnswerOutcome.CLOSED);
+    assertThat(room.answer("stranger", 0, "120", 5_000)).isEqualTo(LiveRoom.AnswerOutcome.NOT_JOINED);
+
+    room.close();
+    assertThat(room.answer("late", 0, "120", 5_000)).isEqualTo(LiveRoom.AnswerOutcome.CLOSED);
+  }
+
+  @Test
+  void fasterCorrectAnswersRankHigher() {
+    room.join("fast", null);
+    room.join("slow", null);
+    room.join("wrong", null);
+    room.next(0);
+    room.next(0);
+
+    room.answer("fast", 1, "whale shark", 1_000);
+    room.answer("slow", 1, "Great White Shark", 9_000);
+    room.answer("wrong", 1, "Hammerhead Shark", 500);
+
+    assertThat(room.top(2)).extracting(LivePlayer::getUsername).containsExactly("fast", "slow");
+    LiveRoom.Ranking ranking = room.ranking();
+    assertThat(ranking.rankOf(room.getPlayer("fast").getPoints())).isEqualTo(1);
+    assertThat(ranking.rankOf(room.getPlayer("slow").getPoints())).isEqualTo(2);
+    assertThat(ranking.rankOf(room.getPlayer("wrong").getPoints())).isEqualTo(3);
+    assertThat(room.getPlayer("fast").answeredCorrectly(1)).isTrue();
+    assertThat(room.getPlayer("wrong").answeredCorrectly(1)).isFalse();
+  }
+
+  @Test
+  void finishesOnlyOnceWhenRacing() throws Exception {
+    AtomicInteger finishes = new AtomicInteger();
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    for (int i = 0; i < 100; i++) {
+      executor.execute(() -> {
+        if (room.markFinished()) {
+          finishes.incrementAndGet();
+        }
+      });
+    }
+    executor.shutdown();
+    assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+    assertThat(finishes.get()).isEqualTo(1);
+    assertThat(room.isFinished()).isTrue();
+  }
+}
@@ -0,0 +1,81 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.loadtest;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts latencies in microseconds, in buckets that are exact below 128 and then 64 per power
+ * of two, so every percentile is within 1.6 % of the measured value. Recording is one atomic
+ * increment, so many request threads can share one histogram.
+ */
+final class LatencyHistogram {
+
+  private static final int EXACT = 128;
+
+  private static final int PER_POWER = 64;
+
+  private final AtomicLongArray counts = new AtomicLongArray(EXACT + 57 * PER_POWER);
+
+  private final AtomicLong total = new AtomicLong();
+
+  private final AtomicLong errors = new AtomicLong();
+
+  private final AtomicLong max = new AtomicLong();
+
+  void record(long micros, boolean failed) {
+    long value = Math.max(0, micros);
+    counts.incrementAndGet(index(value));
+    total.incrementAndGet();
+    max.accumulateAndGet(value, Math::max);
+    if (failed) {
+      errors.incrementAndGet();
+    }
+  }
+
+  long count() {
+    return total.get();
+  }
+
+  long errors() {
+    return errors.get();
+  }
+
+  double maxMillis() {
+    return max.get() / 1000.0;
+  }
+
+  /**
+   * Finds the latency that the given share of the requests did not exceed.
+   *
+   * @param quantile The share of the requests, such as 0.99.
+   * @return The latency in milliseconds, or zero without requests.
+   */
+  double percentileMillis(double quantile) {
+    long target = (long) Math.ceil(quantile * total.get());
+    long seen = 0;
+    for (int i = 0; i < counts.length(); i++) {
+      seen += counts.get(i);
+      if (seen >= Math.max(1, target)) {
+        return Math.min(highestValue(i), max.get()) / 1000.0;
+      }
+    }
+    return 0;
+  }
+
+  private static int index(long value) {
+    if (value < EXACT) {
+      return (int) value;
+    }
+    int shift = 63 - Long.numberOfLeadingZeros(value) - 6;
+    return EXACT + (shift - 1) * PER_POWER + (int) (value >>> shift) - PER_POWER;
+  }
+
+  private static long highestValue(int index) {
+    if (index < EXACT) {
+      return index;
+    }
+    int shift = (index - EXACT) / PER_POWER + 1;
+    long mantissa = (index - EXACT) % PER_POWER + PER_POWER;
+    return ((mantissa + 1) << shift) - 1;
+  }
+}
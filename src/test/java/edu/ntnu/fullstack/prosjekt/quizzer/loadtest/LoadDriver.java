@@ -0,0 +1,251 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.CategoryDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.QuestionAnswersDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.QuestionAttemptDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.QuestionDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.QuizAttemptDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.QuizDetailsDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.QuizPlayDto;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import lombok.extern.java.Log;
+
+/**
+ * Drives the running application over HTTP with a mix of scripted sessions, as signed in users
+ * picked with the same skew as in the dataset. Each virtual user runs one session after the
+ * other, without think time, so the load is set by the amount of virtual users.
+ * Requests made during the warmup are not counted.
+ */
+@Log
+final class LoadDriver {
+
+  /**
+   * A scripted session, and how often it is picked relative to the others.
+   */
+  enum Scenario {
+    BROWSE(40), SEARCH(20), PLAY(30), DISCOVER(5), AUTHOR(5);
+
+    private final int weight;
+
+    Scenario(int weight) {
+      this.weight = weight;
+    }
+  }
+
+  private final URI baseUri;
+
+  private final ObjectMapper objectMapper;
+
+  private final SyntheticDataset dataset;
+
+  private final Function<String, String> tokens;
+
+  private final long seed;
+
+  private final ZipfSampler popularity;
+
+  private final ZipfSampler activity;
+
+  private final Map<String, String> tokenCache = new ConcurrentHashMap<>();
+
+  private final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+  private final Set<String> reportedFailures = ConcurrentHashMap.newKeySet();
+
+  private final HttpClient client = HttpClient.newBuilder()
+          .version(HttpClient.Version.HTTP_1_1)
+          .executor(Executors.newVirtualThreadPerTaskExecutor())
+          .connectTimeout(Duration.ofSeconds(10))
+          .build();
+
+  private volatile long measureFrom;
+
+  /**
+   * Creates a driver against a running application.
+   *
+   * @param baseUri      The address of the application, such as http://localhost:8080.
+   * @param objectMapper Reads and writes request and response bodies.
+   * @param dataset      The dataset the application was filled with.
+   * @param tokens       Creates an access token for a username.
+   * @param seed         Seed for picking sessions, users and quizzes.
+   */
+  LoadDriver(URI baseUri, ObjectMapper objectMapper, SyntheticDataset dataset, Function<String, String> tokens,
+             long seed) {
+    this.baseUri = baseUri;
+    this.objectMapper = objectMapper;
+    this.dataset = dataset;
+    this.tokens = tokens;
+    this.seed = seed;
+    this.popularity = new ZipfSampler(dataset.quizzes(), 1.1);
+    this.activity = new ZipfSampler(dataset.users(), 0.8);
+  }
+
+  /**
+   * Runs the sessions for the warmup and then the measured duration.
+   *
+   * @param virtualUsers The amount of sessions running at the same time.
+   * @param warmup       How long to run before counting requests.
+   * @param duration     How long to count requests.
+   * @return The latencies of the counted requests, by endpoint.
+   */
+  Map<String, LatencyHistogram> run(int virtualUsers, Duration warmup, Duration duration)
+          throws InterruptedException {
+    long now = System.nanoTime();
+    measureFrom = now + warmup.toNanos();
+    long until = measureFrom + duration.toNanos();
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (int i = 0; i < virtualUsers; i++) {
+        SplittableRandom random = new SplittableRandom(seed + i);
+        executor.execute(() -> {
+          while (System.nanoTime() < until) {
+            session(random);
+          }
+        });
+      }
+      executor.shutdown();
+      executor.awaitTermination(warmup.plus(duration).toSeconds() + 60, TimeUnit.SECONDS);
+    }
+    return new TreeMap<>(histograms);
+  }
+
+  private void session(SplittableRandom random) {
+    String token = tokenCache.computeIfAbsent(SyntheticDataset.username(activity.next(random)), tokens);
+    long quizId = dataset.quizId(popularity.next(random));
+    try {
+      switch (pick(random)) {
+        case BROWSE -> {
+          get("GET /api/quizzes", "/api/quizzes?page=" + random.nextInt(20) + "&size=20", token);
+          get("GET /api/quizzes/{quizId}", "/api/quizzes/" + quizId, token);
+        }
+        case SEARCH -> {
+          String word = SyntheticDataset.WORDS[random.nextInt(SyntheticDataset.WORDS.length)];
+          get("GET /api/quizzes/suggest", "/api/quizzes/suggest?prefix=" + word.substring(0, 3), token);
+          get("GET /api/quizzes/filter", "/api/quizzes/filter?searchQuery=" + word + "&size=20", token);
+        }
+        case PLAY -> play(quizId, token, random);
+        case DISCOVER -> {
+          get("GET /api/quizzes/trending", "/api/quizzes/trending", token);
+          get("GET /api/quizzes/{quizId}/similar", "/api/quizzes/" + quizId + "/similar", token);
+          get("GET /api/users/me/recommended", "/api/users/me/recommended", token);
+        }
+        case AUTHOR -> author(token, random);
+        default -> throw new IllegalStateException();
+      }
+    } catch (IOException e) {
+      log.fine("Request failed: " + e.getMessage());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void play(long quizId, String token, SplittableRandom random) throws IOException, InterruptedException {
+    HttpResponse<String> response = get("GET /api/quizzes/{quizId}/play",
+            "/api/quizzes/" + quizId + "/play?count=10", token);
+    if (response.statusCode() != 200) {
+      return;
+    }
+    QuizPlayDto play = objectMapper.readValue(response.body(), QuizPlayDto.class);
+    List<QuestionAttemptDto> answers = new ArrayList<>();
+    for (QuestionDto question : play.getQuestions()) {
+      answers.add(new QuestionAttemptDto(question.getQuestionId(), "Answer " + (1 + random.nextInt(4)), false));
+    }
+    send("POST /api/quizzes/{quizId}", "/api/quizzes/" + quizId, token,
+            new QuizAttemptDto(0, 30 + random.nextInt(600), answers, play.getVersion()));
+  }
+
+  private void author(String token, SplittableRandom random) throws IOException, InterruptedException {
+    String word = SyntheticDataset.WORDS[random.nextInt(SyntheticDataset.WORDS.length)];
+    List<QuestionDto> questions = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      questions.add(QuestionDto.builder()
+              .label("New question " + (i + 1) + " about " + word + "?")
+              .position((short) i)
+              .alternatives(List.of(new QuestionAnswersDto("Yes", true), new QuestionAnswersDto("No", false)))
+              .build());
+    }
+    QuizDetailsDto quiz = new QuizDetailsDto();
+    quiz.setTitle("New " + word + " " + random.nextInt(1_000_000));
+    quiz.setDescription("Written during the load test");
+    quiz.setCategories(List.of(new CategoryDto("Nature", null)));
+    quiz.setQuestions(questions);
+    send("POST /api/quizzes", "/api/quizzes", token, quiz);
+  }
+
+  private Scenario pick(SplittableRandom random) {
+    int total = 0;
+    for (Scenario scenario : Scenario.values()) {
+      total += scenario.weight;
+    }
+    int roll = random.nextInt(total);
+    for (Scenario scenario : Scenario.values()) {
+      roll -= scenario.weight;
+      if (roll < 0) {
+        return scenario;
+      }
+    }
+    return Scenario.BROWSE;
+  }
+
+  private HttpResponse<String> get(String endpoint, String path, String token)
+          throws IOException, InterruptedException {
+    return exchange(endpoint, request(path, token).GET().build());
+  }
+
+  private HttpResponse<String> send(String endpoint, String path, String token, Object body)
+          throws IOException, InterruptedException {
+    return exchange(endpoint, request(path, token)
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)))
+            .build());
+  }
+
+  private HttpRequest.Builder request(String path, String token) {
+    return HttpRequest.newBuilder(baseUri.resolve(path))
+            .timeout(Duration.ofSeconds(30))
+            .header("Authorization", "Bearer " + token);
+  }
+
+  private HttpResponse<String> exchange(String endpoint, HttpRequest request)
+          throws IOException, InterruptedException {
+    long start = System.nanoTime();
+    HttpResponse<String> response;
+    try {
+      response = client.send(request, HttpResponse.BodyHandlers.ofString());
+    } catch (IOException e) {
+      count(endpoint, start, true);
+      throw e;
+    }
+    boolean failed = response.statusCode() >= 400;
+    count(endpoint, start, failed);
+    if (failed && reportedFailures.add(endpoint)) {
+      String body = response.body();
+      log.warning(endpoint + " answered " + response.statusCode() + ", only the first failure is logged: "
+              + body.substring(0, Math.min(body.length(), 500)));
+    }
+    return response;
+  }
+
+  private void count(String endpoint, long start, boolean failed) {
+    if (start >= measureFrom) {
+      histograms.computeIfAbsent(endpoint, key -> new LatencyHistogram())
+              .record((System.nanoTime() - start) / 1000, failed);
+    }
+  }
+}
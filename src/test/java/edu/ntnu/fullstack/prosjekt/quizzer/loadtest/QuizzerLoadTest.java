@@ -0,0 +1,128 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import edu.ntnu.fullstack.prosjekt.quizzer.controllers.TokenController;
+import edu.ntnu.fullstack.prosjekt.quizzer.recommend.QuizRecommender;
+import edu.ntnu.fullstack.prosjekt.quizzer.search.QuizSuggestionIndex;
+import edu.ntnu.fullstack.prosjekt.quizzer.search.UserSearchIndex;
+import jakarta.persistence.EntityManagerFactory;
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.sql.DataSource;
+import lombok.extern.java.Log;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Fills the database with a synthetic dataset, drives the application over HTTP with a mix of
+ * sessions, and writes the throughput and latency percentiles of every endpoint to a JSON file
+ * that can be compared between runs. Only run with the loadtest profile:
+ * mvn -Ploadtest test
+ * The size of the dataset, the load and the report file are set with system properties, see
+ * the loadtest profile in pom.xml. The test profile is left out, as its security configuration
+ * would let every request through as an anonymous user.
+ */
+@Log
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("loadtest")
+class QuizzerLoadTest {
+
+  @LocalServerPort
+  private int port;
+
+  @Autowired
+  private DataSource dataSource;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Autowired
+  private TokenController tokenController;
+
+  @Autowired
+  private QuizSuggestionIndex quizSuggestionIndex;
+
+  @Autowired
+  private UserSearchIndex userSearchIndex;
+
+  @Autowired
+  private QuizRecommender quizRecommender;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  @Test
+  void mixedWorkload() throws Exception {
+    double scale = Double.parseDouble(System.getProperty("loadtest.scale", "0.01"));
+    int virtualUsers = Integer.getInteger("loadtest.virtual-users", 64);
+    Duration warmup = Duration.ofSeconds(Long.getLong("loadtest.warmup-seconds", 10));
+    Duration duration = Duration.ofSeconds(Long.getLong("loadtest.duration-seconds", 30));
+    long seed = Long.getLong("loadtest.seed", 42);
+
+    SyntheticDataset dataset = new SyntheticDataset(new JdbcTemplate(dataSource), objectMapper,
+            (int) Math.max(100, 100_000 * scale), (int) Math.max(1_000, 1_000_000 * scale),
+            (long) Math.max(1_000, 20_000_000 * scale), seed);
+    if (dataset.generate()) {
+      // The data was written past the application, which only reads it at startup.
+      entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+      quizSuggestionIndex.rebuild();
+      userSearchIndex.rebuild();
+      quizRecommender.reload();
+    }
+
+    LoadDriver driver = new LoadDriver(URI.create("http://localhost:" + port), objectMapper, dataset,
+            tokenController::generateAccessToken, seed);
+    Map<String, LatencyHistogram> histograms = driver.run(virtualUsers, warmup, duration);
+
+    File report = new File(System.getProperty("loadtest.report", "target/loadtest/report.json"));
+    write(report, dataset, scale, virtualUsers, warmup, duration, histograms);
+    log.info("Wrote the load test report to " + report.getAbsolutePath());
+
+    long requests = histograms.values().stream().mapToLong(LatencyHistogram::count).sum();
+    long errors = histograms.values().stream().mapToLong(LatencyHistogram::errors).sum();
+    assertTrue(requests > 0, "No requests were made");
+    assertTrue(errors <= requests / 100, errors + " of " + requests + " requests failed");
+  }
+
+  private void write(File report, SyntheticDataset dataset, double scale, int virtualUsers, Duration warmup,
+                     Duration duration, Map<String, LatencyHistogram> histograms) throws IOException {
+    Map<String, Object> root = new LinkedHashMap<>();
+    root.put("finishedAt", Instant.now().toString());
+    root.put("scale", scale);
+    root.put("quizzes", dataset.quizzes());
+    root.put("users", dataset.users());
+    root.put("attempts", dataset.attempts());
+    root.put("virtualUsers", virtualUsers);
+    root.put("warmupSeconds", warmup.toSeconds());
+    root.put("durationSeconds", duration.toSeconds());
+    Map<String, Object> endpoints = new LinkedHashMap<>();
+    for (Map.Entry<String, LatencyHistogram> entry : histograms.entrySet()) {
+      LatencyHistogram histogram = entry.getValue();
+      Map<String, Object> endpoint = new LinkedHashMap<>();
+      endpoint.put("requests", histogram.count());
+      endpoint.put("errors", histogram.errors());
+      endpoint.put("throughputPerSecond", (double) histogram.count() / duration.toSeconds());
+      endpoint.put("p50Millis", histogram.percentileMillis(0.5));
+      endpoint.put("p99Millis", histogram.percentileMillis(0.99));
+      endpoint.put("p999Millis", histogram.percentileMillis(0.999));
+      endpoint.put("maxMillis", histogram.maxMillis());
+      endpoints.put(entry.getKey(), endpoint);
+    }
+    root.put("endpoints", endpoints);
+    report.getAbsoluteFile().getParentFile().mkdirs();
+    objectMapper.copy().enable(SerializationFeature.INDENT_OUTPUT).writeValue(report, root);
+  }
+}
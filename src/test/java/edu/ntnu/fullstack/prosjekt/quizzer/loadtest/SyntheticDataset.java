@@ -0,0 +1,271 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.CategoryDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.QuestionAnswersDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.QuestionDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.QuizDetailsDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.UserDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.enums.QuestionType;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import lombok.extern.java.Log;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Writes a synthetic dataset straight into the tables, bypassing the services, so that millions
+ * of rows take minutes instead of hours. Quiz popularity and user activity are skewed, so that
+ * a few quizzes get most attempts and a few users make most of them, as on a real site.
+ * Every quiz gets its first version, as quizzes created through the services do.
+ * The same seed always gives the same dataset. A dataset that is already there is reused, so
+ * a local MySQL database only has to be filled once.
+ */
+@Log
+final class SyntheticDataset {
+
+  static final String[] WORDS = {"sharks", "whales", "rome", "vikings", "pharaohs", "planets", "volcanoes",
+          "jazz", "chess", "football", "java", "spring", "oceans", "dinosaurs", "castles", "rivers", "bridges",
+          "opera", "poetry", "algebra", "chemistry", "islands", "deserts", "forests", "birds", "insects",
+          "painters", "inventors", "flags", "capitals", "languages", "mountains", "movies", "novels", "robots",
+          "rockets", "cheese", "coffee", "trains", "olympics"};
+
+  private static final String[] CATEGORIES = {"Nature", "History", "Science", "Sports", "Music", "Art",
+          "Geography", "Technology", "Food", "Film", "Literature", "Mathematics"};
+
+  private static final int BATCH_SIZE = 5_000;
+
+  private final JdbcTemplate jdbcTemplate;
+
+  private final ObjectMapper objectMapper;
+
+  private final int quizzes;
+
+  private final int users;
+
+  private final long attempts;
+
+  private final long seed;
+
+  /**
+   * Quiz ids by popularity, most popular first.
+   */
+  private final long[] quizIdsByPopularity;
+
+  SyntheticDataset(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, int quizzes, int users, long attempts,
+                   long seed) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.objectMapper = objectMapper;
+    this.quizzes = quizzes;
+    this.users = users;
+    this.attempts = attempts;
+    this.seed = seed;
+    this.quizIdsByPopularity = new long[quizzes];
+    SplittableRandom random = new SplittableRandom(seed);
+    for (int i = 0; i < quizzes; i++) {
+      quizIdsByPopularity[i] = i + 1;
+    }
+    for (int i = quizzes - 1; i > 0; i--) {
+      int j = random.nextInt(i + 1);
+      long swap = quizIdsByPopularity[i];
+      quizIdsByPopularity[i] = quizIdsByPopularity[j];
+      quizIdsByPopularity[j] = swap;
+    }
+  }
+
+  int quizzes() {
+    return quizzes;
+  }
+
+  int users() {
+    return users;
+  }
+
+  long attempts() {
+    return attempts;
+  }
+
+  long quizId(int popularity) {
+    return quizIdsByPopularity[popularity];
+  }
+
+  static String username(int user) {
+    return "loaduser" + user;
+  }
+
+  /**
+   * Writes the dataset, unless the database already holds one of at least the same size.
+   *
+   * @return True if the dataset was written, false if it was reused.
+   */
+  boolean generate() {
+    Long existing = jdbcTemplate.queryForObject("select count(*) from quizzes", Long.class);
+    if (existing != null && existing >= quizzes) {
+      log.info("Reusing the " + existing + " quizzes already in the database");
+      return false;
+    }
+    long start = System.nanoTime();
+    SplittableRandom random = new SplittableRandom(seed);
+    insertCategories();
+    insertUsers(random);
+    long questions = insertQuizzes(random);
+    insertAttempts(random);
+    restartSequences(quizzes, questions, quizzes, attempts);
+    log.info(String.format("Generated %d quizzes, %d questions, %d users and %d attempts in %d s", quizzes,
+            questions, users, attempts, (System.nanoTime() - start) / 1_000_000_000));
+    return true;
+  }
+
+  private void insertCategories() {
+    List<Object[]> rows = new ArrayList<>();
+    for (String category : CATEGORIES) {
+      rows.add(new Object[] {category});
+    }
+    jdbcTemplate.batchUpdate("insert into categories (category_name) values (?)", rows);
+  }
+
+  private void insertUsers(SplittableRandom random) {
+    List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+    for (int user = 0; user < users; user++) {
+      String username = username(user);
+      rows.add(new Object[] {username, username + "@example.com", "Load User " + user, "password"});
+      if (rows.size() == BATCH_SIZE || user == users - 1) {
+        jdbcTemplate.batchUpdate("insert into users (username, email, full_name, password) values (?, ?, ?, ?)",
+                rows);
+        rows.clear();
+      }
+    }
+  }
+
+  /**
+   * Writes the quizzes, with five to fifteen questions each, their categories, their first
+   * version and the role of their owner. Authors are skewed like users, so some users own many quizzes.
+   *
+   * @return The amount of written questions.
+   */
+  private long insertQuizzes(SplittableRandom random) {
+    ZipfSampler authors = new ZipfSampler(users, 0.8);
+    Timestamp created = Timestamp.valueOf(LocalDateTime.now());
+    List<Object[]> quizRows = new ArrayList<>(BATCH_SIZE);
+    List<Object[]> categoryRows = new ArrayList<>(BATCH_SIZE * 2);
+    List<Object[]> questionRows = new ArrayList<>(BATCH_SIZE * 10);
+    List<Object[]> versionRows = new ArrayList<>(BATCH_SIZE);
+    List<Object[]> permissionRows = new ArrayList<>(BATCH_SIZE);
+    long questionId = 0;
+    for (int quiz = 1; quiz <= quizzes; quiz++) {
+      String topic = WORDS[random.nextInt(WORDS.length)];
+      String other = WORDS[random.nextInt(WORDS.length)];
+      String username = username(authors.next(random));
+      QuizDetailsDto version = new QuizDetailsDto();
+      version.setQuizId((long) quiz);
+      version.setVersion(1);
+      version.setTitle(topic + " " + other + " " + quiz);
+      version.setDescription("All about " + topic + " and " + other);
+      version.setOwner(new UserDto(username, null, null, null));
+      quizRows.add(new Object[] {quiz, version.getDescription(), "", version.getTitle(), username});
+      permissionRows.add(new Object[] {quiz, username});
+      int first = random.nextInt(CATEGORIES.length);
+      List<String> categories = new ArrayList<>(List.of(CATEGORIES[first]));
+      if (random.nextBoolean()) {
+        categories.add(CATEGORIES[(first + 1 + random.nextInt(CATEGORIES.length - 1)) % CATEGORIES.length]);
+      }
+      for (String category : categories) {
+        categoryRows.add(new Object[] {quiz, category});
+        version.getCategories().add(new CategoryDto(category, null));
+      }
+      int questions = 5 + random.nextInt(11);
+      for (int position = 0; position < questions; position++) {
+        QuestionDto question = QuestionDto.builder()
+                .questionId(++questionId)
+                .label("Question " + (position + 1) + " about " + topic + "?")
+                .imageLink("")
+                .position((short) position)
+                .quizId(String.valueOf(quiz))
+                .type(QuestionType.MULTIPLE_CHOICE)
+                .alternatives(alternatives(random))
+                .build();
+        version.getQuestions().add(question);
+        questionRows.add(new Object[] {questionId, json(question.getAlternatives()), "", question.getLabel(),
+                position, QuestionType.MULTIPLE_CHOICE.ordinal(), quiz});
+      }
+      versionRows.add(new Object[] {quiz, quiz, 1, json(version), created});
+      if (quizRows.size() == BATCH_SIZE || quiz == quizzes) {
+        jdbcTemplate.batchUpdate("insert into quizzes (quiz_id, description, image_link, title, username) "
+                + "values (?, ?, ?, ?, ?)", quizRows);
+        jdbcTemplate.batchUpdate("insert into quizzes_categories (quiz_entity_quiz_id, categories_category_name) "
+                + "values (?, ?)", categoryRows);
+        jdbcTemplate.batchUpdate("insert into questions (question_id, alternatives, image_link, label, position, "
+                + "type, quiz_id) values (?, ?, ?, ?, ?, ?, ?)", questionRows);
+        jdbcTemplate.batchUpdate("insert into quiz_versions (version_id, quiz_id, version_number, content, "
+                + "created_at) values (?, ?, ?, ?, ?)", versionRows);
+        jdbcTemplate.batchUpdate("insert into quiz_permissions (quiz_id, username, role) values (?, ?, 'OWNER')",
+                permissionRows);
+        quizRows.clear();
+        categoryRows.clear();
+        questionRows.clear();
+        versionRows.clear();
+        permissionRows.clear();
+      }
+    }
+    return questionId;
+  }
+
+  private static List<QuestionAnswersDto> alternatives(SplittableRandom random) {
+    int correct = random.nextInt(4);
+    List<QuestionAnswersDto> alternatives = new ArrayList<>(4);
+    for (int i = 0; i < 4; i++) {
+      alternatives.add(new QuestionAnswersDto("Answer " + (i + 1), i == correct));
+    }
+    return alternatives;
+  }
+
+  private String json(Object value) {
+    try {
+      return objectMapper.writeValueAsString(value);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private void insertAttempts(SplittableRandom random) {
+    ZipfSampler popularity = new ZipfSampler(quizzes, 1.1);
+    ZipfSampler activity = new ZipfSampler(users, 0.8);
+    List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+    for (long attempt = 1; attempt <= attempts; attempt++) {
+      // The first version of a quiz has the id of the quiz.
+      long quizId = quizId(popularity.next(random));
+      rows.add(new Object[] {attempt, 30 + random.nextInt(600), random.nextInt(11), quizId,
+              username(activity.next(random)), quizId});
+      if (rows.size() == BATCH_SIZE || attempt == attempts) {
+        jdbcTemplate.batchUpdate("insert into quiz_attempt_entity (attempt_id, duration, score, quiz_quiz_id, "
+                + "user_username, version_version_id) values (?, ?, ?, ?, ?, ?)", rows);
+        rows.clear();
+        if (attempt % 1_000_000 == 0) {
+          log.info("Generated " + attempt + " of " + attempts + " attempts");
+        }
+      }
+    }
+  }
+
+  /**
+   * Moves the id sequences past the written ids. Hibernate hands out blocks of 50 ids below
+   * each value it reads, so the sequences start a block above the highest id.
+   */
+  private void restartSequences(long quizId, long questionId, long versionId, long attemptId) {
+    String database = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+            connection.getMetaData().getDatabaseProductName());
+    long[] next = {quizId + 100, questionId + 100, versionId + 100, attemptId + 100};
+    String[] sequences = {"quiz_id_seq", "question_id_seq", "quiz_version_id_seq", "attempt_id_seq"};
+    for (int i = 0; i < sequences.length; i++) {
+      if ("MySQL".equalsIgnoreCase(database)) {
+        jdbcTemplate.update("update " + sequences[i] + " set next_val = ?", next[i]);
+      } else {
+        jdbcTemplate.execute("alter sequence " + sequences[i] + " restart with " + next[i]);
+      }
+    }
+  }
+}
@@ -0,0 +1,31 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.loadtest;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Draws ranks from 0 to n - 1 where rank r is drawn with a weight of 1 / (r + 1)^exponent,
+ * so that a few ranks are drawn most of the time, like the popularity of quizzes and the
+ * activity of users.
+ */
+final class ZipfSampler {
+
+  private final double[] cumulative;
+
+  ZipfSampler(int n, double exponent) {
+    cumulative = new double[n];
+    double sum = 0;
+    for (int rank = 0; rank < n; rank++) {
+      sum += 1 / Math.pow(rank + 1, exponent);
+      cumulative[rank] = sum;
+    }
+    for (int rank = 0; rank < n; rank++) {
+      cumulative[rank] /= sum;
+    }
+  }
+
+  int next(SplittableRandom random) {
+    int rank = Arrays.binarySearch(cumulative, random.nextDouble());
+    return Math.min(rank < 0 ? -rank - 1 : rank, cumulative.length - 1);
+  }
+}
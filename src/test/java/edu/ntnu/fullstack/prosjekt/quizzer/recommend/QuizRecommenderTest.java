@@ -0,0 +1,107 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.recommend;
+
+import edu.ntnu.fullstack.prosjekt.quizzer.datasource.PrimaryReads;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.RecommendationDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.repositories.AttemptRepository;
+import edu.ntnu.fullstack.prosjekt.quizzer.repositories.QuizRepository;
+import java.util.List;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+class QuizRecommenderTest {
+
+  QuizRecommender recommender;
+
+  @BeforeEach
+  void setUp() {
+    recommender = new QuizRecommender(null, null, null, 2, 3_600_000, 3_600_000);
+    recommender.addQuiz(1L, "Sharks", List.of("Nature"));
+    recommender.addQuiz(2L, "Whales", List.of("Nature"));
+    recommender.addQuiz(3L, "Rome", List.of("History"));
+    recommender.addQuiz(4L, "Octopuses", List.of("Nature", "Biology"));
+    recommender.addQuiz(5L, "Vikings", List.of("History"));
+  }
+
+  @AfterEach
+  void tearDown() {
+    recommender.shutdown();
+  }
+
+  @Test
+  void similarQuizzesShareCategoriesAndUsers() {
+    recommender.recordAttempt("ann", 1L);
+    recommender.recordAttempt("ann", 3L);
+    recommender.recordAttempt("bob", 1L);
+    recommender.recordAttempt("bob", 3L);
+    recommender.refresh();
+
+    List<RecommendationDto> similar = recommender.similar(1L, 10);
+
+    // A shared category weighs more than two shared users.
+    assertThat(similar).extracting(RecommendationDto::getQuizId).containsExactly(2L, 4L, 3L);
+    assertThat(similar.get(0).getScore()).isGreaterThan(similar.get(2).getScore());
+    assertThat(recommender.similar(1L, 1)).hasSize(1);
+    assertThat(recommender.similar(99L, 10)).isEmpty();
+  }
+
+  @Test
+  void recommendsUnattemptedQuizzesSimilarToAttemptedOnes() {
+    recommender.recordAttempt("ann", 3L);
+    recommender.recordAttempt("bob", 2L);
+    recommender.recordAttempt("bob", 2L);
+    recommender.refresh();
+
+    assertThat(recommender.recommend("ann", 1)).extracting(RecommendationDto::getQuizId).containsExactly(5L);
+    assertThat(recommender.recommend("ann", 10)).extracting(RecommendationDto::getQuizId)
+            .doesNotContain(3L).startsWith(5L, 2L);
+    assertThat(recommender.recommend("nobody", 1)).extracting(RecommendationDto::getQuizId).containsExactly(2L);
+  }
+
+  @Test
+  void refreshesOnlyWhatChanged() {
+    recommender.refresh();
+    assertThat(recommender.similar(3L, 10)).extracting(RecommendationDto::getQuizId).containsExactly(5L);
+
+    recommender.removeQuiz(5L);
+    recommender.addQuiz(6L, "Pharaohs", List.of("History"));
+    recommender.addQuiz(2L, "Whales", List.of("History"));
+    recommender.refresh();
+
+    assertThat(recommender.similar(3L, 10)).extracting(RecommendationDto::getQuizId).containsExactly(2L, 6L);
+    assertThat(recommender.similar(1L, 10)).extracting(RecommendationDto::getQuizId).containsExactly(4L);
+    assertThat(recommender.similar(5L, 10)).isEmpty();
+  }
+
+  @Test
+  void reloadKeepsChangesMadeWhileLoading() {
+    QuizRepository quizRepository = mock(QuizRepository.class);
+    PrimaryReads primaryReads = mock(PrimaryReads.class);
+    given(primaryReads.read(any())).willAnswer(invocation -> invocation.<Supplier<?>>getArgument(0).get());
+    QuizRecommender reloading = new QuizRecommender(quizRepository, mock(AttemptRepository.class),
+            primaryReads, 2, 3_600_000, 3_600_000);
+    given(quizRepository.findAllTitles()).willAnswer(invocation -> {
+      reloading.addQuiz(3L, "Orcas", List.of("Nature"));
+      reloading.recordAttempt("ann", 1L);
+      return List.<Object[]>of(new Object[] {1L, "Sharks"}, new Object[] {2L, "Whales"});
+    });
+    given(quizRepository.findAllCategoryLinks())
+            .willReturn(List.<Object[]>of(new Object[] {1L, "Nature"}, new Object[] {2L, "History"}));
+    try {
+      reloading.addQuiz(1L, "Sharks", List.of("Nature"));
+      reloading.reload();
+
+      assertThat(reloading.similar(1L, 10)).extracting(RecommendationDto::getQuizId).containsExactly(3L);
+      assertThat(reloading.recommend("ann", 10)).extracting(RecommendationDto::getQuizId)
+              .startsWith(3L).doesNotContain(1L);
+    } finally {
+      reloading.shutdown();
+    }
+  }
+}
@@ -0,0 +1,112 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.recommend;
+
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.TrendingQuizDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.repositories.QuizRepository;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+class TrendingQuizzesTest {
+
+  static final long MINUTE = 60_000;
+
+  static final long START = 29_000_000 * MINUTE;
+
+  TrendingQuizzes trendingQuizzes;
+
+  @BeforeEach
+  void setUp() {
+    trendingQuizzes = new TrendingQuizzes(null, null, null, 3_600_000);
+  }
+
+  @AfterEach
+  void tearDown() {
+    trendingQuizzes.shutdown();
+  }
+
+  private void views(long quizId, int views, long millis) {
+    for (int i = 0; i < views; i++) {
+      trendingQuizzes.record(quizId, "Quiz " + quizId, false, millis);
+    }
+  }
+
+  @Test
+  void attemptsOutweighViewsAndRecentCountsOutweighOldOnes() {
+    views(1, 3, START);
+    trendingQuizzes.record(2L, "Quiz 2", true, START);
+    assertThat(trendingQuizzes.trending(10)).extracting(TrendingQuizDto::getQuizId).containsExactly(2L, 1L);
+
+    views(3, 2, START + 30 * MINUTE);
+
+    assertThat(trendingQuizzes.trending(10)).extracting(TrendingQuizDto::getQuizId).containsExactly(3L, 2L, 1L);
+    TrendingQuizDto first = trendingQuizzes.trending(1).get(0);
+    assertThat(first.getViews()).isEqualTo(2);
+    assertThat(first.getScore()).isEqualTo(2.0, org.assertj.core.data.Offset.offset(1e-9));
+    assertThat(trendingQuizzes.trending(10).get(1).getAttempts()).isEqualTo(1);
+  }
+
+  @Test
+  void countsLeaveTheWindowAfterAnHour() {
+    views(1, 1, START);
+    views(2, 1, START + 30 * MINUTE);
+
+    trendingQuizzes.advance(START + 59 * MINUTE);
+    assertThat(trendingQuizzes.trending(10)).extracting(TrendingQuizDto::getQuizId).containsExactly(2L, 1L);
+
+    trendingQuizzes.advance(START + 60 * MINUTE);
+    assertThat(trendingQuizzes.trending(10)).extracting(TrendingQuizDto::getQuizId).containsExactly(2L);
+
+    trendingQuizzes.advance(START + 120 * MINUTE);
+    assertThat(trendingQuizzes.trending(10)).isEmpty();
+  }
+
+  @Test
+  void removedQuizzesStopTrending() {
+    views(1, 2, START);
+    views(2, 1, START);
+
+    trendingQuizzes.removeQuiz(1L);
+
+    assertThat(trendingQuizzes.trending(10)).extracting(TrendingQuizDto::getQuizId).containsExactly(2L);
+    assertThat(trendingQuizzes.trending(0)).isEmpty();
+  }
+
+  @Test
+  void rankingSurvivesMovingTheLandmark() {
+    views(1, 1, START);
+    views(2, 2, START + 2 * 24 * 60 * MINUTE);
+    views(1, 3, START + 2 * 24 * 60 * MINUTE + MINUTE);
+
+    trendingQuizzes.advance(START + 2 * 24 * 60 * MINUTE + MINUTE);
+
+    assertThat(trendingQuizzes.trending(10)).extracting(TrendingQuizDto::getQuizId).containsExactly(1L, 2L);
+    assertThat(trendingQuizzes.trending(1).get(0).getViews()).isEqualTo(3);
+  }
+
+  @Test
+  void viewsWithoutATitleTrendOnceItIsLookedUp() {
+    QuizRepository quizRepository = mock(QuizRepository.class);
+    given(quizRepository.findTitles(any())).willReturn(List.<Object[]>of(new Object[] {1L, "Sharks"}));
+    TrendingQuizzes resolving = new TrendingQuizzes(null, null, quizRepository, 3_600_000);
+    try {
+      resolving.record(1L, null, false, START);
+      resolving.record(2L, null, false, START);
+      resolving.record(2L, null, false, START);
+      assertThat(resolving.trending(10)).isEmpty();
+
+      resolving.resolveTitles();
+
+      assertThat(resolving.trending(10)).extracting(TrendingQuizDto::getTitle).containsExactly("Sharks");
+      resolving.record(1L, null, true, START);
+      assertThat(resolving.trending(10).get(0).getAttempts()).isEqualTo(1);
+    } finally {
+      resolving.shutdown();
+    }
+  }
+}
@@ -0,0 +1,184 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.repositories;
+
+import edu.ntnu.fullstack.prosjekt.quizzer.acl.QuizPermissions;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.entities.CategoryEntity;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.entities.QuizAttemptEntity;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.entities.QuizEntity;
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.entities.UserEntity;
+import edu.ntnu.fullstack.prosjekt.quizzer.services.QuizService;
+import edu.ntnu.fullstack.prosjekt.quizzer.services.UserService;
+import jakarta.persistence.EntityManagerFactory;
+import java.sql.Connection;
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+import javax.sql.DataSource;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs every repository query, and checks with EXPLAIN that each statement it sends reads its
+ * tables through an index.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+    + "edu.ntnu.fullstack.prosjekt.quizzer.repositories.RepositoryQueryPlanTest$Recorder")
+@ActiveProfiles("test")
+class RepositoryQueryPlanTest {
+
+  @Autowired
+  private QuizRepository quizRepository;
+
+  @Autowired
+  private QuestionRepository questionRepository;
+
+  @Autowired
+  private AttemptRepository attemptRepository;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private CategoryRepository categoryRepository;
+
+  @Autowired
+  private QuizService quizService;
+
+  @Autowired
+  private UserService userService;
+
+  @Autowired
+  private QuizPermissions quizPermissions;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  @Autowired
+  private TransactionTemplate transactionTemplate;
+
+  @Autowired
+  private DataSource dataSource;
+
+  private UserEntity user;
+
+  private QuizEntity quiz;
+
+  /**
+   * Records the SQL of every statement Hibernate prepares.
+   */
+  public static class Recorder implements StatementInspector {
+    static final List<String> STATEMENTS = new ArrayList<>();
+
+    @Override
+    public String inspect(String sql) {
+      synchronized (STATEMENTS) {
+        STATEMENTS.add(sql);
+      }
+      return sql;
+    }
+  }
+
+  @BeforeEach
+  void setUp() {
+    user = userRepository.save(new UserEntity("planuser", "Plan User", "plan@example.com", "password"));
+    CategoryEntity category = categoryRepository.save(new CategoryEntity("Plans"));
+    quiz = quizRepository.save(QuizEntity.builder().title("Plan quiz").owner(user)
+        .categories(Set.of(category)).collaborators(List.of()).build());
+    attemptRepository.save(new QuizAttemptEntity(null, 1, 10, user, quiz, null));
+  }
+
+  private List<String> record(Runnable query) {
+    entityManagerFactory.getCache().evictAll();
+    synchronized (Recorder.STATEMENTS) {
+      Recorder.STATEMENTS.clear();
+    }
+    query.run();
+    synchronized (Recorder.STATEMENTS) {
+      return List.copyOf(Recorder.STATEMENTS);
+    }
+  }
+
+  private String explain(String sql) throws Exception {
+    try (Connection connection = dataSource.getConnection();
+         PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+      ParameterMetaData parameters = statement.getParameterMetaData();
+      for (int i = 1; i <= parameters.getParameterCount(); i++) {
+        if (parameters.getParameterType(i) == Types.VARCHAR) {
+          statement.setString(i, "x");
+        } else {
+          statement.setLong(i, 1);
+        }
+      }
+      try (ResultSet plan = statement.executeQuery()) {
+        plan.next();
+        return plan.getString(1);
+      }
+    }
+  }
+
+  @Test
+  void everyRepositoryQueryUsesAnIndex() throws Exception {
+    Map<String, Runnable> queries = new LinkedHashMap<>();
+    queries.put("quiz page", () -> quizService.findPageOfQuizzes(PageRequest.of(1, 5)));
+    queries.put("quiz by id", () -> quizRepository.findById(quiz.getQuizId()));
+    queries.put("category links", () -> quizRepository.findAllCategoryLinks());
+    queries.put("quiz export", () -> transactionTemplate.executeWithoutResult(status -> {
+      try (Stream<QuizEntity> quizzes = quizRepository.streamAllByOrderByQuizId()) {
+        quizzes.forEach(exported -> { });
+      }
+    }));
+    queries.put("questions of quiz", () -> questionRepository.findQuestionEntitiesByQuiz(quiz));
+    queries.put("question count", () -> questionRepository.countByQuiz(quiz));
+    queries.put("attempt history", () -> userService.findAttemptsByUser(user.getUsername(), PageRequest.of(1, 5)));
+    queries.put("attempts per quiz", () -> attemptRepository.countAttemptsPerQuiz());
+    queries.put("user page", () -> userRepository.findAll(PageRequest.of(1, 5, Sort.by("username"))));
+    queries.put("users by id", () -> userRepository.findAllById(List.of("planuser", "other")));
+    queries.put("categories", () -> categoryRepository.findAll());
+    queries.put("quiz permissions", () -> quizPermissions.roles(quiz.getQuizId()));
+    queries.put("categories by id", () -> categoryRepository.findAllById(List.of("Plans", "Other")));
+
+    for (Map.Entry<String, Runnable> query : queries.entrySet()) {
+      List<String> statements = record(query.getValue());
+      assertThat(statements).as(query.getKey()).isNotEmpty();
+      for (String sql : statements) {
+        assertThat(explain(sql)).as(query.getKey() + ": " + sql).doesNotContain("tableScan");
+      }
+    }
+  }
+
+  @Test
+  void historyAndQuestionCountsAreAnsweredFromTheirIndexes() throws Exception {
+    List<String> history = record(() -> userService.findAttemptsByUser(user.getUsername(), PageRequest.of(0, 5)));
+    String page = history.stream().filter(sql -> sql.contains("from quiz_attempt_entity")).findFirst().orElseThrow();
+    assertThat(explain(page)).contains("idx_attempts_user_history");
+
+    List<String> count = record(() -> questionRepository.countByQuiz(quiz));
+    assertThat(explain(count.get(0))).contains("quiz_id = ?1");
+  }
+
+  @Test
+  void wholeTableReadsAreTheOnlyScans() throws Exception {
+    // Both read every live quiz, either from the table or from the index of live quizzes.
+    String[] everyLiveQuiz = {"quizzes.tableScan", "idx_quizzes_live: deleted = FALSE"};
+    // Every live title is read once at startup to build the suggestion index.
+    assertThat(explain(record(() -> quizRepository.findAllTitles()).get(0))).containsAnyOf(everyLiveQuiz);
+    // Substring search can not use a B-tree index; prefixes are served by the suggestion index.
+    List<String> filter = record(() -> quizRepository.findByCategoriesInOrTitleContaining("Plan", PageRequest.of(0, 5)));
+    assertThat(explain(filter.get(0))).containsAnyOf(everyLiveQuiz);
+  }
+}
@@ -0,0 +1,58 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.search;
+
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.dto.SuggestionDto;
+import edu.ntnu.fullstack.prosjekt.quizzer.enums.SuggestionType;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QuizSuggestionIndexTest {
+
+  QuizSuggestionIndex index;
+
+  @BeforeEach
+  void setUp() {
+    index = new QuizSuggestionIndex(null, null, null);
+    index.addQuiz(1L, "Shark Quiz", List.of("Nature"));
+    index.addQuiz(2L, "Shakespeare Plays", List.of("Literature"));
+    index.addQuiz(3L, "World History", List.of("History"));
+  }
+
+  @Test
+  void suggestsByPrefixOrderedByPopularity() {
+    index.recordAttempt(2L);
+
+    List<SuggestionDto> suggestions = index.suggest("Sha", 10);
+
+    assertThat(suggestions).extracting(SuggestionDto::getQuizId).containsExactly(2L, 1L);
+  }
+
+  @Test
+  void suggestsTitlesByLaterWordsAndCategories() {
+    List<SuggestionDto> suggestions = index.suggest("hist", 10);
+
+    assertThat(suggestions).extracting(SuggestionDto::getText)
+            .containsExactlyInAnyOrder("World History", "History");
+    assertThat(suggestions).extracting(SuggestionDto::getType)
+            .contains(SuggestionType.QUIZ, SuggestionType.CATEGORY);
+  }
+
+  @Test
+  void removedQuizzesAreNoLongerSuggested() {
+    int nodesBefore = index.stats().getNodes();
+
+    index.removeQuiz(1L, List.of("Nature"));
+
+    assertThat(index.suggest("shark", 10)).isEmpty();
+    assertThat(index.suggest("sha", 10)).extracting(SuggestionDto::getQuizId).containsExactly(2L);
+    assertThat(index.stats().getNodes()).isLessThan(nodesBefore);
+  }
+
+  @Test
+  void limitsAmountOfSuggestions() {
+    assertThat(index.suggest("s", 1)).hasSize(1);
+    assertThat(index.suggest("x", 10)).isEmpty();
+  }
+}
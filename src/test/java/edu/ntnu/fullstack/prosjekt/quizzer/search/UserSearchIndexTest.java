@@ -0,0 +1,51 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.search;
+
+import edu.ntnu.fullstack.prosjekt.quizzer.domain.entities.UserEntity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserSearchIndexTest {
+
+  UserSearchIndex index;
+
+  @BeforeEach
+  void setUp() {
+    index = new UserSearchIndex(null);
+    index.index(UserEntity.builder().username("andgjers").fullName("Andreas Gjersøe").build());
+    index.index(UserEntity.builder().username("Supermario").fullName("Mario Piereluigi Calcone").build());
+    index.index(UserEntity.builder().username("mario").fullName("Mario Mario").build());
+  }
+
+  @Test
+  void searchRanksExactUsernameFirst() {
+    UserSearchIndex.Result result = index.search("Mario", 0, 10);
+
+    assertThat(result.total()).isEqualTo(2);
+    assertThat(result.usernames()).containsExactly("mario", "Supermario");
+  }
+
+  @Test
+  void shortQueriesMatchWordPrefixes() {
+    assertThat(index.search("g", 0, 10).usernames()).containsExactly("andgjers");
+    assertThat(index.search("ca", 0, 10).usernames()).containsExactly("Supermario");
+  }
+
+  @Test
+  void searchIsPaginated() {
+    UserSearchIndex.Result result = index.search("mar", 1, 1);
+
+    assertThat(result.total()).isEqualTo(2);
+    assertThat(result.usernames()).containsExactly("Supermario");
+  }
+
+  @Test
+  void reindexingReplacesOldFullName() {
+    index.index(UserEntity.builder().username("andgjers").fullName("Andy").build());
+
+    assertThat(index.search("gjersøe", 0, 10).total()).isZero();
+    assertThat(index.search("andy", 0, 10).usernames()).containsExactly("andgjers");
+    assertThat(index.size()).isEqualTo(3);
+  }
+}
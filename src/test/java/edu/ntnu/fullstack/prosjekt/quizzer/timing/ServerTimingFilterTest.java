@@ -0,0 +1,80 @@
+package edu.ntnu.fullstack.prosjekt.quizzer.timing;
+
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ServerTimingFilterTest {
+
+  private static final Pattern SERIALIZATION = Pattern.compile("json;desc=\"Response serialization \\(1\\)\";dur=([0-9.]+)");
+
+  private static double serializationMillis(String header) {
+    Matcher matcher = SERIALIZATION.matcher(header);
+    assertThat(matcher.find()).as(header).isTrue();
+    return Double.parseDouble(matcher.group(1));
+  }
+
+  @Test
+  void bodiesWrittenAfterTheCommitAreTimedInTheTrailer() throws Exception {
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    response.setBufferSize(1024);
+    TrailerResponse trailerResponse = new TrailerResponse(response);
+
+    new ServerTimingFilter(3_600_000, 0, 10).doFilter(new MockHttpServletRequest("GET", "/api/quizzes"),
+            trailerResponse, (request, chainResponse) -> {
+              RequestTiming.startSerialization();
+              chainResponse.getOutputStream().write(new byte[2048]);
+              try {
+                Thread.sleep(50);
+              } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+              }
+              chainResponse.getOutputStream().write(new byte[2048]);
+            });
+
+    assertThat(response.isCommitted()).isTrue();
+    assertThat(serializationMillis(response.getHeader(ServerTimingFilter.SERVER_TIMING))).isLessThan(50);
+    assertThat(response.getHeader("Trailer")).isEqualTo(ServerTimingFilter.SERVER_TIMING);
+    assertThat(serializationMillis(trailerResponse.trailers.get().get(ServerTimingFilter.SERVER_TIMING)))
+            .isGreaterThanOrEqualTo(50);
+  }
+
+  @Test
+  void smallBodiesAreTimedInTheHeader() throws Exception {
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    TrailerResponse trailerResponse = new TrailerResponse(response);
+
+    new ServerTimingFilter(3_600_000, 0, 10).doFilter(new MockHttpServletRequest("GET", "/api/quizzes"),
+            trailerResponse, (request, chainResponse) -> {
+              RequestTiming.startSerialization();
+              chainResponse.getOutputStream().write(new byte[16]);
+            });
+
+    assertThat(serializationMillis(response.getHeader(ServerTimingFilter.SERVER_TIMING))).isGreaterThanOrEqualTo(0);
+    assertThat(trailerResponse.trailers).isNull();
+  }
+
+  /**
+   * Keeps the trailer fields, which the mock response ignores.
+   */
+  private static final class TrailerResponse extends HttpServletResponseWrapper {
+
+    private Supplier<Map<String, String>> trailers;
+
+    TrailerResponse(MockHttpServletResponse response) {
+      super(response);
+    }
+
+    @Override
+    public void setTrailerFields(Supplier<Map<String, String>> supplier) {
+      trailers = supplier;
+    }
+  }
+}